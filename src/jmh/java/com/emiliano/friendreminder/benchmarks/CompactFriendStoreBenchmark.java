@@ -0,0 +1,85 @@
+package com.emiliano.friendreminder.benchmarks;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.emiliano.friendreminder.domain.entities.Friend;
+import com.emiliano.friendreminder.infrastructure.store.CompactFriendStore;
+
+/**
+ * Compares the heap taken by generated friends kept in a {@link List} of
+ * {@link Friend} with the heap taken by the same friends in a
+ * {@link CompactFriendStore}.
+ *
+ * Each call builds a new list or store of all the friends, so the
+ * 'gc.alloc.rate.norm' result of the GC profiler is the footprint of the
+ * friends in each one. The list is filled with friends read from a store, so
+ * every friend and string is a new object, as when they are loaded from a
+ * repository. The store is sized for the friends, and its result also counts
+ * the UTF-8 encoding of the strings, which is garbage once they are copied.
+ *
+ * @author Emiliano Pessoa
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CompactFriendStoreBenchmark {
+
+	@Param({ "100000", "1000000" })
+	int rows;
+
+	private List<Friend> friends;
+	private CompactFriendStore source;
+	private int arenaSize;
+
+	/**
+	 * Generates the friends and the store the list is read from.
+	 */
+	@Setup
+	public void setUp() {
+		friends = new FriendGenerator(LocalDate.now(), 10).friends(rows);
+		source = new CompactFriendStore();
+		friends.forEach(source::add);
+		arenaSize = friends.stream().mapToInt(f -> utf8Length(f.getFirstName()) + utf8Length(f.getLastName())
+				+ utf8Length(f.getEmail().getValue()) + utf8Length(f.getMobile().getValue())).sum();
+	}
+
+	@Benchmark
+	public List<Friend> list() {
+		List<Friend> list = new ArrayList<>(rows);
+		for (int i = 0; i < rows; i++) {
+			list.add(source.get(i));
+		}
+		return list;
+	}
+
+	@Benchmark
+	public CompactFriendStore store() {
+		CompactFriendStore store = new CompactFriendStore(rows, arenaSize);
+		friends.forEach(store::add);
+		return store;
+	}
+
+	private static int utf8Length(String value) {
+		return value.getBytes(StandardCharsets.UTF_8).length;
+	}
+
+}
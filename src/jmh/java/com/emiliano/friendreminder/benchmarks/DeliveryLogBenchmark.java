@@ -0,0 +1,88 @@
+package com.emiliano.friendreminder.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.emiliano.friendreminder.domain.valueobjects.Mobile;
+import com.emiliano.friendreminder.infrastructure.logging.DeliveryLogSink;
+import com.emiliano.friendreminder.infrastructure.logging.DeliveryLogTarget;
+import com.emiliano.friendreminder.infrastructure.services.impl.MessageServiceImpl;
+
+/**
+ * Benchmarks the SMS messages sent through the {@link MessageServiceImpl} by 4
+ * threads, recorded in a {@link DeliveryLogSink} writing to a file, against
+ * the synchronous logger calls it replaced.
+ *
+ * The sink keeps up to its capacity of records and samples or drops the rest,
+ * so its result is the cost to the callers.
+ *
+ * @author Emiliano Pessoa
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class DeliveryLogBenchmark {
+
+	private static final Logger logger = Logger.getLogger(DeliveryLogBenchmark.class.getName());
+
+	@Param({ "1", "10" })
+	int sampleRate;
+
+	private final Mobile mobile = new Mobile("+5511987654321");
+	private final String body = "Today is Jane Doe's birthday. Don't forget to send a message!";
+
+	private Path file;
+	private DeliveryLogSink sink;
+	private MessageServiceImpl messageService;
+
+	/**
+	 * Opens the delivery log in a temporary file.
+	 */
+	@Setup
+	public void setUp() throws IOException {
+		file = Files.createTempFile("deliveries", ".log");
+		sink = new DeliveryLogSink(DeliveryLogTarget.file(file), 65536, 1024, 0.75, sampleRate);
+		messageService = new MessageServiceImpl(sink);
+	}
+
+	/**
+	 * Closes the delivery log and deletes its file.
+	 */
+	@TearDown
+	public void tearDown() throws IOException {
+		sink.close();
+		Files.deleteIfExists(file);
+	}
+
+	@Benchmark
+	public void deliveryLog() {
+		messageService.sendSMS(mobile, "Birthday reminder", body);
+	}
+
+	@Benchmark
+	public void synchronousLogger() {
+		logger.info("\nSMS TO: " + mobile.getValue() + "\nSUBJECT:" + "Birthday reminder" + "\nBODY:" + body + "\n");
+	}
+
+}
@@ -0,0 +1,91 @@
+package com.emiliano.friendreminder.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.emiliano.friendreminder.infrastructure.entities.FriendEntity;
+import com.emiliano.friendreminder.infrastructure.repositories.FlatFileFriendEntityRepository;
+
+/**
+ * Benchmarks {@link FlatFileFriendEntityRepository#findAll()} on generated CSV
+ * files.
+ *
+ * The cold benchmark creates a new repository on each call, so the whole file
+ * is mapped and parsed, and the cached benchmark measures the calls that find
+ * the file unchanged.
+ *
+ * @author Emiliano Pessoa
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FlatFileRepositoryBenchmark {
+
+	@Param({ "1000", "100000", "1000000" })
+	int rows;
+
+	@Param({ "1", "0" })
+	int parallelism;
+
+	private Path file;
+	private FlatFileFriendEntityRepository cached;
+
+	/**
+	 * Writes the CSV file and reads it once with the cached repository.
+	 *
+	 * @throws IOException If there is an error writing the file.
+	 */
+	@Setup
+	public void setUp() throws IOException {
+		file = new FriendGenerator(LocalDate.now(), 10).writeCsv(rows);
+		cached = new FlatFileFriendEntityRepository(file, parallelism);
+		cached.findAll();
+	}
+
+	/**
+	 * Closes the cached repository and deletes the CSV file.
+	 *
+	 * @throws IOException If there is an error deleting the file.
+	 */
+	@TearDown
+	public void tearDown() throws IOException {
+		cached.close();
+		Files.deleteIfExists(file);
+	}
+
+	@Benchmark
+	public List<FriendEntity> findAllCold() throws IOException {
+		FlatFileFriendEntityRepository repository = new FlatFileFriendEntityRepository(file, parallelism);
+		try {
+			return repository.findAll();
+		} finally {
+			repository.close();
+		}
+	}
+
+	@Benchmark
+	public List<FriendEntity> findAllCached() {
+		return cached.findAll();
+	}
+
+}
@@ -0,0 +1,66 @@
+package com.emiliano.friendreminder.benchmarks;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.emiliano.friendreminder.domain.entities.FriendBuilder;
+import com.emiliano.friendreminder.infrastructure.entities.FriendEntity;
+
+/**
+ * Benchmarks {@link FriendBuilder#build()} on generated friends, which
+ * validates the email, the mobile number and the date of birth of each friend.
+ *
+ * Each call builds all the generated friends, so the time and the allocation
+ * of a single friend are the results divided by the number of rows.
+ *
+ * @author Emiliano Pessoa
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FriendBuilderBenchmark {
+
+	@Param({ "1000", "100000", "1000000" })
+	int rows;
+
+	private LocalDate referenceDate;
+	private List<FriendEntity> entities;
+
+	/**
+	 * Generates the fields of the friends.
+	 */
+	@Setup
+	public void setUp() {
+		FriendGenerator generator = new FriendGenerator(LocalDate.now(), 10);
+		referenceDate = generator.getReferenceDate();
+		entities = generator.entities(rows).toList();
+	}
+
+	@Benchmark
+	public void build(Blackhole blackhole) {
+		for (FriendEntity entity : entities) {
+			blackhole.consume(new FriendBuilder().setFirstName(entity.getFirstName())
+					.setLastName(entity.getLastName()).setDateOfBirth(entity.getDateOfBirth())
+					.setReferenceDate(referenceDate).setEmail(entity.getEmail()).setMobile(entity.getMobile())
+					.build());
+		}
+	}
+
+}
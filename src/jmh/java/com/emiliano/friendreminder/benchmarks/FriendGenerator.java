@@ -0,0 +1,163 @@
+package com.emiliano.friendreminder.benchmarks;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.MonthDay;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import com.emiliano.friendreminder.domain.entities.Friend;
+import com.emiliano.friendreminder.infrastructure.entities.FriendEntity;
+import com.emiliano.friendreminder.infrastructure.mappers.FriendMapper;
+
+/**
+ * Generates synthetic friends for the benchmarks.
+ *
+ * The friends are a deterministic function of their position, so every
+ * benchmark and fork sees the same data. The first friends celebrate their
+ * birthday on the reference date, and the others are spread over the other
+ * days of the year, so the number of birthdays of the day does not grow with
+ * the number of friends.
+ *
+ * @author Emiliano Pessoa
+ */
+public class FriendGenerator {
+
+	private static final String[] FIRST_NAMES = { "John", "Mary", "Carlos", "Ana", "Pedro", "Grace", "Ricardo",
+			"Janete", "Paulo", "Julia", "Marcos", "Lucia", "Rafael", "Beatriz", "Tiago", "Sofia" };
+	private static final String[] LAST_NAMES = { "Doe", "Ann", "Silva", "Santos", "Souza", "Kelly", "Smith",
+			"Grape", "Oliveira", "Costa", "Pereira", "Almeida", "Ferreira", "Gomes", "Ribeiro", "Martins" };
+	private static final String[] DOMAINS = { "foobar.com", "example.com", "test.org", "mail.com.br" };
+	private static final String[] CALLING_CODES = { "+1", "+44", "+55", "+91", "+351" };
+	private static final DateTimeFormatter CSV_DATE = DateTimeFormatter.ofPattern("yyyy/MM/dd");
+
+	private final LocalDate referenceDate;
+	private final int birthdays;
+
+	/**
+	 * Creates a new generator.
+	 *
+	 * @param referenceDate The date of the birthdays, and the reference date of
+	 *                      the generated friends.
+	 * @param birthdays     The number of friends who celebrate their birthday on
+	 *                      the reference date.
+	 */
+	public FriendGenerator(LocalDate referenceDate, int birthdays) {
+		this.referenceDate = referenceDate;
+		this.birthdays = birthdays;
+	}
+
+	/**
+	 * Gets the reference date of the generated friends.
+	 *
+	 * @return The reference date.
+	 */
+	public LocalDate getReferenceDate() {
+		return referenceDate;
+	}
+
+	/**
+	 * Generates the friend at a position.
+	 *
+	 * @param position The position of the friend.
+	 * @return A new {@link FriendEntity}.
+	 */
+	public FriendEntity entity(int position) {
+		long hash = mix(position);
+		String firstName = FIRST_NAMES[(int) (hash & 15)];
+		String lastName = LAST_NAMES[(int) ((hash >>> 4) & 15)];
+		String email = firstName.toLowerCase() + "." + lastName.toLowerCase() + position + "@"
+				+ DOMAINS[(int) ((hash >>> 8) & 3)];
+		String mobile = CALLING_CODES[(int) ((hash >>> 10) % CALLING_CODES.length)] + " "
+				+ (900000000 + position % 100000000);
+		return new FriendEntity(firstName, lastName, dateOfBirth(position, hash), email, mobile);
+	}
+
+	/**
+	 * Generates the friends of the positions 0 to rows - 1.
+	 *
+	 * @param rows The number of friends.
+	 * @return A stream of new {@link FriendEntity}.
+	 */
+	public Stream<FriendEntity> entities(int rows) {
+		return IntStream.range(0, rows).mapToObj(this::entity);
+	}
+
+	/**
+	 * Generates the friends of the positions 0 to rows - 1 as domain objects.
+	 *
+	 * @param rows The number of friends.
+	 * @return A list of new {@link Friend}.
+	 */
+	public List<Friend> friends(int rows) {
+		return entities(rows).map(e -> FriendMapper.toDomain(e, referenceDate)).toList();
+	}
+
+	/**
+	 * Writes the friends of the positions 0 to rows - 1 to a temporary CSV file,
+	 * in the format of the flat file repository.
+	 *
+	 * @param rows The number of friends.
+	 * @return The path of the new file.
+	 * @throws IOException If there is an error writing the file.
+	 */
+	public Path writeCsv(int rows) throws IOException {
+		Path file = Files.createTempFile("friends-" + rows + "-", ".csv");
+		try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+			writer.write("last_name,first_name,date_of_birth,email,mobile\n");
+			for (int i = 0; i < rows; i++) {
+				FriendEntity friend = entity(i);
+				writer.write(friend.getLastName());
+				writer.write(',');
+				writer.write(friend.getFirstName());
+				writer.write(',');
+				writer.write(CSV_DATE.format(friend.getDateOfBirth()));
+				writer.write(',');
+				writer.write(friend.getEmail());
+				writer.write(',');
+				writer.write(friend.getMobile());
+				writer.write('\n');
+			}
+		}
+		return file;
+	}
+
+	private LocalDate dateOfBirth(int position, long hash) {
+		if (position < birthdays) {
+			return referenceDate.minusYears(20 + position % 50);
+		}
+		int year = 1950 + (int) ((hash >>> 16) % 55);
+		LocalDate date = LocalDate.ofYearDay(year, 1 + (int) ((hash >>> 24) % 365));
+		if (celebratesOnReferenceDate(date)) {
+			date = date.plusDays(1);
+		}
+		return date;
+	}
+
+	private boolean celebratesOnReferenceDate(LocalDate date) {
+		MonthDay day = MonthDay.from(date);
+		if (day.equals(MonthDay.from(referenceDate))) {
+			return true;
+		}
+		// February 29th is celebrated on February 28th in non-leap years.
+		return day.equals(MonthDay.of(2, 29)) && !referenceDate.isLeapYear()
+				&& MonthDay.from(referenceDate).equals(MonthDay.of(2, 28));
+	}
+
+	/**
+	 * The SplitMix64 finalizer, a cheap and well distributed hash of the position.
+	 */
+	private static long mix(long value) {
+		long z = value + 0x9E3779B97F4A7C15L;
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return (z ^ (z >>> 31)) & Long.MAX_VALUE;
+	}
+
+}
@@ -0,0 +1,145 @@
+package com.emiliano.friendreminder.benchmarks;
+
+import java.time.LocalDate;
+import java.time.MonthDay;
+import java.time.Year;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.emiliano.friendreminder.domain.entities.Friend;
+import com.emiliano.friendreminder.domain.repositories.FriendRepository;
+import com.emiliano.friendreminder.domain.services.FriendService;
+import com.emiliano.friendreminder.domain.services.MessageService;
+import com.emiliano.friendreminder.domain.services.impl.FriendServiceBuilder;
+import com.emiliano.friendreminder.domain.valueobjects.Email;
+import com.emiliano.friendreminder.domain.valueobjects.Mobile;
+
+/**
+ * Benchmarks the {@link FriendService} on generated friends, kept in memory by
+ * the repository, with a {@link MessageService} that only counts the messages.
+ *
+ * The generated friends have a fixed number of birthdays on the day, so the
+ * messages sent grow linearly with the number of friends.
+ *
+ * @author Emiliano Pessoa
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FriendServiceBenchmark {
+
+	@Param({ "1000", "100000", "1000000" })
+	int rows;
+
+	@Param({ "10" })
+	int birthdays;
+
+	@Param({ "false", "true" })
+	boolean digest;
+
+	private FriendService friendService;
+	private CountingMessageService messageService;
+
+	/**
+	 * Generates the friends and creates the service.
+	 */
+	@Setup
+	public void setUp() {
+		FriendGenerator generator = new FriendGenerator(LocalDate.now(), birthdays);
+		messageService = new CountingMessageService();
+		friendService = new FriendServiceBuilder().setMessageService(messageService).setDigest(digest)
+				.setRepositories(new GeneratedFriendRepository(generator.friends(rows), generator.getReferenceDate()))
+				.build();
+	}
+
+	@Benchmark
+	public List<Friend> findAllFriends() {
+		return friendService.findAllFriends();
+	}
+
+	@Benchmark
+	public List<Friend> findTodayBirthdays() {
+		return friendService.findTodayBirthdays();
+	}
+
+	@Benchmark
+	public long sendBirthdayMessages() {
+		friendService.sendBirthdayMessages();
+		return messageService.characters;
+	}
+
+	/**
+	 * A repository of friends kept in memory, with the birthdays grouped by
+	 * their celebration day in the year of the reference date.
+	 */
+	static class GeneratedFriendRepository implements FriendRepository {
+
+		private final List<Friend> friends;
+		private final Map<MonthDay, List<Friend>> celebrations;
+
+		GeneratedFriendRepository(List<Friend> friends, LocalDate referenceDate) {
+			this.friends = friends;
+			this.celebrations = new HashMap<>(friends.stream().collect(Collectors.groupingBy(
+					f -> MonthDay.from(f.getDateOfBirth().getCelebrationDate(referenceDate.getYear())))));
+		}
+
+		@Override
+		public List<Friend> findByMonthOfBirth(int month) {
+			return friends.stream().filter(f -> f.getDateOfBirth().getValue().getMonthValue() == month).toList();
+		}
+
+		@Override
+		public List<Friend> findByCelebrationDay(MonthDay day, Year year) {
+			return celebrations.getOrDefault(day, List.of());
+		}
+
+		@Override
+		public List<Friend> findAll() {
+			return friends;
+		}
+
+		@Override
+		public Stream<Friend> streamAll() {
+			return friends.stream();
+		}
+	}
+
+	/**
+	 * A {@link MessageService} that only counts the characters of the messages,
+	 * so their rendering is not optimized away.
+	 */
+	static class CountingMessageService implements MessageService {
+
+		long characters = 0;
+
+		@Override
+		public void sendSMS(Mobile mobile, String subject, String body) {
+			characters += body.length();
+		}
+
+		@Override
+		public void sendEmail(Email email, String subject, String body) {
+			characters += body.length();
+		}
+	}
+
+}
@@ -0,0 +1,143 @@
+package com.emiliano.friendreminder.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+import com.emiliano.friendreminder.domain.entities.Friend;
+import com.emiliano.friendreminder.domain.valueobjects.validation.MobileNumberRules;
+import com.emiliano.friendreminder.domain.valueobjects.validation.MobileNumberValidator;
+import com.emiliano.friendreminder.infrastructure.SQLiteDataSourceConfiguration;
+import com.emiliano.friendreminder.infrastructure.entities.FriendEntity;
+import com.emiliano.friendreminder.infrastructure.entities.FriendRow;
+import com.emiliano.friendreminder.infrastructure.imports.FriendImportService;
+import com.emiliano.friendreminder.infrastructure.mappers.FriendMapper;
+import com.emiliano.friendreminder.infrastructure.repositories.SQLiteFriendEntityRepository;
+
+/**
+ * Benchmarks the scan of all the friends of a SQLite database, mapped to
+ * {@link Friend} objects: from all the managed {@link FriendEntity} objects of
+ * the table, as they were read before the projections, from the detached
+ * entities of the keyset pages, and from the {@link FriendRow} projections.
+ *
+ * The repositories run in a Spring context with only the SQLite and JPA
+ * configuration, on a temporary database filled with generated friends.
+ *
+ * @author Emiliano Pessoa
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class SQLiteProjectionBenchmark {
+
+	@Param({ "1000", "100000", "1000000" })
+	int rows;
+
+	private Path directory;
+	private ConfigurableApplicationContext context;
+	private SQLiteFriendEntityRepository repository;
+
+	/**
+	 * Starts the Spring context on a new database and imports the generated
+	 * friends.
+	 *
+	 * @throws IOException If the database directory cannot be created.
+	 */
+	@Setup
+	public void setUp() throws IOException {
+		directory = Files.createTempDirectory("friend-benchmark");
+		context = new SpringApplicationBuilder(BenchmarkConfiguration.class).web(WebApplicationType.NONE)
+				.run("--spring.datasource.url=jdbc:sqlite:" + directory.resolve("friends.db"));
+		context.getBean(FriendImportService.class)
+				.importFriends(new FriendGenerator(LocalDate.now(), 10).entities(rows));
+		repository = context.getBean(SQLiteFriendEntityRepository.class);
+	}
+
+	/**
+	 * Closes the Spring context and deletes the database.
+	 *
+	 * @throws IOException If the database cannot be deleted.
+	 */
+	@TearDown
+	public void tearDown() throws IOException {
+		context.close();
+		try (Stream<Path> files = Files.list(directory)) {
+			for (Path file : files.toList()) {
+				Files.delete(file);
+			}
+		}
+		Files.delete(directory);
+	}
+
+	/**
+	 * The path the friends were read by before the projections: all the managed
+	 * entities of the table, mapped to friends.
+	 */
+	@Benchmark
+	public void findAllEntities(Blackhole blackhole) {
+		FriendMapper.toDomainList(repository.findAll()).forEach(blackhole::consume);
+	}
+
+	@Benchmark
+	public void streamEntities(Blackhole blackhole) {
+		LocalDate referenceDate = LocalDate.now();
+		try (Stream<FriendEntity> friends = repository.streamAll()) {
+			friends.map(f -> FriendMapper.toDomain(f, referenceDate)).forEach(blackhole::consume);
+		}
+	}
+
+	@Benchmark
+	public void streamRows(Blackhole blackhole) {
+		LocalDate referenceDate = LocalDate.now();
+		try (Stream<FriendRow> friends = repository.streamAllRows()) {
+			friends.map(f -> FriendMapper.toDomain(f, referenceDate)).forEach(blackhole::consume);
+		}
+	}
+
+	/**
+	 * The SQLite and JPA configuration of the application, without its services
+	 * and schedulers.
+	 */
+	@SpringBootConfiguration
+	@EnableAutoConfiguration
+	@EntityScan(basePackageClasses = FriendEntity.class)
+	@EnableJpaRepositories(basePackageClasses = SQLiteFriendEntityRepository.class)
+	@Import({ SQLiteDataSourceConfiguration.class, FriendImportService.class })
+	static class BenchmarkConfiguration {
+
+		@Bean
+		MobileNumberValidator mobileNumberValidator() {
+			return new MobileNumberValidator(MobileNumberRules.NONE);
+		}
+	}
+
+}
@@ -0,0 +1,146 @@
+package com.emiliano.friendreminder.benchmarks;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.emiliano.friendreminder.domain.valueobjects.Email;
+import com.emiliano.friendreminder.domain.valueobjects.Mobile;
+import com.emiliano.friendreminder.domain.valueobjects.validation.EmailValidator;
+import com.emiliano.friendreminder.domain.valueobjects.validation.MobileNumberRule;
+import com.emiliano.friendreminder.domain.valueobjects.validation.MobileNumberRules;
+import com.emiliano.friendreminder.domain.valueobjects.validation.MobileNumberValidator;
+import com.emiliano.friendreminder.infrastructure.entities.FriendEntity;
+
+/**
+ * Benchmarks the validation of the {@link Email} and {@link Mobile} values with
+ * the {@link EmailValidator} and {@link MobileNumberValidator} scanners,
+ * against the regular expressions they replaced, compiled once and compiled on
+ * each call as they used to be.
+ *
+ * One in ten generated values is made invalid. Each call validates all the
+ * generated values and returns the number of valid ones. The scanner also
+ * checks the mobile numbers against a {@link MobileNumberRule} for each of the
+ * generated calling codes.
+ *
+ * @author Emiliano Pessoa
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ValidationBenchmark {
+
+	private static final String EMAIL_REGEX = "^[\\w-_.+]*[\\w-_.]@([\\w]+\\.)+[\\w]+[\\w]$";
+	private static final String MOBILE_REGEX = "^(?:\\+\\d{1,3}|0\\d{1,3}|00\\d{1,2})?(?:\\s?\\(\\d+\\))?(?:[-\\/\\s.]|\\d)+$";
+	private static final Pattern EMAIL_PATTERN = Pattern.compile(EMAIL_REGEX);
+	private static final Pattern MOBILE_PATTERN = Pattern.compile(MOBILE_REGEX);
+
+	@Param({ "1000", "100000", "1000000" })
+	int rows;
+
+	private final MobileNumberValidator mobileNumberValidator = new MobileNumberValidator(
+			new MobileNumberRules(List.of(new MobileNumberRule("1", 9, 10), new MobileNumberRule("44", 9, 10),
+					new MobileNumberRule("55", 9, 11), new MobileNumberRule("91", 9, 10),
+					new MobileNumberRule("351", 9, 9))));
+	private String[] emails;
+	private String[] mobiles;
+
+	/**
+	 * Generates the emails and mobile numbers.
+	 */
+	@Setup
+	public void setUp() {
+		FriendGenerator generator = new FriendGenerator(LocalDate.now(), 10);
+		emails = new String[rows];
+		mobiles = new String[rows];
+		for (int i = 0; i < rows; i++) {
+			FriendEntity entity = generator.entity(i);
+			boolean invalid = i % 10 == 9;
+			emails[i] = invalid ? entity.getEmail().replace('@', ' ') : entity.getEmail();
+			mobiles[i] = invalid ? entity.getMobile() + "x" : entity.getMobile();
+		}
+	}
+
+	@Benchmark
+	public int emailScanner() {
+		int valid = 0;
+		for (String email : emails) {
+			if (EmailValidator.isValid(email)) {
+				valid++;
+			}
+		}
+		return valid;
+	}
+
+	@Benchmark
+	public int emailPattern() {
+		int valid = 0;
+		for (String email : emails) {
+			if (EMAIL_PATTERN.matcher(email).matches()) {
+				valid++;
+			}
+		}
+		return valid;
+	}
+
+	@Benchmark
+	public int emailPatternCompiledPerCall() {
+		int valid = 0;
+		for (String email : emails) {
+			if (Pattern.compile(EMAIL_REGEX).matcher(email).matches()) {
+				valid++;
+			}
+		}
+		return valid;
+	}
+
+	@Benchmark
+	public int mobileScanner() {
+		int valid = 0;
+		for (String mobile : mobiles) {
+			if (mobileNumberValidator.isValid(mobile)) {
+				valid++;
+			}
+		}
+		return valid;
+	}
+
+	@Benchmark
+	public int mobilePattern() {
+		int valid = 0;
+		for (String mobile : mobiles) {
+			if (MOBILE_PATTERN.matcher(mobile).matches()) {
+				valid++;
+			}
+		}
+		return valid;
+	}
+
+	@Benchmark
+	public int mobilePatternCompiledPerCall() {
+		int valid = 0;
+		for (String mobile : mobiles) {
+			if (Pattern.compile(MOBILE_REGEX).matcher(mobile).matches()) {
+				valid++;
+			}
+		}
+		return valid;
+	}
+
+}
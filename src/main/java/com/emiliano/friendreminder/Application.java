@@ -1,8 +1,7 @@
 package com.emiliano.friendreminder;
 
 import java.time.LocalDate;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.stream.Stream;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
@@ -11,7 +10,7 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.scheduling.annotation.EnableScheduling;
 
 import com.emiliano.friendreminder.infrastructure.entities.FriendEntity;
-import com.emiliano.friendreminder.infrastructure.repositories.SQLiteFriendEntityRepository;
+import com.emiliano.friendreminder.infrastructure.imports.FriendImportService;
 import com.emiliano.friendreminder.infrastructure.schedulers.FriendScheduler;
 
 /**
@@ -21,15 +20,17 @@ import com.emiliano.friendreminder.infrastructure.schedulers.FriendScheduler;
  * 
  * The class implements the CommandLineRunner interface, which allows it to run
  * the 'createSampleData' method once the application has started. This method
- * adds some sample friends to the SQLite database for testing purposes.
+ * adds some sample friends to the SQLite database for testing purposes, with the
+ * {@link FriendImportService}.
  * 
  * The class also uses the @SpringBootApplication annotation to enable Spring
  * Boot auto-configuration, and the
  * 
  * @EnableScheduling annotation to enable scheduling of the
- *                   {@link FriendScheduler} class. When initializing the
- *                   {@link FriendScheduler} scheduler, it is called every 24
- *                   hours, starting 3 seconds after the application starts.
+ *                   {@link FriendScheduler} class. When the application is
+ *                   ready, the {@link FriendScheduler} scheduler catches up on
+ *                   the days missed while it was not running, and then checks
+ *                   each time zone every day at its local send time.
  * 
  * @author Emiliano Pessoa
  */
@@ -37,17 +38,18 @@ import com.emiliano.friendreminder.infrastructure.schedulers.FriendScheduler;
 @EnableScheduling
 public class Application implements CommandLineRunner {
 
-	private SQLiteFriendEntityRepository sqliteRepository;
+	private FriendImportService importService;
 
 	/**
-	 * Creates a new BirthdayReminderApplication object with the specified
-	 * repository.
+	 * Creates a new BirthdayReminderApplication object with the specified import
+	 * service.
 	 * 
-	 * @param repository the repository used to access friend data in the database
+	 * @param importService the service used to import friend data into the
+	 *                      database
 	 */
 	@Autowired
-	public Application(SQLiteFriendEntityRepository repository) {
-		this.sqliteRepository = repository;
+	public Application(FriendImportService importService) {
+		this.importService = importService;
 	}
 
 	/**
@@ -72,24 +74,16 @@ public class Application implements CommandLineRunner {
 	}
 
 	/**
-	 * Adds some sample friends to the SQLite database for testing purposes.
+	 * Adds some sample friends to the SQLite database for testing purposes. The
+	 * friends already in the database are updated, matched by email.
 	 */
 	private void createSampleData() {
-		List<FriendEntity> friends = new ArrayList<>();
-		friends.add(new FriendEntity("Carlos", "Silva", LocalDate.of(1980, 5, 15), "carlos.silva@test.com",
-				"+55 11 987654321"));
-		friends.add(new FriendEntity("Ana", "Santos", LocalDate.of(1990, 9, 30), "ana.santos@test.com",
-				"+55 27 912345678"));
-		friends.add(new FriendEntity("Pedro", "Souza", LocalDate.now().minusYears(30), "pedro.souza@test.com",
-				"+55 21 998877665"));
-		// save the sample friends to the repository
-		List<FriendEntity> existingFriends = sqliteRepository.findAll();
-		friends.forEach(f -> {
-			if (!existingFriends.contains(f)) {
-				sqliteRepository.save(f);
-				existingFriends.add(f);
-				System.out.println("");
-			}
-		});
+		importService.importFriends(Stream.of(
+				new FriendEntity("Carlos", "Silva", LocalDate.of(1980, 5, 15), "carlos.silva@test.com",
+						"+55 11 987654321"),
+				new FriendEntity("Ana", "Santos", LocalDate.of(1990, 9, 30), "ana.santos@test.com",
+						"+55 27 912345678"),
+				new FriendEntity("Pedro", "Souza", LocalDate.now().minusYears(30), "pedro.souza@test.com",
+						"+55 21 998877665")));
 	}
 }
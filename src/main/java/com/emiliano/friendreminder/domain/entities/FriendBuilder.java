@@ -1,7 +1,6 @@
 package com.emiliano.friendreminder.domain.entities;
 
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
 
 import com.emiliano.friendreminder.domain.valueobjects.DateOfBirth;
 import com.emiliano.friendreminder.domain.valueobjects.Email;
@@ -18,6 +17,8 @@ public class FriendBuilder {
 	private String lastName;
 	private String dateOfBirthString;
 	private String dateOFBirthFormat;
+	private LocalDate dateOfBirth;
+	private LocalDate referenceDate;
 	private String emailString;
 	private String mobileString;
 
@@ -53,6 +54,7 @@ public class FriendBuilder {
 	public FriendBuilder setDateOfBirth(String dateOfBirthString, String dateOFBirthFormat) {
 		this.dateOfBirthString = dateOfBirthString;
 		this.dateOFBirthFormat = dateOFBirthFormat;
+		this.dateOfBirth = null;
 		return this;
 	}
 
@@ -63,8 +65,22 @@ public class FriendBuilder {
 	 * @return This builder instance.
 	 */
 	public FriendBuilder setDateOfBirth(LocalDate dateOfBirth) {
-		this.dateOFBirthFormat = "yyyy/MM/dd";
-		this.dateOfBirthString = dateOfBirth.format(DateTimeFormatter.ofPattern(dateOFBirthFormat));
+		this.dateOfBirth = dateOfBirth;
+		this.dateOfBirthString = null;
+		this.dateOFBirthFormat = null;
+		return this;
+	}
+
+	/**
+	 * Sets the date the date of birth is validated on (today by default). Setting
+	 * the same reference date on a batch of friends avoids reading the clock for
+	 * each one.
+	 *
+	 * @param referenceDate The reference date, or null to use today.
+	 * @return This builder instance.
+	 */
+	public FriendBuilder setReferenceDate(LocalDate referenceDate) {
+		this.referenceDate = referenceDate;
 		return this;
 	}
 
@@ -98,7 +114,9 @@ public class FriendBuilder {
 	 *                                  missing or invalid.
 	 */
 	public Friend build() throws IllegalArgumentException {
-		DateOfBirth dateOfBirth = new DateOfBirth(dateOfBirthString, dateOFBirthFormat);
+		LocalDate reference = referenceDate != null ? referenceDate : LocalDate.now();
+		DateOfBirth dateOfBirth = this.dateOfBirth != null ? new DateOfBirth(this.dateOfBirth, reference)
+				: new DateOfBirth(dateOfBirthString, dateOFBirthFormat, reference);
 		Email email = new Email(emailString);
 		Mobile mobile = new Mobile(mobileString);
 		return new Friend(firstName, lastName, dateOfBirth, email, mobile);
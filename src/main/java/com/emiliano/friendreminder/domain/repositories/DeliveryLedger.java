@@ -0,0 +1,35 @@
+package com.emiliano.friendreminder.domain.repositories;
+
+import java.util.Collection;
+import java.util.Set;
+
+import com.emiliano.friendreminder.domain.valueobjects.Delivery;
+
+/**
+ * DeliveryLedger interface provides the contract for recording the messages
+ * already delivered, so a run that is repeated or resumed does not send them
+ * again.
+ *
+ * Both methods work on batches of deliveries, so implementations can check and
+ * record them with a few queries.
+ *
+ * @author Emiliano Pessoa
+ */
+public interface DeliveryLedger {
+
+	/**
+	 * Finds which of the given deliveries were recorded.
+	 *
+	 * @param deliveries The deliveries to check.
+	 * @return The recorded deliveries among the given ones.
+	 */
+	Set<Delivery> findDelivered(Collection<Delivery> deliveries);
+
+	/**
+	 * Records deliveries. Deliveries already recorded are ignored.
+	 *
+	 * @param deliveries The delivered messages.
+	 */
+	void record(Collection<Delivery> deliveries);
+
+}
@@ -1,6 +1,9 @@
 package com.emiliano.friendreminder.domain.repositories;
 
+import java.time.MonthDay;
+import java.time.Year;
 import java.util.List;
+import java.util.stream.Stream;
 
 import com.emiliano.friendreminder.domain.entities.Friend;
 
@@ -19,6 +22,17 @@ public interface FriendRepository {
 	 */
 	List<Friend> findByMonthOfBirth(int month);
 
+	/**
+	 * Finds all friends who celebrate their birthday on the specified day of the
+	 * specified year. Friends born on February 29th celebrate on February 28th in
+	 * non-leap years.
+	 *
+	 * @param day  The month and day of the celebration.
+	 * @param year The year of the celebration.
+	 * @return A list of friends who celebrate their birthday on the specified day.
+	 */
+	List<Friend> findByCelebrationDay(MonthDay day, Year year);
+
 	/**
 	 * Retrieves all friends from the data source.
 	 *
@@ -26,4 +40,14 @@ public interface FriendRepository {
 	 */
 	List<Friend> findAll();
 
+	/**
+	 * Streams all friends from the data source without materializing them in a
+	 * list. The stream may hold resources of the data source, such as an open
+	 * cursor, so it must be closed after use, preferably with a
+	 * try-with-resources statement.
+	 *
+	 * @return A stream of all friends.
+	 */
+	Stream<Friend> streamAll();
+
 }
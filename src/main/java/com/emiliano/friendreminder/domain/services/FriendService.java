@@ -1,6 +1,10 @@
 package com.emiliano.friendreminder.domain.services;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Predicate;
 
 import com.emiliano.friendreminder.domain.entities.Friend;
 
@@ -19,6 +23,17 @@ public interface FriendService {
 	 */
 	List<Friend> findAllFriends();
 
+	/**
+	 * Counts all friends by a key, in a single pass over the friends, without
+	 * keeping them in memory.
+	 * 
+	 * @param <K>        The type of the key.
+	 * @param classifier The function that returns the key of a friend.
+	 * @return The number of friends of each key. The keys without friends are
+	 *         missing.
+	 */
+	<K> Map<K, Long> countFriends(Function<Friend, K> classifier);
+
 	/**
 	 * Finds all friends who have birthdays today.
 	 * 
@@ -26,9 +41,39 @@ public interface FriendService {
 	 */
 	List<Friend> findTodayBirthdays();
 
+	/**
+	 * Finds all friends who celebrate their birthday on a date.
+	 * 
+	 * @param date The date of the birthdays.
+	 * @return A list of friends with birthdays on the date.
+	 */
+	List<Friend> findBirthdays(LocalDate date);
+
 	/**
 	 * Sends birthday messages to friends with birthdays today and birthday
 	 * reminders to other friends.
 	 */
 	void sendBirthdayMessages();
+
+	/**
+	 * Sends the birthday messages and reminders of the birthdays on a date to the
+	 * friends accepted by a filter. The reminders are about all the birthdays of
+	 * the date, including the birthdays of friends that are not accepted.
+	 * 
+	 * @param date       The date of the birthdays.
+	 * @param recipients The filter of the friends who receive the messages and
+	 *                   reminders.
+	 */
+	void sendBirthdayMessages(LocalDate date, Predicate<Friend> recipients);
+
+	/**
+	 * Sends the belated birthday messages of the birthdays on a past date to the
+	 * friends accepted by a filter. No reminders are sent, since the birthdays
+	 * have passed.
+	 * 
+	 * @param date       The date of the birthdays.
+	 * @param recipients The filter of the birthday friends who receive the
+	 *                   messages.
+	 */
+	void sendBelatedBirthdayMessages(LocalDate date, Predicate<Friend> recipients);
 }
\ No newline at end of file
@@ -0,0 +1,48 @@
+package com.emiliano.friendreminder.domain.services;
+
+import java.time.LocalDate;
+
+/**
+ * Receives the events of the {@link FriendService}, so the infrastructure can
+ * measure its work without the domain depending on a metrics library.
+ *
+ * All the methods do nothing by default, and are called on the thread that
+ * called the service.
+ *
+ * @author Emiliano Pessoa
+ */
+public interface FriendServiceListener {
+
+	/**
+	 * A listener that ignores all the events.
+	 */
+	FriendServiceListener NONE = new FriendServiceListener() {
+	};
+
+	/**
+	 * Called when friends were read from the repositories, before the duplicates
+	 * are merged.
+	 *
+	 * @param count The number of friends read.
+	 */
+	default void friendsLoaded(long count) {
+	}
+
+	/**
+	 * Called when duplicated friends were merged.
+	 *
+	 * @param count The number of duplicates discarded.
+	 */
+	default void friendsDeduplicated(long count) {
+	}
+
+	/**
+	 * Called when the birthdays of a date were found.
+	 *
+	 * @param date  The date of the birthdays.
+	 * @param count The number of friends with a birthday on the date.
+	 */
+	default void birthdaysFound(LocalDate date, int count) {
+	}
+
+}
@@ -1,5 +1,10 @@
 package com.emiliano.friendreminder.domain.services;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import com.emiliano.friendreminder.domain.services.UndeliveredMessagesException.Envelope;
+import com.emiliano.friendreminder.domain.valueobjects.Channel;
 import com.emiliano.friendreminder.domain.valueobjects.Email;
 import com.emiliano.friendreminder.domain.valueobjects.Mobile;
 
@@ -28,4 +33,49 @@ public interface MessageService {
 	 * @param body    The body of the email.
 	 */
 	void sendEmail(Email email, String subject, String body);
+
+	/**
+	 * Sends a batch of messages. Gateways that accept several messages in a
+	 * single request should override it; by default the messages are sent one by
+	 * one, and a message that fails does not stop the others.
+	 * 
+	 * @param messages The messages to send, usually of the same channel.
+	 * @throws UndeliveredMessagesException If some of the messages could not be
+	 *                                      sent, listing them. The others were
+	 *                                      sent.
+	 */
+	default void sendBatch(List<Envelope> messages) {
+		List<Envelope> failures = new ArrayList<>();
+		RuntimeException firstFailure = null;
+		for (Envelope message : messages) {
+			try {
+				if (message.channel() == Channel.SMS) {
+					sendSMS(new Mobile(message.recipient()), message.subject(), message.body());
+				} else {
+					sendEmail(new Email(message.recipient()), message.subject(), message.body());
+				}
+			} catch (RuntimeException e) {
+				if (firstFailure == null) {
+					firstFailure = e;
+				}
+				failures.add(message);
+			}
+		}
+		if (!failures.isEmpty()) {
+			throw new UndeliveredMessagesException(failures, firstFailure);
+		}
+	}
+
+	/**
+	 * Waits until all the messages sent so far were delivered. Implementations
+	 * that deliver the messages before returning from the send methods do not need
+	 * to override it.
+	 * 
+	 * @throws UndeliveredMessagesException If some messages could not be
+	 *                                      delivered, listing them.
+	 * @throws RuntimeException             If the messages delivered are
+	 *                                      unknown.
+	 */
+	default void flush() {
+	}
 }
\ No newline at end of file
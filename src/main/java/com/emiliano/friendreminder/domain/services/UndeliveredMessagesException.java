@@ -0,0 +1,54 @@
+package com.emiliano.friendreminder.domain.services;
+
+import java.util.List;
+
+import com.emiliano.friendreminder.domain.valueobjects.Channel;
+
+/**
+ * Thrown by {@link MessageService#flush()} when some of the messages sent since
+ * the last flush could not be delivered, and by
+ * {@link MessageService#sendBatch(List)} when some messages of the batch could
+ * not be sent. The other messages were delivered, so the caller can record them
+ * before handling the failure.
+ *
+ * @author Emiliano Pessoa
+ */
+public class UndeliveredMessagesException extends IllegalStateException {
+
+	private static final long serialVersionUID = 1L;
+
+	private final transient List<Envelope> messages;
+
+	/**
+	 * Creates a new instance of UndeliveredMessagesException.
+	 *
+	 * @param messages The messages that could not be delivered.
+	 * @param cause    The error delivering the first of them.
+	 */
+	public UndeliveredMessagesException(List<Envelope> messages, Throwable cause) {
+		super(messages.size() + " messages could not be sent", cause);
+		this.messages = List.copyOf(messages);
+	}
+
+	/**
+	 * Returns the messages that could not be delivered.
+	 *
+	 * @return The undelivered messages.
+	 */
+	public List<Envelope> getMessages() {
+		return messages;
+	}
+
+	/**
+	 * Identifies a message sent through a {@link MessageService}.
+	 *
+	 * @param channel   The channel of the message.
+	 * @param recipient The address the message was sent to: the email address or
+	 *                  the mobile number, depending on the channel.
+	 * @param subject   The subject of the message.
+	 * @param body      The body of the message.
+	 */
+	public record Envelope(Channel channel, String recipient, String subject, String body) {
+	}
+
+}
@@ -0,0 +1,23 @@
+package com.emiliano.friendreminder.domain.services.fanout;
+
+/**
+ * Defines what the {@link RepositoryFanOut} does when a repository fails or
+ * does not answer within its timeout.
+ *
+ * @author Emiliano Pessoa
+ */
+public enum PartialResultsPolicy {
+
+	/**
+	 * The query fails with the error of the first repository, in the order of the
+	 * repositories, that failed or timed out.
+	 */
+	FAIL,
+
+	/**
+	 * The repositories that failed or timed out are logged and skipped, and the
+	 * query returns the results of the others.
+	 */
+	SKIP;
+
+}
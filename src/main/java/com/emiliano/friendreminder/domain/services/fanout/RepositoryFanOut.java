@@ -0,0 +1,123 @@
+package com.emiliano.friendreminder.domain.services.fanout;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.emiliano.friendreminder.domain.entities.Friend;
+import com.emiliano.friendreminder.domain.repositories.FriendRepository;
+
+/**
+ * Runs a query on several {@link FriendRepository} concurrently.
+ *
+ * Each repository is queried in a task of the executor, so the latency of a
+ * query is the latency of the slowest repository instead of the sum of all of
+ * them. The results are returned in the order of the repositories, whatever the
+ * order the tasks complete in, so the friends merged from them do not depend on
+ * the timing of the repositories.
+ *
+ * A repository that fails, or does not answer within the timeout counted from
+ * the start of the query, is handled by the {@link PartialResultsPolicy}.
+ * A query that times out is cancelled, but a repository that is already
+ * running keeps its thread until it returns. Without an executor, the
+ * repositories are queried one after another in the calling thread, and the
+ * timeout is not applied.
+ *
+ * @author Emiliano Pessoa
+ */
+public class RepositoryFanOut {
+
+	private static final Logger logger = Logger.getLogger(RepositoryFanOut.class.getName());
+
+	private final List<FriendRepository> repositories;
+	private final Executor executor;
+	private final Duration timeout;
+	private final PartialResultsPolicy policy;
+
+	/**
+	 * Creates a new instance of RepositoryFanOut.
+	 *
+	 * @param repositories The repositories to query.
+	 * @param executor     The executor the queries run on, or null to run them in
+	 *                     the calling thread.
+	 * @param timeout      The maximum time to wait for each repository.
+	 * @param policy       The policy for the repositories that fail or time out.
+	 */
+	public RepositoryFanOut(List<FriendRepository> repositories, Executor executor, Duration timeout,
+			PartialResultsPolicy policy) {
+		this.repositories = List.copyOf(repositories);
+		this.executor = executor;
+		this.timeout = timeout;
+		this.policy = policy;
+	}
+
+	/**
+	 * Runs a query on all the repositories.
+	 *
+	 * @param query The query to run on each repository.
+	 * @return The friends returned by each repository, in the order of the
+	 *         repositories. A skipped repository returns an empty list.
+	 * @throws RuntimeException If a repository fails or times out with the
+	 *                          {@link PartialResultsPolicy#FAIL} policy.
+	 */
+	public List<List<Friend>> query(Function<FriendRepository, List<Friend>> query) {
+		List<List<Friend>> results = new ArrayList<>(repositories.size());
+		if (executor == null || repositories.size() < 2) {
+			for (FriendRepository repository : repositories) {
+				try {
+					results.add(query.apply(repository));
+				} catch (RuntimeException e) {
+					results.add(handleFailure(repository, e));
+				}
+			}
+			return results;
+		}
+
+		long deadline = System.nanoTime() + timeout.toNanos();
+		List<CompletableFuture<List<Friend>>> futures = new ArrayList<>(repositories.size());
+		repositories.forEach(r -> futures.add(CompletableFuture.supplyAsync(() -> query.apply(r), executor)));
+		try {
+			for (int i = 0; i < futures.size(); i++) {
+				CompletableFuture<List<Friend>> future = futures.get(i);
+				try {
+					results.add(future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+				} catch (ExecutionException e) {
+					results.add(handleFailure(repositories.get(i), e.getCause()));
+				} catch (TimeoutException e) {
+					future.cancel(true);
+					results.add(handleFailure(repositories.get(i),
+							new TimeoutException("No answer within " + timeout.toMillis() + " ms")));
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("Interrupted while querying the repositories", e);
+		} finally {
+			futures.forEach(f -> f.cancel(true));
+		}
+		return results;
+	}
+
+	/**
+	 * Applies the policy to a repository that failed.
+	 *
+	 * @return An empty result, if the repository is skipped.
+	 */
+	private List<Friend> handleFailure(FriendRepository repository, Throwable cause) {
+		String source = repository.getClass().getSimpleName();
+		if (policy == PartialResultsPolicy.FAIL) {
+			throw new RuntimeException("Unable to query the repository " + source, cause);
+		}
+		logger.log(Level.WARNING, "Skipping the repository " + source + " in the results.", cause);
+		return List.of();
+	}
+
+}
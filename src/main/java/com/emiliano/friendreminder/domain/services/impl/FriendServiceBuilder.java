@@ -0,0 +1,217 @@
+package com.emiliano.friendreminder.domain.services.impl;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+import com.emiliano.friendreminder.domain.entities.Friend;
+
+import com.emiliano.friendreminder.domain.repositories.DeliveryLedger;
+import com.emiliano.friendreminder.domain.repositories.FriendRepository;
+import com.emiliano.friendreminder.domain.services.FriendServiceListener;
+import com.emiliano.friendreminder.domain.services.MessageService;
+import com.emiliano.friendreminder.domain.services.fanout.PartialResultsPolicy;
+import com.emiliano.friendreminder.domain.services.merge.MergePolicy;
+import com.emiliano.friendreminder.domain.services.templates.MessageTemplates;
+
+/**
+ * Builder class for the {@link FriendServiceImpl} service.
+ *
+ * @author Emiliano Pessoa
+ */
+public class FriendServiceBuilder {
+
+	MessageService messageService;
+	MergePolicy mergePolicy = MergePolicy.EXACT;
+	boolean digest = false;
+	List<FriendRepository> repositories = List.of();
+	Executor executor = null;
+	Duration sourceTimeout = Duration.ofSeconds(30);
+	PartialResultsPolicy partialResultsPolicy = PartialResultsPolicy.FAIL;
+	DeliveryLedger ledger = null;
+	int ledgerBatchSize = 500;
+	FriendServiceListener listener = FriendServiceListener.NONE;
+	MessageTemplates templates = MessageTemplates.defaults();
+	Function<Friend, Locale> localeResolver = f -> Locale.ROOT;
+
+	/**
+	 * Sets the message service used to send birthday messages and reminders.
+	 *
+	 * @param messageService The message service.
+	 * @return This builder instance.
+	 */
+	public FriendServiceBuilder setMessageService(MessageService messageService) {
+		this.messageService = messageService;
+		return this;
+	}
+
+	/**
+	 * Sets the policy used to merge friends found in more than one repository
+	 * ({@link MergePolicy#EXACT} by default).
+	 *
+	 * @param mergePolicy The merge policy.
+	 * @return This builder instance.
+	 */
+	public FriendServiceBuilder setMergePolicy(MergePolicy mergePolicy) {
+		this.mergePolicy = mergePolicy;
+		return this;
+	}
+
+	/**
+	 * Sets whether each friend receives a single reminder listing all the
+	 * birthdays of the day, instead of one reminder per birthday (disabled by
+	 * default).
+	 *
+	 * @param digest True to send one reminder per friend.
+	 * @return This builder instance.
+	 */
+	public FriendServiceBuilder setDigest(boolean digest) {
+		this.digest = digest;
+		return this;
+	}
+
+	/**
+	 * Sets the repositories to search for friends.
+	 *
+	 * @param repositories The repositories.
+	 * @return This builder instance.
+	 */
+	public FriendServiceBuilder setRepositories(FriendRepository... repositories) {
+		this.repositories = List.of(repositories);
+		return this;
+	}
+
+	/**
+	 * Sets the executor the repositories are queried on concurrently. Without an
+	 * executor, the repositories are queried one after another (the default).
+	 *
+	 * @param executor The executor, which should have a bounded number of threads.
+	 * @return This builder instance.
+	 */
+	public FriendServiceBuilder setExecutor(Executor executor) {
+		this.executor = executor;
+		return this;
+	}
+
+	/**
+	 * Sets the maximum time to wait for each repository when they are queried
+	 * concurrently (30 seconds by default).
+	 *
+	 * @param sourceTimeout The timeout of each repository.
+	 * @return This builder instance.
+	 */
+	public FriendServiceBuilder setSourceTimeout(Duration sourceTimeout) {
+		this.sourceTimeout = sourceTimeout;
+		return this;
+	}
+
+	/**
+	 * Sets what to do when a repository fails or times out
+	 * ({@link PartialResultsPolicy#FAIL} by default).
+	 *
+	 * @param partialResultsPolicy The partial results policy.
+	 * @return This builder instance.
+	 */
+	public FriendServiceBuilder setPartialResultsPolicy(PartialResultsPolicy partialResultsPolicy) {
+		this.partialResultsPolicy = partialResultsPolicy;
+		return this;
+	}
+
+	/**
+	 * Sets the ledger of the delivered messages, which are not sent again when a
+	 * run is repeated. Without a ledger, the messages are always sent (the
+	 * default).
+	 *
+	 * @param ledger The delivery ledger.
+	 * @return This builder instance.
+	 */
+	public FriendServiceBuilder setDeliveryLedger(DeliveryLedger ledger) {
+		this.ledger = ledger;
+		return this;
+	}
+
+	/**
+	 * Sets the number of messages checked, sent and recorded at a time with a
+	 * delivery ledger (500 by default).
+	 *
+	 * @param ledgerBatchSize The number of messages of each batch.
+	 * @return This builder instance.
+	 */
+	public FriendServiceBuilder setLedgerBatchSize(int ledgerBatchSize) {
+		this.ledgerBatchSize = ledgerBatchSize;
+		return this;
+	}
+
+	/**
+	 * Sets the listener of the events of the service
+	 * ({@link FriendServiceListener#NONE} by default).
+	 *
+	 * @param listener The listener.
+	 * @return This builder instance.
+	 */
+	public FriendServiceBuilder setListener(FriendServiceListener listener) {
+		this.listener = listener;
+		return this;
+	}
+
+	/**
+	 * Sets the templates of the messages ({@link MessageTemplates#defaults()} by
+	 * default).
+	 *
+	 * @param templates The message templates.
+	 * @return This builder instance.
+	 */
+	public FriendServiceBuilder setTemplates(MessageTemplates templates) {
+		this.templates = templates;
+		return this;
+	}
+
+	/**
+	 * Sets the function that gives the locale of the messages to a friend (the
+	 * root locale, which uses the default templates, by default).
+	 *
+	 * @param localeResolver The locale of each friend.
+	 * @return This builder instance.
+	 */
+	public FriendServiceBuilder setLocaleResolver(Function<Friend, Locale> localeResolver) {
+		this.localeResolver = localeResolver;
+		return this;
+	}
+
+	/**
+	 * Builds a new {@link FriendServiceImpl} instance from the set parameters.
+	 *
+	 * @return A new {@link FriendServiceImpl} instance.
+	 * @throws IllegalArgumentException If the message service, the merge policy,
+	 *                                  the partial results policy, the listener,
+	 *                                  the templates or the locale resolver is
+	 *                                  missing, or the source timeout or the
+	 *                                  ledger batch size is not positive.
+	 */
+	public FriendServiceImpl build() throws IllegalArgumentException {
+		if (messageService == null) {
+			throw new IllegalArgumentException("The message service is required");
+		}
+		if (mergePolicy == null) {
+			throw new IllegalArgumentException("The merge policy is required");
+		}
+		if (partialResultsPolicy == null) {
+			throw new IllegalArgumentException("The partial results policy is required");
+		}
+		if (listener == null) {
+			throw new IllegalArgumentException("The listener is required");
+		}
+		if (templates == null || localeResolver == null) {
+			throw new IllegalArgumentException("The templates and the locale resolver are required");
+		}
+		if (sourceTimeout == null || sourceTimeout.isNegative() || sourceTimeout.isZero()) {
+			throw new IllegalArgumentException("The source timeout must be positive");
+		}
+		if (ledgerBatchSize < 1) {
+			throw new IllegalArgumentException("The ledger batch size must be positive");
+		}
+		return new FriendServiceImpl(this);
+	}
+}
@@ -1,36 +1,103 @@
 package com.emiliano.friendreminder.domain.services.impl;
 
 import java.time.LocalDate;
+import java.time.MonthDay;
+import java.time.Year;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Optional;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
 
 import com.emiliano.friendreminder.domain.entities.Friend;
+import com.emiliano.friendreminder.domain.repositories.DeliveryLedger;
 import com.emiliano.friendreminder.domain.repositories.FriendRepository;
 import com.emiliano.friendreminder.domain.services.FriendService;
+import com.emiliano.friendreminder.domain.services.FriendServiceListener;
 import com.emiliano.friendreminder.domain.services.MessageService;
+import com.emiliano.friendreminder.domain.services.UndeliveredMessagesException;
+import com.emiliano.friendreminder.domain.services.UndeliveredMessagesException.Envelope;
+import com.emiliano.friendreminder.domain.services.fanout.RepositoryFanOut;
+import com.emiliano.friendreminder.domain.services.merge.FriendMerger;
+import com.emiliano.friendreminder.domain.services.merge.MergePolicy;
+import com.emiliano.friendreminder.domain.services.templates.MessageKind;
+import com.emiliano.friendreminder.domain.services.templates.MessageTemplates;
+import com.emiliano.friendreminder.domain.valueobjects.Channel;
+import com.emiliano.friendreminder.domain.valueobjects.Delivery;
 
 /**
  * Implements the FriendService interface and provides functionality for finding
  * friends with birthdays today and sending birthday messages and reminders.
  * 
+ * The repositories are searched through a {@link RepositoryFanOut}, which can
+ * query them concurrently. The friends are always merged in the order of the
+ * repositories.
+ * 
  * @author Emiliano Pessoa
  */
 public class FriendServiceImpl implements FriendService {
 
 	private List<FriendRepository> repositories = null;
 	private MessageService messageService = null;
+	private MergePolicy mergePolicy = null;
+	private boolean digest = false;
+	private RepositoryFanOut fanOut = null;
+	private DeliveryLedger ledger = null;
+	private int ledgerBatchSize = 0;
+	private FriendServiceListener listener = FriendServiceListener.NONE;
+	private MessageTemplates templates = null;
+	private Function<Friend, Locale> localeResolver = null;
 
 	/**
-	 * Creates a new instance of FriendServiceImpl.
+	 * Creates a new instance of FriendServiceImpl that merges duplicated friends
+	 * with the {@link MergePolicy#EXACT} policy.
 	 * 
 	 * @param messageService The message service to use for sending birthday
 	 *                       messages and reminders.
 	 * @param repositories   The repositories to search for friends.
 	 */
 	public FriendServiceImpl(MessageService messageService, FriendRepository... repositories) {
-		this.repositories = List.of(repositories);
-		this.messageService = messageService;
+		this(messageService, MergePolicy.EXACT, repositories);
+	}
+
+	/**
+	 * Creates a new instance of FriendServiceImpl.
+	 * 
+	 * @param messageService The message service to use for sending birthday
+	 *                       messages and reminders.
+	 * @param mergePolicy    The policy used to merge friends found in more than
+	 *                       one repository.
+	 * @param repositories   The repositories to search for friends.
+	 */
+	public FriendServiceImpl(MessageService messageService, MergePolicy mergePolicy,
+			FriendRepository... repositories) {
+		this(new FriendServiceBuilder().setMessageService(messageService).setMergePolicy(mergePolicy)
+				.setRepositories(repositories));
+	}
+
+	/**
+	 * Creates a new instance of FriendServiceImpl from the parameters of a
+	 * {@link FriendServiceBuilder}.
+	 * 
+	 * @param builder The builder with the parameters of the service.
+	 */
+	FriendServiceImpl(FriendServiceBuilder builder) {
+		this.repositories = builder.repositories;
+		this.messageService = builder.messageService;
+		this.mergePolicy = builder.mergePolicy;
+		this.digest = builder.digest;
+		this.ledger = builder.ledger;
+		this.ledgerBatchSize = builder.ledgerBatchSize;
+		this.listener = builder.listener;
+		this.templates = builder.templates;
+		this.localeResolver = builder.localeResolver;
+		this.fanOut = new RepositoryFanOut(builder.repositories, builder.executor, builder.sourceTimeout,
+				builder.partialResultsPolicy);
 	}
 
 	/**
@@ -40,12 +107,33 @@ public class FriendServiceImpl implements FriendService {
 	 */
 	@Override
 	public List<Friend> findAllFriends() {
-		List<Friend> friendList = new ArrayList<>();
+		return merge(fanOut.query(r -> {
+			try (Stream<Friend> friends = r.streamAll()) {
+				return friends.toList();
+			}
+		}));
+	}
+
+	/**
+	 * Counts the merged friends of all repositories by a key. The repositories are
+	 * streamed one after another, and only the counts are kept in memory.
+	 * 
+	 * @param classifier The function that returns the key of a friend.
+	 * @return The number of friends of each key.
+	 */
+	@Override
+	public <K> Map<K, Long> countFriends(Function<Friend, K> classifier) {
+		Map<K, Long> counts = new HashMap<>();
+		FriendMerger merger = new FriendMerger(mergePolicy);
+		long[] loaded = { 0 };
 		repositories.forEach(r -> {
-			// Find all friends in the repository, and add any new elements to friendList
-			r.findAll().stream().filter(f -> !friendList.contains(f)).forEach(friendList::add);
+			try (Stream<Friend> friends = r.streamAll()) {
+				friends.peek(f -> loaded[0]++).filter(merger::add)
+						.forEach(f -> counts.merge(classifier.apply(f), 1L, Long::sum));
+			}
 		});
-		return friendList;
+		report(loaded[0], merger.getDuplicates());
+		return counts;
 	}
 
 	/**
@@ -55,69 +143,300 @@ public class FriendServiceImpl implements FriendService {
 	 */
 	@Override
 	public List<Friend> findTodayBirthdays() {
-		int month = LocalDate.now().getMonthValue();
-		int year = LocalDate.now().getYear();
+		return findBirthdays(LocalDate.now());
+	}
 
-		List<Friend> birthdayList = new ArrayList<>();
-		repositories.forEach(r -> {
-			// Filter the list of friends by those who celebrate their birthday in this date
-			// and add to the birthday list if not already present.
-			r.findByMonthOfBirth(month).stream()
-					.filter(f -> !birthdayList.contains(f)
-							&& f.getDateOfBirth().getCelebrationDate(year).equals(LocalDate.now()))
-					.forEach(birthdayList::add);
-		});
+	/**
+	 * Returns a list of friends with birthdays on a date.
+	 * 
+	 * @param date The date of the birthdays.
+	 * @return A list of friends with birthdays on the date.
+	 */
+	@Override
+	public List<Friend> findBirthdays(LocalDate date) {
+		FriendMerger merger = new FriendMerger(mergePolicy);
+		List<Friend> birthdayFriends = findBirthdays(date, merger);
+		report(birthdayFriends.size() + merger.getDuplicates(), merger.getDuplicates());
+		listener.birthdaysFound(date, birthdayFriends.size());
+		return birthdayFriends;
+	}
+
+	/**
+	 * Finds the friends who celebrate their birthday on a date in all the
+	 * repositories, without reporting them to the listener.
+	 * 
+	 * @param date   The date of the birthdays.
+	 * @param merger The merger of the friends found in more than one repository.
+	 * @return The merged list of friends with birthdays on the date.
+	 */
+	private List<Friend> findBirthdays(LocalDate date, FriendMerger merger) {
+		MonthDay day = MonthDay.from(date);
+		Year year = Year.from(date);
+		return merge(fanOut.query(r -> r.findByCelebrationDay(day, year)), merger);
+	}
+
+	/**
+	 * Merges the friends found in each repository, in the order of the
+	 * repositories, and reports them to the listener.
+	 * 
+	 * @param results The friends found in each repository.
+	 * @return The merged list of friends.
+	 */
+	private List<Friend> merge(List<List<Friend>> results) {
+		FriendMerger merger = new FriendMerger(mergePolicy);
+		List<Friend> friendList = merge(results, merger);
+		report(friendList.size() + merger.getDuplicates(), merger.getDuplicates());
+		return friendList;
+	}
+
+	/**
+	 * Merges the friends found in each repository, in the order of the
+	 * repositories.
+	 * 
+	 * @param results The friends found in each repository.
+	 * @param merger  The merger of the friends found in more than one repository.
+	 * @return The merged list of friends.
+	 */
+	private static List<Friend> merge(List<List<Friend>> results, FriendMerger merger) {
+		List<Friend> friendList = new ArrayList<>();
+		results.forEach(friends -> friends.stream().filter(merger::add).forEach(friendList::add));
+		return friendList;
+	}
 
-		return birthdayList;
+	/**
+	 * Reports the friends read from the repositories and the duplicates discarded
+	 * to the listener.
+	 * 
+	 * @param loaded     The number of friends read.
+	 * @param duplicates The number of duplicates discarded.
+	 */
+	private void report(long loaded, long duplicates) {
+		listener.friendsLoaded(loaded);
+		listener.friendsDeduplicated(duplicates);
 	}
 
 	/**
 	 * Sends birthday messages to friends with birthdays today and birthday
 	 * reminders to other friends.
+	 * 
+	 * Returns only when the {@link MessageService} has delivered all the messages.
 	 */
 	@Override
 	public void sendBirthdayMessages() {
-		List<Friend> birthdayFriends = findTodayBirthdays();
-		if (Optional.ofNullable(birthdayFriends).isPresent()) {
-			List<Friend> allFriends = findAllFriends();
-			birthdayFriends.forEach(f -> {
-				sendBirthdayMessage(f);
-				// Remove the birthday friend.
-				List<Friend> reminderFriends = allFriends.stream().filter(rf -> !rf.equals(f)).toList();
-				sendBirthdayReminder(f, reminderFriends);
-			});
-		}
+		sendBirthdayMessages(LocalDate.now(), f -> true);
 	}
 
 	/**
-	 * Sends a birthday message to the given friend.
+	 * Sends birthday messages to the accepted friends with birthdays on a date and
+	 * birthday reminders to the other accepted friends.
+	 * 
+	 * Only the friends with birthdays on the date are kept in memory. All the
+	 * other friends are streamed from the repositories, one after another, in a
+	 * single pass, and each accepted one receives the reminders of all the
+	 * birthdays as it is read. In digest mode, each friend receives a single
+	 * reminder listing all the birthdays. The messages are rendered with the
+	 * {@link MessageTemplates} of the channel and of the locale of the recipient.
+	 * 
+	 * With a {@link DeliveryLedger}, the messages are sent in batches: the
+	 * deliveries of a batch already in the ledger are skipped, and the others are
+	 * recorded once the {@link MessageService} has delivered them. When some
+	 * messages of a batch could not be delivered, the others are still recorded
+	 * before the failure is thrown. A run that is repeated or resumed after a
+	 * failure only sends the messages that were not delivered.
+	 * 
+	 * Returns only when the {@link MessageService} has delivered all the messages.
 	 * 
-	 * @param birthdayFriend The friend to send a birthday message to.
+	 * @param date       The date of the birthdays.
+	 * @param recipients The filter of the friends who receive the messages and
+	 *                   reminders.
 	 */
-	private void sendBirthdayMessage(Friend birthdayFriend) {
-		String subject = "Happy birthday!";
-		String body = String.format("Happy birthday, dear %s!", birthdayFriend.getFirstName());
+	@Override
+	public void sendBirthdayMessages(LocalDate date, Predicate<Friend> recipients) {
+		// The friends read here are read again by the scan below, which reports
+		// them, so they are not reported twice.
+		List<Friend> birthdayFriends = findBirthdays(date, new FriendMerger(mergePolicy));
+		listener.birthdaysFound(date, birthdayFriends.size());
+		if (birthdayFriends.isEmpty()) {
+			return;
+		}
+		Outbox outbox = new Outbox(date, false);
+		birthdayFriends.stream().filter(recipients).forEach(f -> outbox.add(f, List.of(f), true));
 
-		messageService.sendEmail(birthdayFriend.getEmail(), subject, body);
-		messageService.sendSMS(birthdayFriend.getMobile(), subject, body);
+		FriendMerger merger = new FriendMerger(mergePolicy);
+		long[] loaded = { 0 };
+		repositories.forEach(r -> {
+			try (Stream<Friend> friends = r.streamAll()) {
+				friends.peek(f -> loaded[0]++).filter(merger::add).filter(recipients).forEach(rf -> {
+					// The birthday friend does not receive its own reminder.
+					List<Friend> others = birthdayFriends.stream().filter(f -> !rf.equals(f)).toList();
+					if (digest) {
+						if (!others.isEmpty()) {
+							outbox.add(rf, others, false);
+						}
+						return;
+					}
+					others.forEach(f -> outbox.add(rf, List.of(f), false));
+				});
+			}
+		});
+		report(loaded[0], merger.getDuplicates());
+		outbox.send();
 	}
 
 	/**
-	 * Sends a birthday reminder to the given friends.
+	 * Sends the belated birthday messages of the accepted friends with birthdays
+	 * on a past date, rendered with the 'belated' templates. The other friends are
+	 * not read, since no reminders are sent.
+	 * 
+	 * The deliveries are recorded in the {@link DeliveryLedger} like the ones of
+	 * {@link #sendBirthdayMessages(LocalDate, Predicate)}, so a birthday message
+	 * already delivered for the date is not sent again.
+	 * 
+	 * Returns only when the {@link MessageService} has delivered all the messages.
 	 * 
-	 * @param birthdayFriend   The friend who has a birthday.
-	 * @param remindersFriends The friends to send reminders to.
+	 * @param date       The date of the birthdays.
+	 * @param recipients The filter of the birthday friends who receive the
+	 *                   messages.
 	 */
-	private void sendBirthdayReminder(Friend birthdayFriend, List<Friend> remindersFriends) {
-		String subject = "Birthday reminder";
-		String body = "Dear %s,\n" + "Today is %s %s's birthday. Don't forget to send a message!";
+	@Override
+	public void sendBelatedBirthdayMessages(LocalDate date, Predicate<Friend> recipients) {
+		List<Friend> birthdayFriends = findBirthdays(date, new FriendMerger(mergePolicy));
+		listener.birthdaysFound(date, birthdayFriends.size());
+		if (birthdayFriends.isEmpty()) {
+			return;
+		}
+		Outbox outbox = new Outbox(date, true);
+		birthdayFriends.stream().filter(recipients).forEach(f -> outbox.add(f, List.of(f), true));
+		outbox.send();
+	}
 
-		remindersFriends.forEach(f -> {
-			String nbody = String.format(body, f.getFirstName(), birthdayFriend.getFirstName(),
-					birthdayFriend.getLastName());
-			messageService.sendEmail(f.getEmail(), subject, nbody);
-			messageService.sendSMS(f.getMobile(), subject, nbody);
-		});
+	/**
+	 * The messages of a run, sent in batches. Without a {@link DeliveryLedger},
+	 * the messages are sent as they are added, and only the final flush waits for
+	 * them.
+	 */
+	private final class Outbox {
+
+		private final LocalDate date;
+		private final boolean belated;
+		private final List<Message> pending = new ArrayList<>();
+		// Reused by the rendering of all the messages of the run.
+		private final StringBuilder buffer = new StringBuilder(256);
+
+		Outbox(LocalDate date, boolean belated) {
+			this.date = date;
+			this.belated = belated;
+		}
+
+		/**
+		 * Adds a message to the current batch, and sends the batch if it is full.
+		 * Without a ledger, the message is sent right away.
+		 */
+		void add(Friend recipient, List<Friend> birthdayFriends, boolean birthday) {
+			Message message = new Message(recipient, birthdayFriends, birthday);
+			if (ledger == null) {
+				Locale locale = localeResolver.apply(recipient);
+				for (Channel channel : Channel.values()) {
+					send(message, birthdayFriends, channel, locale);
+				}
+				return;
+			}
+			pending.add(message);
+			if (pending.size() >= ledgerBatchSize) {
+				send();
+			}
+		}
+
+		/**
+		 * Sends the messages of the current batch whose deliveries are not in the
+		 * ledger, waits until they are delivered and records them.
+		 */
+		void send() {
+			Set<Delivery> delivered = findDelivered();
+			List<Sent> sent = new ArrayList<>();
+			for (Message message : pending) {
+				Locale locale = localeResolver.apply(message.recipient());
+				for (Channel channel : Channel.values()) {
+					List<Friend> birthdayFriends = delivered.isEmpty() ? message.birthdayFriends()
+							: message.birthdayFriends().stream()
+									.filter(f -> !delivered.contains(Delivery.of(message.recipient(), f, date, channel)))
+									.toList();
+					if (birthdayFriends.isEmpty()) {
+						continue;
+					}
+					Envelope envelope = send(message, birthdayFriends, channel, locale);
+					sent.add(new Sent(envelope, birthdayFriends.stream()
+							.map(f -> Delivery.of(message.recipient(), f, date, channel)).toList()));
+				}
+			}
+			pending.clear();
+
+			try {
+				messageService.flush();
+			} catch (UndeliveredMessagesException e) {
+				Set<Envelope> undelivered = new HashSet<>(e.getMessages());
+				record(sent.stream().filter(m -> !undelivered.contains(m.envelope())).toList());
+				throw e;
+			}
+			record(sent);
+		}
+
+		/**
+		 * Records the deliveries of the messages sent, if there are any.
+		 */
+		private void record(List<Sent> sent) {
+			if (!sent.isEmpty()) {
+				ledger.record(sent.stream().flatMap(m -> m.deliveries().stream()).toList());
+			}
+		}
+
+		/**
+		 * Finds the deliveries of the current batch that are in the ledger.
+		 */
+		private Set<Delivery> findDelivered() {
+			if (ledger == null || pending.isEmpty()) {
+				return Set.of();
+			}
+			List<Delivery> deliveries = new ArrayList<>();
+			pending.forEach(m -> m.birthdayFriends().forEach(f -> {
+				for (Channel channel : Channel.values()) {
+					deliveries.add(Delivery.of(m.recipient(), f, date, channel));
+				}
+			}));
+			return ledger.findDelivered(deliveries);
+		}
+
+		/**
+		 * Renders a message with the templates of its kind, channel and locale, and
+		 * sends it. A reminder of more than one birthday is rendered as a digest, and
+		 * the birthday message of a past date as a belated one.
+		 */
+		private Envelope send(Message message, List<Friend> birthdayFriends, Channel channel, Locale locale) {
+			MessageKind kind = message.birthday() ? belated ? MessageKind.BELATED : MessageKind.BIRTHDAY
+					: birthdayFriends.size() == 1 ? MessageKind.REMINDER : MessageKind.DIGEST;
+			Friend recipient = message.recipient();
+			String subject = templates.getSubject(kind, locale).render(buffer, recipient, birthdayFriends);
+			String body = templates.getBody(kind, channel, locale).render(buffer, recipient, birthdayFriends);
+			if (channel == Channel.EMAIL) {
+				messageService.sendEmail(recipient.getEmail(), subject, body);
+				return new Envelope(channel, recipient.getEmail().getValue(), subject, body);
+			}
+			messageService.sendSMS(recipient.getMobile(), subject, body);
+			return new Envelope(channel, recipient.getMobile().getValue(), subject, body);
+		}
+	}
+
+	/**
+	 * A message to a friend about the birthdays of other friends, or a birthday
+	 * message to the birthday friend.
+	 */
+	private record Message(Friend recipient, List<Friend> birthdayFriends, boolean birthday) {
+	}
+
+	/**
+	 * A message sent in a batch and the deliveries it carries.
+	 */
+	private record Sent(Envelope envelope, List<Delivery> deliveries) {
 	}
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,69 @@
+package com.emiliano.friendreminder.domain.services.merge;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+import com.emiliano.friendreminder.domain.entities.Friend;
+
+/**
+ * Removes duplicated {@link Friend} while they are streamed from one or more
+ * repositories.
+ *
+ * Each friend is checked in constant time against hash sets holding the
+ * identity keys defined by the {@link MergePolicy}, so merging n friends runs in
+ * linear time. Only the keys are retained, never the friends themselves.
+ *
+ * A merger is stateful and should be used for a single merge operation. It is
+ * not thread safe.
+ *
+ * @author Emiliano Pessoa
+ */
+public class FriendMerger {
+
+	private final List<Function<Friend, ?>> keyExtractors;
+	private final List<Set<Object>> seenKeys;
+	private int duplicates = 0;
+
+	/**
+	 * Creates a new instance of FriendMerger.
+	 *
+	 * @param policy The policy used to decide whether two friends are the same.
+	 */
+	public FriendMerger(MergePolicy policy) {
+		this.keyExtractors = policy.getKeyExtractors();
+		this.seenKeys = new ArrayList<>(keyExtractors.size());
+		keyExtractors.forEach(k -> seenKeys.add(new HashSet<>()));
+	}
+
+	/**
+	 * Registers a friend in the merger.
+	 *
+	 * @param friend The friend to register.
+	 * @return True if the friend was not seen before, false if it is a duplicate.
+	 */
+	public boolean add(Friend friend) {
+		int size = keyExtractors.size();
+		for (int i = 0; i < size; i++) {
+			if (seenKeys.get(i).contains(keyExtractors.get(i).apply(friend))) {
+				duplicates++;
+				return false;
+			}
+		}
+		for (int i = 0; i < size; i++) {
+			seenKeys.get(i).add(keyExtractors.get(i).apply(friend));
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the number of duplicated friends discarded so far.
+	 *
+	 * @return The number of duplicates.
+	 */
+	public int getDuplicates() {
+		return duplicates;
+	}
+}
@@ -0,0 +1,54 @@
+package com.emiliano.friendreminder.domain.services.merge;
+
+import java.util.List;
+import java.util.function.Function;
+
+import com.emiliano.friendreminder.domain.entities.Friend;
+
+/**
+ * Defines when two {@link Friend} coming from different repositories are
+ * considered the same person by the {@link FriendMerger}.
+ *
+ * Each policy is described by one or more identity keys. A friend is a
+ * duplicate if any of its keys has already been seen.
+ *
+ * @author Emiliano Pessoa
+ */
+public enum MergePolicy {
+
+	/**
+	 * Friends are duplicates only if they are equal by {@link Friend#equals}.
+	 */
+	EXACT(List.of(Function.identity())),
+
+	/**
+	 * Friends are duplicates if they share the same email address.
+	 */
+	SAME_EMAIL(List.of(Friend::getEmail)),
+
+	/**
+	 * Friends are duplicates if they share the same mobile number.
+	 */
+	SAME_MOBILE(List.of(Friend::getMobile)),
+
+	/**
+	 * Friends are duplicates if they share the same email address or the same
+	 * mobile number.
+	 */
+	SAME_EMAIL_OR_MOBILE(List.of(Friend::getEmail, Friend::getMobile));
+
+	private final List<Function<Friend, ?>> keyExtractors;
+
+	MergePolicy(List<Function<Friend, ?>> keyExtractors) {
+		this.keyExtractors = keyExtractors;
+	}
+
+	/**
+	 * Returns the functions that extract the identity keys of a friend.
+	 *
+	 * @return The identity key extractors of this policy.
+	 */
+	List<Function<Friend, ?>> getKeyExtractors() {
+		return keyExtractors;
+	}
+}
@@ -0,0 +1,47 @@
+package com.emiliano.friendreminder.domain.services.templates;
+
+/**
+ * The kinds of messages sent by the friend service, each with a subject and a
+ * body per channel in the {@link MessageTemplates}.
+ *
+ * @author Emiliano Pessoa
+ */
+public enum MessageKind {
+
+	/**
+	 * The birthday message to the friend who has a birthday.
+	 */
+	BIRTHDAY("birthday"),
+
+	/**
+	 * The birthday message to the friend who had a birthday on a day that was
+	 * checked late.
+	 */
+	BELATED("belated"),
+
+	/**
+	 * The reminder of a single birthday.
+	 */
+	REMINDER("reminder"),
+
+	/**
+	 * The reminder of more than one birthday.
+	 */
+	DIGEST("digest");
+
+	private final String key;
+
+	MessageKind(String key) {
+		this.key = key;
+	}
+
+	/**
+	 * Gets the prefix of the keys of the templates of this kind.
+	 *
+	 * @return The prefix of the keys, such as 'birthday'.
+	 */
+	public String getKey() {
+		return key;
+	}
+
+}
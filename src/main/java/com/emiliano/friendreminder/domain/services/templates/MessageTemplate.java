@@ -0,0 +1,232 @@
+package com.emiliano.friendreminder.domain.services.templates;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import com.emiliano.friendreminder.domain.entities.Friend;
+
+/**
+ * A message template compiled into a sequence of segments, so rendering it only
+ * appends the literal texts and the fields of the friends to a buffer, without
+ * parsing the template again.
+ *
+ * The templates have the following placeholders:
+ *
+ * <ul>
+ * <li>{recipient.firstName} and {recipient.lastName}: the friend who receives
+ * the message;</li>
+ * <li>{friend.firstName} and {friend.lastName}: the friend who has a birthday,
+ * or the first one when there are many;</li>
+ * <li>{count}: the number of friends who have a birthday;</li>
+ * <li>{#friends}...{/friends}: repeats its content for each friend who has a
+ * birthday, with the {friend.*} placeholders bound to that friend. A separator
+ * between the repetitions can be given after a bar, as in {#friends|, }.</li>
+ * </ul>
+ *
+ * The braces are written as {{ and }} in the literal texts.
+ *
+ * @author Emiliano Pessoa
+ */
+public final class MessageTemplate {
+
+	private static final String SECTION = "friends";
+
+	private static final Map<String, Segment> FIELDS = Map.of(
+			"recipient.firstName", (out, recipient, friend, friends) -> out.append(recipient.getFirstName()),
+			"recipient.lastName", (out, recipient, friend, friends) -> out.append(recipient.getLastName()),
+			"friend.firstName", (out, recipient, friend, friends) -> {
+				if (friend != null) {
+					out.append(friend.getFirstName());
+				}
+			}, "friend.lastName", (out, recipient, friend, friends) -> {
+				if (friend != null) {
+					out.append(friend.getLastName());
+				}
+			}, "count", (out, recipient, friend, friends) -> out.append(friends.size()));
+
+	private final String source;
+	private final Segment[] segments;
+	private final String constant;
+
+	private MessageTemplate(String source, List<Segment> segments, String constant) {
+		this.source = source;
+		this.segments = segments.toArray(Segment[]::new);
+		this.constant = constant;
+	}
+
+	/**
+	 * Compiles a template.
+	 *
+	 * @param source The text of the template.
+	 * @return The compiled template.
+	 * @throws IllegalArgumentException If the template has an unknown placeholder,
+	 *                                  or unbalanced braces or sections.
+	 */
+	public static MessageTemplate compile(String source) throws IllegalArgumentException {
+		Parser parser = new Parser(source);
+		List<Segment> segments = parser.parse(false);
+		return new MessageTemplate(source, segments, parser.placeholders == 0 ? parser.lastLiteral : null);
+	}
+
+	/**
+	 * Gets the text the template was compiled from.
+	 *
+	 * @return The text of the template.
+	 */
+	public String getSource() {
+		return source;
+	}
+
+	/**
+	 * Renders the template into a buffer, which is cleared first, and returns
+	 * the rendered text. The buffer can be reused by the next call.
+	 *
+	 * @param buffer          The buffer the template is rendered into.
+	 * @param recipient       The friend who receives the message.
+	 * @param birthdayFriends The friends who have a birthday.
+	 * @return The rendered text.
+	 */
+	public String render(StringBuilder buffer, Friend recipient, List<Friend> birthdayFriends) {
+		if (constant != null) {
+			return constant;
+		}
+		buffer.setLength(0);
+		renderTo(buffer, recipient, birthdayFriends);
+		return buffer.toString();
+	}
+
+	/**
+	 * Appends the rendered template to a buffer.
+	 *
+	 * @param out             The buffer the template is appended to.
+	 * @param recipient       The friend who receives the message.
+	 * @param birthdayFriends The friends who have a birthday.
+	 */
+	public void renderTo(StringBuilder out, Friend recipient, List<Friend> birthdayFriends) {
+		Friend first = birthdayFriends.isEmpty() ? null : birthdayFriends.get(0);
+		for (Segment segment : segments) {
+			segment.render(out, recipient, first, birthdayFriends);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return source;
+	}
+
+	/**
+	 * A part of a compiled template.
+	 */
+	@FunctionalInterface
+	private interface Segment {
+
+		void render(StringBuilder out, Friend recipient, Friend friend, List<Friend> friends);
+	}
+
+	/**
+	 * Splits the text of a template into segments.
+	 */
+	private static final class Parser {
+
+		private final String source;
+		private int position = 0;
+		private int placeholders = 0;
+		private String lastLiteral = "";
+
+		Parser(String source) {
+			this.source = source;
+		}
+
+		/**
+		 * Parses the segments up to the end of the text, or of the current section.
+		 */
+		List<Segment> parse(boolean inSection) {
+			List<Segment> segments = new ArrayList<>();
+			StringBuilder literal = new StringBuilder();
+			while (position < source.length()) {
+				char c = source.charAt(position);
+				if (c == '}') {
+					if (!source.startsWith("}}", position)) {
+						throw error("Unmatched '}'");
+					}
+					literal.append('}');
+					position += 2;
+				} else if (c != '{') {
+					literal.append(c);
+					position++;
+				} else if (source.startsWith("{{", position)) {
+					literal.append('{');
+					position += 2;
+				} else {
+					int end = source.indexOf('}', position);
+					if (end < 0) {
+						throw error("Unclosed placeholder");
+					}
+					String name = source.substring(position + 1, end);
+					int start = position;
+					position = end + 1;
+					placeholders++;
+					addLiteral(segments, literal);
+					if (name.equals("/" + SECTION)) {
+						if (!inSection) {
+							position = start;
+							throw error("Unmatched section end");
+						}
+						return segments;
+					}
+					segments.add(name.startsWith("#") ? section(name, start) : field(name, start));
+				}
+			}
+			if (inSection) {
+				throw error("Unclosed section");
+			}
+			addLiteral(segments, literal);
+			return segments;
+		}
+
+		private Segment section(String name, int start) {
+			int bar = name.indexOf('|');
+			String section = bar < 0 ? name.substring(1) : name.substring(1, bar);
+			if (!section.equals(SECTION)) {
+				position = start;
+				throw error("Unknown section '" + section + "'");
+			}
+			String separator = bar < 0 ? "" : name.substring(bar + 1);
+			Segment[] content = parse(true).toArray(Segment[]::new);
+			return (out, recipient, friend, friends) -> {
+				for (int i = 0; i < friends.size(); i++) {
+					if (i > 0) {
+						out.append(separator);
+					}
+					for (Segment segment : content) {
+						segment.render(out, recipient, friends.get(i), friends);
+					}
+				}
+			};
+		}
+
+		private Segment field(String name, int start) {
+			Segment field = FIELDS.get(name);
+			if (field == null) {
+				position = start;
+				throw error("Unknown placeholder '" + name + "'");
+			}
+			return field;
+		}
+
+		private void addLiteral(List<Segment> segments, StringBuilder literal) {
+			if (literal.length() > 0) {
+				String text = literal.toString();
+				segments.add((out, recipient, friend, friends) -> out.append(text));
+				lastLiteral = text;
+				literal.setLength(0);
+			}
+		}
+
+		private IllegalArgumentException error(String message) {
+			return new IllegalArgumentException(message + " at position " + position + " of template: " + source);
+		}
+	}
+
+}
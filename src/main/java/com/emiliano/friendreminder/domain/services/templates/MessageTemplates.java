@@ -0,0 +1,132 @@
+package com.emiliano.friendreminder.domain.services.templates;
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.emiliano.friendreminder.domain.valueobjects.Channel;
+
+/**
+ * The compiled {@link MessageTemplate} of each {@link MessageKind}, per locale
+ * and channel.
+ *
+ * The templates are grouped in bundles, one per locale, whose keys are the key
+ * of the kind followed by 'subject', 'email' or 'sms', such as
+ * 'reminder.sms'. A bundle does not need to have all the keys: the missing ones
+ * are taken from the bundle of the language, and then from the default bundle,
+ * which has all of them, in English. The templates of each locale are resolved
+ * on the first message to that locale.
+ *
+ * Instances are immutable and thread safe.
+ *
+ * @author Emiliano Pessoa
+ */
+public final class MessageTemplates {
+
+	private static final Map<String, String> DEFAULTS = Map.ofEntries(
+			Map.entry("birthday.subject", "Happy birthday!"),
+			Map.entry("birthday.email", "Happy birthday, dear {recipient.firstName}!"),
+			Map.entry("birthday.sms", "Happy birthday, dear {recipient.firstName}!"),
+			Map.entry("belated.subject", "Happy belated birthday!"),
+			Map.entry("belated.email", "Happy belated birthday, dear {recipient.firstName}!"),
+			Map.entry("belated.sms", "Happy belated birthday, dear {recipient.firstName}!"),
+			Map.entry("reminder.subject", "Birthday reminder"),
+			Map.entry("reminder.email", "Dear {recipient.firstName},\n"
+					+ "Today is {friend.firstName} {friend.lastName}'s birthday. Don't forget to send a message!"),
+			Map.entry("reminder.sms",
+					"Today is {friend.firstName} {friend.lastName}'s birthday. Don't forget to send a message!"),
+			Map.entry("digest.subject", "Birthday reminder"),
+			Map.entry("digest.email", "Dear {recipient.firstName},\nToday is the birthday of:\n"
+					+ "{#friends}- {friend.firstName} {friend.lastName}\n{/friends}Don't forget to send them a message!"),
+			Map.entry("digest.sms", "Today is the birthday of {#friends|, }{friend.firstName} {friend.lastName}{/friends}. "
+					+ "Don't forget to send them a message!"));
+
+	private final Map<Locale, Map<String, MessageTemplate>> bundles;
+	private final Map<Locale, Map<String, MessageTemplate>> resolved = new ConcurrentHashMap<>();
+
+	private MessageTemplates(Map<Locale, Map<String, MessageTemplate>> bundles) {
+		this.bundles = bundles;
+	}
+
+	/**
+	 * Creates the templates with only the default bundle.
+	 *
+	 * @return The default templates.
+	 */
+	public static MessageTemplates defaults() {
+		return new MessageTemplates(Map.of(Locale.ROOT, compile(DEFAULTS)));
+	}
+
+	/**
+	 * Creates a copy of these templates with the templates of a locale added.
+	 * Templates of the locale already present are replaced.
+	 *
+	 * @param locale  The locale of the templates.
+	 * @param sources The texts of the templates, by key.
+	 * @return A new instance with the templates of the locale.
+	 * @throws IllegalArgumentException If a key is unknown or a template is
+	 *                                  invalid.
+	 */
+	public MessageTemplates withBundle(Locale locale, Map<String, String> sources) throws IllegalArgumentException {
+		Map<Locale, Map<String, MessageTemplate>> copy = new HashMap<>(bundles);
+		Map<String, MessageTemplate> bundle = new HashMap<>(copy.getOrDefault(locale, Map.of()));
+		bundle.putAll(compile(sources));
+		copy.put(locale, Map.copyOf(bundle));
+		return new MessageTemplates(Map.copyOf(copy));
+	}
+
+	/**
+	 * Gets the template of the subject of a kind of message.
+	 *
+	 * @param kind   The kind of message.
+	 * @param locale The locale of the recipient.
+	 * @return The template of the subject.
+	 */
+	public MessageTemplate getSubject(MessageKind kind, Locale locale) {
+		return resolve(locale).get(kind.getKey() + ".subject");
+	}
+
+	/**
+	 * Gets the template of the body of a kind of message on a channel.
+	 *
+	 * @param kind    The kind of message.
+	 * @param channel The channel of the message.
+	 * @param locale  The locale of the recipient.
+	 * @return The template of the body.
+	 */
+	public MessageTemplate getBody(MessageKind kind, Channel channel, Locale locale) {
+		return resolve(locale).get(kind.getKey() + "." + channel.name().toLowerCase());
+	}
+
+	/**
+	 * Returns the templates of a locale, merged from the default bundle, the
+	 * bundle of the language and the bundle of the locale.
+	 */
+	private Map<String, MessageTemplate> resolve(Locale locale) {
+		return resolved.computeIfAbsent(locale, l -> {
+			Set<Locale> candidates = new LinkedHashSet<>();
+			candidates.add(Locale.ROOT);
+			candidates.add(new Locale(l.getLanguage()));
+			candidates.add(new Locale(l.getLanguage(), l.getCountry()));
+			candidates.add(l);
+			Map<String, MessageTemplate> templates = new HashMap<>();
+			candidates.forEach(c -> templates.putAll(bundles.getOrDefault(c, Map.of())));
+			return templates;
+		});
+	}
+
+	private static Map<String, MessageTemplate> compile(Map<String, String> sources) {
+		Map<String, MessageTemplate> templates = new HashMap<>();
+		sources.forEach((key, source) -> {
+			if (!DEFAULTS.containsKey(key)) {
+				throw new IllegalArgumentException("Unknown message template: " + key);
+			}
+			templates.put(key, MessageTemplate.compile(source));
+		});
+		return templates;
+	}
+
+}
@@ -0,0 +1,20 @@
+package com.emiliano.friendreminder.domain.valueobjects;
+
+/**
+ * The channels the messages are sent through, in the order they are sent.
+ *
+ * @author Emiliano Pessoa
+ */
+public enum Channel {
+
+	/**
+	 * Email messages, sent to the {@link Email} of the friend.
+	 */
+	EMAIL,
+
+	/**
+	 * SMS messages, sent to the {@link Mobile} number of the friend.
+	 */
+	SMS;
+
+}
@@ -1,11 +1,12 @@
 package com.emiliano.friendreminder.domain.valueobjects;
 
 import java.time.LocalDate;
-import java.time.Period;
 import java.time.Year;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 
@@ -15,6 +16,12 @@ import java.util.Objects;
  */
 public class DateOfBirth {
 
+	/**
+	 * The formatters of the patterns already used, as creating a formatter costs
+	 * much more than parsing a date with it.
+	 */
+	private static final Map<String, DateTimeFormatter> FORMATTERS = new ConcurrentHashMap<>();
+
 	private final LocalDate value;
 
 	/**
@@ -24,7 +31,20 @@ public class DateOfBirth {
 	 * @throws IllegalArgumentException if the date of birth is invalid.
 	 */
 	public DateOfBirth(LocalDate dateOfBirth) {
-		if (!isValidDate(dateOfBirth)) {
+		this(dateOfBirth, LocalDate.now());
+	}
+
+	/**
+	 * Creates a new instance of the DateOfBirth class, validated against a
+	 * reference date instead of the current date. Creating many instances with the
+	 * same reference date avoids reading the clock for each one.
+	 * 
+	 * @param dateOfBirth   The date of birth to be validated and set.
+	 * @param referenceDate The date the age is calculated on, usually today.
+	 * @throws IllegalArgumentException if the date of birth is invalid.
+	 */
+	public DateOfBirth(LocalDate dateOfBirth, LocalDate referenceDate) {
+		if (!isValidDate(dateOfBirth, referenceDate)) {
 			throw new IllegalArgumentException("Invalid date of birth: " + dateOfBirth);
 		}
 		this.value = dateOfBirth;
@@ -39,16 +59,21 @@ public class DateOfBirth {
 	 *                                  birth is invalid.
 	 */
 	public DateOfBirth(String dateOfBirthStr, String format) {
-		LocalDate dateOfBirth = null;
-		try {
-			dateOfBirth = LocalDate.parse(dateOfBirthStr, DateTimeFormatter.ofPattern(format));
-		} catch (DateTimeParseException e) {
-			throw new IllegalArgumentException("Invalid date format: " + dateOfBirthStr);
-		}
-		if (!isValidDate(dateOfBirth)) {
-			throw new IllegalArgumentException("Invalid date of birth: " + dateOfBirth);
-		}
-		this.value = dateOfBirth;
+		this(dateOfBirthStr, format, LocalDate.now());
+	}
+
+	/**
+	 * Creates a new instance of the DateOfBirth class, validated against a
+	 * reference date instead of the current date.
+	 * 
+	 * @param dateOfBirthStr The string representation of the date of birth.
+	 * @param format         The format of the string representation.
+	 * @param referenceDate  The date the age is calculated on, usually today.
+	 * @throws IllegalArgumentException if the date format is invalid or the date of
+	 *                                  birth is invalid.
+	 */
+	public DateOfBirth(String dateOfBirthStr, String format, LocalDate referenceDate) {
+		this(parse(dateOfBirthStr, format), referenceDate);
 	}
 
 	/**
@@ -92,21 +117,45 @@ public class DateOfBirth {
 	 * @return True if the date of birth is valid, false otherwise.
 	 */
 	public boolean isValidDate(LocalDate dateOfBirth) {
-		try {
-			LocalDate now = LocalDate.now();
-			// check that the date of birth is not in the future
-			if (dateOfBirth.isAfter(now)) {
-				return false;
-			}
-			// check that the age is between 0 and 150 years
-			int age = Period.between(dateOfBirth, now).getYears();
-			if (age < 0 || age > 150) {
-				return false;
-			}
-			return true;
-		} catch (Exception e) {
+		return isValidDate(dateOfBirth, LocalDate.now());
+	}
+
+	/**
+	 * Checks whether a given date of birth is valid on a reference date. A valid
+	 * date of birth is a date that is not after the reference date and represents
+	 * an age between 0 and 150 years on it.
+	 * 
+	 * @param dateOfBirth   The date of birth to be validated.
+	 * @param referenceDate The date the age is calculated on.
+	 * @return True if the date of birth is valid, false otherwise.
+	 */
+	public static boolean isValidDate(LocalDate dateOfBirth, LocalDate referenceDate) {
+		if (dateOfBirth == null || referenceDate == null) {
 			return false;
 		}
+		// check that the date of birth is not in the future
+		if (dateOfBirth.isAfter(referenceDate)) {
+			return false;
+		}
+		// check that the age is not over 150 years, counting only complete years
+		int age = referenceDate.getYear() - dateOfBirth.getYear();
+		if (referenceDate.getMonthValue() < dateOfBirth.getMonthValue()
+				|| (referenceDate.getMonthValue() == dateOfBirth.getMonthValue()
+						&& referenceDate.getDayOfMonth() < dateOfBirth.getDayOfMonth())) {
+			age--;
+		}
+		return age <= 150;
+	}
+
+	/**
+	 * Parses a date of birth with the cached formatter of the format.
+	 */
+	private static LocalDate parse(String dateOfBirthStr, String format) {
+		try {
+			return LocalDate.parse(dateOfBirthStr, FORMATTERS.computeIfAbsent(format, DateTimeFormatter::ofPattern));
+		} catch (DateTimeParseException e) {
+			throw new IllegalArgumentException("Invalid date format: " + dateOfBirthStr);
+		}
 	}
 
 	@Override
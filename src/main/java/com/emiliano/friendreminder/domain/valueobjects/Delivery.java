@@ -0,0 +1,39 @@
+package com.emiliano.friendreminder.domain.valueobjects;
+
+import java.time.LocalDate;
+
+import com.emiliano.friendreminder.domain.entities.Friend;
+
+/**
+ * Identifies a message about the birthday of a friend on a date, delivered to a
+ * recipient through a channel. A birthday message is a delivery whose recipient
+ * is the birthday friend.
+ *
+ * @param recipient      The address the message is sent to: the email address
+ *                       or the mobile number of the recipient, depending on the
+ *                       channel.
+ * @param birthdayFriend The email address of the birthday friend.
+ * @param date           The date of the birthday.
+ * @param channel        The channel of the message.
+ *
+ * @author Emiliano Pessoa
+ */
+public record Delivery(String recipient, String birthdayFriend, LocalDate date, Channel channel) {
+
+	/**
+	 * Creates the delivery of a message to a friend about the birthday of another
+	 * friend.
+	 *
+	 * @param recipient      The friend who receives the message.
+	 * @param birthdayFriend The friend who has a birthday.
+	 * @param date           The date of the birthday.
+	 * @param channel        The channel of the message.
+	 * @return The delivery.
+	 */
+	public static Delivery of(Friend recipient, Friend birthdayFriend, LocalDate date, Channel channel) {
+		String address = channel == Channel.EMAIL ? recipient.getEmail().getValue()
+				: recipient.getMobile().getValue();
+		return new Delivery(address, birthdayFriend.getEmail().getValue(), date, channel);
+	}
+
+}
@@ -1,7 +1,8 @@
 package com.emiliano.friendreminder.domain.valueobjects;
 
 import java.util.Objects;
-import java.util.regex.Pattern;
+
+import com.emiliano.friendreminder.domain.valueobjects.validation.EmailValidator;
 
 /**
  * 
@@ -40,14 +41,10 @@ public class Email {
 	 * 
 	 * @param email The email to be validated.
 	 * @return True if the email is valid, false otherwise.
+	 * @see EmailValidator
 	 */
 	public static boolean isValidEmail(String email) {
-		if (email != null) {
-			// Validate email using regular expression
-			Pattern pattern = Pattern.compile("^[\\w-_.+]*[\\w-_.]@([\\w]+\\.)+[\\w]+[\\w]$");
-			return pattern.matcher(email).matches();
-		}
-		return false;
+		return EmailValidator.isValid(email);
 	}
 
 	@Override
@@ -1,7 +1,8 @@
 package com.emiliano.friendreminder.domain.valueobjects;
 
 import java.util.Objects;
-import java.util.regex.Pattern;
+
+import com.emiliano.friendreminder.domain.valueobjects.validation.MobileNumberValidator;
 
 /**
  * 
@@ -49,15 +50,10 @@ public class Mobile {
 	 * 
 	 * @param mobileNumber The mobile number to be validated.
 	 * @return True if the mobile number is valid, false otherwise.
+	 * @see MobileNumberValidator
 	 */
 	private static boolean isValidMobileNumber(String mobileNumber) {
-		if (mobileNumber != null) {
-			// Validate mobile number using regular expression
-			Pattern pattern = Pattern
-					.compile("^(?:\\+\\d{1,3}|0\\d{1,3}|00\\d{1,2})?(?:\\s?\\(\\d+\\))?(?:[-\\/\\s.]|\\d)+$");
-			return pattern.matcher(mobileNumber).matches();
-		}
-		return false;
+		return MobileNumberValidator.isValidSyntax(mobileNumber);
 	}
 
 	@Override
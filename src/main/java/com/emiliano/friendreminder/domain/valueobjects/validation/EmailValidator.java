@@ -0,0 +1,72 @@
+package com.emiliano.friendreminder.domain.valueobjects.validation;
+
+/**
+ * Validates email addresses with a single scan of the characters, without
+ * regular expressions and without allocating any object.
+ * 
+ * Accepts the same addresses as the regular expression
+ * {@code ^[\w-_.+]*[\w-_.]@([\w]+\.)+[\w]+[\w]$}: a local part of word
+ * characters, '-', '.' and '+' that does not end with '+', and a domain of at
+ * least two labels of word characters separated by dots, the last one with at
+ * least two characters.
+ * 
+ * @author Emiliano Pessoa
+ */
+public final class EmailValidator {
+
+	private EmailValidator() {
+	}
+
+	/**
+	 * Checks whether a given email is valid or not.
+	 * 
+	 * @param email The email to be validated.
+	 * @return True if the email is valid, false otherwise.
+	 */
+	public static boolean isValid(String email) {
+		if (email == null) {
+			return false;
+		}
+		int length = email.length();
+		int i = 0;
+
+		// Local part.
+		char last = 0;
+		for (; i < length && email.charAt(i) != '@'; i++) {
+			last = email.charAt(i);
+			if (!isWordChar(last) && last != '-' && last != '.' && last != '+') {
+				return false;
+			}
+		}
+		if (i == 0 || i == length || last == '+') {
+			return false;
+		}
+
+		// Domain.
+		int labels = 0;
+		int labelLength = 0;
+		for (i++; i < length; i++) {
+			char c = email.charAt(i);
+			if (c == '.') {
+				if (labelLength == 0) {
+					return false;
+				}
+				labels++;
+				labelLength = 0;
+			} else if (isWordChar(c)) {
+				labelLength++;
+			} else {
+				return false;
+			}
+		}
+		return labels >= 1 && labelLength >= 2;
+	}
+
+	/**
+	 * Checks whether a character is an ASCII letter, digit or underscore, as
+	 * matched by {@code \w}.
+	 */
+	static boolean isWordChar(char c) {
+		return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_';
+	}
+}
@@ -0,0 +1,50 @@
+package com.emiliano.friendreminder.domain.valueobjects.validation;
+
+/**
+ * A rule for the mobile numbers of a country, identified by its calling code:
+ * the number of digits of the national number, after the calling code.
+ *
+ * Rules are grouped in {@link MobileNumberRules} and applied to the numbers in
+ * international format ('+' or '00' followed by the calling code) that already
+ * have a valid syntax.
+ *
+ * @param callingCode The calling code of the country, without '+' or '00'.
+ * @param minLength   The minimum number of digits of the national number.
+ * @param maxLength   The maximum number of digits of the national number.
+ *
+ * @author Emiliano Pessoa
+ */
+public record MobileNumberRule(String callingCode, int minLength, int maxLength) {
+
+	/**
+	 * Creates a new MobileNumberRule.
+	 *
+	 * @param callingCode The calling code of the country, without '+' or '00'.
+	 * @param minLength   The minimum number of digits of the national number.
+	 * @param maxLength   The maximum number of digits of the national number.
+	 * @throws IllegalArgumentException If the calling code is not 1 to 3 digits
+	 *                                  not starting with 0, or the lengths are not
+	 *                                  a positive range.
+	 */
+	public MobileNumberRule {
+		if (callingCode == null || callingCode.isEmpty() || callingCode.length() > 3 || callingCode.charAt(0) == '0'
+				|| !callingCode.chars().allMatch(c -> c >= '0' && c <= '9')) {
+			throw new IllegalArgumentException("Invalid calling code: " + callingCode);
+		}
+		if (minLength < 1 || maxLength < minLength) {
+			throw new IllegalArgumentException(
+					"Invalid national number lengths: minLength=" + minLength + ", maxLength=" + maxLength);
+		}
+	}
+
+	/**
+	 * Checks whether a national number of the country has a valid length.
+	 *
+	 * @param nationalLength The number of digits of the number after the calling
+	 *                       code.
+	 * @return True if the length is valid, false otherwise.
+	 */
+	public boolean isValid(int nationalLength) {
+		return nationalLength >= minLength && nationalLength <= maxLength;
+	}
+}
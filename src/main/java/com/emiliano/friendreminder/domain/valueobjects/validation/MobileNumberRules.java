@@ -0,0 +1,94 @@
+package com.emiliano.friendreminder.domain.valueobjects.validation;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * The {@link MobileNumberRule} of each country, indexed by calling code. The
+ * rules are immutable once created.
+ *
+ * @author Emiliano Pessoa
+ */
+public final class MobileNumberRules {
+
+	/**
+	 * No rules: only the generic syntax of the numbers is checked.
+	 */
+	public static final MobileNumberRules NONE = new MobileNumberRules(List.of());
+
+	private static final int MAX_CALLING_CODE_LENGTH = 3;
+
+	/**
+	 * The rules by the numeric value of their calling code. Calling codes do not
+	 * start with 0, so each value has a single calling code.
+	 */
+	private final MobileNumberRule[] rules = new MobileNumberRule[1000];
+	private final boolean empty;
+
+	/**
+	 * Creates a new instance of MobileNumberRules.
+	 *
+	 * @param rules The rules of the countries.
+	 * @throws IllegalArgumentException If two rules have the same calling code.
+	 */
+	public MobileNumberRules(Collection<MobileNumberRule> rules) {
+		for (MobileNumberRule rule : rules) {
+			int code = Integer.parseInt(rule.callingCode());
+			if (this.rules[code] != null) {
+				throw new IllegalArgumentException("Duplicated calling code: " + rule.callingCode());
+			}
+			this.rules[code] = rule;
+		}
+		this.empty = rules.isEmpty();
+	}
+
+	/**
+	 * Checks a mobile number with a valid syntax against the rule of its country,
+	 * counting its digits in place. Numbers that are not in international format,
+	 * or whose country has no rule, are valid.
+	 *
+	 * @param mobileNumber The mobile number to be validated.
+	 * @return True if the mobile number is valid, false otherwise.
+	 */
+	public boolean isValid(String mobileNumber) {
+		if (empty) {
+			return true;
+		}
+		int i;
+		if (mobileNumber.startsWith("+")) {
+			i = 1;
+		} else if (mobileNumber.startsWith("00")) {
+			i = 2;
+		} else {
+			return true;
+		}
+		int length = mobileNumber.length();
+
+		// Calling codes are prefix free, so at most one of them matches.
+		MobileNumberRule rule = null;
+		int code = 0;
+		int codeLength = 0;
+		while (rule == null && codeLength < MAX_CALLING_CODE_LENGTH && i < length) {
+			char c = mobileNumber.charAt(i++);
+			if (c >= '0' && c <= '9') {
+				if (codeLength == 0 && c == '0') {
+					return true;
+				}
+				code = code * 10 + (c - '0');
+				codeLength++;
+				rule = rules[code];
+			}
+		}
+		if (rule == null) {
+			return true;
+		}
+		int nationalLength = 0;
+		for (; i < length; i++) {
+			char c = mobileNumber.charAt(i);
+			if (c >= '0' && c <= '9') {
+				nationalLength++;
+			}
+		}
+		return rule.isValid(nationalLength);
+	}
+}
@@ -0,0 +1,113 @@
+package com.emiliano.friendreminder.domain.valueobjects.validation;
+
+/**
+ * Validates mobile numbers with a single scan of the characters, without
+ * regular expressions and without allocating any object.
+ * 
+ * Accepts the same numbers as the regular expression
+ * {@code ^(?:\+\d{1,3}|0\d{1,3}|00\d{1,2})?(?:\s?\(\d+\))?(?:[-\/\s.]|\d)+$}:
+ * digits and the separators '-', '/', '.' and white spaces, optionally
+ * preceded by an international prefix and an area code in parentheses. The
+ * numbers with a valid syntax are then checked by the {@link MobileNumberRules}
+ * of the validator.
+ * 
+ * @author Emiliano Pessoa
+ */
+public final class MobileNumberValidator {
+
+	private final MobileNumberRules rules;
+
+	/**
+	 * Creates a new instance of MobileNumberValidator.
+	 * 
+	 * @param rules The rules of the countries the numbers are checked against.
+	 */
+	public MobileNumberValidator(MobileNumberRules rules) {
+		this.rules = rules;
+	}
+
+	/**
+	 * Checks whether a given mobile number has a valid syntax and follows the rule
+	 * of its country.
+	 * 
+	 * @param mobileNumber The mobile number to be validated.
+	 * @return True if the mobile number is valid, false otherwise.
+	 */
+	public boolean isValid(String mobileNumber) {
+		return isValidSyntax(mobileNumber) && rules.isValid(mobileNumber);
+	}
+
+	/**
+	 * Checks whether a given mobile number has a valid syntax, regardless of its
+	 * country.
+	 * 
+	 * @param mobileNumber The mobile number to be validated.
+	 * @return True if the syntax of the mobile number is valid, false otherwise.
+	 */
+	public static boolean isValidSyntax(String mobileNumber) {
+		if (mobileNumber == null) {
+			return false;
+		}
+		int length = mobileNumber.length();
+		int open = mobileNumber.indexOf('(');
+		if (open < 0) {
+			if (mobileNumber.startsWith("+")) {
+				// '+' and at least one digit, followed by at least one more character.
+				return length >= 3 && isDigit(mobileNumber.charAt(1)) && isTail(mobileNumber, 2, length);
+			}
+			return length >= 1 && isTail(mobileNumber, 0, length);
+		}
+
+		// The prefix, an optional white space and the area code in parentheses.
+		int prefixEnd = open > 0 && isWhitespace(mobileNumber.charAt(open - 1)) ? open - 1 : open;
+		if (prefixEnd > 0) {
+			char first = mobileNumber.charAt(0);
+			int digits = first == '+' ? prefixEnd - 1 : prefixEnd;
+			if ((first != '+' && first != '0') || digits < (first == '0' ? 2 : 1) || digits > (first == '0' ? 4 : 3)
+					|| !isDigits(mobileNumber, 1, prefixEnd)) {
+				return false;
+			}
+		}
+		int i = open + 1;
+		while (i < length && isDigit(mobileNumber.charAt(i))) {
+			i++;
+		}
+		if (i == open + 1 || i == length || mobileNumber.charAt(i) != ')') {
+			return false;
+		}
+		return i + 1 < length && isTail(mobileNumber, i + 1, length);
+	}
+
+	/**
+	 * Checks whether all the characters of a region are digits or separators.
+	 */
+	private static boolean isTail(String s, int from, int to) {
+		for (int i = from; i < to; i++) {
+			char c = s.charAt(i);
+			if (!isDigit(c) && c != '-' && c != '/' && c != '.' && !isWhitespace(c)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean isDigits(String s, int from, int to) {
+		for (int i = from; i < to; i++) {
+			if (!isDigit(s.charAt(i))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean isDigit(char c) {
+		return c >= '0' && c <= '9';
+	}
+
+	/**
+	 * Checks whether a character is a white space, as matched by {@code \s}.
+	 */
+	private static boolean isWhitespace(char c) {
+		return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+	}
+}
@@ -1,26 +1,73 @@
 package com.emiliano.friendreminder.infrastructure;
 
+import java.io.IOException;
 import java.net.URI;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.core.env.Environment;
+import org.springframework.util.ClassUtils;
 
+import com.emiliano.friendreminder.domain.repositories.DeliveryLedger;
 import com.emiliano.friendreminder.domain.repositories.FriendRepository;
 import com.emiliano.friendreminder.domain.services.FriendService;
+import com.emiliano.friendreminder.domain.services.FriendServiceListener;
 import com.emiliano.friendreminder.domain.services.MessageService;
+import com.emiliano.friendreminder.domain.services.fanout.PartialResultsPolicy;
+import com.emiliano.friendreminder.domain.services.fanout.RepositoryFanOut;
+import com.emiliano.friendreminder.domain.services.impl.FriendServiceBuilder;
 import com.emiliano.friendreminder.domain.services.impl.FriendServiceImpl;
+import com.emiliano.friendreminder.domain.services.merge.MergePolicy;
+import com.emiliano.friendreminder.domain.services.templates.MessageTemplates;
+import com.emiliano.friendreminder.domain.valueobjects.validation.MobileNumberRule;
+import com.emiliano.friendreminder.domain.valueobjects.validation.MobileNumberRules;
+import com.emiliano.friendreminder.domain.valueobjects.validation.MobileNumberValidator;
+import com.emiliano.friendreminder.infrastructure.logging.DeliveryLogSink;
+import com.emiliano.friendreminder.infrastructure.logging.DeliveryLogTarget;
+import com.emiliano.friendreminder.infrastructure.metrics.MeteredFriendRepository;
+import com.emiliano.friendreminder.infrastructure.metrics.MeteredFriendServiceListener;
+import com.emiliano.friendreminder.infrastructure.metrics.MeteredMessageService;
+import com.emiliano.friendreminder.infrastructure.repositories.impl.SQLiteFriendDataVersion;
+import com.emiliano.friendreminder.infrastructure.repositories.impl.SnapshotFriendRepository;
+import com.emiliano.friendreminder.infrastructure.schedulers.CallingCodeZones;
+import com.emiliano.friendreminder.infrastructure.schedulers.FriendScheduler;
+import com.emiliano.friendreminder.infrastructure.services.impl.AsyncMessageService;
+import com.emiliano.friendreminder.infrastructure.services.impl.MessageServiceImpl;
+import com.emiliano.friendreminder.infrastructure.templates.CallingCodeLocales;
+import com.emiliano.friendreminder.infrastructure.templates.MessageTemplateBundles;
+import com.emiliano.friendreminder.infrastructure.throttling.RateLimit;
+import com.emiliano.friendreminder.infrastructure.throttling.ThrottledMessageService;
+import com.emiliano.friendreminder.infrastructure.throttling.Ticker;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 
 /**
  * Bean configuration class for the application.
  * 
  * This class provides the bean definitions needed for the application to run.
  * 
- * It sets up the configuration for the flat file path, and initializes the
- * {@link FriendService}.
+ * It sets up the configuration for the flat file path, the asynchronous
+ * {@link MessageService}, and initializes the {@link FriendService}. The
+ * repositories, the messages and the events of the service are measured in the
+ * {@link MeterRegistry}, exposed by the Actuator Prometheus endpoint.
  * 
  * @author Emiliano Pessoa
  *
@@ -43,20 +90,367 @@ public class BeanConfiguration {
 		return Paths.get(URI.create(env.getProperty("friend.flat.file")));
 	}
 
+	/**
+	 * 
+	 * Initializes the {@link AsyncMessageService} that queues the messages sent by
+	 * the {@link FriendService} and delivers them through the
+	 * {@link ThrottledMessageService}.
+	 * 
+	 * The dispatch is configured by the environment properties
+	 * 'friend.message.dispatch.queue-capacity' (1000 by default),
+	 * 'friend.message.dispatch.workers' (2 by default) and
+	 * 'friend.message.dispatch.batch-size' (50 by default), all per channel.
+	 * 
+	 * The number of pending messages, queued, delayed by the throttling or being
+	 * sent, is measured by the 'friend.messages.pending' gauge.
+	 * 
+	 * @param throttled The {@link ThrottledMessageService} the workers send the
+	 *                  messages through.
+	 * @param registry  The registry of the meters.
+	 * @return A new {@link AsyncMessageService} instance.
+	 */
+	@Bean
+	@Primary
+	AsyncMessageService asyncMessageService(ThrottledMessageService throttled, MeterRegistry registry) {
+		int queueCapacity = env.getProperty("friend.message.dispatch.queue-capacity", Integer.class, 1000);
+		int workers = env.getProperty("friend.message.dispatch.workers", Integer.class, 2);
+		int batchSize = env.getProperty("friend.message.dispatch.batch-size", Integer.class, 50);
+		AsyncMessageService asyncMessageService = new AsyncMessageService(throttled, queueCapacity, workers,
+				batchSize);
+		Gauge.builder("friend.messages.pending", asyncMessageService, s -> s.getPending() + throttled.getDelayed())
+				.description("Messages queued, delayed or being sent").register(registry);
+		return asyncMessageService;
+	}
+
+	/**
+	 * 
+	 * Initializes the {@link ThrottledMessageService} that paces the messages
+	 * delivered by the {@link MessageServiceImpl} to the quotas of the gateways.
+	 * 
+	 * The throttling is configured by the environment properties
+	 * 'friend.throttle.sms.rate' and 'friend.throttle.email.rate', in messages per
+	 * second (0, unlimited, by default), 'friend.throttle.sms.burst' and
+	 * 'friend.throttle.email.burst' (one second of messages by default), and
+	 * 'friend.throttle.sms.calling-codes' and 'friend.throttle.email.domains',
+	 * comma separated lists of 'code=rate' and 'domain=rate' pairs. The messages
+	 * delayed by the limits of their destinations are kept in a queue per
+	 * channel, of the capacity read from 'friend.throttle.delay-capacity' (1000
+	 * by default).
+	 * 
+	 * The messages delivered are measured by a {@link MeteredMessageService}.
+	 * 
+	 * @param messageService The {@link MessageServiceImpl} that delivers the
+	 *                       messages.
+	 * @param registry       The registry of the meters.
+	 * @return A new {@link ThrottledMessageService} instance.
+	 */
+	@Bean
+	ThrottledMessageService throttledMessageService(MessageServiceImpl messageService, MeterRegistry registry) {
+		Map<String, RateLimit> callingCodes = new HashMap<>();
+		getCallingCodes("friend.throttle.sms.calling-codes")
+				.forEach((code, rate) -> callingCodes.put(code, RateLimit.of(Double.parseDouble(rate))));
+		Map<String, RateLimit> domains = new HashMap<>();
+		getPairs("friend.throttle.email.domains")
+				.forEach((domain, rate) -> domains.put(domain, RateLimit.of(Double.parseDouble(rate))));
+		return new ThrottledMessageService(new MeteredMessageService(messageService, registry),
+				getRateLimit("friend.throttle.sms"), getRateLimit("friend.throttle.email"), callingCodes, domains,
+				env.getProperty("friend.throttle.delay-capacity", Integer.class, 1000), Ticker.SYSTEM);
+	}
+
+	/**
+	 * 
+	 * Initializes the {@link DeliveryLogSink} the {@link MessageServiceImpl}
+	 * records the messages in. The records are appended to the file read from the
+	 * environment property 'friend.delivery-log.file', or written to the
+	 * application log when it is not set.
+	 * 
+	 * The sink is configured by the environment properties
+	 * 'friend.delivery-log.capacity' (65536 records by default),
+	 * 'friend.delivery-log.batch-size' (1024 by default),
+	 * 'friend.delivery-log.sample-threshold' (0.75 of the capacity by default) and
+	 * 'friend.delivery-log.sample-rate' (one of every 10 records by default). The
+	 * records written, sampled out and dropped are counted by the
+	 * 'friend.delivery.log.records' counter.
+	 * 
+	 * @param registry The registry of the meters.
+	 * @return A new {@link DeliveryLogSink} instance.
+	 * @throws IOException If the file cannot be opened.
+	 */
+	@Bean(destroyMethod = "close")
+	DeliveryLogSink deliveryLogSink(MeterRegistry registry) throws IOException {
+		String file = env.getProperty("friend.delivery-log.file", "");
+		DeliveryLogTarget target = file.isBlank() ? DeliveryLogTarget.logger(Logger.getLogger("friend.deliveries"))
+				: DeliveryLogTarget.file(Paths.get(URI.create(file)));
+		DeliveryLogSink sink = new DeliveryLogSink(target,
+				env.getProperty("friend.delivery-log.capacity", Integer.class, 65536),
+				env.getProperty("friend.delivery-log.batch-size", Integer.class, 1024),
+				env.getProperty("friend.delivery-log.sample-threshold", Double.class, 0.75),
+				env.getProperty("friend.delivery-log.sample-rate", Integer.class, 10));
+		FunctionCounter.builder("friend.delivery.log.records", sink, DeliveryLogSink::getWritten)
+				.tag("result", "written").register(registry);
+		FunctionCounter.builder("friend.delivery.log.records", sink, DeliveryLogSink::getSampled)
+				.tag("result", "sampled").register(registry);
+		FunctionCounter.builder("friend.delivery.log.records", sink, DeliveryLogSink::getDropped)
+				.tag("result", "dropped").register(registry);
+		return sink;
+	}
+
+	/**
+	 * 
+	 * Initializes the bounded executor the {@link RepositoryFanOut} of the
+	 * {@link FriendService} queries the repositories on, with the number of
+	 * threads read from the environment property 'friend.fanout.threads' (4 by
+	 * default).
+	 * 
+	 * @return A new fixed thread pool of daemon threads.
+	 */
+	@Bean(destroyMethod = "shutdownNow")
+	ExecutorService friendRepositoryExecutor() {
+		int threads = env.getProperty("friend.fanout.threads", Integer.class, 4);
+		AtomicInteger count = new AtomicInteger();
+		ThreadFactory threadFactory = r -> {
+			Thread thread = new Thread(r, "friend-fanout-" + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		};
+		return Executors.newFixedThreadPool(threads, threadFactory);
+	}
+
 	/**
 	 * 
 	 * Initializes the {@link FriendService} with the provided
 	 * {@link MessageService} and an array of {@link FriendRepository} instances.
 	 * 
+	 * Duplicated friends are merged with the {@link MergePolicy} read from the
+	 * environment property 'friend.merge.policy' ({@link MergePolicy#EXACT} by
+	 * default). When the environment property 'friend.reminder.digest' is true,
+	 * each friend receives a single reminder listing all the birthdays of the day
+	 * (false by default).
+	 * 
+	 * The repositories are queried concurrently on the executor, waiting for each
+	 * one at most the time read from the environment property
+	 * 'friend.fanout.timeout' (30 seconds by default). The repositories that fail
+	 * or time out are handled by the {@link PartialResultsPolicy} read from the
+	 * environment property 'friend.fanout.partial-results'
+	 * ({@link PartialResultsPolicy#FAIL} by default).
+	 * 
+	 * When the environment property 'friend.snapshot.file' is set, the service
+	 * reads the friends from a {@link SnapshotFriendRepository} of the merged
+	 * friends of all the repositories, stored in that file, and rebuilt when the
+	 * flat file or the {@link SQLiteFriendDataVersion} of the database change.
+	 * 
+	 * The messages delivered are recorded in the {@link DeliveryLedger}, in
+	 * batches of the size read from the environment property
+	 * 'friend.ledger.batch-size' (500 by default), so a run interrupted and
+	 * restarted does not send them again.
+	 * 
+	 * The calls to each repository are timed by a {@link MeteredFriendRepository},
+	 * and the friends loaded and merged and the birthdays found are counted by a
+	 * {@link MeteredFriendServiceListener}.
+	 * 
+	 * The messages are rendered with the {@link MessageTemplates} in the locale of
+	 * the mobile number of each recipient, resolved by the
+	 * {@link CallingCodeLocales}.
+	 * 
 	 * @param messageService The {@link MessageService} instance for sending
 	 *                       messages to friends.
+	 * @param ledger         The ledger of the delivered messages.
+	 * @param registry       The registry of the meters.
+	 * @param executor       The executor the repositories are queried on.
+	 * @param templates      The templates of the messages.
+	 * @param locales        The locales of the recipients.
+	 * @param dataVersion    The version of the friends of the database.
 	 * @param repositories   An array of {@link FriendRepository} instances.
 	 * @return A new {@link FriendServiceImpl} instance with the provided
 	 *         dependencies.
 	 */
 	@Bean
-	FriendService friendService(MessageService messageService, FriendRepository... repositories) {
-		return new FriendServiceImpl(messageService, repositories);
+	FriendService friendService(MessageService messageService, DeliveryLedger ledger, MeterRegistry registry,
+			ExecutorService executor, MessageTemplates templates, CallingCodeLocales locales,
+			SQLiteFriendDataVersion dataVersion, FriendRepository... repositories) {
+		MergePolicy mergePolicy = env.getProperty("friend.merge.policy", MergePolicy.class, MergePolicy.EXACT);
+		boolean digest = env.getProperty("friend.reminder.digest", Boolean.class, false);
+		Duration sourceTimeout = env.getProperty("friend.fanout.timeout", Duration.class, Duration.ofSeconds(30));
+		PartialResultsPolicy partialResultsPolicy = env.getProperty("friend.fanout.partial-results",
+				PartialResultsPolicy.class, PartialResultsPolicy.FAIL);
+		int ledgerBatchSize = env.getProperty("friend.ledger.batch-size", Integer.class, 500);
+		String snapshotFile = env.getProperty("friend.snapshot.file");
+		repositories = metered(repositories, registry);
+		if (snapshotFile != null && !snapshotFile.isBlank()) {
+			repositories = metered(new FriendRepository[] {
+					new SnapshotFriendRepository(Paths.get(URI.create(snapshotFile)), List.of(getFlatFilePath()),
+							dataVersion, mergePolicy, repositories) },
+					registry);
+		}
+		FriendServiceListener listener = new MeteredFriendServiceListener(registry);
+		return new FriendServiceBuilder().setMessageService(messageService).setMergePolicy(mergePolicy)
+				.setDigest(digest).setExecutor(executor).setSourceTimeout(sourceTimeout)
+				.setPartialResultsPolicy(partialResultsPolicy).setDeliveryLedger(ledger)
+				.setLedgerBatchSize(ledgerBatchSize).setListener(listener).setTemplates(templates)
+				.setLocaleResolver(locales::localeOf).setRepositories(repositories).build();
+	}
+
+	/**
+	 * Wraps each repository in a {@link MeteredFriendRepository} named after its
+	 * class.
+	 * 
+	 * @param repositories The repositories to measure.
+	 * @param registry     The registry of the meters.
+	 * @return The measured repositories.
+	 */
+	private static FriendRepository[] metered(FriendRepository[] repositories, MeterRegistry registry) {
+		FriendRepository[] metered = new FriendRepository[repositories.length];
+		for (int i = 0; i < repositories.length; i++) {
+			String name = ClassUtils.getUserClass(repositories[i]).getSimpleName();
+			metered[i] = new MeteredFriendRepository(repositories[i], name, registry);
+		}
+		return metered;
+	}
+
+	/**
+	 * 
+	 * Initializes the {@link CallingCodeZones} the {@link FriendScheduler} splits
+	 * the friends by. The default zones of the calling codes are overridden by the
+	 * environment property 'friend.scheduler.zones', a comma separated list of
+	 * 'code=zone' pairs. The friends without a known calling code are assigned to
+	 * the zone read from the environment property 'friend.scheduler.default-zone'
+	 * (the system zone by default).
+	 * 
+	 * @return A new {@link CallingCodeZones} instance.
+	 * @throws IllegalArgumentException If a pair of the overrides is malformed.
+	 */
+	@Bean
+	CallingCodeZones callingCodeZones() {
+		String defaultZone = env.getProperty("friend.scheduler.default-zone", "");
+		Map<String, ZoneId> overrides = new HashMap<>();
+		getCallingCodes("friend.scheduler.zones").forEach((code, zone) -> overrides.put(code, ZoneId.of(zone)));
+		return CallingCodeZones.withDefaults(overrides,
+				defaultZone.isBlank() ? ZoneId.systemDefault() : ZoneId.of(defaultZone));
+	}
+
+	/**
+	 * 
+	 * Initializes the {@link MessageTemplates} of the messages sent by the
+	 * {@link FriendService}: the English defaults, and the bundles
+	 * 'templates/messages_&lt;locale&gt;.properties' of the locales listed in the
+	 * environment property 'friend.templates.locales', a comma separated list of
+	 * language tags.
+	 * 
+	 * @return The templates of the messages.
+	 * @throws IllegalArgumentException If a bundle is missing or invalid.
+	 */
+	@Bean
+	MessageTemplates messageTemplates() {
+		List<Locale> locales = new ArrayList<>();
+		for (String tag : env.getProperty("friend.templates.locales", "").split(",")) {
+			if (!tag.isBlank()) {
+				locales.add(Locale.forLanguageTag(tag.trim()));
+			}
+		}
+		return MessageTemplateBundles.load("templates/messages", locales);
+	}
+
+	/**
+	 * 
+	 * Initializes the {@link CallingCodeLocales} the messages are rendered in. The
+	 * default locales of the calling codes are overridden by the environment
+	 * property 'friend.templates.calling-codes', a comma separated list of
+	 * 'code=language tag' pairs. The friends without a known calling code receive
+	 * their messages in the locale read from the environment property
+	 * 'friend.templates.default-locale' (the default English templates by
+	 * default).
+	 * 
+	 * @return A new {@link CallingCodeLocales} instance.
+	 * @throws IllegalArgumentException If a pair of the overrides is malformed.
+	 */
+	@Bean
+	CallingCodeLocales callingCodeLocales() {
+		String defaultLocale = env.getProperty("friend.templates.default-locale", "");
+		Map<String, Locale> overrides = new HashMap<>();
+		getCallingCodes("friend.templates.calling-codes")
+				.forEach((code, tag) -> overrides.put(code, Locale.forLanguageTag(tag)));
+		return CallingCodeLocales.withDefaults(overrides,
+				defaultLocale.isBlank() ? Locale.ROOT : Locale.forLanguageTag(defaultLocale));
+	}
+
+	/**
+	 * 
+	 * Initializes the {@link MobileNumberValidator} the imported friends are
+	 * checked by, with the {@link MobileNumberRules} read from the environment
+	 * property 'friend.mobile.rules', a comma separated list of 'code=length' or
+	 * 'code=min-max' pairs of the number of digits of the national numbers of
+	 * each calling code (no rules by default).
+	 * 
+	 * @return A new {@link MobileNumberValidator} instance.
+	 * @throws IllegalArgumentException If a pair of the rules is malformed.
+	 */
+	@Bean
+	MobileNumberValidator mobileNumberValidator() {
+		List<MobileNumberRule> rules = new ArrayList<>();
+		getCallingCodes("friend.mobile.rules").forEach((code, lengths) -> {
+			String[] minAndMax = lengths.split("-");
+			if (minAndMax.length > 2) {
+				throw new IllegalArgumentException("Invalid value of friend.mobile.rules: " + code + "=" + lengths);
+			}
+			try {
+				int min = Integer.parseInt(minAndMax[0].trim());
+				int max = minAndMax.length == 1 ? min : Integer.parseInt(minAndMax[1].trim());
+				rules.add(new MobileNumberRule(code, min, max));
+			} catch (NumberFormatException e) {
+				throw new IllegalArgumentException("Invalid value of friend.mobile.rules: " + code + "=" + lengths, e);
+			}
+		});
+		return new MobileNumberValidator(new MobileNumberRules(rules));
+	}
+
+	/**
+	 * Reads a comma separated list of 'code=value' pairs from an environment
+	 * property. The '+' prefix of the calling codes is optional.
+	 * 
+	 * @param property The name of the property.
+	 * @return The values of the calling codes.
+	 * @throws IllegalArgumentException If a pair is malformed.
+	 */
+	private Map<String, String> getCallingCodes(String property) {
+		Map<String, String> values = new HashMap<>();
+		getPairs(property).forEach((code, value) -> values.put(code.replaceFirst("^\\+", ""), value));
+		return values;
+	}
+
+	/**
+	 * Reads a comma separated list of 'key=value' pairs from an environment
+	 * property.
+	 * 
+	 * @param property The name of the property.
+	 * @return The values of the keys.
+	 * @throws IllegalArgumentException If a pair is malformed.
+	 */
+	private Map<String, String> getPairs(String property) {
+		Map<String, String> values = new HashMap<>();
+		for (String pair : env.getProperty(property, "").split(",")) {
+			if (pair.isBlank()) {
+				continue;
+			}
+			String[] keyAndValue = pair.split("=");
+			if (keyAndValue.length != 2) {
+				throw new IllegalArgumentException("Invalid value of " + property + ": " + pair);
+			}
+			values.put(keyAndValue[0].trim(), keyAndValue[1].trim());
+		}
+		return values;
+	}
+
+	/**
+	 * Reads a {@link RateLimit} from the environment properties '&lt;prefix&gt;.rate'
+	 * and '&lt;prefix&gt;.burst'.
+	 * 
+	 * @param prefix The prefix of the properties.
+	 * @return The rate limit, unlimited if the rate is not set.
+	 */
+	private RateLimit getRateLimit(String prefix) {
+		double rate = env.getProperty(prefix + ".rate", Double.class, 0d);
+		Integer burst = env.getProperty(prefix + ".burst", Integer.class);
+		return burst == null ? RateLimit.of(rate) : new RateLimit(rate, burst);
 	}
 
-}
+}
\ No newline at end of file
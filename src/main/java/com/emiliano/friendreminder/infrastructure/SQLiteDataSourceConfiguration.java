@@ -0,0 +1,140 @@
+package com.emiliano.friendreminder.infrastructure;
+
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.sqlite.SQLiteConfig;
+import org.sqlite.SQLiteDataSource;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * SQLite data source configuration for the application.
+ *
+ * SQLite allows a single writer at a time, but in write-ahead log (WAL) mode
+ * the readers are not blocked by the writer and read the last committed data.
+ * This class sets up two connection pools on the database of the
+ * 'spring.datasource.url' property:
+ *
+ * <ul>
+ * <li>a writer pool with a single connection, so the writes of the application
+ * wait for each other in the pool instead of failing with SQLITE_BUSY;</li>
+ * <li>a read pool, of 'friend.sqlite.read-pool-size' connections (4 by
+ * default), used by the read-only transactions.</li>
+ * </ul>
+ *
+ * The connections are opened in WAL mode with synchronous NORMAL, which is safe
+ * from corruption in WAL mode and only syncs at checkpoints, a memory temporary
+ * store, a page cache of 'friend.sqlite.cache-size' KiB (16 MiB by default),
+ * memory-mapped reads of up to 'friend.sqlite.mmap-size' bytes (256 MiB by
+ * default), and a busy timeout of 'friend.sqlite.busy-timeout' milliseconds (5
+ * seconds by default) for the writes of other processes.
+ *
+ * The schema of the database is created and upgraded by the
+ * {@link SQLiteSchemaMigrations} through the writer pool, before the data
+ * source is used.
+ *
+ * @author Emiliano Pessoa
+ */
+@Configuration
+public class SQLiteDataSourceConfiguration {
+
+	private static final String WRITE = "write";
+	private static final String READ = "read";
+
+	@Autowired
+	Environment env;
+
+	/**
+	 * Initializes the data source of the application, which routes the read-only
+	 * transactions to the read pool and everything else to the writer pool.
+	 *
+	 * The connection is only taken from a pool when the first statement is
+	 * executed, after the transaction has been started, so the pool can be chosen
+	 * by the read-only flag of the transaction.
+	 *
+	 * @return The data source of the application.
+	 */
+	@Bean
+	@Primary
+	DataSource dataSource() {
+		new SQLiteSchemaMigrations(sqliteWriteDataSource()).migrate();
+		AbstractRoutingDataSource routing = new AbstractRoutingDataSource() {
+
+			@Override
+			protected Object determineCurrentLookupKey() {
+				return TransactionSynchronizationManager.isCurrentTransactionReadOnly() ? READ : WRITE;
+			}
+		};
+		routing.setTargetDataSources(Map.of(WRITE, sqliteWriteDataSource(), READ, sqliteReadDataSource()));
+		routing.setDefaultTargetDataSource(sqliteWriteDataSource());
+		routing.afterPropertiesSet();
+		return new LazyConnectionDataSourceProxy(routing);
+	}
+
+	/**
+	 * Initializes the pool with the single writer connection.
+	 *
+	 * @return The writer pool.
+	 */
+	@Bean(autowireCandidate = false)
+	HikariDataSource sqliteWriteDataSource() {
+		return createPool("sqlite-write", 1, false);
+	}
+
+	/**
+	 * Initializes the pool of the read-only transactions.
+	 *
+	 * @return The read pool.
+	 */
+	@Bean(autowireCandidate = false)
+	HikariDataSource sqliteReadDataSource() {
+		return createPool("sqlite-read", env.getProperty("friend.sqlite.read-pool-size", Integer.class, 4),
+				true);
+	}
+
+	/**
+	 * Creates a pool of SQLite connections opened with the configured pragmas. The
+	 * journal mode is persisted in the database file, so it is only set by the
+	 * writer connections.
+	 */
+	private HikariDataSource createPool(String name, int size, boolean readOnly) {
+		SQLiteConfig config = new SQLiteConfig();
+		if (readOnly) {
+			config.setReadOnly(true);
+		} else {
+			config.setJournalMode(SQLiteConfig.JournalMode.WAL);
+		}
+		config.setSynchronous(SQLiteConfig.SynchronousMode.NORMAL);
+		config.setTempStore(SQLiteConfig.TempStore.MEMORY);
+		config.setCacheSize(-env.getProperty("friend.sqlite.cache-size", Integer.class, 16384));
+		config.setPragma(SQLiteConfig.Pragma.MMAP_SIZE,
+				String.valueOf(env.getProperty("friend.sqlite.mmap-size", Long.class, 256L << 20)));
+		config.setBusyTimeout(env.getProperty("friend.sqlite.busy-timeout", Integer.class, 5000));
+
+		SQLiteDataSource sqlite = new SQLiteDataSource(config);
+		sqlite.setUrl(env.getRequiredProperty("spring.datasource.url"));
+
+		HikariConfig pool = new HikariConfig();
+		pool.setPoolName(name);
+		pool.setDataSource(sqlite);
+		pool.setMaximumPoolSize(size);
+		pool.setReadOnly(readOnly);
+		pool.setMinimumIdle(1);
+		// SQLite connections do not expire, so they are kept open.
+		pool.setMaxLifetime(0);
+		pool.setIdleTimeout(0);
+		return new HikariDataSource(pool);
+	}
+
+}
@@ -0,0 +1,190 @@
+package com.emiliano.friendreminder.infrastructure;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.logging.Logger;
+
+import javax.sql.DataSource;
+
+/**
+ * Creates and upgrades the schema of the SQLite database.
+ *
+ * The version of the schema is kept in the 'user_version' pragma of the
+ * database file. Each migration upgrades the schema by one version, and the
+ * migrations missing from a database are run in order, in a single transaction,
+ * when the application starts. Hibernate only validates the schema, since it
+ * cannot backfill the columns it adds, nor add a unique index to an existing
+ * SQLite table.
+ *
+ * Databases created before the migrations have version 0, whatever columns
+ * Hibernate had added to them, so the migrations check the columns before
+ * adding them.
+ *
+ * @author Emiliano Pessoa
+ */
+public class SQLiteSchemaMigrations {
+
+	private static final Logger logger = Logger.getLogger(SQLiteSchemaMigrations.class.getName());
+
+	private final DataSource dataSource;
+	private final List<Migration> migrations = List.of(this::createTables, this::indexFriends,
+			this::versionFriends);
+
+	/**
+	 * Creates a new instance of SQLiteSchemaMigrations.
+	 *
+	 * @param dataSource The data source of the database, which must allow writes.
+	 */
+	public SQLiteSchemaMigrations(DataSource dataSource) {
+		this.dataSource = dataSource;
+	}
+
+	/**
+	 * Returns the version of the schema the migrations upgrade to.
+	 *
+	 * @return The last version of the schema.
+	 */
+	public int getLatestVersion() {
+		return migrations.size();
+	}
+
+	/**
+	 * Runs the migrations missing from the database.
+	 *
+	 * @return The version of the schema before the migrations.
+	 * @throws IllegalStateException If the schema is newer than the migrations, or
+	 *                               a migration fails. The database is left
+	 *                               unchanged in that case.
+	 */
+	public int migrate() {
+		try (Connection connection = dataSource.getConnection()) {
+			boolean autoCommit = connection.getAutoCommit();
+			connection.setAutoCommit(false);
+			try (Statement statement = connection.createStatement()) {
+				int version = getVersion(statement);
+				if (version > migrations.size()) {
+					throw new IllegalStateException("The database schema version " + version
+							+ " is newer than the application version " + migrations.size());
+				}
+				for (int i = version; i < migrations.size(); i++) {
+					migrations.get(i).migrate(connection, statement);
+					logger.info("Database schema migrated to version " + (i + 1));
+				}
+				statement.execute("PRAGMA user_version = " + migrations.size());
+				connection.commit();
+				return version;
+			} catch (SQLException | RuntimeException e) {
+				connection.rollback();
+				throw e;
+			} finally {
+				connection.setAutoCommit(autoCommit);
+			}
+		} catch (SQLException e) {
+			throw new IllegalStateException("Error migrating the database schema", e);
+		}
+	}
+
+	private static int getVersion(Statement statement) throws SQLException {
+		try (ResultSet rs = statement.executeQuery("PRAGMA user_version")) {
+			return rs.next() ? rs.getInt(1) : 0;
+		}
+	}
+
+	/**
+	 * Version 1: the tables of the entities, as they were first created.
+	 */
+	private void createTables(Connection connection, Statement statement) throws SQLException {
+		statement.execute("CREATE TABLE IF NOT EXISTS friend_entity (id integer, date_of_birth DATE,"
+				+ " email varchar(255), first_name varchar(255), last_name varchar(255), mobile varchar(255),"
+				+ " primary key (id))");
+		statement.execute("CREATE TABLE IF NOT EXISTS scheduler_run_entity (zone varchar(255) not null,"
+				+ " last_date DATE, primary key (zone))");
+		statement.execute("CREATE TABLE IF NOT EXISTS delivery (recipient varchar(255) not null,"
+				+ " birthday_friend varchar(255) not null, delivery_date DATE not null,"
+				+ " channel varchar(255) not null,"
+				+ " primary key (recipient, birthday_friend, delivery_date, channel))");
+	}
+
+	/**
+	 * Version 2: the indexed month and day of birth of the friends, backfilled
+	 * from the dates of birth, and the unique index of the emails. When an email
+	 * is duplicated, only the friend imported last is kept.
+	 */
+	private void indexFriends(Connection connection, Statement statement) throws SQLException {
+		Set<String> columns = getColumns(statement, "friend_entity");
+		if (!columns.contains("birth_month")) {
+			statement.execute("ALTER TABLE friend_entity ADD COLUMN birth_month integer");
+		}
+		if (!columns.contains("birth_day")) {
+			statement.execute("ALTER TABLE friend_entity ADD COLUMN birth_day integer");
+		}
+
+		// The dates are read by the driver, which knows how they were stored.
+		try (PreparedStatement update = connection
+				.prepareStatement("UPDATE friend_entity SET birth_month = ?, birth_day = ? WHERE id = ?");
+				ResultSet rs = statement.executeQuery("SELECT id, date_of_birth FROM friend_entity"
+						+ " WHERE date_of_birth IS NOT NULL AND (birth_month IS NULL OR birth_day IS NULL)")) {
+			while (rs.next()) {
+				Date date = rs.getDate(2);
+				LocalDate dateOfBirth = date.toLocalDate();
+				update.setInt(1, dateOfBirth.getMonthValue());
+				update.setInt(2, dateOfBirth.getDayOfMonth());
+				update.setLong(3, rs.getLong(1));
+				update.addBatch();
+			}
+			update.executeBatch();
+		}
+		statement.execute("CREATE INDEX IF NOT EXISTS idx_friend_entity_birth_month_day"
+				+ " ON friend_entity (birth_month, birth_day)");
+
+		int duplicates = statement.executeUpdate("DELETE FROM friend_entity WHERE email IS NOT NULL"
+				+ " AND id NOT IN (SELECT MAX(id) FROM friend_entity WHERE email IS NOT NULL GROUP BY email)");
+		if (duplicates > 0) {
+			logger.warning(duplicates + " friends with duplicated emails were deleted");
+		}
+		statement.execute("CREATE UNIQUE INDEX IF NOT EXISTS idx_friend_entity_email ON friend_entity (email)");
+	}
+
+	/**
+	 * Version 3: the version of the friends, increased by triggers on every change
+	 * to the friends, so the caches of the friends know when they are stale.
+	 */
+	private void versionFriends(Connection connection, Statement statement) throws SQLException {
+		statement.execute("CREATE TABLE IF NOT EXISTS data_version (name varchar(255) not null,"
+				+ " version integer not null, primary key (name))");
+		statement.execute("INSERT OR IGNORE INTO data_version (name, version) VALUES ('friend_entity', 0)");
+		for (String event : List.of("INSERT", "UPDATE", "DELETE")) {
+			statement.execute("CREATE TRIGGER IF NOT EXISTS friend_entity_" + event.toLowerCase() + "_version"
+					+ " AFTER " + event + " ON friend_entity BEGIN UPDATE data_version"
+					+ " SET version = version + 1 WHERE name = 'friend_entity'; END");
+		}
+	}
+
+	private static Set<String> getColumns(Statement statement, String table) throws SQLException {
+		Set<String> columns = new HashSet<>();
+		try (ResultSet rs = statement.executeQuery("PRAGMA table_info(" + table + ")")) {
+			while (rs.next()) {
+				columns.add(rs.getString("name"));
+			}
+		}
+		return columns;
+	}
+
+	/**
+	 * Upgrades the schema by one version.
+	 */
+	@FunctionalInterface
+	private interface Migration {
+
+		void migrate(Connection connection, Statement statement) throws SQLException;
+	}
+
+}
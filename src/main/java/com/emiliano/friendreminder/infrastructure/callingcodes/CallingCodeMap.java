@@ -0,0 +1,87 @@
+package com.emiliano.friendreminder.infrastructure.callingcodes;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Maps mobile numbers to values by the international calling code of the
+ * number.
+ *
+ * Mobile numbers without an international prefix ('+' or '00'), or with an
+ * unknown calling code, are mapped to the default value.
+ *
+ * @param <V> The type of the values.
+ * @author Emiliano Pessoa
+ */
+public class CallingCodeMap<V> {
+
+	private static final int MAX_CALLING_CODE_LENGTH = 3;
+
+	private final Map<String, V> values;
+	private final V defaultValue;
+
+	/**
+	 * Creates a new instance of CallingCodeMap.
+	 *
+	 * @param values       The values of the calling codes, without the
+	 *                     international prefix.
+	 * @param defaultValue The value of the numbers without a known calling code.
+	 */
+	public CallingCodeMap(Map<String, V> values, V defaultValue) {
+		this.values = Map.copyOf(values);
+		this.defaultValue = defaultValue;
+	}
+
+	/**
+	 * Gets the value of a mobile number, from its known calling code.
+	 *
+	 * @param mobileNumber The mobile number.
+	 * @return The value of the calling code, or the default value.
+	 */
+	public V get(String mobileNumber) {
+		int start;
+		if (mobileNumber.startsWith("+")) {
+			start = 1;
+		} else if (mobileNumber.startsWith("00")) {
+			start = 2;
+		} else {
+			return defaultValue;
+		}
+		StringBuilder code = new StringBuilder(MAX_CALLING_CODE_LENGTH);
+		for (int i = start; i < mobileNumber.length() && code.length() < MAX_CALLING_CODE_LENGTH; i++) {
+			char c = mobileNumber.charAt(i);
+			if (c >= '0' && c <= '9') {
+				code.append(c);
+			} else if (c != ' ' || code.length() > 0) {
+				break;
+			}
+		}
+		// Calling codes are prefix-free, so the first known prefix is the only one.
+		for (int length = 1; length <= code.length(); length++) {
+			V value = values.get(code.substring(0, length));
+			if (value != null) {
+				return value;
+			}
+		}
+		return defaultValue;
+	}
+
+	/**
+	 * Gets the value of the numbers without a known calling code.
+	 *
+	 * @return The default value.
+	 */
+	public V getDefaultValue() {
+		return defaultValue;
+	}
+
+	/**
+	 * Gets the values of the known calling codes.
+	 *
+	 * @return The values, which may contain duplicates.
+	 */
+	public Collection<V> getValues() {
+		return values.values();
+	}
+
+}
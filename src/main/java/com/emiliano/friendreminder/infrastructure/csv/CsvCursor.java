@@ -0,0 +1,334 @@
+package com.emiliano.friendreminder.infrastructure.csv;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+
+/**
+ * A forward only cursor over the rows of a memory mapped CSV file, following
+ * RFC 4180: fields are separated by commas, rows by LF or CRLF, and fields may
+ * be enclosed in double quotes, in which case a double quote is escaped by
+ * another double quote. Blank rows are skipped.
+ *
+ * The cursor only records the offsets of the fields of the current row. Values
+ * are decoded on demand by {@link #getString(int)} and {@link #getDate(int)}.
+ *
+ * Instances are created by {@link MappedCsvReader} and are not thread safe.
+ *
+ * @author Emiliano Pessoa
+ */
+public class CsvCursor implements Closeable {
+
+	private static final byte QUOTE = '"';
+	private static final byte COMMA = ',';
+	private static final byte CR = '\r';
+	private static final byte LF = '\n';
+
+	private final FileChannel channel;
+	private final long end;
+	private final long windowSize;
+
+	private MappedByteBuffer buffer = null;
+	private long base;
+	private int limit;
+	private boolean atEof;
+	private int position;
+
+	private long rowOffset;
+	private boolean rowTerminated;
+	private boolean blankRow;
+	private int fieldCount;
+	private int[] fieldStart = new int[8];
+	private int[] fieldEnd = new int[8];
+	private boolean[] fieldEscaped = new boolean[8];
+	private byte[] scratch = new byte[64];
+
+	/**
+	 * Creates a new cursor over a region of a file.
+	 *
+	 * @param channel    The channel of the file, closed with the cursor.
+	 * @param from       The offset of the first byte of the region.
+	 * @param end        The offset after the last byte of the region.
+	 * @param windowSize The size of the region of the file mapped at once.
+	 */
+	CsvCursor(FileChannel channel, long from, long end, long windowSize) {
+		this.channel = channel;
+		this.base = from;
+		this.end = end;
+		this.windowSize = windowSize;
+	}
+
+	/**
+	 * Moves the cursor to the next row.
+	 *
+	 * @return True if there is a next row, false at the end of the region.
+	 * @throws UncheckedIOException     If the file cannot be mapped.
+	 * @throws IllegalArgumentException If the file is not a valid CSV file.
+	 */
+	public boolean next() {
+		while (true) {
+			if (buffer == null) {
+				map(base);
+				skipByteOrderMark();
+			}
+			if (base + position >= end) {
+				return false;
+			}
+			if (!parseRow()) {
+				// The row continues after the mapped window.
+				if (position == 0) {
+					throw new IllegalArgumentException("Row bigger than the mapping window at offset " + base);
+				}
+				map(base + position);
+				continue;
+			}
+			if (blankRow) {
+				continue;
+			}
+			return true;
+		}
+	}
+
+	/**
+	 * Returns the number of fields of the current row.
+	 *
+	 * @return The number of fields of the current row.
+	 */
+	public int getFieldCount() {
+		return fieldCount;
+	}
+
+	/**
+	 * Returns the offset of the first byte of the current row in the file.
+	 *
+	 * @return The offset of the current row.
+	 */
+	public long getRowOffset() {
+		return rowOffset;
+	}
+
+	/**
+	 * Returns the offset in the file right after the current row.
+	 *
+	 * @return The offset after the current row.
+	 */
+	public long getRowEndOffset() {
+		return base + position;
+	}
+
+	/**
+	 * Returns whether the current row ends with a line break. Only the last row of
+	 * a file may not be terminated.
+	 *
+	 * @return True if the current row ends with a line break.
+	 */
+	public boolean isRowTerminated() {
+		return rowTerminated;
+	}
+
+	/**
+	 * Decodes a field of the current row as an UTF-8 String.
+	 *
+	 * @param field The zero based index of the field.
+	 * @return The value of the field, or null if the row has no such field.
+	 */
+	public String getString(int field) {
+		if (field < 0 || field >= fieldCount) {
+			return null;
+		}
+		int start = fieldStart[field];
+		int length = fieldEnd[field] - start;
+		if (scratch.length < length) {
+			scratch = new byte[Math.max(length, scratch.length * 2)];
+		}
+		if (fieldEscaped[field]) {
+			// Collapse the escaped double quotes.
+			int j = 0;
+			for (int i = start; i < start + length; i++) {
+				byte b = buffer.get(i);
+				scratch[j++] = b;
+				if (b == QUOTE) {
+					i++;
+				}
+			}
+			length = j;
+		} else {
+			buffer.get(start, scratch, 0, length);
+		}
+		return new String(scratch, 0, length, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Parses a field of the current row formatted as yyyy/MM/dd, without creating
+	 * intermediate objects.
+	 *
+	 * @param field The zero based index of the field.
+	 * @return The date of the field, or null if the row has no such field.
+	 * @throws DateTimeParseException If the field is not a valid date.
+	 */
+	public LocalDate getDate(int field) {
+		if (field < 0 || field >= fieldCount) {
+			return null;
+		}
+		int start = fieldStart[field];
+		if (fieldEnd[field] - start == 10 && buffer.get(start + 4) == '/' && buffer.get(start + 7) == '/') {
+			int year = parseDigits(start, 4);
+			int month = parseDigits(start + 5, 2);
+			int day = parseDigits(start + 8, 2);
+			if (year >= 0 && month >= 0 && day >= 0) {
+				try {
+					return LocalDate.of(year, month, day);
+				} catch (DateTimeException e) {
+					throw new DateTimeParseException(e.getMessage(), getString(field), 0, e);
+				}
+			}
+		}
+		throw new DateTimeParseException("Text '" + getString(field) + "' could not be parsed as yyyy/MM/dd",
+				getString(field), 0);
+	}
+
+	@Override
+	public void close() throws IOException {
+		buffer = null;
+		channel.close();
+	}
+
+	/**
+	 * Parses the row starting at the current position.
+	 *
+	 * @return True if the row was parsed, false if it continues after the mapped
+	 *         window.
+	 */
+	private boolean parseRow() {
+		int p = position;
+		fieldCount = 0;
+		blankRow = false;
+		while (true) {
+			if (fieldCount == fieldStart.length) {
+				fieldStart = Arrays.copyOf(fieldStart, fieldCount * 2);
+				fieldEnd = Arrays.copyOf(fieldEnd, fieldCount * 2);
+				fieldEscaped = Arrays.copyOf(fieldEscaped, fieldCount * 2);
+			}
+			boolean escaped = false;
+			if (p < limit && buffer.get(p) == QUOTE) {
+				int start = ++p;
+				while (true) {
+					if (p >= limit) {
+						if (atEof) {
+							throw new IllegalArgumentException("Unterminated quoted field at offset " + (base + start));
+						}
+						return false;
+					}
+					if (buffer.get(p) == QUOTE) {
+						if (p + 1 >= limit && !atEof) {
+							return false;
+						}
+						if (p + 1 < limit && buffer.get(p + 1) == QUOTE) {
+							escaped = true;
+							p += 2;
+							continue;
+						}
+						break;
+					}
+					p++;
+				}
+				fieldStart[fieldCount] = start;
+				fieldEnd[fieldCount] = p++;
+			} else {
+				int start = p;
+				while (p < limit) {
+					byte b = buffer.get(p);
+					if (b == COMMA || b == LF || b == CR) {
+						break;
+					}
+					p++;
+				}
+				fieldStart[fieldCount] = start;
+				fieldEnd[fieldCount] = p;
+				blankRow = fieldCount == 0 && start == p;
+			}
+			fieldEscaped[fieldCount++] = escaped;
+
+			if (p >= limit) {
+				if (!atEof) {
+					return false;
+				}
+				return endRow(p, false);
+			}
+			byte b = buffer.get(p);
+			if (b == COMMA) {
+				blankRow = false;
+				p++;
+			} else if (b == LF) {
+				return endRow(p + 1, true);
+			} else if (b == CR) {
+				if (p + 1 >= limit && !atEof) {
+					return false;
+				}
+				return endRow(p + 1 < limit && buffer.get(p + 1) == LF ? p + 2 : p + 1, true);
+			} else {
+				throw new IllegalArgumentException("Unexpected character after quoted field at offset " + (base + p));
+			}
+		}
+	}
+
+	/**
+	 * Marks the end of the current row.
+	 */
+	private boolean endRow(int next, boolean terminated) {
+		rowOffset = base + position;
+		rowTerminated = terminated;
+		position = next;
+		return true;
+	}
+
+	/**
+	 * Maps the window of the file starting at the given offset.
+	 */
+	private void map(long offset) {
+		try {
+			long length = Math.min(windowSize, end - offset);
+			buffer = channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+			base = offset;
+			limit = (int) length;
+			atEof = offset + length == end;
+			position = 0;
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Skips the UTF-8 byte order mark at the beginning of the file.
+	 */
+	private void skipByteOrderMark() {
+		if (base == 0 && limit >= 3 && buffer.get(0) == (byte) 0xEF && buffer.get(1) == (byte) 0xBB
+				&& buffer.get(2) == (byte) 0xBF) {
+			position = 3;
+		}
+	}
+
+	/**
+	 * Parses a fixed number of ASCII digits.
+	 *
+	 * @return The parsed value, or -1 if any of the bytes is not a digit.
+	 */
+	private int parseDigits(int start, int count) {
+		int value = 0;
+		for (int i = start; i < start + count; i++) {
+			int digit = buffer.get(i) - '0';
+			if (digit < 0 || digit > 9) {
+				return -1;
+			}
+			value = value * 10 + digit;
+		}
+		return value;
+	}
+}
@@ -0,0 +1,326 @@
+package com.emiliano.friendreminder.infrastructure.csv;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/**
+ * Keeps the rows of a CSV file in memory and reloads them only when the file
+ * changes.
+ *
+ * The cached rows are identified by the size, the last modified time and a
+ * CRC32 hash of the content of the file. A {@link WatchService} marks the cache
+ * as stale when the file is modified, so reading an unchanged file costs no
+ * I/O at all. When the file only grew and the end of the previously read
+ * content is unchanged, only the appended bytes are parsed.
+ *
+ * A full read may be parsed in parallel by a {@link ParallelCsvParser}.
+ *
+ * @param <T> The type of the objects the rows are mapped to.
+ *
+ * @author Emiliano Pessoa
+ */
+public class CsvFileCache<T> implements Closeable {
+
+	private static final Logger logger = Logger.getLogger(CsvFileCache.class.getName());
+	private static final int FINGERPRINT_SIZE = 4096;
+
+	/**
+	 * Maps the current row of a {@link CsvCursor} to an object.
+	 *
+	 * @param <T> The type of the objects the rows are mapped to.
+	 */
+	public interface RowMapper<T> {
+
+		/**
+		 * Maps the current row of the cursor.
+		 *
+		 * @param cursor The cursor positioned on the row to map.
+		 * @return The mapped object.
+		 */
+		T map(CsvCursor cursor);
+	}
+
+	/**
+	 * An immutable view of the rows of the file. The generation changes whenever
+	 * rows that were already read are changed or removed, so rows of a snapshot
+	 * with the same generation as a previous one are only added at the end.
+	 *
+	 * @param <T>        The type of the objects the rows are mapped to.
+	 * @param generation The generation of the rows.
+	 * @param rows       The mapped rows of the file, without the header.
+	 */
+	public record Snapshot<T> (long generation, List<T> rows) {
+	}
+
+	private final MappedCsvReader reader;
+	private final Function<List<String>, RowMapper<T>> mapperFactory;
+	private final ParallelCsvParser parallelParser;
+	private final WatchService watchService;
+	private volatile boolean stale = true;
+
+	private Snapshot<T> snapshot = null;
+	private RowMapper<T> mapper = null;
+	private long generation = 0;
+	private long size;
+	private FileTime lastModified;
+	private CRC32 contentHash;
+	private long fingerprint;
+	private long lastRowOffset;
+	private boolean lastRowTerminated;
+	private boolean lastRowIsHeader;
+
+	/**
+	 * Creates a new instance of CsvFileCache and starts watching the file.
+	 *
+	 * @param reader        The reader of the CSV file.
+	 * @param mapperFactory Creates the {@link RowMapper} from the names of the
+	 *                      columns in the header of the file.
+	 */
+	public CsvFileCache(MappedCsvReader reader, Function<List<String>, RowMapper<T>> mapperFactory) {
+		this(reader, mapperFactory, null);
+	}
+
+	/**
+	 * Creates a new instance of CsvFileCache and starts watching the file.
+	 *
+	 * @param reader         The reader of the CSV file.
+	 * @param mapperFactory  Creates the {@link RowMapper} from the names of the
+	 *                       columns in the header of the file. The mappers must
+	 *                       be thread safe if a parallel parser is used.
+	 * @param parallelParser The parser used to read the whole file, or null to
+	 *                       read it on the calling thread.
+	 */
+	public CsvFileCache(MappedCsvReader reader, Function<List<String>, RowMapper<T>> mapperFactory,
+			ParallelCsvParser parallelParser) {
+		this.reader = reader;
+		this.mapperFactory = mapperFactory;
+		this.parallelParser = parallelParser;
+		this.watchService = watch(reader.getPath());
+	}
+
+	/**
+	 * Returns the rows of the file, reading only what changed since the last call.
+	 *
+	 * @return A snapshot of the rows of the file.
+	 * @throws RuntimeException If there is an error reading the CSV file. The file
+	 *                          is read again in full on the next call.
+	 */
+	public synchronized Snapshot<T> get() {
+		if (snapshot != null && !stale) {
+			return snapshot;
+		}
+		// Without a watch service, the file attributes are checked on every call.
+		stale = watchService == null;
+		boolean read = false;
+		try {
+			Snapshot<T> current = refresh();
+			read = true;
+			return current;
+		} catch (IOException e) {
+			throw new RuntimeException("Error reading CSV file", e);
+		} finally {
+			if (!read) {
+				// The rows may have been partly read, so they are not appended to.
+				stale = true;
+				size = -1;
+				lastRowIsHeader = true;
+			}
+		}
+	}
+
+	/**
+	 * Reads what changed in the file since the last read.
+	 */
+	private Snapshot<T> refresh() throws IOException {
+		BasicFileAttributes attributes = Files.readAttributes(reader.getPath(), BasicFileAttributes.class);
+		long newSize = attributes.size();
+		FileTime newLastModified = attributes.lastModifiedTime();
+
+		if (snapshot != null) {
+			if (newSize == size && newLastModified.equals(lastModified)) {
+				return snapshot;
+			}
+			if (newSize == size && checksum(new CRC32(), 0, size).getValue() == contentHash.getValue()) {
+				// Only the modified time changed.
+				lastModified = newLastModified;
+				return snapshot;
+			}
+			if (newSize > size && !lastRowIsHeader && fingerprint(size) == fingerprint) {
+				append(newSize, newLastModified);
+				return snapshot;
+			}
+		}
+		load(newSize, newLastModified);
+		return snapshot;
+	}
+
+	/**
+	 * Marks the cache as stale, so the file is checked on the next call to
+	 * {@link #get()}.
+	 */
+	public void invalidate() {
+		stale = true;
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (parallelParser != null) {
+			parallelParser.close();
+		}
+		if (watchService != null) {
+			watchService.close();
+		}
+	}
+
+	/**
+	 * Reads the whole file.
+	 */
+	private void load(long newSize, FileTime newLastModified) throws IOException {
+		List<T> rows = new ArrayList<>();
+		mapper = null;
+		lastRowIsHeader = true;
+		lastRowTerminated = true;
+		try (CsvCursor cursor = reader.open(0, newSize)) {
+			if (cursor.next()) {
+				List<String> headers = new ArrayList<>(cursor.getFieldCount());
+				for (int i = 0; i < cursor.getFieldCount(); i++) {
+					headers.add(cursor.getString(i));
+				}
+				mapper = mapperFactory.apply(headers);
+				lastRowTerminated = cursor.isRowTerminated();
+				if (parallelParser != null) {
+					readRows(parallelParser.parse(reader, mapper, cursor.getRowEndOffset(), newSize), rows);
+				} else {
+					readRows(cursor, rows);
+				}
+			}
+		}
+		size = newSize;
+		lastModified = newLastModified;
+		contentHash = checksum(new CRC32(), 0, newSize);
+		fingerprint = fingerprint(newSize);
+		snapshot = new Snapshot<>(++generation, Collections.unmodifiableList(rows));
+	}
+
+	/**
+	 * Reads the rows appended to the file since the last read.
+	 */
+	private void append(long newSize, FileTime newLastModified) throws IOException {
+		List<T> rows = new ArrayList<>(snapshot.rows());
+		long from = size;
+		long newGeneration = generation;
+		if (!lastRowTerminated) {
+			// The last row may continue in the appended content, so it is read again.
+			rows.remove(rows.size() - 1);
+			from = lastRowOffset;
+			newGeneration = ++generation;
+		}
+		try (CsvCursor cursor = reader.open(from, newSize)) {
+			readRows(cursor, rows);
+		}
+		checksum(contentHash, size, newSize);
+		size = newSize;
+		lastModified = newLastModified;
+		fingerprint = fingerprint(newSize);
+		snapshot = new Snapshot<>(newGeneration, Collections.unmodifiableList(rows));
+	}
+
+	/**
+	 * Maps the remaining rows of the cursor.
+	 */
+	private void readRows(CsvCursor cursor, List<T> rows) {
+		while (cursor.next()) {
+			rows.add(mapper.map(cursor));
+			lastRowOffset = cursor.getRowOffset();
+			lastRowTerminated = cursor.isRowTerminated();
+			lastRowIsHeader = false;
+		}
+	}
+
+	/**
+	 * Adds the rows parsed in parallel.
+	 */
+	private void readRows(ParallelCsvParser.Result<T> result, List<T> rows) {
+		if (!result.rows().isEmpty()) {
+			rows.addAll(result.rows());
+			lastRowOffset = result.lastRowOffset();
+			lastRowTerminated = result.lastRowTerminated();
+			lastRowIsHeader = false;
+		}
+	}
+
+	/**
+	 * Computes the hash of the last bytes of the first {@code length} bytes of the
+	 * file.
+	 */
+	private long fingerprint(long length) throws IOException {
+		return checksum(new CRC32(), Math.max(0, length - FINGERPRINT_SIZE), length).getValue();
+	}
+
+	/**
+	 * Updates a checksum with a region of the file.
+	 */
+	private CRC32 checksum(CRC32 crc, long from, long to) throws IOException {
+		try (FileChannel channel = FileChannel.open(reader.getPath(), StandardOpenOption.READ)) {
+			for (long offset = from; offset < to; offset += Integer.MAX_VALUE) {
+				long length = Math.min(Integer.MAX_VALUE, to - offset);
+				crc.update(channel.map(FileChannel.MapMode.READ_ONLY, offset, length));
+			}
+		}
+		return crc;
+	}
+
+	/**
+	 * Starts a daemon thread that marks the cache as stale when the file changes.
+	 *
+	 * @return The watch service, or null if the file system cannot be watched.
+	 */
+	private WatchService watch(Path path) {
+		Path file = path.toAbsolutePath();
+		try {
+			WatchService service = file.getFileSystem().newWatchService();
+			file.getParent().register(service, StandardWatchEventKinds.ENTRY_CREATE,
+					StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+			Thread thread = new Thread(() -> {
+				try {
+					while (true) {
+						WatchKey key = service.take();
+						for (WatchEvent<?> event : key.pollEvents()) {
+							if (event.kind() == StandardWatchEventKinds.OVERFLOW
+									|| file.getFileName().equals(event.context())) {
+								stale = true;
+							}
+						}
+						key.reset();
+					}
+				} catch (ClosedWatchServiceException | InterruptedException e) {
+					// The cache was closed.
+				}
+			}, "csv-file-watcher");
+			thread.setDaemon(true);
+			thread.start();
+			return service;
+		} catch (IOException | UnsupportedOperationException e) {
+			logger.log(Level.WARNING, "Unable to watch " + file + ", the file will be checked on every read.", e);
+			return null;
+		}
+	}
+}
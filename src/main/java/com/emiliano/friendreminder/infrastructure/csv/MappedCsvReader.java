@@ -0,0 +1,91 @@
+package com.emiliano.friendreminder.infrastructure.csv;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads CSV files by mapping them into memory with
+ * {@link FileChannel#map(FileChannel.MapMode, long, long)}.
+ *
+ * The rows are scanned directly from the mapped bytes by a {@link CsvCursor},
+ * which only creates Strings for the fields that are actually read. Files
+ * bigger than the mapping window are mapped one window at a time.
+ *
+ * @author Emiliano Pessoa
+ */
+public class MappedCsvReader {
+
+	/**
+	 * The default size of the region of the file mapped at once.
+	 */
+	public static final long DEFAULT_WINDOW_SIZE = 1L << 30;
+
+	private final Path path;
+	private final long windowSize;
+
+	/**
+	 * Creates a new instance of MappedCsvReader.
+	 *
+	 * @param path The location of the CSV file.
+	 */
+	public MappedCsvReader(Path path) {
+		this(path, DEFAULT_WINDOW_SIZE);
+	}
+
+	/**
+	 * Creates a new instance of MappedCsvReader.
+	 *
+	 * @param path       The location of the CSV file.
+	 * @param windowSize The size of the region of the file mapped at once. It must
+	 *                   be bigger than the longest row of the file.
+	 */
+	public MappedCsvReader(Path path, long windowSize) {
+		if (windowSize <= 0 || windowSize > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Invalid window size: " + windowSize);
+		}
+		this.path = path;
+		this.windowSize = windowSize;
+	}
+
+	/**
+	 * Opens a cursor over all the rows of the file, including the header.
+	 *
+	 * @return A cursor positioned before the first row.
+	 * @throws IOException If the file cannot be opened.
+	 */
+	public CsvCursor open() throws IOException {
+		return open(0, -1);
+	}
+
+	/**
+	 * Opens a cursor over the rows of a region of the file. The region must start
+	 * and end at row boundaries.
+	 *
+	 * @param from The offset of the first byte of the region.
+	 * @param to   The offset after the last byte of the region, or -1 to read
+	 *             until the end of the file.
+	 * @return A cursor positioned before the first row of the region.
+	 * @throws IOException If the file cannot be opened.
+	 */
+	public CsvCursor open(long from, long to) throws IOException {
+		FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+		try {
+			long end = to < 0 ? channel.size() : Math.min(to, channel.size());
+			return new CsvCursor(channel, from, end, windowSize);
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Returns the location of the CSV file.
+	 *
+	 * @return The location of the CSV file.
+	 */
+	public Path getPath() {
+		return path;
+	}
+}
@@ -0,0 +1,184 @@
+package com.emiliano.friendreminder.infrastructure.csv;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import com.emiliano.friendreminder.infrastructure.csv.CsvFileCache.RowMapper;
+
+/**
+ * Parses a region of a CSV file in parallel on a {@link ForkJoinPool}.
+ *
+ * The region is split into chunks of about the same size that end at row
+ * boundaries. Line breaks inside quoted fields are not boundaries, so the
+ * boundaries are found by a single scan that tracks the quotes, without
+ * decoding anything. The chunks are then parsed by separate {@link CsvCursor}
+ * and the results are concatenated in the order of the file.
+ *
+ * @author Emiliano Pessoa
+ */
+public class ParallelCsvParser implements AutoCloseable {
+
+	/**
+	 * The default minimum size of a chunk. Smaller regions are not split.
+	 */
+	public static final long DEFAULT_MIN_CHUNK_SIZE = 1L << 20;
+
+	private final ForkJoinPool pool;
+	private final int parallelism;
+	private final long minChunkSize;
+
+	/**
+	 * The rows parsed from a region of the file.
+	 *
+	 * @param <T>               The type of the objects the rows are mapped to.
+	 * @param rows              The mapped rows, in the order of the file.
+	 * @param lastRowOffset     The offset of the last row of the region.
+	 * @param lastRowTerminated Whether the last row ends with a line break.
+	 */
+	public record Result<T> (List<T> rows, long lastRowOffset, boolean lastRowTerminated) {
+	}
+
+	/**
+	 * Creates a new instance of ParallelCsvParser.
+	 *
+	 * @param parallelism The number of threads used to parse the file.
+	 */
+	public ParallelCsvParser(int parallelism) {
+		this(parallelism, DEFAULT_MIN_CHUNK_SIZE);
+	}
+
+	/**
+	 * Creates a new instance of ParallelCsvParser.
+	 *
+	 * @param parallelism  The number of threads used to parse the file.
+	 * @param minChunkSize The minimum size of a chunk.
+	 */
+	public ParallelCsvParser(int parallelism, long minChunkSize) {
+		if (parallelism < 1) {
+			throw new IllegalArgumentException("Invalid parallelism: " + parallelism);
+		}
+		this.parallelism = parallelism;
+		this.minChunkSize = minChunkSize;
+		this.pool = new ForkJoinPool(parallelism);
+	}
+
+	/**
+	 * Parses a region of a file. The region must start at a row boundary.
+	 *
+	 * @param <T>    The type of the objects the rows are mapped to.
+	 * @param reader The reader of the CSV file.
+	 * @param mapper The mapper of the rows. It is called from several threads.
+	 * @param from   The offset of the first byte of the region.
+	 * @param to     The offset after the last byte of the region.
+	 * @return The rows of the region.
+	 * @throws UncheckedIOException If there is an error reading the file.
+	 */
+	public <T> Result<T> parse(MappedCsvReader reader, RowMapper<T> mapper, long from, long to) {
+		int chunks = (int) Math.max(1, Math.min(parallelism * 4L, (to - from) / minChunkSize));
+		long[] boundaries = chunks == 1 ? new long[] { from, to } : split(reader, from, to, chunks);
+		return pool.invoke(new ChunkTask<>(reader, mapper, boundaries, 0, boundaries.length - 1));
+	}
+
+	@Override
+	public void close() {
+		pool.shutdown();
+	}
+
+	/**
+	 * Finds the row boundaries that split a region of the file in chunks of about
+	 * the same size.
+	 */
+	private static long[] split(MappedCsvReader reader, long from, long to, int chunks) {
+		List<Long> boundaries = new ArrayList<>(chunks + 1);
+		boundaries.add(from);
+		long chunkSize = (to - from) / chunks;
+		long target = from + chunkSize;
+		boolean quoted = false;
+		try (FileChannel channel = FileChannel.open(reader.getPath(), StandardOpenOption.READ)) {
+			for (long base = from; base < to && boundaries.size() < chunks; base += Integer.MAX_VALUE) {
+				int length = (int) Math.min(Integer.MAX_VALUE, to - base);
+				MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, base, length);
+				for (int i = 0; i < length; i++) {
+					byte b = buffer.get(i);
+					if (b == '"') {
+						quoted = !quoted;
+					} else if (b == '\n' && !quoted && base + i + 1 >= target) {
+						boundaries.add(base + i + 1);
+						target = base + i + 1 + chunkSize;
+						if (boundaries.size() == chunks) {
+							break;
+						}
+					}
+				}
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		if (boundaries.get(boundaries.size() - 1) < to) {
+			boundaries.add(to);
+		}
+		return boundaries.stream().mapToLong(Long::longValue).toArray();
+	}
+
+	/**
+	 * Parses the chunks between two boundaries, splitting the work in halves until
+	 * a single chunk is left.
+	 */
+	private static class ChunkTask<T> extends RecursiveTask<Result<T>> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final transient MappedCsvReader reader;
+		private final transient RowMapper<T> mapper;
+		private final long[] boundaries;
+		private final int first;
+		private final int last;
+
+		ChunkTask(MappedCsvReader reader, RowMapper<T> mapper, long[] boundaries, int first, int last) {
+			this.reader = reader;
+			this.mapper = mapper;
+			this.boundaries = boundaries;
+			this.first = first;
+			this.last = last;
+		}
+
+		@Override
+		protected Result<T> compute() {
+			if (last - first > 1) {
+				int middle = (first + last) >>> 1;
+				ChunkTask<T> left = new ChunkTask<>(reader, mapper, boundaries, first, middle);
+				ChunkTask<T> right = new ChunkTask<>(reader, mapper, boundaries, middle, last);
+				right.fork();
+				Result<T> leftResult = left.compute();
+				Result<T> rightResult = right.join();
+				if (rightResult.rows().isEmpty()) {
+					return leftResult;
+				}
+				List<T> rows = new ArrayList<>(leftResult.rows().size() + rightResult.rows().size());
+				rows.addAll(leftResult.rows());
+				rows.addAll(rightResult.rows());
+				return new Result<>(rows, rightResult.lastRowOffset(), rightResult.lastRowTerminated());
+			}
+			List<T> rows = new ArrayList<>();
+			long lastRowOffset = boundaries[first];
+			boolean lastRowTerminated = true;
+			try (CsvCursor cursor = reader.open(boundaries[first], boundaries[last])) {
+				while (cursor.next()) {
+					rows.add(mapper.map(cursor));
+					lastRowOffset = cursor.getRowOffset();
+					lastRowTerminated = cursor.isRowTerminated();
+				}
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+			return new Result<>(rows, lastRowOffset, lastRowTerminated);
+		}
+	}
+}
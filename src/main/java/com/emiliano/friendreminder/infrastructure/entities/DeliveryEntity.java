@@ -0,0 +1,115 @@
+package com.emiliano.friendreminder.infrastructure.entities;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Objects;
+
+import com.emiliano.friendreminder.domain.valueobjects.Channel;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+
+/**
+ * Represents a delivered message in the delivery ledger.
+ *
+ * The primary key is made of all the columns, starting with the recipient, so
+ * the deliveries of a batch of recipients are found through the primary key
+ * index.
+ *
+ * @author Emiliano Pessoa
+ */
+@Entity
+@Table(name = "delivery")
+@IdClass(DeliveryEntity.Key.class)
+public class DeliveryEntity {
+
+	@Id
+	private String recipient;
+	@Id
+	private String birthdayFriend;
+	@Id
+	@Column(columnDefinition = "DATE")
+	private LocalDate deliveryDate;
+	@Id
+	@Enumerated(EnumType.STRING)
+	private Channel channel;
+
+	/**
+	 * Creates a new empty DeliveryEntity object.
+	 */
+	public DeliveryEntity() {
+
+	}
+
+	/**
+	 * Gets the address the message was sent to.
+	 *
+	 * @return The address of the recipient.
+	 */
+	public String getRecipient() {
+		return recipient;
+	}
+
+	/**
+	 * Gets the email address of the birthday friend.
+	 *
+	 * @return The email address of the birthday friend.
+	 */
+	public String getBirthdayFriend() {
+		return birthdayFriend;
+	}
+
+	/**
+	 * Gets the date of the birthday.
+	 *
+	 * @return The date of the birthday.
+	 */
+	public LocalDate getDeliveryDate() {
+		return deliveryDate;
+	}
+
+	/**
+	 * Gets the channel the message was sent through.
+	 *
+	 * @return The channel.
+	 */
+	public Channel getChannel() {
+		return channel;
+	}
+
+	/**
+	 * The primary key of {@link DeliveryEntity}.
+	 */
+	public static class Key implements Serializable {
+
+		private static final long serialVersionUID = 1L;
+
+		private String recipient;
+		private String birthdayFriend;
+		private LocalDate deliveryDate;
+		private Channel channel;
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof Key other)) {
+				return false;
+			}
+			return Objects.equals(recipient, other.recipient) && Objects.equals(birthdayFriend, other.birthdayFriend)
+					&& Objects.equals(deliveryDate, other.deliveryDate) && channel == other.channel;
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(recipient, birthdayFriend, deliveryDate, channel);
+		}
+	}
+
+}
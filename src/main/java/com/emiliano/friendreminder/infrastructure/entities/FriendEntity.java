@@ -7,14 +7,22 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
 
 /**
  * Represents a friend infrastructure entity used for persistence with Spring
  * Data. This entity is used to store and retrieve friend data in the database.
  *
+ * The month and day of birth are also stored in their own indexed columns, so
+ * the birthdays of a day can be searched by the database. The email is unique
+ * and identifies the friend when friends are imported.
+ *
  * @author Emiliano Pessoa
  */
 @Entity
+@Table(indexes = { @Index(name = "idx_friend_entity_birth_month_day", columnList = "birthMonth, birthDay"),
+		@Index(name = "idx_friend_entity_email", columnList = "email", unique = true) })
 public class FriendEntity {
 
 	@Id
@@ -24,6 +32,8 @@ public class FriendEntity {
 	private String lastName;
 	@Column(columnDefinition = "DATE")
 	private LocalDate dateOfBirth;
+	private Integer birthMonth;
+	private Integer birthDay;
 	private String email;
 	private String mobile;
 
@@ -47,7 +57,7 @@ public class FriendEntity {
 	public FriendEntity(String firstName, String lastName, LocalDate dateOfBirth, String email, String mobile) {
 		this.firstName = firstName;
 		this.lastName = lastName;
-		this.dateOfBirth = dateOfBirth;
+		setDateOfBirth(dateOfBirth);
 		this.email = email;
 		this.mobile = mobile;
 	}
@@ -122,6 +132,26 @@ public class FriendEntity {
 	 */
 	public void setDateOfBirth(LocalDate dateOfBirth) {
 		this.dateOfBirth = dateOfBirth;
+		this.birthMonth = dateOfBirth != null ? dateOfBirth.getMonthValue() : null;
+		this.birthDay = dateOfBirth != null ? dateOfBirth.getDayOfMonth() : null;
+	}
+
+	/**
+	 * Returns the month of birth of the friend entity.
+	 *
+	 * @return the month of birth of the friend entity
+	 */
+	public Integer getBirthMonth() {
+		return birthMonth;
+	}
+
+	/**
+	 * Returns the day of the month of birth of the friend entity.
+	 *
+	 * @return the day of the month of birth of the friend entity
+	 */
+	public Integer getBirthDay() {
+		return birthDay;
 	}
 
 	/**
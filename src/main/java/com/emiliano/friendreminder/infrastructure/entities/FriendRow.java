@@ -0,0 +1,31 @@
+package com.emiliano.friendreminder.infrastructure.entities;
+
+import java.time.LocalDate;
+
+/**
+ * Read-only projection of the columns of a {@link FriendEntity}.
+ *
+ * The rows are created by JPQL constructor expressions, so they are not
+ * managed by the persistence context: Hibernate does not keep snapshots for
+ * dirty checking or first-level cache entries for them.
+ *
+ * @param id          The unique ID of the friend entity.
+ * @param firstName   The first name of the friend.
+ * @param lastName    The last name of the friend.
+ * @param dateOfBirth The date of birth of the friend.
+ * @param email       The email address of the friend.
+ * @param mobile      The mobile phone number of the friend.
+ *
+ * @author Emiliano Pessoa
+ */
+public record FriendRow(Long id, String firstName, String lastName, LocalDate dateOfBirth, String email,
+		String mobile) {
+
+	/**
+	 * The JPQL select clause of the projection, for an alias 'f' of
+	 * {@link FriendEntity}.
+	 */
+	public static final String SELECT = "select new com.emiliano.friendreminder.infrastructure.entities.FriendRow("
+			+ "f.id, f.firstName, f.lastName, f.dateOfBirth, f.email, f.mobile)";
+
+}
@@ -0,0 +1,69 @@
+package com.emiliano.friendreminder.infrastructure.entities;
+
+import java.time.LocalDate;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+
+/**
+ * Represents the last day whose birthday messages were sent to the friends of a
+ * time zone. It is used by the scheduler to catch up on the days missed while
+ * the application was not running.
+ *
+ * @author Emiliano Pessoa
+ */
+@Entity
+public class SchedulerRunEntity {
+
+	@Id
+	private String zone;
+	@Column(columnDefinition = "DATE")
+	private LocalDate lastDate;
+
+	/**
+	 * Creates a new empty SchedulerRunEntity object.
+	 */
+	public SchedulerRunEntity() {
+
+	}
+
+	/**
+	 * Creates a new SchedulerRunEntity object with the specified properties.
+	 *
+	 * @param zone     The ID of the time zone.
+	 * @param lastDate The last date whose messages were sent in the zone.
+	 */
+	public SchedulerRunEntity(String zone, LocalDate lastDate) {
+		this.zone = zone;
+		this.lastDate = lastDate;
+	}
+
+	/**
+	 * Gets the ID of the time zone.
+	 *
+	 * @return The ID of the time zone.
+	 */
+	public String getZone() {
+		return zone;
+	}
+
+	/**
+	 * Gets the last date whose messages were sent in the zone.
+	 *
+	 * @return The last date.
+	 */
+	public LocalDate getLastDate() {
+		return lastDate;
+	}
+
+	/**
+	 * Sets the last date whose messages were sent in the zone.
+	 *
+	 * @param lastDate The last date.
+	 */
+	public void setLastDate(LocalDate lastDate) {
+		this.lastDate = lastDate;
+	}
+
+}
@@ -0,0 +1,130 @@
+package com.emiliano.friendreminder.infrastructure.imports;
+
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.emiliano.friendreminder.domain.valueobjects.validation.MobileNumberRules;
+import com.emiliano.friendreminder.domain.valueobjects.validation.MobileNumberValidator;
+import com.emiliano.friendreminder.infrastructure.entities.FriendEntity;
+
+/**
+ * Imports friends into the SQLite database with JDBC batch statements.
+ *
+ * The friends are upserted by email: a friend whose email is already in the
+ * database replaces the stored name, date of birth and mobile number, so an
+ * import can be repeated without creating duplicates. The friends that did not
+ * change are not updated, so they do not change the version of the friends.
+ * All the batches of an import are executed in a single transaction, which is
+ * also what makes SQLite write them quickly, since each transaction is synced
+ * to disk.
+ *
+ * The entities are read from the stream as the batches are executed, so only
+ * one batch is kept in memory at a time. The mobile numbers are checked by a
+ * {@link MobileNumberValidator} with the {@link MobileNumberRules} of the
+ * application, so the numbers of a country with a rule must have a valid
+ * length.
+ *
+ * @author Emiliano Pessoa
+ */
+@Service
+public class FriendImportService {
+
+	private static final String UPSERT_SQL = "INSERT INTO friend_entity"
+			+ " (first_name, last_name, date_of_birth, birth_month, birth_day, email, mobile)"
+			+ " VALUES (?, ?, ?, ?, ?, ?, ?)"
+			+ " ON CONFLICT (email) DO UPDATE SET first_name = excluded.first_name,"
+			+ " last_name = excluded.last_name, date_of_birth = excluded.date_of_birth,"
+			+ " birth_month = excluded.birth_month, birth_day = excluded.birth_day, mobile = excluded.mobile"
+			+ " WHERE first_name IS NOT excluded.first_name OR last_name IS NOT excluded.last_name"
+			+ " OR date_of_birth IS NOT excluded.date_of_birth OR mobile IS NOT excluded.mobile";
+
+	private final JdbcTemplate jdbcTemplate;
+	private final TransactionTemplate transactionTemplate;
+	private final MobileNumberValidator mobileNumberValidator;
+	private final int batchSize;
+
+	/**
+	 * Creates a new instance of FriendImportService.
+	 *
+	 * @param jdbcTemplate          The template used to execute the batches.
+	 * @param transactionManager    The transaction manager of the import
+	 *                              transaction.
+	 * @param mobileNumberValidator The validator of the mobile numbers.
+	 * @param batchSize             The number of friends of each batch, read from
+	 *                              the 'friend.import.batch-size' property (1000
+	 *                              by default).
+	 * @throws IllegalArgumentException If the batch size is not positive.
+	 */
+	@Autowired
+	public FriendImportService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+			MobileNumberValidator mobileNumberValidator, @Value("${friend.import.batch-size:1000}") int batchSize) {
+		if (batchSize < 1) {
+			throw new IllegalArgumentException("The batch size must be positive");
+		}
+		this.jdbcTemplate = jdbcTemplate;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.mobileNumberValidator = mobileNumberValidator;
+		this.batchSize = batchSize;
+	}
+
+	/**
+	 * Inserts or updates the friends of a stream, matching them by email. If any
+	 * batch fails, none of the friends are imported.
+	 *
+	 * @param friends The friends to import. The stream is consumed but not closed.
+	 * @return The number of friends imported.
+	 * @throws IllegalArgumentException If the mobile number of a friend is invalid.
+	 */
+	public int importFriends(Stream<FriendEntity> friends) {
+		Integer imported = transactionTemplate.execute(status -> {
+			Iterator<FriendEntity> iterator = friends.iterator();
+			List<FriendEntity> batch = new ArrayList<>(batchSize);
+			int count = 0;
+			while (iterator.hasNext()) {
+				FriendEntity friend = iterator.next();
+				if (!mobileNumberValidator.isValid(friend.getMobile())) {
+					throw new IllegalArgumentException("Invalid mobile number of " + friend.getEmail());
+				}
+				batch.add(friend);
+				if (batch.size() == batchSize) {
+					count += executeBatch(batch);
+				}
+			}
+			if (!batch.isEmpty()) {
+				count += executeBatch(batch);
+			}
+			return count;
+		});
+		return imported;
+	}
+
+	/**
+	 * Executes the upsert of a batch of friends and clears the batch.
+	 *
+	 * @return The number of friends of the batch.
+	 */
+	private int executeBatch(List<FriendEntity> batch) {
+		jdbcTemplate.batchUpdate(UPSERT_SQL, batch, batch.size(), (ps, friend) -> {
+			ps.setString(1, friend.getFirstName());
+			ps.setString(2, friend.getLastName());
+			ps.setDate(3, Date.valueOf(friend.getDateOfBirth()));
+			ps.setInt(4, friend.getBirthMonth());
+			ps.setInt(5, friend.getBirthDay());
+			ps.setString(6, friend.getEmail());
+			ps.setString(7, friend.getMobile());
+		});
+		int size = batch.size();
+		batch.clear();
+		return size;
+	}
+}
@@ -0,0 +1,117 @@
+package com.emiliano.friendreminder.infrastructure.indexes;
+
+import java.time.MonthDay;
+import java.time.Year;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.emiliano.friendreminder.domain.entities.Friend;
+
+/**
+ * In-memory calendar index of {@link Friend} by day of birth.
+ *
+ * The index has one bucket for each of the 366 days of a leap year, so a lookup
+ * by day costs the number of matches instead of the number of friends. Friends
+ * born on February 29th are returned on February 28th in non-leap years.
+ *
+ * Entries are identified by a key chosen by the repository (the row number, the
+ * database id...), which allows the index to be updated incrementally.
+ *
+ * @param <K> The type of the key that identifies a friend in the repository.
+ *
+ * @author Emiliano Pessoa
+ */
+public class BirthdayCalendarIndex<K> {
+
+	private static final int DAYS = 366;
+	// First day of each month in a leap year, zero based.
+	private static final int[] MONTH_OFFSETS = { 0, 31, 60, 91, 121, 152, 182, 213, 244, 274, 305, 335 };
+	private static final int FEBRUARY_28 = dayIndex(2, 28);
+	private static final int FEBRUARY_29 = dayIndex(2, 29);
+
+	private final List<Map<K, Friend>> buckets = new ArrayList<>(DAYS);
+	private final Map<K, Integer> bucketByKey = new HashMap<>();
+
+	/**
+	 * Creates a new empty index.
+	 */
+	public BirthdayCalendarIndex() {
+		for (int i = 0; i < DAYS; i++) {
+			buckets.add(new LinkedHashMap<>());
+		}
+	}
+
+	/**
+	 * Adds a friend to the index, replacing any friend with the same key.
+	 *
+	 * @param key    The key of the friend in the repository.
+	 * @param friend The friend to add.
+	 */
+	public synchronized void put(K key, Friend friend) {
+		remove(key);
+		int day = dayIndex(friend.getDateOfBirth().getValue().getMonthValue(),
+				friend.getDateOfBirth().getValue().getDayOfMonth());
+		buckets.get(day).put(key, friend);
+		bucketByKey.put(key, day);
+	}
+
+	/**
+	 * Removes a friend from the index.
+	 *
+	 * @param key The key of the friend in the repository.
+	 */
+	public synchronized void remove(K key) {
+		Integer day = bucketByKey.remove(key);
+		if (day != null) {
+			buckets.get(day).remove(key);
+		}
+	}
+
+	/**
+	 * Removes all friends from the index.
+	 */
+	public synchronized void clear() {
+		buckets.forEach(Map::clear);
+		bucketByKey.clear();
+	}
+
+	/**
+	 * Returns the number of friends in the index.
+	 *
+	 * @return The number of friends in the index.
+	 */
+	public synchronized int size() {
+		return bucketByKey.size();
+	}
+
+	/**
+	 * Finds all friends who celebrate their birthday on the given day of the given
+	 * year.
+	 *
+	 * @param day  The day of the celebration.
+	 * @param year The year of the celebration.
+	 * @return A list of friends who celebrate their birthday on the given day.
+	 */
+	public synchronized List<Friend> find(MonthDay day, Year year) {
+		int index = dayIndex(day.getMonthValue(), day.getDayOfMonth());
+		if (index == FEBRUARY_29 && !year.isLeap()) {
+			// There is no February 29th in a non-leap year.
+			return List.of();
+		}
+		List<Friend> friends = new ArrayList<>(buckets.get(index).values());
+		if (index == FEBRUARY_28 && !year.isLeap()) {
+			friends.addAll(buckets.get(FEBRUARY_29).values());
+		}
+		return friends;
+	}
+
+	/**
+	 * Returns the zero based position of a day in a leap year.
+	 */
+	private static int dayIndex(int month, int dayOfMonth) {
+		return MONTH_OFFSETS[month - 1] + dayOfMonth - 1;
+	}
+}
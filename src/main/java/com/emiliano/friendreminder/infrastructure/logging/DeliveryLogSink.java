@@ -0,0 +1,313 @@
+package com.emiliano.friendreminder.infrastructure.logging;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.emiliano.friendreminder.domain.valueobjects.Channel;
+
+/**
+ * An asynchronous sink of the records of the messages delivered, written as
+ * JSON lines by a background thread.
+ *
+ * The records are stored in a preallocated ring buffer, which the callers
+ * claim slots of with a compare-and-set, without locks. A record only keeps
+ * references to its fields: the timestamp, the JSON escaping and the
+ * formatting are done by the writer thread, which drains the buffer in batches
+ * and writes each batch to the {@link DeliveryLogTarget} at once. When the
+ * buffer is empty, the writer parks until the next record unparks it, so an
+ * idle sink does not wake up.
+ *
+ * The callers never wait for the writer. When the buffer is filled above the
+ * sampling threshold, only one of every 'sampleRate' records is kept, and when
+ * it is full the records are dropped. Both are counted.
+ *
+ * @author Emiliano Pessoa
+ */
+public class DeliveryLogSink implements Closeable {
+
+	private static final Logger logger = Logger.getLogger(DeliveryLogSink.class.getName());
+
+	private static final long FLUSH_POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+	private final DeliveryLogTarget target;
+	private final int mask;
+	private final int batchSize;
+	private final int sampleThreshold;
+	private final int sampleRate;
+
+	// Slot i holds a record when sequences[i] is its position + 1, and is free
+	// for the record at a position when sequences[i] is that position.
+	private final AtomicLongArray sequences;
+	private final long[] timestamps;
+	private final Channel[] channels;
+	private final String[] destinations;
+	private final String[] subjects;
+	private final String[] bodies;
+	private final AtomicLong tail = new AtomicLong();
+	private volatile long head = 0;
+
+	private final AtomicLong pressure = new AtomicLong();
+	private final LongAdder written = new LongAdder();
+	private final LongAdder sampled = new LongAdder();
+	private final LongAdder dropped = new LongAdder();
+
+	private final Thread writer;
+	private volatile boolean closed = false;
+	// Set by the writer before it parks, so the callers know they must unpark it.
+	private volatile boolean idle = false;
+
+	/**
+	 * Creates a new sink and starts its writer thread.
+	 *
+	 * @param target          The target the records are written to.
+	 * @param capacity        The number of records of the ring buffer, rounded up
+	 *                        to a power of two.
+	 * @param batchSize       The maximum number of records written at once.
+	 * @param sampleThreshold The fraction of the buffer filled above which the
+	 *                        records are sampled, between 0 and 1.
+	 * @param sampleRate      One of every this many records is kept while
+	 *                        sampling.
+	 * @throws IllegalArgumentException If a parameter is out of range.
+	 */
+	public DeliveryLogSink(DeliveryLogTarget target, int capacity, int batchSize, double sampleThreshold,
+			int sampleRate) {
+		if (capacity < 1 || capacity > 1 << 30 || batchSize < 1 || !(sampleThreshold >= 0 && sampleThreshold <= 1)
+				|| sampleRate < 1) {
+			throw new IllegalArgumentException("Invalid delivery log configuration: capacity=" + capacity
+					+ ", batchSize=" + batchSize + ", sampleThreshold=" + sampleThreshold + ", sampleRate="
+					+ sampleRate);
+		}
+		int size = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+		this.target = target;
+		this.mask = size - 1;
+		this.batchSize = batchSize;
+		this.sampleThreshold = (int) Math.ceil(size * sampleThreshold);
+		this.sampleRate = sampleRate;
+		this.sequences = new AtomicLongArray(size);
+		for (int i = 0; i < size; i++) {
+			sequences.set(i, i);
+		}
+		this.timestamps = new long[size];
+		this.channels = new Channel[size];
+		this.destinations = new String[size];
+		this.subjects = new String[size];
+		this.bodies = new String[size];
+		this.writer = new Thread(this::work, "delivery-log-writer");
+		this.writer.setDaemon(true);
+		this.writer.start();
+	}
+
+	/**
+	 * Records a message delivered, unless it is sampled out or the buffer is full.
+	 * Never blocks.
+	 *
+	 * @param channel     The channel of the message.
+	 * @param destination The mobile number or email address of the message.
+	 * @param subject     The subject of the message.
+	 * @param body        The body of the message.
+	 * @return True if the record was stored.
+	 */
+	public boolean record(Channel channel, String destination, String subject, String body) {
+		long position = tail.get();
+		if (sampleRate > 1 && position - head >= sampleThreshold
+				&& pressure.incrementAndGet() % sampleRate != 0) {
+			sampled.increment();
+			return false;
+		}
+		while (true) {
+			int slot = (int) position & mask;
+			long difference = sequences.get(slot) - position;
+			if (difference == 0) {
+				if (tail.compareAndSet(position, position + 1)) {
+					break;
+				}
+				position = tail.get();
+			} else if (difference < 0) {
+				dropped.increment();
+				return false;
+			} else {
+				position = tail.get();
+			}
+		}
+		int slot = (int) position & mask;
+		timestamps[slot] = System.currentTimeMillis();
+		channels[slot] = channel;
+		destinations[slot] = destination;
+		subjects[slot] = subject;
+		bodies[slot] = body;
+		sequences.set(slot, position + 1);
+		if (idle) {
+			LockSupport.unpark(writer);
+		}
+		return true;
+	}
+
+	/**
+	 * Waits until the records stored before the call were written.
+	 */
+	public void flush() {
+		long position = tail.get();
+		while (head < position && writer.isAlive()) {
+			LockSupport.parkNanos(FLUSH_POLL_NANOS);
+		}
+	}
+
+	/**
+	 * Returns the number of records written to the target.
+	 *
+	 * @return The number of records written.
+	 */
+	public long getWritten() {
+		return written.sum();
+	}
+
+	/**
+	 * Returns the number of records discarded by the sampling.
+	 *
+	 * @return The number of records sampled out.
+	 */
+	public long getSampled() {
+		return sampled.sum();
+	}
+
+	/**
+	 * Returns the number of records dropped because the buffer was full.
+	 *
+	 * @return The number of records dropped.
+	 */
+	public long getDropped() {
+		return dropped.sum();
+	}
+
+	/**
+	 * Writes the stored records, stops the writer thread and closes the target.
+	 */
+	@Override
+	public void close() {
+		closed = true;
+		LockSupport.unpark(writer);
+		try {
+			writer.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		try {
+			target.close();
+		} catch (IOException e) {
+			logger.log(Level.WARNING, "Error closing the delivery log", e);
+		}
+	}
+
+	/**
+	 * Writes the stored records in batches until the sink is closed.
+	 */
+	private void work() {
+		StringBuilder batch = new StringBuilder(batchSize * 256);
+		while (true) {
+			boolean closing = closed;
+			int count = drain(batch);
+			if (count > 0) {
+				try {
+					target.write(batch);
+					written.add(count);
+				} catch (IOException | RuntimeException e) {
+					logger.log(Level.WARNING, "Error writing " + count + " delivery records", e);
+				}
+				batch.setLength(0);
+			} else if (closing) {
+				return;
+			} else {
+				idle = true;
+				// A record stored after the drain is either seen here, or its caller
+				// sees the idle flag and unparks the writer.
+				if (isEmpty() && !closed) {
+					LockSupport.park(this);
+				}
+				idle = false;
+			}
+		}
+	}
+
+	/**
+	 * Checks whether the next record to write is not stored yet.
+	 */
+	private boolean isEmpty() {
+		long position = head;
+		return sequences.get((int) position & mask) != position + 1;
+	}
+
+	/**
+	 * Renders up to a batch of stored records, and frees their slots.
+	 *
+	 * @return The number of records rendered.
+	 */
+	private int drain(StringBuilder batch) {
+		long position = head;
+		int count = 0;
+		while (count < batchSize) {
+			int slot = (int) position & mask;
+			if (sequences.get(slot) != position + 1) {
+				break;
+			}
+			render(batch, slot);
+			channels[slot] = null;
+			destinations[slot] = null;
+			subjects[slot] = null;
+			bodies[slot] = null;
+			sequences.set(slot, position + mask + 1);
+			position++;
+			count++;
+		}
+		head = position;
+		return count;
+	}
+
+	private void render(StringBuilder out, int slot) {
+		out.append("{\"time\":\"").append(Instant.ofEpochMilli(timestamps[slot])).append("\",\"channel\":\"")
+				.append(channels[slot].name().toLowerCase()).append("\",\"to\":");
+		appendString(out, destinations[slot]);
+		out.append(",\"subject\":");
+		appendString(out, subjects[slot]);
+		out.append(",\"body\":");
+		appendString(out, bodies[slot]);
+		out.append("}\n");
+	}
+
+	/**
+	 * Appends a JSON string.
+	 */
+	private static void appendString(StringBuilder out, String value) {
+		if (value == null) {
+			out.append("null");
+			return;
+		}
+		out.append('"');
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			switch (c) {
+			case '"' -> out.append("\\\"");
+			case '\\' -> out.append("\\\\");
+			case '\n' -> out.append("\\n");
+			case '\r' -> out.append("\\r");
+			case '\t' -> out.append("\\t");
+			default -> {
+				if (c < 0x20) {
+					out.append(String.format("\\u%04x", (int) c));
+				} else {
+					out.append(c);
+				}
+			}
+			}
+		}
+		out.append('"');
+	}
+
+}
@@ -0,0 +1,74 @@
+package com.emiliano.friendreminder.infrastructure.logging;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.logging.Logger;
+
+/**
+ * The destination of the batches of records written by a
+ * {@link DeliveryLogSink}.
+ *
+ * @author Emiliano Pessoa
+ */
+public interface DeliveryLogTarget extends Closeable {
+
+	/**
+	 * Writes a batch of rendered records, one per line.
+	 *
+	 * @param batch The lines of the batch.
+	 * @throws IOException If there is an error writing the batch.
+	 */
+	void write(CharSequence batch) throws IOException;
+
+	@Override
+	default void close() throws IOException {
+	}
+
+	/**
+	 * Creates a target that appends the batches to a UTF-8 file, creating it and
+	 * its directory if needed. Each batch is encoded whole and handed to the file
+	 * channel in a single write, without an intermediate buffer.
+	 *
+	 * @param path The path of the file.
+	 * @return The target.
+	 * @throws IOException If the file cannot be opened.
+	 */
+	static DeliveryLogTarget file(Path path) throws IOException {
+		Path parent = path.toAbsolutePath().getParent();
+		Files.createDirectories(parent);
+		FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.APPEND);
+		return new DeliveryLogTarget() {
+
+			@Override
+			public void write(CharSequence batch) throws IOException {
+				ByteBuffer bytes = ByteBuffer.wrap(batch.toString().getBytes(StandardCharsets.UTF_8));
+				while (bytes.hasRemaining()) {
+					channel.write(bytes);
+				}
+			}
+
+			@Override
+			public void close() throws IOException {
+				channel.close();
+			}
+		};
+	}
+
+	/**
+	 * Creates a target that writes each batch as a single message of a logger.
+	 *
+	 * @param logger The logger.
+	 * @return The target.
+	 */
+	static DeliveryLogTarget logger(Logger logger) {
+		return batch -> logger.info(batch.toString());
+	}
+
+}
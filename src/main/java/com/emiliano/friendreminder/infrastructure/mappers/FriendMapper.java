@@ -1,11 +1,13 @@
 package com.emiliano.friendreminder.infrastructure.mappers;
 
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 
 import com.emiliano.friendreminder.domain.entities.Friend;
 import com.emiliano.friendreminder.domain.entities.FriendBuilder;
 import com.emiliano.friendreminder.infrastructure.entities.FriendEntity;
+import com.emiliano.friendreminder.infrastructure.entities.FriendRow;
 
 /**
  * Utility class to handle conversions between {@link Friend} domain entity and
@@ -20,13 +22,61 @@ public class FriendMapper {
 	 * @return The converted {@link Friend}.
 	 */
 	public static Friend toDomain(FriendEntity entity) {
+		return toDomain(entity, LocalDate.now());
+	}
+
+	/**
+	 * Converts a {@link FriendEntity} to a {@link Friend}, validating the date of
+	 * birth against a reference date. Batches of entities should be converted with
+	 * the same reference date.
+	 *
+	 * @param entity        The {@link FriendEntity} to convert.
+	 * @param referenceDate The date the date of birth is validated on.
+	 * @return The converted {@link Friend}.
+	 */
+	public static Friend toDomain(FriendEntity entity, LocalDate referenceDate) {
 		if (entity == null) {
 			return null;
 		}
 
 		return new FriendBuilder().setFirstName(entity.getFirstName()).setLastName(entity.getLastName())
-				.setDateOfBirth(entity.getDateOfBirth()).setEmail(entity.getEmail()).setMobile(entity.getMobile())
-				.build();
+				.setDateOfBirth(entity.getDateOfBirth()).setReferenceDate(referenceDate).setEmail(entity.getEmail())
+				.setMobile(entity.getMobile()).build();
+	}
+
+	/**
+	 * Converts a {@link FriendRow} to a {@link Friend}, validating the date of
+	 * birth against a reference date.
+	 *
+	 * @param row           The {@link FriendRow} to convert.
+	 * @param referenceDate The date the date of birth is validated on.
+	 * @return The converted {@link Friend}.
+	 */
+	public static Friend toDomain(FriendRow row, LocalDate referenceDate) {
+		if (row == null) {
+			return null;
+		}
+
+		return new FriendBuilder().setFirstName(row.firstName()).setLastName(row.lastName())
+				.setDateOfBirth(row.dateOfBirth()).setReferenceDate(referenceDate).setEmail(row.email())
+				.setMobile(row.mobile()).build();
+	}
+
+	/**
+	 * Converts a list of {@link FriendRow} to a list of {@link Friend}.
+	 *
+	 * @param rows The list of {@link FriendRow} to convert.
+	 * @return The converted list of {@link Friend}.
+	 */
+	public static List<Friend> rowsToDomainList(List<FriendRow> rows) {
+		if (rows == null) {
+			return null;
+		}
+
+		LocalDate referenceDate = LocalDate.now();
+		List<Friend> friends = new ArrayList<>(rows.size());
+		rows.forEach(r -> friends.add(toDomain(r, referenceDate)));
+		return friends;
 	}
 
 	/**
@@ -40,8 +90,9 @@ public class FriendMapper {
 			return null;
 		}
 
-		List<Friend> friends = new ArrayList<>();
-		entities.forEach(e -> friends.add(toDomain(e)));
+		LocalDate referenceDate = LocalDate.now();
+		List<Friend> friends = new ArrayList<>(entities.size());
+		entities.forEach(e -> friends.add(toDomain(e, referenceDate)));
 		return friends;
 	}
 
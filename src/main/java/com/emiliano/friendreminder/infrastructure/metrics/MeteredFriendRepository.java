@@ -0,0 +1,91 @@
+package com.emiliano.friendreminder.infrastructure.metrics;
+
+import java.time.MonthDay;
+import java.time.Year;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import com.emiliano.friendreminder.domain.entities.Friend;
+import com.emiliano.friendreminder.domain.repositories.FriendRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * A {@link FriendRepository} that times the calls to another repository.
+ *
+ * Each call is recorded by the 'friend.repository.calls' timer, tagged with the
+ * name of the repository, the method called and whether it failed. The calls
+ * to {@link #streamAll()} are timed until the stream is closed, so the time
+ * includes the reading of the friends.
+ *
+ * @author Emiliano Pessoa
+ */
+public class MeteredFriendRepository implements FriendRepository {
+
+	private final FriendRepository delegate;
+	private final MeterRegistry registry;
+	private final String name;
+
+	/**
+	 * Creates a new instance of MeteredFriendRepository.
+	 *
+	 * @param delegate The repository whose calls are timed.
+	 * @param name     The name of the repository in the 'repository' tag.
+	 * @param registry The registry of the timers.
+	 */
+	public MeteredFriendRepository(FriendRepository delegate, String name, MeterRegistry registry) {
+		this.delegate = delegate;
+		this.name = name;
+		this.registry = registry;
+	}
+
+	@Override
+	public List<Friend> findByMonthOfBirth(int month) {
+		return time("findByMonthOfBirth", () -> delegate.findByMonthOfBirth(month));
+	}
+
+	@Override
+	public List<Friend> findByCelebrationDay(MonthDay day, Year year) {
+		return time("findByCelebrationDay", () -> delegate.findByCelebrationDay(day, year));
+	}
+
+	@Override
+	public List<Friend> findAll() {
+		return time("findAll", delegate::findAll);
+	}
+
+	@Override
+	public Stream<Friend> streamAll() {
+		Timer.Sample sample = Timer.start(registry);
+		Stream<Friend> friends;
+		try {
+			friends = delegate.streamAll();
+		} catch (RuntimeException e) {
+			sample.stop(timer("streamAll", e));
+			throw e;
+		}
+		return friends.onClose(() -> sample.stop(timer("streamAll", null)));
+	}
+
+	private <T> T time(String method, Supplier<T> call) {
+		Timer.Sample sample = Timer.start(registry);
+		RuntimeException failure = null;
+		try {
+			return call.get();
+		} catch (RuntimeException e) {
+			failure = e;
+			throw e;
+		} finally {
+			sample.stop(timer(method, failure));
+		}
+	}
+
+	private Timer timer(String method, RuntimeException failure) {
+		return Timer.builder("friend.repository.calls").description("Calls to the friend repositories")
+				.tag("repository", name).tag("method", method)
+				.tag("exception", failure == null ? "none" : failure.getClass().getSimpleName()).register(registry);
+	}
+
+}
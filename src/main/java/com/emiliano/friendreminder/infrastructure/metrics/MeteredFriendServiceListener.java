@@ -0,0 +1,52 @@
+package com.emiliano.friendreminder.infrastructure.metrics;
+
+import java.time.LocalDate;
+
+import com.emiliano.friendreminder.domain.services.FriendServiceListener;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * A {@link FriendServiceListener} that counts the events of the service with
+ * the 'friend.friends.loaded', 'friend.friends.deduplicated' and
+ * 'friend.birthdays.found' counters.
+ *
+ * @author Emiliano Pessoa
+ */
+public class MeteredFriendServiceListener implements FriendServiceListener {
+
+	private final Counter loaded;
+	private final Counter deduplicated;
+	private final Counter birthdays;
+
+	/**
+	 * Creates a new instance of MeteredFriendServiceListener.
+	 *
+	 * @param registry The registry of the counters.
+	 */
+	public MeteredFriendServiceListener(MeterRegistry registry) {
+		this.loaded = Counter.builder("friend.friends.loaded").description("Friends read from the repositories")
+				.register(registry);
+		this.deduplicated = Counter.builder("friend.friends.deduplicated")
+				.description("Duplicated friends merged").register(registry);
+		this.birthdays = Counter.builder("friend.birthdays.found").description("Birthdays found")
+				.register(registry);
+	}
+
+	@Override
+	public void friendsLoaded(long count) {
+		loaded.increment(count);
+	}
+
+	@Override
+	public void friendsDeduplicated(long count) {
+		deduplicated.increment(count);
+	}
+
+	@Override
+	public void birthdaysFound(LocalDate date, int count) {
+		birthdays.increment(count);
+	}
+
+}
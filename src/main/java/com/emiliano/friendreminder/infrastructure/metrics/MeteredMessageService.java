@@ -0,0 +1,107 @@
+package com.emiliano.friendreminder.infrastructure.metrics;
+
+import java.util.List;
+
+import com.emiliano.friendreminder.domain.services.MessageService;
+import com.emiliano.friendreminder.domain.services.UndeliveredMessagesException;
+import com.emiliano.friendreminder.domain.services.UndeliveredMessagesException.Envelope;
+import com.emiliano.friendreminder.domain.valueobjects.Channel;
+import com.emiliano.friendreminder.domain.valueobjects.Email;
+import com.emiliano.friendreminder.domain.valueobjects.Mobile;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * A {@link MessageService} that times and counts the messages sent through
+ * another {@link MessageService}.
+ *
+ * Each call to the delegate, of a single message or of a batch, is recorded by
+ * the 'friend.message.send' timer, and its messages are counted by the
+ * 'friend.messages' counter with the result 'sent', or 'failed' when the
+ * delegate could not send them. Both are tagged with the channel.
+ *
+ * @author Emiliano Pessoa
+ */
+public class MeteredMessageService implements MessageService {
+
+	private final MessageService delegate;
+	private final ChannelMeters sms;
+	private final ChannelMeters email;
+
+	/**
+	 * Creates a new instance of MeteredMessageService.
+	 *
+	 * @param delegate The service that sends the messages.
+	 * @param registry The registry of the meters.
+	 */
+	public MeteredMessageService(MessageService delegate, MeterRegistry registry) {
+		this.delegate = delegate;
+		this.sms = new ChannelMeters(Channel.SMS, registry);
+		this.email = new ChannelMeters(Channel.EMAIL, registry);
+	}
+
+	@Override
+	public void sendSMS(Mobile mobile, String subject, String body) {
+		sms.record(1, () -> delegate.sendSMS(mobile, subject, body));
+	}
+
+	@Override
+	public void sendEmail(Email email, String subject, String body) {
+		this.email.record(1, () -> delegate.sendEmail(email, subject, body));
+	}
+
+	/**
+	 * Sends the batch, recording it with the meters of the channel of its first
+	 * message.
+	 */
+	@Override
+	public void sendBatch(List<Envelope> messages) {
+		if (!messages.isEmpty()) {
+			ChannelMeters meters = messages.get(0).channel() == Channel.SMS ? sms : email;
+			meters.record(messages.size(), () -> delegate.sendBatch(messages));
+		}
+	}
+
+	@Override
+	public void flush() {
+		delegate.flush();
+	}
+
+	/**
+	 * The meters of a channel, registered once.
+	 */
+	private static class ChannelMeters {
+
+		private final Timer timer;
+		private final Counter sent;
+		private final Counter failed;
+
+		ChannelMeters(Channel channel, MeterRegistry registry) {
+			String tag = channel.name().toLowerCase();
+			this.timer = Timer.builder("friend.message.send").description("Messages sent to the gateways")
+					.tag("channel", tag).register(registry);
+			this.sent = Counter.builder("friend.messages").tag("channel", tag).tag("result", "sent")
+					.register(registry);
+			this.failed = Counter.builder("friend.messages").tag("channel", tag).tag("result", "failed")
+					.register(registry);
+		}
+
+		void record(int count, Runnable send) {
+			try {
+				timer.record(send);
+			} catch (UndeliveredMessagesException e) {
+				int undelivered = Math.min(count, e.getMessages().size());
+				failed.increment(undelivered);
+				sent.increment(count - undelivered);
+				throw e;
+			} catch (RuntimeException e) {
+				failed.increment(count);
+				throw e;
+			}
+			sent.increment(count);
+		}
+	}
+
+}
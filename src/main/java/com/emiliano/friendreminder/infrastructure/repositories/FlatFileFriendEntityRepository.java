@@ -1,76 +1,111 @@
 package com.emiliano.friendreminder.infrastructure.repositories;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
-import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
 
+import com.emiliano.friendreminder.infrastructure.csv.CsvFileCache;
+import com.emiliano.friendreminder.infrastructure.csv.CsvFileCache.RowMapper;
+import com.emiliano.friendreminder.infrastructure.csv.CsvFileCache.Snapshot;
+import com.emiliano.friendreminder.infrastructure.csv.MappedCsvReader;
+import com.emiliano.friendreminder.infrastructure.csv.ParallelCsvParser;
 import com.emiliano.friendreminder.infrastructure.entities.FriendEntity;
 
+import jakarta.annotation.PreDestroy;
+
 /**
  * 
  * This class represents a repository for managing FriendEntity objects stored
  * in a CSV file.
  * 
+ * The rows of the file are kept in a {@link CsvFileCache}, so the file is only
+ * read again when it changes. Big files are parsed in parallel when the
+ * environment property 'friend.flat.file.parallelism' is greater than 1, or 0
+ * to use all the available processors.
+ * 
  * @author Emiliano Pessoa
  *
  */
 @Repository
 public class FlatFileFriendEntityRepository {
 
-	private final Path csvFilePath;
+	private final CsvFileCache<FriendEntity> cache;
 
 	/**
 	 * Creates a new instance of this class.
 	 * 
 	 * @param csvFilePath The location of the CSV file.
+	 * @param parallelism The number of threads used to parse the file, or 0 to
+	 *                    use all the available processors.
 	 */
-	public FlatFileFriendEntityRepository(Path csvFilePath) {
-		this.csvFilePath = csvFilePath;
+	public FlatFileFriendEntityRepository(Path csvFilePath,
+			@Value("${friend.flat.file.parallelism:1}") int parallelism) {
+		if (parallelism == 0) {
+			parallelism = Runtime.getRuntime().availableProcessors();
+		}
+		this.cache = new CsvFileCache<>(new MappedCsvReader(csvFilePath), FlatFileFriendEntityRepository::rowMapper,
+				parallelism > 1 ? new ParallelCsvParser(parallelism) : null);
 	}
 
 	/**
 	 * Retrieves all {@link FriendEntity} from the data source.
 	 *
-	 * @return A list of all {@link FriendEntity}.
+	 * @return An unmodifiable list of all {@link FriendEntity}.
+	 * @throws RuntimeException If there is an error reading the CSV file.
 	 */
 	public List<FriendEntity> findAll() {
-		List<FriendEntity> friends = new ArrayList<>();
+		return cache.get().rows();
+	}
 
-		try (BufferedReader reader = Files.newBufferedReader(csvFilePath)) {
-			String headerLine = reader.readLine();
-			List<String> headers = Arrays.asList(headerLine.split(","));
-			int lastNameIndex = headers.indexOf("last_name");
-			int firstNameIndex = headers.indexOf("first_name");
-			int dateOfBirthIndex = headers.indexOf("date_of_birth");
-			int emailIndex = headers.indexOf("email");
-			int mobileIndex = headers.indexOf("mobile");
+	/**
+	 * Retrieves a snapshot of all {@link FriendEntity} from the data source. The
+	 * generation of the snapshot allows callers to process only the rows appended
+	 * since a previous snapshot.
+	 *
+	 * @return A snapshot of all {@link FriendEntity}.
+	 * @throws RuntimeException If there is an error reading the CSV file.
+	 */
+	public Snapshot<FriendEntity> findSnapshot() {
+		return cache.get();
+	}
 
-			String line;
-			while ((line = reader.readLine()) != null) {
-				List<String> fields = Arrays.asList(line.split(","));
+	/**
+	 * Stops watching the CSV file.
+	 *
+	 * @throws IOException If the watch service cannot be closed.
+	 */
+	@PreDestroy
+	public void close() throws IOException {
+		cache.close();
+	}
 
-				String lastName = fields.get(lastNameIndex);
-				String firstName = fields.get(firstNameIndex);
-				LocalDate dateOfBirth = LocalDate.parse(fields.get(dateOfBirthIndex),
-						DateTimeFormatter.ofPattern("yyyy/MM/dd"));
-				String email = fields.get(emailIndex);
-				String mobile = mobileIndex >= 0 ? fields.get(mobileIndex) : null;
+	/**
+	 * Creates the mapper from the rows of the CSV file to {@link FriendEntity},
+	 * given the names of the columns in the header. Only the columns used by
+	 * {@link FriendEntity} are decoded.
+	 *
+	 * @param headers The names of the columns of the file.
+	 * @return The mapper of the rows of the file.
+	 */
+	private static RowMapper<FriendEntity> rowMapper(List<String> headers) {
+		int lastNameIndex = headers.indexOf("last_name");
+		int firstNameIndex = headers.indexOf("first_name");
+		int dateOfBirthIndex = headers.indexOf("date_of_birth");
+		int emailIndex = headers.indexOf("email");
+		int mobileIndex = headers.indexOf("mobile");
 
-				FriendEntity friend = new FriendEntity(firstName, lastName, dateOfBirth, email, mobile);
-				friends.add(friend);
-			}
-		} catch (IOException e) {
-			throw new RuntimeException("Error reading CSV file", e);
-		}
+		return cursor -> {
+			String lastName = cursor.getString(lastNameIndex);
+			String firstName = cursor.getString(firstNameIndex);
+			LocalDate dateOfBirth = cursor.getDate(dateOfBirthIndex);
+			String email = cursor.getString(emailIndex);
+			String mobile = cursor.getString(mobileIndex);
 
-		return friends;
+			return new FriendEntity(firstName, lastName, dateOfBirth, email, mobile);
+		};
 	}
 }
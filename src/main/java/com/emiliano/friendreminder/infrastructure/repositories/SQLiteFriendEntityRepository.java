@@ -1,18 +1,80 @@
 package com.emiliano.friendreminder.infrastructure.repositories;
 
+import java.util.Collection;
+import java.util.List;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.emiliano.friendreminder.infrastructure.SQLiteDataSourceConfiguration;
 import com.emiliano.friendreminder.infrastructure.entities.FriendEntity;
+import com.emiliano.friendreminder.infrastructure.entities.FriendRow;
 
 /**
  * 
  * This class represents a repository for managing {@link FriendEntity} objects
  * stored in a SQLite database.
  * 
+ * The queries by month and day of birth are resolved by the index on the birth
+ * month and birth day columns of the table. All entities can be read in
+ * keyset-paginated pages by {@link SQLiteFriendEntityRepositoryCustom}.
+ * 
+ * The queries returning {@link FriendRow} read only the columns of the friends,
+ * without creating managed entities.
+ * 
+ * The queries run in read-only transactions, so they use the read connections
+ * of the {@link SQLiteDataSourceConfiguration} and do not wait for the writer
+ * connection held by an import. The methods inherited from
+ * {@link JpaRepository} keep their own transactions, so the writes still use
+ * the writer connection.
+ * 
  * @author Emiliano Pessoa
  *
  */
 @Repository
-public interface SQLiteFriendEntityRepository extends JpaRepository<FriendEntity, Long> {
+@Transactional(readOnly = true)
+public interface SQLiteFriendEntityRepository extends JpaRepository<FriendEntity, Long>, SQLiteFriendEntityRepositoryCustom {
+
+	/**
+	 * Finds all {@link FriendEntity} born in the specified month.
+	 *
+	 * @param birthMonth The month of birth.
+	 * @return A list of {@link FriendEntity} born in the specified month.
+	 */
+	List<FriendEntity> findByBirthMonth(int birthMonth);
+
+	/**
+	 * Finds all {@link FriendEntity} born in the specified month on any of the
+	 * specified days.
+	 *
+	 * @param birthMonth The month of birth.
+	 * @param birthDays  The days of the month of birth.
+	 * @return A list of {@link FriendEntity} born on the specified days.
+	 */
+	List<FriendEntity> findByBirthMonthAndBirthDayIn(int birthMonth, Collection<Integer> birthDays);
+
+	/**
+	 * Finds the {@link FriendRow} of the friends born in the specified month.
+	 *
+	 * @param birthMonth The month of birth.
+	 * @return A list of {@link FriendRow} born in the specified month.
+	 */
+	@Query(FriendRow.SELECT + " from FriendEntity f where f.birthMonth = :birthMonth")
+	List<FriendRow> findRowsByBirthMonth(@Param("birthMonth") int birthMonth);
+
+	/**
+	 * Finds the {@link FriendRow} of the friends born in the specified month on
+	 * any of the specified days.
+	 *
+	 * @param birthMonth The month of birth.
+	 * @param birthDays  The days of the month of birth.
+	 * @return A list of {@link FriendRow} born on the specified days.
+	 */
+	@Query(FriendRow.SELECT + " from FriendEntity f where f.birthMonth = :birthMonth and f.birthDay in :birthDays")
+	List<FriendRow> findRowsByBirthMonthAndBirthDayIn(@Param("birthMonth") int birthMonth,
+			@Param("birthDays") Collection<Integer> birthDays);
 
 }
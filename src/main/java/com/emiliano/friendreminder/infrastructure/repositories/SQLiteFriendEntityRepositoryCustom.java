@@ -0,0 +1,59 @@
+package com.emiliano.friendreminder.infrastructure.repositories;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import com.emiliano.friendreminder.infrastructure.entities.FriendEntity;
+import com.emiliano.friendreminder.infrastructure.entities.FriendRow;
+
+/**
+ * Custom queries of {@link SQLiteFriendEntityRepository} that are not derived
+ * from method names.
+ * 
+ * @author Emiliano Pessoa
+ */
+public interface SQLiteFriendEntityRepositoryCustom {
+
+	/**
+	 * Finds a page of {@link FriendEntity} ordered by ID, starting after an ID.
+	 * The page is read in a read-only transaction, and the entities are returned
+	 * detached, so they are not kept in the persistence context.
+	 *
+	 * @param afterId  The ID after which the page starts, exclusive. Use 0 for the
+	 *                 first page.
+	 * @param pageSize The maximum number of entities of the page.
+	 * @return The entities of the page. A page smaller than the page size is the
+	 *         last one.
+	 */
+	List<FriendEntity> findPageAfter(long afterId, int pageSize);
+
+	/**
+	 * Streams all {@link FriendEntity} ordered by ID, reading them in pages of
+	 * {@link #findPageAfter(long, int)}. Only one page is kept in memory at a
+	 * time, and no database connection is held between pages.
+	 *
+	 * @return A stream of all {@link FriendEntity}.
+	 */
+	Stream<FriendEntity> streamAll();
+
+	/**
+	 * Finds a page of {@link FriendRow} ordered by ID, starting after an ID. The
+	 * rows are projected in a read-only transaction, without creating entities.
+	 *
+	 * @param afterId  The ID after which the page starts, exclusive. Use 0 for the
+	 *                 first page.
+	 * @param pageSize The maximum number of rows of the page.
+	 * @return The rows of the page. A page smaller than the page size is the last
+	 *         one.
+	 */
+	List<FriendRow> findRowPageAfter(long afterId, int pageSize);
+
+	/**
+	 * Streams the {@link FriendRow} of all friends ordered by ID, reading them in
+	 * pages of {@link #findRowPageAfter(long, int)}.
+	 *
+	 * @return A stream of all {@link FriendRow}.
+	 */
+	Stream<FriendRow> streamAllRows();
+
+}
@@ -0,0 +1,108 @@
+package com.emiliano.friendreminder.infrastructure.repositories;
+
+import java.util.List;
+import java.util.function.ToLongFunction;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.emiliano.friendreminder.infrastructure.entities.FriendEntity;
+import com.emiliano.friendreminder.infrastructure.entities.FriendRow;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * Implements {@link SQLiteFriendEntityRepositoryCustom} with keyset pagination:
+ * each page is selected by the primary key index from the last ID of the
+ * previous page, so reading a page costs the same wherever it is in the table,
+ * unlike an offset.
+ * 
+ * The pages are queried as read-only, so Hibernate does not keep the snapshots
+ * used for dirty checking, and their entities are detached from the
+ * persistence context before they are returned. The {@link FriendRow} pages
+ * are projected without creating entities at all.
+ * 
+ * @author Emiliano Pessoa
+ */
+public class SQLiteFriendEntityRepositoryCustomImpl implements SQLiteFriendEntityRepositoryCustom {
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	private final TransactionTemplate readOnlyTransaction;
+	private final int pageSize;
+
+	/**
+	 * Creates a new instance of SQLiteFriendEntityRepositoryCustomImpl.
+	 *
+	 * @param transactionManager The transaction manager of the page queries.
+	 * @param pageSize           The page size of {@link #streamAll()}, read from
+	 *                           the 'friend.sqlite.page-size' property (1000 by
+	 *                           default).
+	 * @throws IllegalArgumentException If the page size is not positive.
+	 */
+	@Autowired
+	public SQLiteFriendEntityRepositoryCustomImpl(PlatformTransactionManager transactionManager,
+			@Value("${friend.sqlite.page-size:1000}") int pageSize) {
+		if (pageSize < 1) {
+			throw new IllegalArgumentException("The page size must be positive");
+		}
+		this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+		this.readOnlyTransaction.setReadOnly(true);
+		this.pageSize = pageSize;
+	}
+
+	@Override
+	public List<FriendEntity> findPageAfter(long afterId, int pageSize) {
+		return readOnlyTransaction.execute(status -> {
+			List<FriendEntity> page = entityManager
+					.createQuery("from FriendEntity f where f.id > :afterId order by f.id", FriendEntity.class)
+					.setParameter("afterId", afterId).setMaxResults(pageSize)
+					.setHint(HibernateHints.HINT_READ_ONLY, true).getResultList();
+			page.forEach(entityManager::detach);
+			return page;
+		});
+	}
+
+	@Override
+	public Stream<FriendEntity> streamAll() {
+		return streamPages(this::findPageAfter, FriendEntity::getId);
+	}
+
+	@Override
+	public List<FriendRow> findRowPageAfter(long afterId, int pageSize) {
+		return readOnlyTransaction.execute(status -> entityManager
+				.createQuery(FriendRow.SELECT + " from FriendEntity f where f.id > :afterId order by f.id",
+						FriendRow.class)
+				.setParameter("afterId", afterId).setMaxResults(pageSize).getResultList());
+	}
+
+	@Override
+	public Stream<FriendRow> streamAllRows() {
+		return streamPages(this::findRowPageAfter, FriendRow::id);
+	}
+
+	/**
+	 * Streams the elements of consecutive pages, querying each page when the
+	 * previous one has been consumed.
+	 */
+	private <T> Stream<T> streamPages(PageQuery<T> query, ToLongFunction<T> id) {
+		return Stream.iterate(query.find(0, pageSize), page -> !page.isEmpty(),
+				page -> page.size() < pageSize ? List.of()
+						: query.find(id.applyAsLong(page.get(page.size() - 1)), pageSize))
+				.flatMap(List::stream);
+	}
+
+	@FunctionalInterface
+	private interface PageQuery<T> {
+
+		List<T> find(long afterId, int pageSize);
+
+	}
+
+}
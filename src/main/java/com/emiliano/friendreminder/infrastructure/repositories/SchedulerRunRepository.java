@@ -0,0 +1,17 @@
+package com.emiliano.friendreminder.infrastructure.repositories;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.emiliano.friendreminder.infrastructure.entities.SchedulerRunEntity;
+
+/**
+ * This class represents a repository for managing {@link SchedulerRunEntity}
+ * objects stored in a SQLite database, by time zone ID.
+ *
+ * @author Emiliano Pessoa
+ */
+@Repository
+public interface SchedulerRunRepository extends JpaRepository<SchedulerRunEntity, String> {
+
+}
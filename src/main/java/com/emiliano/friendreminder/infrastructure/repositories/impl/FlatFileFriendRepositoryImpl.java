@@ -1,19 +1,35 @@
 package com.emiliano.friendreminder.infrastructure.repositories.impl;
 
+import java.time.LocalDate;
+import java.time.MonthDay;
+import java.time.Year;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.stream.Stream;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import com.emiliano.friendreminder.domain.entities.Friend;
 import com.emiliano.friendreminder.domain.repositories.FriendRepository;
+import com.emiliano.friendreminder.infrastructure.csv.CsvFileCache.Snapshot;
+import com.emiliano.friendreminder.infrastructure.entities.FriendEntity;
+import com.emiliano.friendreminder.infrastructure.indexes.BirthdayCalendarIndex;
 import com.emiliano.friendreminder.infrastructure.mappers.FriendMapper;
 import com.emiliano.friendreminder.infrastructure.repositories.FlatFileFriendEntityRepository;
 
 /**
  * Implements the {@link FriendRepository} interface with
  * {@link FlatFileFriendEntityRepository}.
- * 
+ *
+ * The friends mapped from the CSV file and the {@link BirthdayCalendarIndex}
+ * keyed by row number are kept in memory. When rows are appended to the file,
+ * only the new rows are mapped and indexed.
+ *
+ * The list of friends is immutable and replaced on every refresh, so it is
+ * returned and streamed without copying it.
+ *
  * @author Emiliano Pessoa
  */
 @Component
@@ -22,15 +38,56 @@ public class FlatFileFriendRepositoryImpl implements FriendRepository {
 	@Autowired
 	private FlatFileFriendEntityRepository repository;
 
+	private final BirthdayCalendarIndex<Integer> index = new BirthdayCalendarIndex<>();
+	private List<Friend> friends = List.of();
+	private long generation = -1;
+
 	@Override
 	public List<Friend> findByMonthOfBirth(int month) {
-		return FriendMapper.toDomainList(
-				repository.findAll().stream().filter(f -> f.getDateOfBirth().getMonthValue() == month).toList());
+		return refresh().stream().filter(f -> f.getDateOfBirth().getValue().getMonthValue() == month).toList();
+	}
+
+	@Override
+	public synchronized List<Friend> findByCelebrationDay(MonthDay day, Year year) {
+		refresh();
+		return index.find(day, year);
 	}
 
 	@Override
 	public List<Friend> findAll() {
-		return FriendMapper.toDomainList(repository.findAll());
+		return refresh();
+	}
+
+	@Override
+	public Stream<Friend> streamAll() {
+		return refresh().stream();
+	}
+
+	/**
+	 * Maps and indexes the rows read from the CSV file since the last refresh.
+	 *
+	 * @return The unmodifiable list of all friends.
+	 */
+	private synchronized List<Friend> refresh() {
+		Snapshot<FriendEntity> snapshot = repository.findSnapshot();
+		List<FriendEntity> rows = snapshot.rows();
+		if (snapshot.generation() != generation) {
+			friends = List.of();
+			index.clear();
+			generation = snapshot.generation();
+		}
+		if (friends.size() < rows.size()) {
+			List<Friend> updated = new ArrayList<>(rows.size());
+			updated.addAll(friends);
+			LocalDate referenceDate = LocalDate.now();
+			for (int row = friends.size(); row < rows.size(); row++) {
+				Friend friend = FriendMapper.toDomain(rows.get(row), referenceDate);
+				updated.add(friend);
+				index.put(row, friend);
+			}
+			friends = Collections.unmodifiableList(updated);
+		}
+		return friends;
 	}
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,107 @@
+package com.emiliano.friendreminder.infrastructure.repositories.impl;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.emiliano.friendreminder.domain.repositories.DeliveryLedger;
+import com.emiliano.friendreminder.domain.valueobjects.Channel;
+import com.emiliano.friendreminder.domain.valueobjects.Delivery;
+import com.emiliano.friendreminder.infrastructure.entities.DeliveryEntity;
+
+/**
+ * Implements the {@link DeliveryLedger} interface with the table of
+ * {@link DeliveryEntity} in the SQLite database.
+ *
+ * The deliveries are checked with one query per date and chunk of recipients,
+ * resolved by the primary key index, and recorded with a JDBC batch in a single
+ * transaction.
+ *
+ * @author Emiliano Pessoa
+ */
+@Component
+public class SQLiteDeliveryLedger implements DeliveryLedger {
+
+	// Below the default limit of 999 parameters of old SQLite versions.
+	private static final int MAX_RECIPIENTS_PER_QUERY = 500;
+
+	private final JdbcTemplate jdbcTemplate;
+	private final TransactionTemplate readTransaction;
+	private final TransactionTemplate writeTransaction;
+
+	/**
+	 * Creates a new instance of SQLiteDeliveryLedger.
+	 *
+	 * @param jdbcTemplate       The template used to run the queries.
+	 * @param transactionManager The transaction manager of the queries.
+	 */
+	@Autowired
+	public SQLiteDeliveryLedger(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.readTransaction = new TransactionTemplate(transactionManager);
+		this.readTransaction.setReadOnly(true);
+		this.writeTransaction = new TransactionTemplate(transactionManager);
+	}
+
+	@Override
+	public Set<Delivery> findDelivered(Collection<Delivery> deliveries) {
+		if (deliveries.isEmpty()) {
+			return Set.of();
+		}
+		Set<Delivery> requested = deliveries instanceof Set<Delivery> set ? set : new HashSet<>(deliveries);
+		Map<LocalDate, List<String>> recipientsByDate = requested.stream().collect(Collectors.groupingBy(
+				Delivery::date, Collectors.mapping(Delivery::recipient, Collectors.collectingAndThen(
+						Collectors.toCollection(HashSet::new), ArrayList::new))));
+
+		Set<Delivery> delivered = new HashSet<>();
+		readTransaction.executeWithoutResult(status -> recipientsByDate.forEach((date, recipients) -> {
+			for (int start = 0; start < recipients.size(); start += MAX_RECIPIENTS_PER_QUERY) {
+				List<String> chunk = recipients.subList(start,
+						Math.min(recipients.size(), start + MAX_RECIPIENTS_PER_QUERY));
+				String sql = "SELECT recipient, birthday_friend, channel FROM delivery WHERE recipient IN ("
+						+ String.join(", ", Collections.nCopies(chunk.size(), "?"))
+						+ ") AND delivery_date = ?";
+				List<Object> args = new ArrayList<>(chunk);
+				args.add(Date.valueOf(date));
+				jdbcTemplate.query(sql, rs -> {
+					Delivery delivery = new Delivery(rs.getString(1), rs.getString(2), date,
+							Channel.valueOf(rs.getString(3)));
+					if (requested.contains(delivery)) {
+						delivered.add(delivery);
+					}
+				}, args.toArray());
+			}
+		}));
+		return delivered;
+	}
+
+	@Override
+	public void record(Collection<Delivery> deliveries) {
+		if (deliveries.isEmpty()) {
+			return;
+		}
+		List<Delivery> batch = List.copyOf(deliveries);
+		writeTransaction.executeWithoutResult(status -> jdbcTemplate.batchUpdate(
+				"INSERT OR IGNORE INTO delivery (recipient, birthday_friend, delivery_date, channel) VALUES (?, ?, ?, ?)",
+				batch, batch.size(), (ps, delivery) -> {
+					ps.setString(1, delivery.recipient());
+					ps.setString(2, delivery.birthdayFriend());
+					ps.setDate(3, Date.valueOf(delivery.date()));
+					ps.setString(4, delivery.channel().name());
+				}));
+	}
+
+}
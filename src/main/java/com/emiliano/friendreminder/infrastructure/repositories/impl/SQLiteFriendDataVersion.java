@@ -0,0 +1,49 @@
+package com.emiliano.friendreminder.infrastructure.repositories.impl;
+
+import java.util.function.LongSupplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Reads the version of the friends stored in the SQLite database. The version
+ * is increased by the triggers of the friend table on every insert, update and
+ * delete, whoever makes them, so it changes exactly when the friends change.
+ *
+ * @author Emiliano Pessoa
+ */
+@Component
+public class SQLiteFriendDataVersion implements LongSupplier {
+
+	private final JdbcTemplate jdbcTemplate;
+	private final TransactionTemplate readTransaction;
+
+	/**
+	 * Creates a new instance of SQLiteFriendDataVersion.
+	 *
+	 * @param jdbcTemplate       The template used to run the query.
+	 * @param transactionManager The transaction manager of the query.
+	 */
+	@Autowired
+	public SQLiteFriendDataVersion(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.readTransaction = new TransactionTemplate(transactionManager);
+		this.readTransaction.setReadOnly(true);
+	}
+
+	/**
+	 * Returns the current version of the friends.
+	 *
+	 * @return The version of the friends.
+	 */
+	@Override
+	public long getAsLong() {
+		Long version = readTransaction.execute(status -> jdbcTemplate.queryForObject(
+				"SELECT version FROM data_version WHERE name = 'friend_entity'", Long.class));
+		return version;
+	}
+
+}
@@ -3,13 +3,19 @@
  */
 package com.emiliano.friendreminder.infrastructure.repositories.impl;
 
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.MonthDay;
+import java.time.Year;
 import java.util.List;
+import java.util.stream.Stream;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import com.emiliano.friendreminder.domain.entities.Friend;
 import com.emiliano.friendreminder.domain.repositories.FriendRepository;
+import com.emiliano.friendreminder.infrastructure.entities.FriendRow;
 import com.emiliano.friendreminder.infrastructure.mappers.FriendMapper;
 import com.emiliano.friendreminder.infrastructure.repositories.SQLiteFriendEntityRepository;
 
@@ -17,6 +23,11 @@ import com.emiliano.friendreminder.infrastructure.repositories.SQLiteFriendEntit
  * Implements the {@link FriendRepository} interface with
  * {@link SQLiteFriendEntityRepository}.
  * 
+ * The friends are read as {@link FriendRow} projections, without creating
+ * managed entities, and all the friends are read in pages of
+ * {@link SQLiteFriendEntityRepository#streamAllRows()}, instead of loading the
+ * whole table at once.
+ * 
  * @author Emiliano Pessoa
  */
 @Component
@@ -27,13 +38,38 @@ public class SQLiteFriendRepositoryImpl implements FriendRepository {
 
 	@Override
 	public List<Friend> findByMonthOfBirth(int month) {
-		return FriendMapper.toDomainList(
-				repository.findAll().stream().filter(f -> f.getDateOfBirth().getMonthValue() == month).toList());
+		return FriendMapper.rowsToDomainList(repository.findRowsByBirthMonth(month));
+	}
+
+	@Override
+	public List<Friend> findByCelebrationDay(MonthDay day, Year year) {
+		int month = day.getMonthValue();
+		int dayOfMonth = day.getDayOfMonth();
+		if (month == Month.FEBRUARY.getValue() && !year.isLeap()) {
+			if (dayOfMonth == 29) {
+				// There is no February 29th in a non-leap year.
+				return List.of();
+			}
+			if (dayOfMonth == 28) {
+				// Friends born on February 29th celebrate on February 28th.
+				return FriendMapper
+						.rowsToDomainList(repository.findRowsByBirthMonthAndBirthDayIn(month, List.of(28, 29)));
+			}
+		}
+		return FriendMapper.rowsToDomainList(repository.findRowsByBirthMonthAndBirthDayIn(month, List.of(dayOfMonth)));
 	}
 
 	@Override
 	public List<Friend> findAll() {
-		return FriendMapper.toDomainList(repository.findAll());
+		try (Stream<Friend> friends = streamAll()) {
+			return friends.toList();
+		}
+	}
+
+	@Override
+	public Stream<Friend> streamAll() {
+		LocalDate referenceDate = LocalDate.now();
+		return repository.streamAllRows().map(r -> FriendMapper.toDomain(r, referenceDate));
 	}
 
 }
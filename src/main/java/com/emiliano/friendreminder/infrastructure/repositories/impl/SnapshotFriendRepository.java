@@ -0,0 +1,166 @@
+package com.emiliano.friendreminder.infrastructure.repositories.impl;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.MonthDay;
+import java.time.Year;
+import java.util.List;
+import java.util.function.LongSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+import com.emiliano.friendreminder.domain.entities.Friend;
+import com.emiliano.friendreminder.domain.repositories.FriendRepository;
+import com.emiliano.friendreminder.domain.services.merge.FriendMerger;
+import com.emiliano.friendreminder.domain.services.merge.MergePolicy;
+import com.emiliano.friendreminder.infrastructure.store.CompactFriendStore;
+import com.emiliano.friendreminder.infrastructure.store.FriendSnapshot;
+import com.emiliano.friendreminder.infrastructure.store.FriendStore;
+
+/**
+ * Implements the {@link FriendRepository} interface with a
+ * {@link FriendSnapshot} of the merged friends of other repositories.
+ *
+ * The snapshot file is mapped on the first query, so the friends are available
+ * right after startup without reading the source repositories. When the
+ * snapshot is missing or invalid, the version of the source data changed since
+ * it was created, or any of the source files was modified after it was created,
+ * the friends are reloaded from the source repositories and a new snapshot is
+ * written. If the snapshot cannot be written, the reloaded
+ * friends are kept in a {@link CompactFriendStore}.
+ *
+ * @author Emiliano Pessoa
+ */
+public class SnapshotFriendRepository implements FriendRepository {
+
+	private static final Logger logger = Logger.getLogger(SnapshotFriendRepository.class.getName());
+
+	private final Path snapshotFile;
+	private final List<Path> sourceFiles;
+	private final LongSupplier sourceVersion;
+	private final MergePolicy mergePolicy;
+	private final List<FriendRepository> sources;
+
+	private FriendStore store = null;
+	private long loadedAt;
+	private long loadedVersion;
+
+	/**
+	 * Creates a new instance of SnapshotFriendRepository.
+	 *
+	 * @param snapshotFile  The path of the snapshot file.
+	 * @param sourceFiles   The files of the source repositories, whose
+	 *                      modification makes the snapshot stale. Missing files
+	 *                      are ignored.
+	 * @param sourceVersion The version of the data of the other source
+	 *                      repositories, whose change makes the snapshot stale.
+	 * @param mergePolicy   The policy used to merge the friends found in more than
+	 *                      one source repository.
+	 * @param sources       The source repositories.
+	 */
+	public SnapshotFriendRepository(Path snapshotFile, List<Path> sourceFiles, LongSupplier sourceVersion,
+			MergePolicy mergePolicy, FriendRepository... sources) {
+		this.snapshotFile = snapshotFile;
+		this.sourceFiles = List.copyOf(sourceFiles);
+		this.sourceVersion = sourceVersion;
+		this.mergePolicy = mergePolicy;
+		this.sources = List.of(sources);
+	}
+
+	@Override
+	public List<Friend> findByMonthOfBirth(int month) {
+		return store().findByMonthOfBirth(month);
+	}
+
+	@Override
+	public List<Friend> findByCelebrationDay(MonthDay day, Year year) {
+		return store().findByCelebrationDay(day, year);
+	}
+
+	@Override
+	public List<Friend> findAll() {
+		try (Stream<Friend> friends = streamAll()) {
+			return friends.toList();
+		}
+	}
+
+	@Override
+	public Stream<Friend> streamAll() {
+		return store().stream();
+	}
+
+	/**
+	 * Returns the current friends, opening the snapshot or reloading the source
+	 * repositories if needed.
+	 */
+	private synchronized FriendStore store() {
+		if (store != null && !isStale(loadedAt, loadedVersion)) {
+			return store;
+		}
+		if (store == null && Files.exists(snapshotFile)) {
+			try {
+				FriendSnapshot snapshot = FriendSnapshot.open(snapshotFile);
+				if (!isStale(snapshot.getCreatedAt(), snapshot.getSourceVersion())) {
+					store = snapshot;
+					loadedAt = snapshot.getCreatedAt();
+					loadedVersion = snapshot.getSourceVersion();
+					return store;
+				}
+				logger.info("The friend snapshot is older than its sources and will be rebuilt.");
+			} catch (IOException e) {
+				logger.log(Level.WARNING, "Unable to read the friend snapshot, it will be rebuilt.", e);
+			}
+		}
+		reload();
+		return store;
+	}
+
+	/**
+	 * Reads and merges the friends of the source repositories, and writes them to
+	 * a new snapshot.
+	 */
+	private void reload() {
+		// Changes made to the sources while they are read make the snapshot stale.
+		long startedAt = System.currentTimeMillis();
+		long version = sourceVersion.getAsLong();
+		CompactFriendStore reloaded = new CompactFriendStore();
+		FriendMerger merger = new FriendMerger(mergePolicy);
+		sources.forEach(r -> {
+			try (Stream<Friend> friends = r.streamAll()) {
+				friends.filter(merger::add).forEach(reloaded::add);
+			}
+		});
+		loadedAt = startedAt;
+		loadedVersion = version;
+		try {
+			FriendSnapshot.write(snapshotFile, reloaded, startedAt, version);
+			store = FriendSnapshot.open(snapshotFile);
+		} catch (IOException e) {
+			logger.log(Level.WARNING, "Unable to write the friend snapshot.", e);
+			store = reloaded;
+		}
+	}
+
+	/**
+	 * Checks whether the version of the source data is not the given one, or any
+	 * source file was modified after a time.
+	 */
+	private boolean isStale(long time, long version) {
+		if (sourceVersion.getAsLong() != version) {
+			return true;
+		}
+		for (Path sourceFile : sourceFiles) {
+			try {
+				if (Files.exists(sourceFile) && Files.getLastModifiedTime(sourceFile).toMillis() > time) {
+					return true;
+				}
+			} catch (IOException e) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+}
@@ -0,0 +1,95 @@
+package com.emiliano.friendreminder.infrastructure.schedulers;
+
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import com.emiliano.friendreminder.domain.entities.Friend;
+import com.emiliano.friendreminder.infrastructure.callingcodes.CallingCodeMap;
+
+/**
+ * Resolves the time zone of a friend from the international calling code of
+ * its mobile number.
+ *
+ * Each calling code is mapped to a single zone, so friends in countries with
+ * more than one zone are all assigned to the zone of the most populated region.
+ * Mobile numbers without an international prefix ('+' or '00'), or with an
+ * unknown calling code, are assigned to the default zone.
+ *
+ * @author Emiliano Pessoa
+ */
+public class CallingCodeZones {
+
+	private static final Map<String, String> DEFAULT_ZONES = Map.ofEntries(Map.entry("1", "America/New_York"),
+			Map.entry("7", "Europe/Moscow"), Map.entry("27", "Africa/Johannesburg"), Map.entry("33", "Europe/Paris"),
+			Map.entry("34", "Europe/Madrid"), Map.entry("39", "Europe/Rome"), Map.entry("44", "Europe/London"),
+			Map.entry("49", "Europe/Berlin"), Map.entry("52", "America/Mexico_City"),
+			Map.entry("54", "America/Argentina/Buenos_Aires"), Map.entry("55", "America/Sao_Paulo"),
+			Map.entry("56", "America/Santiago"), Map.entry("57", "America/Bogota"), Map.entry("61", "Australia/Sydney"),
+			Map.entry("81", "Asia/Tokyo"), Map.entry("86", "Asia/Shanghai"), Map.entry("91", "Asia/Kolkata"),
+			Map.entry("351", "Europe/Lisbon"));
+
+	private final CallingCodeMap<ZoneId> zones;
+
+	/**
+	 * Creates a new instance of CallingCodeZones.
+	 *
+	 * @param zones       The zones of the calling codes, without the
+	 *                    international prefix.
+	 * @param defaultZone The zone of the numbers without a known calling code.
+	 */
+	public CallingCodeZones(Map<String, ZoneId> zones, ZoneId defaultZone) {
+		this.zones = new CallingCodeMap<>(zones, defaultZone);
+	}
+
+	/**
+	 * Creates a CallingCodeZones with the zones of the most common calling codes,
+	 * and overrides.
+	 *
+	 * @param overrides   The zones of calling codes that replace or are added to
+	 *                    the default zones.
+	 * @param defaultZone The zone of the numbers without a known calling code.
+	 * @return A new instance of CallingCodeZones.
+	 */
+	public static CallingCodeZones withDefaults(Map<String, ZoneId> overrides, ZoneId defaultZone) {
+		Map<String, ZoneId> zones = new HashMap<>();
+		DEFAULT_ZONES.forEach((code, zone) -> zones.put(code, ZoneId.of(zone)));
+		zones.putAll(overrides);
+		return new CallingCodeZones(zones, defaultZone);
+	}
+
+	/**
+	 * Gets the zone of a friend.
+	 *
+	 * @param friend The friend.
+	 * @return The zone of the mobile number of the friend.
+	 */
+	public ZoneId zoneOf(Friend friend) {
+		return zoneOf(friend.getMobile().getValue());
+	}
+
+	/**
+	 * Gets the zone of a mobile number, from its longest known calling code.
+	 *
+	 * @param mobileNumber The mobile number.
+	 * @return The zone of the calling code, or the default zone.
+	 */
+	public ZoneId zoneOf(String mobileNumber) {
+		return zones.get(mobileNumber);
+	}
+
+	/**
+	 * Gets all the zones friends can be assigned to.
+	 *
+	 * @return The zones of the calling codes and the default zone.
+	 */
+	public Set<ZoneId> getZones() {
+		Set<ZoneId> all = new LinkedHashSet<>();
+		all.add(zones.getDefaultValue());
+		zones.getValues().stream().sorted((a, b) -> a.getId().compareTo(b.getId())).forEach(all::add);
+		return all;
+	}
+
+}
@@ -1,51 +1,200 @@
 /**
- * 
+ *
  */
 package com.emiliano.friendreminder.infrastructure.schedulers;
 
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Set;
+import java.util.function.LongSupplier;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.support.CronTrigger;
 import org.springframework.stereotype.Component;
 
 import com.emiliano.friendreminder.domain.services.FriendService;
+import com.emiliano.friendreminder.infrastructure.entities.SchedulerRunEntity;
+import com.emiliano.friendreminder.infrastructure.repositories.SchedulerRunRepository;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
 
 /**
- * A scheduler that runs once every 24 hours to check for upcoming birthdays and
- * send birthday messages to friends. Uses the {@link FriendService} to send the
- * messages.
- * 
- * The first call occurs 3 seconds after application start.
- * 
+ * A scheduler that sends the birthday messages of each time zone at a local
+ * send time. Uses the {@link FriendService} to send the messages.
+ *
+ * The friends are split into shards by the time zone of their mobile number,
+ * resolved by {@link CallingCodeZones}. Each zone is checked every day at the
+ * send time read from the property 'friend.scheduler.send-time' (09:00 by
+ * default) in that zone, so the friends receive their messages in their own
+ * morning, and the checks are spread across the day.
+ *
+ * The zones that have friends are counted once per day (in UTC), in a single
+ * pass over the friends, and counted again whenever the version of the friends
+ * in the database changes, so a friend imported during the day is not missed
+ * by the checks of its zone. The checks of the zones without friends are
+ * recorded without reading the friends again.
+ *
+ * The last day checked in each zone is stored in a {@link SchedulerRunEntity}.
+ * When the application starts, and at each check, the days missed since the
+ * last check are checked too, up to 'friend.scheduler.max-catch-up-days' days
+ * (7 by default). The days already past only get belated birthday messages,
+ * without the reminders. A zone that was never checked starts from its current
+ * day. A day is only recorded when all its messages were delivered.
+ *
+ * The check of each day in each zone is observed as 'friend.birthdays.check',
+ * tagged with the zone, which times it and traces it when a tracer is
+ * configured.
+ *
  * @author Emiliano Pessoa
  */
 @Component
 public class FriendScheduler {
 
-	private final FriendService friendService;
 	private static final Logger logger = Logger.getLogger(FriendScheduler.class.getName());
 
+	private final FriendService friendService;
+	private final SchedulerRunRepository runRepository;
+	private final TaskScheduler taskScheduler;
+	private final CallingCodeZones zones;
+	private final ObservationRegistry observationRegistry;
+	private final LongSupplier dataVersion;
+	private final LocalTime sendTime;
+	private final int maxCatchUpDays;
+
+	private LocalDate countedOn = null;
+	private long countedVersion;
+	private Set<ZoneId> populatedZones = Set.of();
+
 	/**
-	 * Constructs a new instance of {@link FriendScheduler} with the specified
-	 * {@link FriendService}.
+	 * Constructs a new instance of {@link FriendScheduler}.
 	 *
-	 * @param friendService the {@link FriendService} to use for sending birthday
-	 *                      messages
+	 * @param friendService       the {@link FriendService} to use for sending
+	 *                            birthday messages
+	 * @param runRepository       the repository of the last day checked in each
+	 *                            zone
+	 * @param taskScheduler       the scheduler of the checks
+	 * @param zones               the time zones of the friends
+	 * @param observationRegistry the registry of the observations of the checks
+	 * @param dataVersion         the version of the friends in the database
+	 * @param sendTime            the local time the messages are sent in each
+	 *                            zone, in ISO format
+	 * @param maxCatchUpDays      the maximum number of days checked at once in a
+	 *                            zone
 	 */
 	@Autowired
-	public FriendScheduler(FriendService friendService) {
+	public FriendScheduler(FriendService friendService, SchedulerRunRepository runRepository,
+			TaskScheduler taskScheduler, CallingCodeZones zones, ObservationRegistry observationRegistry,
+			LongSupplier dataVersion, @Value("${friend.scheduler.send-time:09:00}") String sendTime,
+			@Value("${friend.scheduler.max-catch-up-days:7}") int maxCatchUpDays) {
 		this.friendService = friendService;
+		this.runRepository = runRepository;
+		this.taskScheduler = taskScheduler;
+		this.zones = zones;
+		this.observationRegistry = observationRegistry;
+		this.dataVersion = dataVersion;
+		this.sendTime = LocalTime.parse(sendTime);
+		this.maxCatchUpDays = Math.max(1, maxCatchUpDays);
+	}
+
+	/**
+	 * Schedules the daily check of each zone, and checks the days missed while the
+	 * application was not running.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void scheduleChecks() {
+		String cron = String.format("%d %d %d * * *", sendTime.getSecond(), sendTime.getMinute(),
+				sendTime.getHour());
+		for (ZoneId zone : zones.getZones()) {
+			taskScheduler.schedule(() -> checkBirthdays(zone), new CronTrigger(cron, zone));
+			taskScheduler.schedule(() -> checkBirthdays(zone), Instant.now());
+		}
+	}
+
+	/**
+	 * Sends the birthday messages of the days not yet checked in a zone, up to
+	 * the current day if its send time has passed. The messages of the days before
+	 * the current day are belated.
+	 *
+	 * @param zone the zone to check
+	 */
+	public synchronized void checkBirthdays(ZoneId zone) {
+		ZonedDateTime now = ZonedDateTime.now(zone);
+		LocalDate today = now.toLocalDate();
+		LocalDate lastDue = now.toLocalTime().isBefore(sendTime) ? today.minusDays(1) : today;
+		// A zone never checked has no missed days: its first day is the current one.
+		LocalDate lastChecked = runRepository.findById(zone.getId()).map(SchedulerRunEntity::getLastDate)
+				.orElse(today.minusDays(1));
+		LocalDate date = lastChecked.plusDays(1);
+		LocalDate firstCaughtUp = lastDue.minusDays(maxCatchUpDays - 1);
+		if (date.isBefore(firstCaughtUp)) {
+			logger.warning("Skipping the birthday messages of " + date + " to " + firstCaughtUp.minusDays(1) + " in "
+					+ zone + ".");
+			date = firstCaughtUp;
+		}
+		if (date.isAfter(lastDue)) {
+			return;
+		}
+		try {
+			if (!getPopulatedZones().contains(zone)) {
+				logger.info("No friends in " + zone + ", skipping the birthday messages of " + date + " to "
+						+ lastDue + ".");
+				runRepository.save(new SchedulerRunEntity(zone.getId(), lastDue));
+				return;
+			}
+		} catch (RuntimeException e) {
+			logger.log(Level.SEVERE, "Unable to count the friends of each zone.", e);
+			return;
+		}
+
+		for (; !date.isAfter(lastDue); date = date.plusDays(1)) {
+			logger.info("Checking Birthday messages of " + date + " in " + zone + ".");
+			long start = System.currentTimeMillis();
+			LocalDate day = date;
+			boolean belated = day.isBefore(today);
+			try {
+				Observation.createNotStarted("friend.birthdays.check", observationRegistry)
+						.contextualName("check birthdays").lowCardinalityKeyValue("zone", zone.getId())
+						.lowCardinalityKeyValue("belated", String.valueOf(belated))
+						.highCardinalityKeyValue("date", day.toString()).observe(() -> {
+							if (belated) {
+								friendService.sendBelatedBirthdayMessages(day, f -> zones.zoneOf(f).equals(zone));
+							} else {
+								friendService.sendBirthdayMessages(day, f -> zones.zoneOf(f).equals(zone));
+							}
+						});
+			} catch (RuntimeException e) {
+				// The day is checked again at the next check of the zone.
+				logger.log(Level.SEVERE, "Birthday messages check of " + date + " in " + zone + " failed.", e);
+				return;
+			}
+			runRepository.save(new SchedulerRunEntity(zone.getId(), date));
+			logger.info("Birthday messages check completed in " + (System.currentTimeMillis() - start) + " ms.");
+		}
 	}
 
 	/**
-	 * Runs the birthday message check using the {@link FriendService}. Scheduled to
-	 * run every 24 hours.
+	 * Returns the zones that have friends, counted on the first check of each day
+	 * and on the first check after the friends of the database changed.
 	 */
-	@Scheduled(fixedDelay = 24 * 60 * 60 * 1000, initialDelay = 3000)
-	public void checkBirthdays() {
-		logger.info("Checking Birthday messages.");
-		friendService.sendBirthdayMessages();
-		logger.info("Birthday messages check completed.");
+	private Set<ZoneId> getPopulatedZones() {
+		LocalDate today = LocalDate.now(ZoneOffset.UTC);
+		long version = dataVersion.getAsLong();
+		if (!today.equals(countedOn) || version != countedVersion) {
+			populatedZones = Set.copyOf(friendService.countFriends(zones::zoneOf).keySet());
+			countedOn = today;
+			countedVersion = version;
+		}
+		return populatedZones;
 	}
 }
@@ -0,0 +1,250 @@
+package com.emiliano.friendreminder.infrastructure.services.impl;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.emiliano.friendreminder.domain.services.MessageService;
+import com.emiliano.friendreminder.domain.services.UndeliveredMessagesException;
+import com.emiliano.friendreminder.domain.services.UndeliveredMessagesException.Envelope;
+import com.emiliano.friendreminder.domain.valueobjects.Channel;
+import com.emiliano.friendreminder.domain.valueobjects.Email;
+import com.emiliano.friendreminder.domain.valueobjects.Mobile;
+
+/**
+ * A {@link MessageService} that queues the messages and sends them in the
+ * background through another {@link MessageService}.
+ *
+ * Each channel (SMS and email) has its own bounded queue and its own pool of
+ * workers, so a slow channel does not delay the other. The workers take the
+ * queued messages in batches, and send each batch with a single call to
+ * {@link MessageService#sendBatch(List)}. When a queue is full, the caller is
+ * blocked until there is room for the message, which keeps the memory used by
+ * the pending messages bounded.
+ *
+ * {@link #flush()} waits until every queued message was sent, and then flushes
+ * the other {@link MessageService}.
+ *
+ * @author Emiliano Pessoa
+ */
+public class AsyncMessageService implements MessageService, Closeable {
+
+	private static final Logger logger = Logger.getLogger(AsyncMessageService.class.getName());
+
+	private final MessageService delegate;
+	private final Dispatcher sms;
+	private final Dispatcher email;
+
+	private final Object lock = new Object();
+	private long pending = 0;
+	private final List<Envelope> failures = new ArrayList<>();
+	private RuntimeException firstFailure = null;
+
+	/**
+	 * Creates a new instance of AsyncMessageService and starts the workers.
+	 *
+	 * @param delegate      The service that sends the messages.
+	 * @param queueCapacity The maximum number of pending messages of each channel.
+	 * @param workers       The number of workers of each channel.
+	 * @param batchSize     The maximum number of messages sent at once by a
+	 *                      worker.
+	 */
+	public AsyncMessageService(MessageService delegate, int queueCapacity, int workers, int batchSize) {
+		if (queueCapacity < 1 || workers < 1 || batchSize < 1) {
+			throw new IllegalArgumentException("Invalid dispatch configuration: queueCapacity=" + queueCapacity
+					+ ", workers=" + workers + ", batchSize=" + batchSize);
+		}
+		this.delegate = delegate;
+		this.sms = new Dispatcher("sms", queueCapacity, workers, batchSize);
+		this.email = new Dispatcher("email", queueCapacity, workers, batchSize);
+	}
+
+	@Override
+	public void sendSMS(Mobile mobile, String subject, String body) {
+		sms.put(new Envelope(Channel.SMS, mobile.getValue(), subject, body));
+	}
+
+	@Override
+	public void sendEmail(Email email, String subject, String body) {
+		this.email.put(new Envelope(Channel.EMAIL, email.getValue(), subject, body));
+	}
+
+	/**
+	 * Waits until all the queued messages were sent, and then flushes the
+	 * delegate, so the messages it buffers are delivered too.
+	 *
+	 * @throws UndeliveredMessagesException If any message could not be sent
+	 *                                      since the last flush, by the workers
+	 *                                      or by the flush of the delegate.
+	 * @throws IllegalStateException        If the thread was interrupted.
+	 */
+	@Override
+	public void flush() {
+		synchronized (lock) {
+			try {
+				while (pending > 0) {
+					lock.wait();
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("Interrupted while waiting for the messages to be sent", e);
+			}
+		}
+		// Not called under the lock, so the workers are not blocked meanwhile.
+		UndeliveredMessagesException undelivered = null;
+		try {
+			delegate.flush();
+		} catch (UndeliveredMessagesException e) {
+			undelivered = e;
+		}
+		synchronized (lock) {
+			if (undelivered != null) {
+				if (firstFailure == null) {
+					firstFailure = undelivered;
+				}
+				failures.addAll(undelivered.getMessages());
+			}
+			if (!failures.isEmpty()) {
+				UndeliveredMessagesException exception = new UndeliveredMessagesException(failures, firstFailure);
+				failures.clear();
+				firstFailure = null;
+				throw exception;
+			}
+		}
+	}
+
+	/**
+	 * Returns the number of messages queued or being sent.
+	 *
+	 * @return The number of pending messages.
+	 */
+	public long getPending() {
+		synchronized (lock) {
+			return pending;
+		}
+	}
+
+	/**
+	 * Stops the workers. The messages that were not sent yet are discarded.
+	 */
+	@Override
+	public void close() {
+		sms.close();
+		email.close();
+		synchronized (lock) {
+			if (pending > 0) {
+				logger.warning(pending + " pending messages were discarded");
+				pending = 0;
+				lock.notifyAll();
+			}
+		}
+	}
+
+	/**
+	 * Records the result of a batch of messages and wakes up the threads waiting
+	 * for the queues to drain.
+	 *
+	 * @param count  The number of messages of the batch.
+	 * @param failed The messages that could not be sent.
+	 * @param error  The error sending them, or null if all were sent.
+	 */
+	private void completed(int count, List<Envelope> failed, RuntimeException error) {
+		synchronized (lock) {
+			pending = Math.max(0, pending - count);
+			if (!failed.isEmpty()) {
+				if (firstFailure == null) {
+					firstFailure = error;
+				}
+				failures.addAll(failed);
+			}
+			if (pending == 0) {
+				lock.notifyAll();
+			}
+		}
+	}
+
+	/**
+	 * The queue and the workers of a channel.
+	 */
+	private class Dispatcher {
+
+		private final String name;
+		private final BlockingQueue<Envelope> queue;
+		private final ExecutorService workers;
+		private final int batchSize;
+
+		Dispatcher(String name, int queueCapacity, int workers, int batchSize) {
+			this.name = name;
+			this.queue = new LinkedBlockingQueue<>(queueCapacity);
+			this.batchSize = batchSize;
+			AtomicInteger threadNumber = new AtomicInteger();
+			this.workers = Executors.newFixedThreadPool(workers, runnable -> {
+				Thread thread = new Thread(runnable, name + "-dispatcher-" + threadNumber.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			});
+			for (int i = 0; i < workers; i++) {
+				this.workers.execute(this::work);
+			}
+		}
+
+		/**
+		 * Queues a message, waiting for room in the queue if it is full.
+		 */
+		void put(Envelope message) {
+			synchronized (lock) {
+				pending++;
+			}
+			try {
+				queue.put(message);
+			} catch (InterruptedException e) {
+				completed(1, List.of(), null);
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("Interrupted while queueing a " + name + " message", e);
+			}
+		}
+
+		/**
+		 * Sends the queued messages in batches until the channel is closed. When
+		 * the delegate throws an {@link UndeliveredMessagesException}, only the
+		 * messages it lists failed; any other error fails the whole batch.
+		 */
+		private void work() {
+			try {
+				while (true) {
+					List<Envelope> batch = new ArrayList<>(batchSize);
+					batch.add(queue.take());
+					queue.drainTo(batch, batchSize - 1);
+					List<Envelope> failed = List.of();
+					RuntimeException error = null;
+					try {
+						delegate.sendBatch(batch);
+					} catch (UndeliveredMessagesException e) {
+						logger.log(Level.WARNING, "Error sending " + name + " messages", e);
+						failed = e.getMessages();
+						error = e.getCause() instanceof RuntimeException cause ? cause : e;
+					} catch (RuntimeException e) {
+						logger.log(Level.WARNING, "Error sending " + name + " messages", e);
+						failed = List.copyOf(batch);
+						error = e;
+					}
+					completed(batch.size(), failed, error);
+				}
+			} catch (InterruptedException e) {
+				// The channel was closed.
+			}
+		}
+
+		void close() {
+			workers.shutdownNow();
+		}
+	}
+
+}
@@ -3,20 +3,25 @@
  */
 package com.emiliano.friendreminder.infrastructure.services.impl;
 
-import java.util.logging.Logger;
+import java.util.List;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import com.emiliano.friendreminder.domain.services.MessageService;
+import com.emiliano.friendreminder.domain.services.UndeliveredMessagesException.Envelope;
+import com.emiliano.friendreminder.domain.valueobjects.Channel;
 import com.emiliano.friendreminder.domain.valueobjects.Email;
 import com.emiliano.friendreminder.domain.valueobjects.Mobile;
+import com.emiliano.friendreminder.infrastructure.logging.DeliveryLogSink;
 
 /**
  * 
  * A service implementation that sends messages via SMS or email, using the
  * provided {@link Mobile} and {@link Email} objects.
  * 
- * As a test application, emails and SMS will only be displayed in the LOG.
+ * As a test application, emails and SMS will only be recorded in the
+ * {@link DeliveryLogSink}, which writes them in the background.
  * 
  * @author Emiliano Pessoa
  *
@@ -24,16 +29,44 @@ import com.emiliano.friendreminder.domain.valueobjects.Mobile;
 @Service
 public class MessageServiceImpl implements MessageService {
 
-	private static final Logger logger = Logger.getLogger(MessageServiceImpl.class.getName());
+	private final DeliveryLogSink deliveryLog;
+
+	/**
+	 * Creates a new instance of MessageServiceImpl.
+	 * 
+	 * @param deliveryLog The sink the messages are recorded in.
+	 */
+	@Autowired
+	public MessageServiceImpl(DeliveryLogSink deliveryLog) {
+		this.deliveryLog = deliveryLog;
+	}
 
 	@Override
 	public void sendSMS(Mobile mobile, String subject, String body) {
-		logger.info("\nSMS TO: " + mobile.getValue() + "\nSUBJECT:" + subject + "\nBODY:" + body + "\n");
+		deliveryLog.record(Channel.SMS, mobile.getValue(), subject, body);
 	}
 
 	@Override
 	public void sendEmail(Email email, String subject, String body) {
-		logger.info("\nEMAIL TO: " + email.getValue() + "\nSUBJECT:" + subject + "\nBODY:" + body + "\n");
+		deliveryLog.record(Channel.EMAIL, email.getValue(), subject, body);
+	}
+
+	/**
+	 * Records the messages of the batch, whose recipients were already validated.
+	 */
+	@Override
+	public void sendBatch(List<Envelope> messages) {
+		for (Envelope message : messages) {
+			deliveryLog.record(message.channel(), message.recipient(), message.subject(), message.body());
+		}
+	}
+
+	/**
+	 * Waits until the messages sent so far were written to the delivery log.
+	 */
+	@Override
+	public void flush() {
+		deliveryLog.flush();
 	}
 
 }
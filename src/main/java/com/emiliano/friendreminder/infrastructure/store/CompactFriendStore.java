@@ -0,0 +1,322 @@
+package com.emiliano.friendreminder.infrastructure.store;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.MonthDay;
+import java.time.Year;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import com.emiliano.friendreminder.domain.entities.Friend;
+import com.emiliano.friendreminder.domain.valueobjects.DateOfBirth;
+import com.emiliano.friendreminder.domain.valueobjects.Email;
+import com.emiliano.friendreminder.domain.valueobjects.Mobile;
+
+/**
+ * Columnar in-memory store of {@link Friend}, for working sets too large to be
+ * kept as objects.
+ *
+ * Each friend is identified by its position in the store. The dates of birth
+ * are kept as epoch days in an int array, and the names, emails and mobile
+ * numbers as UTF-8 bytes in a single byte arena, delimited by an int array of
+ * end offsets. A friend costs about 24 bytes plus the length of its strings,
+ * instead of the 10 objects of a {@link Friend}.
+ *
+ * A primitive calendar index, with the positions of the friends grouped by day
+ * of birth, is built when the store is first queried after an addition.
+ *
+ * {@link Friend} objects are only created for the friends returned by the
+ * queries, and are not retained by the store. The columns can be written to a
+ * {@link FriendSnapshot} file.
+ *
+ * @author Emiliano Pessoa
+ */
+public class CompactFriendStore implements FriendStore {
+
+	private static final int MAX_ARENA_SIZE = Integer.MAX_VALUE - 8;
+
+	static final int FIELDS = 4;
+	static final int FIRST_NAME = 0;
+	static final int LAST_NAME = 1;
+	static final int EMAIL = 2;
+	static final int MOBILE = 3;
+
+	static final int DAYS = 366;
+	// First day of each month in a leap year, zero based.
+	private static final int[] MONTH_OFFSETS = { 0, 31, 60, 91, 121, 152, 182, 213, 244, 274, 305, 335 };
+	private static final int FEBRUARY_28 = dayIndex(2, 28);
+	private static final int FEBRUARY_29 = dayIndex(2, 29);
+
+	private int size = 0;
+	private int[] epochDays;
+	private int[] fieldEnds;
+	private byte[] arena;
+	private int arenaSize = 0;
+
+	// Calendar index: the positions of the friends born on day d are
+	// dayFriends[dayStarts[d]] to dayFriends[dayStarts[d + 1] - 1].
+	private int[] dayStarts = null;
+	private int[] dayFriends = null;
+
+	/**
+	 * Creates a new empty store.
+	 */
+	public CompactFriendStore() {
+		this(16, 1024);
+	}
+
+	/**
+	 * Creates a new empty store with room for a number of friends.
+	 *
+	 * @param friendCapacity The initial number of friends.
+	 * @param arenaCapacity  The initial number of bytes of the strings.
+	 */
+	public CompactFriendStore(int friendCapacity, int arenaCapacity) {
+		epochDays = new int[Math.max(1, friendCapacity)];
+		fieldEnds = new int[epochDays.length * FIELDS];
+		arena = new byte[Math.max(1, arenaCapacity)];
+	}
+
+	/**
+	 * Creates a store with the friends of a stream.
+	 *
+	 * @param friends The friends to add.
+	 * @return A new store.
+	 */
+	public static CompactFriendStore of(Stream<Friend> friends) {
+		CompactFriendStore store = new CompactFriendStore();
+		friends.forEachOrdered(store::add);
+		return store;
+	}
+
+	/**
+	 * Adds a friend to the store.
+	 *
+	 * @param friend The friend to add.
+	 * @return The position of the friend in the store.
+	 */
+	public synchronized int add(Friend friend) {
+		if (size == epochDays.length) {
+			epochDays = Arrays.copyOf(epochDays, size * 2);
+			fieldEnds = Arrays.copyOf(fieldEnds, size * 2 * FIELDS);
+		}
+		epochDays[size] = (int) friend.getDateOfBirth().getValue().toEpochDay();
+		int field = size * FIELDS;
+		fieldEnds[field + FIRST_NAME] = append(friend.getFirstName());
+		fieldEnds[field + LAST_NAME] = append(friend.getLastName());
+		fieldEnds[field + EMAIL] = append(friend.getEmail().getValue());
+		fieldEnds[field + MOBILE] = append(friend.getMobile().getValue());
+		dayStarts = null;
+		return size++;
+	}
+
+	@Override
+	public synchronized int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the friend at a position of the store.
+	 *
+	 * @param position The position of the friend.
+	 * @return A new {@link Friend} with the data of the position.
+	 * @throws IndexOutOfBoundsException If there is no friend at the position.
+	 */
+	public synchronized Friend get(int position) {
+		return materialize(position, LocalDate.now());
+	}
+
+	/**
+	 * Returns the date of birth of the friend at a position of the store, without
+	 * creating the friend.
+	 *
+	 * @param position The position of the friend.
+	 * @return The date of birth.
+	 * @throws IndexOutOfBoundsException If there is no friend at the position.
+	 */
+	public synchronized LocalDate getDateOfBirth(int position) {
+		return LocalDate.ofEpochDay(epochDays[checkPosition(position)]);
+	}
+
+	@Override
+	public synchronized List<Friend> findByCelebrationDay(MonthDay day, Year year) {
+		buildIndex();
+		int[] days = celebrationDays(day, year);
+		return materialize(days[0], days[1]);
+	}
+
+	@Override
+	public synchronized List<Friend> findByMonthOfBirth(int month) {
+		buildIndex();
+		int[] days = monthDays(month);
+		return materialize(days[0], days[1]);
+	}
+
+	/**
+	 * Streams all the friends of the store, creating each {@link Friend} only when
+	 * it is consumed. Friends added after the stream is created are not included.
+	 *
+	 * @return A stream of all friends, in the order they were added.
+	 */
+	@Override
+	public Stream<Friend> stream() {
+		LocalDate referenceDate = LocalDate.now();
+		return IntStream.range(0, size()).mapToObj(position -> {
+			synchronized (this) {
+				return materialize(position, referenceDate);
+			}
+		});
+	}
+
+	/**
+	 * Returns the number of bytes of the arrays of the store, including the
+	 * unused capacity.
+	 *
+	 * @return The size of the data of the store, in bytes.
+	 */
+	public synchronized long getDataSize() {
+		long indexSize = dayStarts == null ? 0 : (dayStarts.length + dayFriends.length) * 4L;
+		return epochDays.length * 4L + fieldEnds.length * 4L + arena.length + indexSize;
+	}
+
+	/**
+	 * Writes the columns and the calendar index of the store.
+	 *
+	 * @param out The output the columns are written to.
+	 * @throws IOException If there is an error writing the columns.
+	 * @see FriendSnapshot
+	 */
+	synchronized void writeTo(DataOutputStream out) throws IOException {
+		buildIndex();
+		out.writeInt(size);
+		out.writeInt(arenaSize);
+		for (int i = 0; i < size; i++) {
+			out.writeInt(epochDays[i]);
+		}
+		for (int i = 0; i < size * FIELDS; i++) {
+			out.writeInt(fieldEnds[i]);
+		}
+		for (int day : dayStarts) {
+			out.writeInt(day);
+		}
+		for (int i = 0; i < size; i++) {
+			out.writeInt(dayFriends[i]);
+		}
+		out.write(arena, 0, arenaSize);
+	}
+
+	/**
+	 * Returns the range of days of the calendar index of the friends who celebrate
+	 * their birthday on a day. February 28th and 29th are adjacent in the index.
+	 *
+	 * @return The first day and the day after the last day of the range.
+	 */
+	static int[] celebrationDays(MonthDay day, Year year) {
+		int index = dayIndex(day.getMonthValue(), day.getDayOfMonth());
+		if (!year.isLeap()) {
+			if (index == FEBRUARY_29) {
+				return new int[] { index, index };
+			}
+			if (index == FEBRUARY_28) {
+				return new int[] { FEBRUARY_28, FEBRUARY_29 + 1 };
+			}
+		}
+		return new int[] { index, index + 1 };
+	}
+
+	/**
+	 * Returns the range of days of the calendar index of a month.
+	 *
+	 * @return The first day and the day after the last day of the range.
+	 */
+	static int[] monthDays(int month) {
+		return new int[] { MONTH_OFFSETS[month - 1], month == 12 ? DAYS : MONTH_OFFSETS[month] };
+	}
+
+	/**
+	 * Appends a string to the arena.
+	 *
+	 * @return The end offset of the string in the arena.
+	 */
+	private int append(String value) {
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		if (arenaSize + bytes.length > arena.length) {
+			long required = (long) arenaSize + bytes.length;
+			if (required > MAX_ARENA_SIZE) {
+				throw new IllegalStateException("The store is full");
+			}
+			arena = Arrays.copyOf(arena, (int) Math.min(MAX_ARENA_SIZE, Math.max(arena.length * 2L, required)));
+		}
+		System.arraycopy(bytes, 0, arena, arenaSize, bytes.length);
+		arenaSize += bytes.length;
+		return arenaSize;
+	}
+
+	private String field(int position, int field) {
+		int index = position * FIELDS + field;
+		int start = index == 0 ? 0 : fieldEnds[index - 1];
+		return new String(arena, start, fieldEnds[index] - start, StandardCharsets.UTF_8);
+	}
+
+	private Friend materialize(int position, LocalDate referenceDate) {
+		checkPosition(position);
+		return new Friend(field(position, FIRST_NAME), field(position, LAST_NAME),
+				new DateOfBirth(LocalDate.ofEpochDay(epochDays[position]), referenceDate),
+				new Email(field(position, EMAIL)), new Mobile(field(position, MOBILE)));
+	}
+
+	/**
+	 * Creates the friends of the calendar index between two days.
+	 */
+	private List<Friend> materialize(int firstDay, int lastDay) {
+		LocalDate referenceDate = LocalDate.now();
+		List<Friend> friends = new ArrayList<>(dayStarts[lastDay] - dayStarts[firstDay]);
+		for (int i = dayStarts[firstDay]; i < dayStarts[lastDay]; i++) {
+			friends.add(materialize(dayFriends[i], referenceDate));
+		}
+		return friends;
+	}
+
+	private int checkPosition(int position) {
+		if (position < 0 || position >= size) {
+			throw new IndexOutOfBoundsException("No friend at position " + position);
+		}
+		return position;
+	}
+
+	/**
+	 * Groups the positions of the friends by day of birth with a counting sort, so
+	 * the positions of each day keep the order of the store.
+	 */
+	private void buildIndex() {
+		if (dayStarts != null) {
+			return;
+		}
+		int[] days = new int[size];
+		int[] starts = new int[DAYS + 1];
+		for (int i = 0; i < size; i++) {
+			LocalDate dateOfBirth = LocalDate.ofEpochDay(epochDays[i]);
+			days[i] = dayIndex(dateOfBirth.getMonthValue(), dateOfBirth.getDayOfMonth());
+			starts[days[i] + 1]++;
+		}
+		for (int d = 0; d < DAYS; d++) {
+			starts[d + 1] += starts[d];
+		}
+		int[] next = Arrays.copyOf(starts, DAYS);
+		int[] friends = new int[size];
+		for (int i = 0; i < size; i++) {
+			friends[next[days[i]]++] = i;
+		}
+		dayStarts = starts;
+		dayFriends = friends;
+	}
+
+	private static int dayIndex(int month, int dayOfMonth) {
+		return MONTH_OFFSETS[month - 1] + dayOfMonth - 1;
+	}
+}
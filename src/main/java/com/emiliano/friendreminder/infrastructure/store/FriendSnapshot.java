@@ -0,0 +1,243 @@
+package com.emiliano.friendreminder.infrastructure.store;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.MonthDay;
+import java.time.Year;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+import com.emiliano.friendreminder.domain.entities.Friend;
+import com.emiliano.friendreminder.domain.valueobjects.DateOfBirth;
+import com.emiliano.friendreminder.domain.valueobjects.Email;
+import com.emiliano.friendreminder.domain.valueobjects.Mobile;
+
+/**
+ * A {@link FriendStore} read from a snapshot file mapped in memory. The friends
+ * are read from the mapped file when they are returned, so opening a snapshot
+ * only costs the validation of its checksum, and the data is kept off the heap.
+ *
+ * The file has a header followed by the columns of a {@link CompactFriendStore},
+ * in big-endian order:
+ *
+ * <pre>
+ * int  magic ("FRND")
+ * int  version
+ * long creation time, in milliseconds since the epoch
+ * long version of the source data the snapshot was created from
+ * long CRC32 of the rest of the file
+ * int  number of friends (n)
+ * int  size of the arena, in bytes
+ * int  epoch day of the date of birth of each friend [n]
+ * int  end offset in the arena of each field of each friend [4n]
+ * int  start of each day in the calendar index [367]
+ * int  positions of the friends ordered by day of birth [n]
+ * byte arena with the UTF-8 strings of the friends
+ * </pre>
+ *
+ * @author Emiliano Pessoa
+ */
+public class FriendSnapshot implements FriendStore {
+
+	/**
+	 * The version of the format written by this class.
+	 */
+	public static final int VERSION = 2;
+
+	private static final int MAGIC = 0x46524E44;
+	private static final int HEADER_SIZE = 32;
+	private static final int CHECKSUM_OFFSET = 24;
+
+	private final Path path;
+	private final ByteBuffer buffer;
+	private final long createdAt;
+	private final long sourceVersion;
+	private final int size;
+	private final int epochDaysOffset;
+	private final int fieldEndsOffset;
+	private final int dayStartsOffset;
+	private final int dayFriendsOffset;
+	private final int arenaOffset;
+
+	private FriendSnapshot(Path path, ByteBuffer buffer) throws IOException {
+		this.path = path;
+		this.buffer = buffer;
+		if (buffer.capacity() < HEADER_SIZE + 8 || buffer.getInt(0) != MAGIC) {
+			throw new IOException("Not a friend snapshot: " + path);
+		}
+		if (buffer.getInt(4) != VERSION) {
+			throw new IOException("Unsupported friend snapshot version " + buffer.getInt(4) + ": " + path);
+		}
+		CRC32 crc = new CRC32();
+		crc.update(buffer.duplicate().position(HEADER_SIZE));
+		if (crc.getValue() != buffer.getLong(CHECKSUM_OFFSET)) {
+			throw new IOException("Invalid friend snapshot checksum: " + path);
+		}
+		this.createdAt = buffer.getLong(8);
+		this.sourceVersion = buffer.getLong(16);
+		this.size = buffer.getInt(HEADER_SIZE);
+		int arenaSize = buffer.getInt(HEADER_SIZE + 4);
+		this.epochDaysOffset = HEADER_SIZE + 8;
+		this.fieldEndsOffset = epochDaysOffset + size * 4;
+		this.dayStartsOffset = fieldEndsOffset + size * CompactFriendStore.FIELDS * 4;
+		this.dayFriendsOffset = dayStartsOffset + (CompactFriendStore.DAYS + 1) * 4;
+		this.arenaOffset = dayFriendsOffset + size * 4;
+		if (size < 0 || arenaSize < 0 || (long) arenaOffset + arenaSize != buffer.capacity()) {
+			throw new IOException("Invalid friend snapshot size: " + path);
+		}
+	}
+
+	/**
+	 * Maps a snapshot file in memory and validates it.
+	 *
+	 * @param path The path of the snapshot file.
+	 * @return The snapshot.
+	 * @throws IOException If the file cannot be read, or is not a valid snapshot
+	 *                     of the current version.
+	 */
+	public static FriendSnapshot open(Path path) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			if (channel.size() > Integer.MAX_VALUE) {
+				throw new IOException("Friend snapshot too large: " + path);
+			}
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			return new FriendSnapshot(path, buffer);
+		}
+	}
+
+	/**
+	 * Writes the friends of a store to a snapshot file. The file is written to a
+	 * temporary file first and then moved, so the previous snapshot is only
+	 * replaced by a complete one.
+	 *
+	 * @param path      The path of the snapshot file.
+	 * @param store     The friends to write. The store must not be modified while
+	 *                  it is written.
+	 * @param createdAt     The creation time recorded in the snapshot, in
+	 *                      milliseconds since the epoch.
+	 * @param sourceVersion The version of the source data recorded in the
+	 *                      snapshot.
+	 * @throws IOException If there is an error writing the file.
+	 */
+	public static void write(Path path, CompactFriendStore store, long createdAt, long sourceVersion)
+			throws IOException {
+		Path absolute = path.toAbsolutePath();
+		Files.createDirectories(absolute.getParent());
+		Path temp = Files.createTempFile(absolute.getParent(), absolute.getFileName().toString(), ".tmp");
+		try {
+			try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+				ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+				header.putInt(MAGIC).putInt(VERSION).putLong(createdAt).putLong(sourceVersion).putLong(0).flip();
+				channel.write(header);
+
+				CRC32 crc = new CRC32();
+				DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+						new CheckedOutputStream(Channels.newOutputStream(channel), crc), 1 << 16));
+				store.writeTo(out);
+				out.flush();
+
+				header.clear();
+				header.putLong(crc.getValue()).flip();
+				channel.write(header, CHECKSUM_OFFSET);
+				channel.force(true);
+			}
+			Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} finally {
+			Files.deleteIfExists(temp);
+		}
+	}
+
+	/**
+	 * Gets the path of the snapshot file.
+	 *
+	 * @return The path of the file.
+	 */
+	public Path getPath() {
+		return path;
+	}
+
+	/**
+	 * Gets the creation time recorded in the snapshot.
+	 *
+	 * @return The creation time, in milliseconds since the epoch.
+	 */
+	public long getCreatedAt() {
+		return createdAt;
+	}
+
+	/**
+	 * Gets the version of the source data recorded in the snapshot.
+	 *
+	 * @return The version of the source data.
+	 */
+	public long getSourceVersion() {
+		return sourceVersion;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public List<Friend> findByCelebrationDay(MonthDay day, Year year) {
+		int[] days = CompactFriendStore.celebrationDays(day, year);
+		return materialize(days[0], days[1]);
+	}
+
+	@Override
+	public List<Friend> findByMonthOfBirth(int month) {
+		int[] days = CompactFriendStore.monthDays(month);
+		return materialize(days[0], days[1]);
+	}
+
+	@Override
+	public Stream<Friend> stream() {
+		LocalDate referenceDate = LocalDate.now();
+		return IntStream.range(0, size).mapToObj(position -> materialize(position, referenceDate));
+	}
+
+	/**
+	 * Creates the friends of the calendar index between two days.
+	 */
+	private List<Friend> materialize(int firstDay, int lastDay) {
+		LocalDate referenceDate = LocalDate.now();
+		int first = buffer.getInt(dayStartsOffset + firstDay * 4);
+		int last = buffer.getInt(dayStartsOffset + lastDay * 4);
+		List<Friend> friends = new ArrayList<>(last - first);
+		for (int i = first; i < last; i++) {
+			friends.add(materialize(buffer.getInt(dayFriendsOffset + i * 4), referenceDate));
+		}
+		return friends;
+	}
+
+	private Friend materialize(int position, LocalDate referenceDate) {
+		LocalDate dateOfBirth = LocalDate.ofEpochDay(buffer.getInt(epochDaysOffset + position * 4));
+		return new Friend(field(position, CompactFriendStore.FIRST_NAME), field(position, CompactFriendStore.LAST_NAME),
+				new DateOfBirth(dateOfBirth, referenceDate), new Email(field(position, CompactFriendStore.EMAIL)),
+				new Mobile(field(position, CompactFriendStore.MOBILE)));
+	}
+
+	private String field(int position, int field) {
+		int index = position * CompactFriendStore.FIELDS + field;
+		int start = index == 0 ? 0 : buffer.getInt(fieldEndsOffset + (index - 1) * 4);
+		byte[] bytes = new byte[buffer.getInt(fieldEndsOffset + index * 4) - start];
+		buffer.get(arenaOffset + start, bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+}
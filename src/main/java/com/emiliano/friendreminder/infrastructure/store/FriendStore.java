@@ -0,0 +1,53 @@
+package com.emiliano.friendreminder.infrastructure.store;
+
+import java.time.MonthDay;
+import java.time.Year;
+import java.util.List;
+import java.util.stream.Stream;
+
+import com.emiliano.friendreminder.domain.entities.Friend;
+
+/**
+ * A read-only set of {@link Friend} that does not keep them as objects, and
+ * creates them only when they are returned.
+ *
+ * @author Emiliano Pessoa
+ */
+public interface FriendStore {
+
+	/**
+	 * Returns the number of friends in the store.
+	 *
+	 * @return The number of friends.
+	 */
+	int size();
+
+	/**
+	 * Finds the friends who celebrate their birthday on the specified day of the
+	 * specified year. Friends born on February 29th celebrate on February 28th in
+	 * non-leap years.
+	 *
+	 * @param day  The month and day of the celebration.
+	 * @param year The year of the celebration.
+	 * @return The friends who celebrate their birthday on the day, ordered by day
+	 *         of birth and then in the order of the store.
+	 */
+	List<Friend> findByCelebrationDay(MonthDay day, Year year);
+
+	/**
+	 * Finds the friends born in the specified month.
+	 *
+	 * @param month The month of the year.
+	 * @return The friends born in the month, ordered by day of birth.
+	 */
+	List<Friend> findByMonthOfBirth(int month);
+
+	/**
+	 * Streams all the friends of the store, creating each {@link Friend} only when
+	 * it is consumed.
+	 *
+	 * @return A stream of all friends, in the order of the store.
+	 */
+	Stream<Friend> stream();
+
+}
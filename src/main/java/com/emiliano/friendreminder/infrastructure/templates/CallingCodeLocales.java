@@ -0,0 +1,68 @@
+package com.emiliano.friendreminder.infrastructure.templates;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import com.emiliano.friendreminder.domain.entities.Friend;
+import com.emiliano.friendreminder.infrastructure.callingcodes.CallingCodeMap;
+
+/**
+ * Resolves the locale of the messages to a friend from the international
+ * calling code of its mobile number.
+ *
+ * Each calling code is mapped to the main language of its country. Mobile
+ * numbers without an international prefix, or with an unknown calling code,
+ * are assigned to the default locale.
+ *
+ * @author Emiliano Pessoa
+ */
+public class CallingCodeLocales {
+
+	private static final Map<String, String> DEFAULT_LOCALES = Map.ofEntries(Map.entry("1", "en-US"),
+			Map.entry("7", "ru-RU"), Map.entry("27", "en-ZA"), Map.entry("33", "fr-FR"), Map.entry("34", "es-ES"),
+			Map.entry("39", "it-IT"), Map.entry("44", "en-GB"), Map.entry("49", "de-DE"), Map.entry("52", "es-MX"),
+			Map.entry("54", "es-AR"), Map.entry("55", "pt-BR"), Map.entry("56", "es-CL"), Map.entry("57", "es-CO"),
+			Map.entry("61", "en-AU"), Map.entry("81", "ja-JP"), Map.entry("86", "zh-CN"), Map.entry("91", "en-IN"),
+			Map.entry("351", "pt-PT"));
+
+	private final CallingCodeMap<Locale> locales;
+
+	/**
+	 * Creates a new instance of CallingCodeLocales.
+	 *
+	 * @param locales       The locales of the calling codes, without the
+	 *                      international prefix.
+	 * @param defaultLocale The locale of the numbers without a known calling code.
+	 */
+	public CallingCodeLocales(Map<String, Locale> locales, Locale defaultLocale) {
+		this.locales = new CallingCodeMap<>(locales, defaultLocale);
+	}
+
+	/**
+	 * Creates a CallingCodeLocales with the locales of the most common calling
+	 * codes, and overrides.
+	 *
+	 * @param overrides     The locales of calling codes that replace or are added
+	 *                      to the default locales.
+	 * @param defaultLocale The locale of the numbers without a known calling code.
+	 * @return A new instance of CallingCodeLocales.
+	 */
+	public static CallingCodeLocales withDefaults(Map<String, Locale> overrides, Locale defaultLocale) {
+		Map<String, Locale> locales = new HashMap<>();
+		DEFAULT_LOCALES.forEach((code, locale) -> locales.put(code, Locale.forLanguageTag(locale)));
+		locales.putAll(overrides);
+		return new CallingCodeLocales(locales, defaultLocale);
+	}
+
+	/**
+	 * Gets the locale of a friend.
+	 *
+	 * @param friend The friend.
+	 * @return The locale of the mobile number of the friend.
+	 */
+	public Locale localeOf(Friend friend) {
+		return locales.get(friend.getMobile().getValue());
+	}
+
+}
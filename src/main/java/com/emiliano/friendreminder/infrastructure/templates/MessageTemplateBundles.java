@@ -0,0 +1,60 @@
+package com.emiliano.friendreminder.infrastructure.templates;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+
+import com.emiliano.friendreminder.domain.services.templates.MessageTemplates;
+
+/**
+ * Loads the bundles of {@link MessageTemplates} from UTF-8 properties files in
+ * the classpath, named after the base name and the locale, such as
+ * 'templates/messages_pt_BR.properties'.
+ *
+ * @author Emiliano Pessoa
+ */
+public final class MessageTemplateBundles {
+
+	private MessageTemplateBundles() {
+
+	}
+
+	/**
+	 * Adds the bundles of some locales to the default templates.
+	 *
+	 * @param baseName The path of the bundles in the classpath, without the
+	 *                 locale and the extension.
+	 * @param locales  The locales of the bundles.
+	 * @return The default templates with the bundles of the locales.
+	 * @throws IllegalArgumentException If a bundle is missing, or has an unknown
+	 *                                  key or an invalid template.
+	 * @throws UncheckedIOException     If a bundle cannot be read.
+	 */
+	public static MessageTemplates load(String baseName, List<Locale> locales) {
+		MessageTemplates templates = MessageTemplates.defaults();
+		for (Locale locale : locales) {
+			String name = baseName + "_" + locale + ".properties";
+			try (InputStream in = MessageTemplateBundles.class.getClassLoader().getResourceAsStream(name)) {
+				if (in == null) {
+					throw new IllegalArgumentException("Message template bundle not found: " + name);
+				}
+				Properties properties = new Properties();
+				properties.load(new InputStreamReader(in, StandardCharsets.UTF_8));
+				Map<String, String> sources = new HashMap<>();
+				properties.stringPropertyNames().forEach(key -> sources.put(key, properties.getProperty(key)));
+				templates = templates.withBundle(locale, sources);
+			} catch (IOException e) {
+				throw new UncheckedIOException("Error reading the message template bundle " + name, e);
+			}
+		}
+		return templates;
+	}
+
+}
@@ -0,0 +1,57 @@
+package com.emiliano.friendreminder.infrastructure.throttling;
+
+/**
+ * The rate messages can be sent at through a gateway, or to a destination.
+ *
+ * @param permitsPerSecond The sustained number of messages per second. Zero
+ *                         means unlimited.
+ * @param burst            The number of messages that can be sent at once
+ *                         after a pause.
+ *
+ * @author Emiliano Pessoa
+ */
+public record RateLimit(double permitsPerSecond, int burst) {
+
+	/**
+	 * No limit.
+	 */
+	public static final RateLimit UNLIMITED = new RateLimit(0, 1);
+
+	/**
+	 * Creates a new RateLimit.
+	 *
+	 * @param permitsPerSecond The sustained number of messages per second. Zero
+	 *                         means unlimited.
+	 * @param burst            The number of messages that can be sent at once
+	 *                         after a pause.
+	 * @throws IllegalArgumentException If the rate is negative or not finite, or
+	 *                                  the burst is less than one.
+	 */
+	public RateLimit {
+		if (!(permitsPerSecond >= 0) || Double.isInfinite(permitsPerSecond) || burst < 1) {
+			throw new IllegalArgumentException(
+					"Invalid rate limit: permitsPerSecond=" + permitsPerSecond + ", burst=" + burst);
+		}
+	}
+
+	/**
+	 * Creates a rate limit with a burst of one second of messages.
+	 *
+	 * @param permitsPerSecond The sustained number of messages per second. Zero
+	 *                         means unlimited.
+	 * @return The rate limit.
+	 */
+	public static RateLimit of(double permitsPerSecond) {
+		return new RateLimit(permitsPerSecond, (int) Math.max(1, Math.ceil(permitsPerSecond)));
+	}
+
+	/**
+	 * Checks whether the rate is limited.
+	 *
+	 * @return True if the rate is limited.
+	 */
+	public boolean isLimited() {
+		return permitsPerSecond > 0;
+	}
+
+}
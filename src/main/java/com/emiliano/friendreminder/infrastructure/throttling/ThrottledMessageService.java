@@ -0,0 +1,502 @@
+package com.emiliano.friendreminder.infrastructure.throttling;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.emiliano.friendreminder.domain.services.MessageService;
+import com.emiliano.friendreminder.domain.services.UndeliveredMessagesException;
+import com.emiliano.friendreminder.domain.services.UndeliveredMessagesException.Envelope;
+import com.emiliano.friendreminder.domain.valueobjects.Channel;
+import com.emiliano.friendreminder.domain.valueobjects.Email;
+import com.emiliano.friendreminder.domain.valueobjects.Mobile;
+import com.emiliano.friendreminder.infrastructure.callingcodes.CallingCodeMap;
+
+/**
+ * A {@link MessageService} that paces the messages sent through another
+ * {@link MessageService} to the quotas of the gateways.
+ *
+ * Each channel has a {@link TokenBucket}, and so has each email domain and
+ * each calling code of the mobile numbers with a limit of its own. A message
+ * takes a token from the bucket of its destination and from the bucket of its
+ * channel, so the messages are sent at the highest rate allowed instead of
+ * failing in bursts. Channels and destinations without a limit are not
+ * throttled.
+ *
+ * The caller waits for the token of the channel, so this service should be
+ * called by the workers of an asynchronous service. A message whose destination
+ * has no token available is not waited for: it is put in the bounded delay
+ * queue of its channel until its token is earned, and the caller goes on with
+ * the messages to the other destinations. When the delay queue is full, the
+ * caller is blocked until there is room, which holds back the queue of the
+ * asynchronous service too. Each channel has a worker that waits for its
+ * delayed messages to be due and sends them. {@link #getDelayed()} counts them
+ * until they are sent, and {@link #flush()} waits for them.
+ *
+ * @author Emiliano Pessoa
+ */
+public class ThrottledMessageService implements MessageService, Closeable {
+
+	private static final Logger logger = Logger.getLogger(ThrottledMessageService.class.getName());
+
+	private final MessageService delegate;
+	private final Ticker ticker;
+	private final TokenBucket sms;
+	private final TokenBucket email;
+	private final CallingCodeMap<TokenBucket> callingCodes;
+	private final Map<String, TokenBucket> domains;
+	private final DelayQueue smsDelays;
+	private final DelayQueue emailDelays;
+
+	private final Object lock = new Object();
+	private final List<Envelope> failures = new ArrayList<>();
+	private RuntimeException firstFailure = null;
+
+	/**
+	 * Creates a new instance of ThrottledMessageService and starts the workers of
+	 * the delay queues.
+	 *
+	 * @param delegate      The service that sends the messages.
+	 * @param sms           The rate limit of all the SMS messages.
+	 * @param email         The rate limit of all the email messages.
+	 * @param callingCodes  The rate limits of the SMS messages to some calling
+	 *                      codes, without the international prefix.
+	 * @param domains       The rate limits of the email messages to some domains.
+	 * @param delayCapacity The maximum number of delayed messages of each
+	 *                      channel.
+	 * @param ticker        The source of time.
+	 * @throws IllegalArgumentException If the capacity is less than one.
+	 */
+	public ThrottledMessageService(MessageService delegate, RateLimit sms, RateLimit email,
+			Map<String, RateLimit> callingCodes, Map<String, RateLimit> domains, int delayCapacity, Ticker ticker) {
+		if (delayCapacity < 1) {
+			throw new IllegalArgumentException("Invalid delay capacity: " + delayCapacity);
+		}
+		this.delegate = delegate;
+		this.ticker = ticker;
+		this.sms = bucket(sms);
+		this.email = bucket(email);
+		Map<String, TokenBucket> codeBuckets = new HashMap<>();
+		callingCodes.forEach((code, limit) -> {
+			if (limit.isLimited()) {
+				codeBuckets.put(code, new TokenBucket(limit));
+			}
+		});
+		this.callingCodes = new CallingCodeMap<>(codeBuckets, null);
+		Map<String, TokenBucket> domainBuckets = new HashMap<>();
+		domains.forEach((domain, limit) -> {
+			if (limit.isLimited()) {
+				domainBuckets.put(domain.toLowerCase(Locale.ROOT), new TokenBucket(limit));
+			}
+		});
+		this.domains = Map.copyOf(domainBuckets);
+		this.smsDelays = new DelayQueue("sms", this.sms, delayCapacity);
+		this.emailDelays = new DelayQueue("email", this.email, delayCapacity);
+	}
+
+	/**
+	 * Sends the message when the calling code of the number has a token, waiting
+	 * for the token of the channel, or delays it until the calling code has one.
+	 *
+	 * @throws IllegalStateException If the thread is interrupted while it waits.
+	 */
+	@Override
+	public void sendSMS(Mobile mobile, String subject, String body) {
+		if (!delay(new Envelope(Channel.SMS, mobile.getValue(), subject, body))) {
+			acquire(sms);
+			delegate.sendSMS(mobile, subject, body);
+		}
+	}
+
+	/**
+	 * Sends the message when the domain of the address has a token, waiting for
+	 * the token of the channel, or delays it until the domain has one.
+	 *
+	 * @throws IllegalStateException If the thread is interrupted while it waits.
+	 */
+	@Override
+	public void sendEmail(Email email, String subject, String body) {
+		if (!delay(new Envelope(Channel.EMAIL, email.getValue(), subject, body))) {
+			acquire(this.email);
+			delegate.sendEmail(email, subject, body);
+		}
+	}
+
+	/**
+	 * Delays the messages whose destination has no token, and sends the others
+	 * with a single call to the delegate once the channel has a token for each
+	 * of them.
+	 *
+	 * @throws UndeliveredMessagesException If some of the messages sent could not
+	 *                                      be sent. The delayed messages are not
+	 *                                      listed.
+	 * @throws IllegalStateException        If the thread is interrupted while it
+	 *                                      waits.
+	 */
+	@Override
+	public void sendBatch(List<Envelope> messages) {
+		List<Envelope> ready = new ArrayList<>(messages.size());
+		for (Envelope message : messages) {
+			if (!delay(message)) {
+				ready.add(message);
+			}
+		}
+		if (ready.isEmpty()) {
+			return;
+		}
+		for (Envelope message : ready) {
+			acquire(delays(message).channel);
+		}
+		try {
+			delegate.sendBatch(ready);
+		} catch (UndeliveredMessagesException e) {
+			throw e;
+		} catch (RuntimeException e) {
+			// Only the messages sent failed, not the delayed ones.
+			throw new UndeliveredMessagesException(ready, e);
+		}
+	}
+
+	/**
+	 * Waits until the workers sent the delayed messages, and then flushes the
+	 * delegate.
+	 *
+	 * @throws UndeliveredMessagesException If any delayed message could not be
+	 *                                      sent since the last flush, by the
+	 *                                      workers or by the flush of the
+	 *                                      delegate.
+	 * @throws IllegalStateException        If the thread is interrupted while it
+	 *                                      waits.
+	 */
+	@Override
+	public void flush() {
+		try {
+			smsDelays.awaitEmpty();
+			emailDelays.awaitEmpty();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting for the delayed messages to be sent", e);
+		}
+		UndeliveredMessagesException undelivered = null;
+		try {
+			delegate.flush();
+		} catch (UndeliveredMessagesException e) {
+			undelivered = e;
+		}
+		synchronized (lock) {
+			if (undelivered != null) {
+				if (firstFailure == null) {
+					firstFailure = undelivered;
+				}
+				failures.addAll(undelivered.getMessages());
+			}
+			if (!failures.isEmpty()) {
+				UndeliveredMessagesException exception = new UndeliveredMessagesException(failures, firstFailure);
+				failures.clear();
+				firstFailure = null;
+				throw exception;
+			}
+		}
+	}
+
+	/**
+	 * Returns the number of messages delayed or being sent by the workers.
+	 *
+	 * @return The number of delayed messages.
+	 */
+	public int getDelayed() {
+		return smsDelays.size() + emailDelays.size();
+	}
+
+	/**
+	 * Stops the workers. The delayed messages that were not sent yet are
+	 * discarded.
+	 */
+	@Override
+	public void close() {
+		int discarded = smsDelays.close() + emailDelays.close();
+		if (discarded > 0) {
+			logger.warning(discarded + " delayed messages were discarded");
+		}
+	}
+
+	/**
+	 * Reserves the token of the destination of a message, and puts the message
+	 * in the delay queue of its channel if the token is not available now.
+	 *
+	 * @return True if the message was delayed, false if it can be sent now.
+	 */
+	private boolean delay(Envelope message) {
+		TokenBucket destination = destination(message);
+		if (destination == null) {
+			return false;
+		}
+		long now = ticker.nanoTime();
+		long wait = destination.reserve(now);
+		if (wait <= 0) {
+			return false;
+		}
+		try {
+			delays(message).put(message, now + wait);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while delaying a " + message.channel() + " message", e);
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the delay queue of the channel of a message.
+	 */
+	private DelayQueue delays(Envelope message) {
+		return message.channel() == Channel.SMS ? smsDelays : emailDelays;
+	}
+
+	/**
+	 * Returns the bucket of the calling code or the domain of a message, or null
+	 * if its destination has no limit of its own.
+	 */
+	private TokenBucket destination(Envelope message) {
+		String recipient = message.recipient();
+		if (message.channel() == Channel.SMS) {
+			return callingCodes.get(recipient);
+		}
+		return domains.isEmpty() ? null
+				: domains.get(recipient.substring(recipient.lastIndexOf('@') + 1).toLowerCase(Locale.ROOT));
+	}
+
+	/**
+	 * Reserves a token of the channel, and waits until it is available.
+	 *
+	 * @throws IllegalStateException If the thread is interrupted while it waits.
+	 */
+	private void acquire(TokenBucket channel) {
+		try {
+			awaitToken(channel);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting to send a message", e);
+		}
+	}
+
+	private void awaitToken(TokenBucket channel) throws InterruptedException {
+		if (channel != null) {
+			long nanos = channel.reserve(ticker.nanoTime());
+			if (nanos > 0) {
+				ticker.sleep(nanos);
+			}
+		}
+	}
+
+	/**
+	 * Records the delayed messages a worker could not send, to be thrown by
+	 * {@link #flush()}.
+	 */
+	private void failed(List<Envelope> messages, RuntimeException error) {
+		synchronized (lock) {
+			if (firstFailure == null) {
+				firstFailure = error;
+			}
+			failures.addAll(messages);
+		}
+	}
+
+	private static TokenBucket bucket(RateLimit limit) {
+		return limit.isLimited() ? new TokenBucket(limit) : null;
+	}
+
+	/**
+	 * A message waiting for the token of its destination.
+	 *
+	 * @param due      The time the token of the destination is earned.
+	 * @param sequence The order the message was delayed in, among the messages
+	 *                 due at the same time.
+	 * @param message  The message.
+	 */
+	private record Delayed(long due, long sequence, Envelope message) {
+	}
+
+	/**
+	 * The bounded queue of the delayed messages of a channel, ordered by the time
+	 * they are due, and the worker that sends them.
+	 */
+	private class DelayQueue {
+
+		private final String name;
+		private final TokenBucket channel;
+		private final int capacity;
+		private final ReentrantLock queueLock = new ReentrantLock();
+		// Signalled when a message is added, when messages were sent and on close.
+		private final Condition changed = queueLock.newCondition();
+		private final PriorityQueue<Delayed> queue = new PriorityQueue<>(
+				Comparator.comparingLong(Delayed::due).thenComparingLong(Delayed::sequence));
+		private final Thread worker;
+		private long sequence = 0;
+		private int sending = 0;
+		private boolean closed = false;
+
+		DelayQueue(String name, TokenBucket channel, int capacity) {
+			this.name = name;
+			this.channel = channel;
+			this.capacity = capacity;
+			this.worker = new Thread(this::work, name + "-throttle");
+			this.worker.setDaemon(true);
+			this.worker.start();
+		}
+
+		/**
+		 * Adds a message, waiting for room in the queue if it is full.
+		 *
+		 * @throws IllegalStateException If the queue was closed.
+		 */
+		void put(Envelope message, long due) throws InterruptedException {
+			queueLock.lockInterruptibly();
+			try {
+				while (!closed && queue.size() + sending >= capacity) {
+					changed.await();
+				}
+				if (closed) {
+					throw new IllegalStateException("The " + name + " delay queue was closed");
+				}
+				queue.add(new Delayed(due, sequence++, message));
+				changed.signalAll();
+			} finally {
+				queueLock.unlock();
+			}
+		}
+
+		/**
+		 * Returns the number of messages delayed or being sent.
+		 */
+		int size() {
+			queueLock.lock();
+			try {
+				return queue.size() + sending;
+			} finally {
+				queueLock.unlock();
+			}
+		}
+
+		/**
+		 * Waits until all the delayed messages were sent.
+		 */
+		void awaitEmpty() throws InterruptedException {
+			queueLock.lockInterruptibly();
+			try {
+				while (queue.size() + sending > 0) {
+					changed.await();
+				}
+			} finally {
+				queueLock.unlock();
+			}
+		}
+
+		/**
+		 * Stops the worker and discards the delayed messages.
+		 *
+		 * @return The number of messages discarded.
+		 */
+		int close() {
+			worker.interrupt();
+			queueLock.lock();
+			try {
+				int discarded = queue.size() + sending;
+				closed = true;
+				queue.clear();
+				sending = 0;
+				changed.signalAll();
+				return discarded;
+			} finally {
+				queueLock.unlock();
+			}
+		}
+
+		/**
+		 * Sends the delayed messages as they are due, until the queue is closed.
+		 * The messages due at the same time are sent in a batch, once the channel
+		 * has a token for each of them. Their errors are not thrown, but recorded
+		 * and thrown by {@link #flush()}.
+		 */
+		private void work() {
+			try {
+				while (true) {
+					List<Envelope> due = takeDue();
+					for (int i = 0; i < due.size(); i++) {
+						awaitToken(channel);
+					}
+					try {
+						delegate.sendBatch(due);
+					} catch (UndeliveredMessagesException e) {
+						logger.log(Level.WARNING, "Error sending delayed " + name + " messages", e);
+						failed(e.getMessages(), e.getCause() instanceof RuntimeException cause ? cause : e);
+					} catch (RuntimeException e) {
+						logger.log(Level.WARNING, "Error sending delayed " + name + " messages", e);
+						failed(due, e);
+					}
+					sent(due.size());
+				}
+			} catch (InterruptedException e) {
+				// The queue was closed.
+			}
+		}
+
+		/**
+		 * Waits for the first message to be due, with a timed wait that ends early
+		 * when a message is added, and removes the messages due.
+		 */
+		private List<Envelope> takeDue() throws InterruptedException {
+			queueLock.lockInterruptibly();
+			try {
+				while (true) {
+					if (closed) {
+						throw new InterruptedException();
+					}
+					Delayed first = queue.peek();
+					if (first == null) {
+						changed.await();
+						continue;
+					}
+					long now = ticker.nanoTime();
+					if (first.due() > now) {
+						ticker.await(changed, first.due() - now);
+						continue;
+					}
+					List<Envelope> due = new ArrayList<>();
+					while (!queue.isEmpty() && queue.peek().due() <= now) {
+						due.add(queue.poll().message());
+					}
+					sending += due.size();
+					return due;
+				}
+			} finally {
+				queueLock.unlock();
+			}
+		}
+
+		/**
+		 * Removes the messages sent from the count, unless the queue was closed
+		 * meanwhile and the count was reset.
+		 */
+		private void sent(int count) {
+			queueLock.lock();
+			try {
+				if (!closed) {
+					sending -= count;
+					changed.signalAll();
+				}
+			} finally {
+				queueLock.unlock();
+			}
+		}
+	}
+
+}
@@ -0,0 +1,57 @@
+package com.emiliano.friendreminder.infrastructure.throttling;
+
+import java.util.concurrent.locks.Condition;
+
+/**
+ * The source of time of the throttling, which can be replaced in tests.
+ *
+ * @author Emiliano Pessoa
+ */
+public interface Ticker {
+
+	/**
+	 * The system time.
+	 */
+	Ticker SYSTEM = new Ticker() {
+
+		@Override
+		public long nanoTime() {
+			return System.nanoTime();
+		}
+
+		@Override
+		public void sleep(long nanos) throws InterruptedException {
+			Thread.sleep(nanos / 1_000_000, (int) (nanos % 1_000_000));
+		}
+
+		@Override
+		public void await(Condition condition, long nanos) throws InterruptedException {
+			condition.awaitNanos(nanos);
+		}
+	};
+
+	/**
+	 * Returns the current time.
+	 *
+	 * @return The current time, in nanoseconds from an arbitrary origin.
+	 */
+	long nanoTime();
+
+	/**
+	 * Waits for some time.
+	 *
+	 * @param nanos The time to wait, in nanoseconds.
+	 * @throws InterruptedException If the thread is interrupted.
+	 */
+	void sleep(long nanos) throws InterruptedException;
+
+	/**
+	 * Waits on a condition until it is signalled, or for some time at most.
+	 *
+	 * @param condition The condition, whose lock is held by the caller.
+	 * @param nanos     The maximum time to wait, in nanoseconds.
+	 * @throws InterruptedException If the thread is interrupted.
+	 */
+	void await(Condition condition, long nanos) throws InterruptedException;
+
+}
@@ -0,0 +1,48 @@
+package com.emiliano.friendreminder.infrastructure.throttling;
+
+/**
+ * A token bucket that paces the messages sent at a {@link RateLimit}.
+ *
+ * The bucket is kept as the time its next token is earned (the generic cell
+ * rate algorithm), so it needs no refill thread. Each call reserves a token and
+ * returns how long the caller must wait for it: a full bucket lets a burst go
+ * through at once, and then the messages are spaced evenly at the rate, instead
+ * of being sent in bursts and rejected. Concurrent callers reserve successive
+ * tokens, so they are spaced too.
+ *
+ * @author Emiliano Pessoa
+ */
+public class TokenBucket {
+
+	private final long interval;
+	private final long tolerance;
+	private long nextToken = Long.MIN_VALUE;
+
+	/**
+	 * Creates a new full bucket.
+	 *
+	 * @param limit The rate limit of the bucket, which must be limited.
+	 * @throws IllegalArgumentException If the rate is unlimited.
+	 */
+	public TokenBucket(RateLimit limit) {
+		if (!limit.isLimited()) {
+			throw new IllegalArgumentException("A token bucket needs a limited rate: " + limit);
+		}
+		this.interval = Math.max(1, Math.round(1_000_000_000d / limit.permitsPerSecond()));
+		this.tolerance = interval * (limit.burst() - 1);
+	}
+
+	/**
+	 * Reserves the next token.
+	 *
+	 * @param now The current time, in nanoseconds of {@link System#nanoTime()}.
+	 * @return The time to wait for the token, in nanoseconds, or zero if it is
+	 *         available now.
+	 */
+	public synchronized long reserve(long now) {
+		long earned = nextToken == Long.MIN_VALUE ? now : Math.max(nextToken, now);
+		nextToken = earned + interval;
+		return Math.max(0, earned - tolerance - now);
+	}
+
+}
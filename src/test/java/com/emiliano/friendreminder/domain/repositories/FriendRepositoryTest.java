@@ -7,6 +7,7 @@ import static org.mockito.Mockito.when;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Stream;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -69,4 +70,18 @@ class FriendRepositoryTest {
         assertEquals(friends, result);
     }
 
+	/**
+	 * Tests the functionality of the streamAll method in FriendRepository.
+	 */
+	@Test
+	void streamAllTest() {
+		// mock the streamAll method to return a stream of the full list of friends
+		when(friendRepository.streamAll()).thenAnswer(i -> friends.stream());
+		// call the streamAll method on the mock repository and collect the stream
+		try (Stream<Friend> result = friendRepository.streamAll()) {
+			// check that the result is as expected
+			assertEquals(friends, result.toList());
+		}
+	}
+
 }
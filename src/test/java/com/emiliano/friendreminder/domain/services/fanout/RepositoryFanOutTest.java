@@ -0,0 +1,117 @@
+package com.emiliano.friendreminder.domain.services.fanout;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.emiliano.friendreminder.domain.entities.Friend;
+import com.emiliano.friendreminder.domain.entities.FriendBuilder;
+import com.emiliano.friendreminder.domain.repositories.FriendRepository;
+
+/**
+ * This class provides test cases for {@link RepositoryFanOut}.
+ *
+ * @author Emiliano Pessoa
+ */
+class RepositoryFanOutTest {
+
+	private ExecutorService executor;
+	private Friend john;
+	private Friend mary;
+
+	/**
+	 * Sets up the test environment by creating the executor and sample data.
+	 */
+	@BeforeEach
+	void setUp() {
+		executor = Executors.newFixedThreadPool(2);
+		john = new FriendBuilder().setFirstName("John").setLastName("Doe").setEmail("john.doe@test.com")
+				.setDateOfBirth(LocalDate.of(1985, 1, 1)).setMobile("1234567890").build();
+		mary = new FriendBuilder().setFirstName("Mary").setLastName("Doe").setEmail("mary.doe@test.com")
+				.setDateOfBirth(LocalDate.of(1987, 2, 2)).setMobile("0987654321").build();
+	}
+
+	/**
+	 * Stops the executor, interrupting the repositories that are still sleeping.
+	 */
+	@AfterEach
+	void tearDown() {
+		executor.shutdownNow();
+	}
+
+	/**
+	 * Tests that the repositories are queried concurrently and the results keep
+	 * the order of the repositories, even if the first one completes last.
+	 */
+	@Test
+	void queryOrderTest() {
+		FriendRepository slow = repository(300, List.of(john));
+		FriendRepository fast = repository(0, List.of(mary));
+		RepositoryFanOut fanOut = new RepositoryFanOut(List.of(slow, fast), executor, Duration.ofSeconds(5),
+				PartialResultsPolicy.FAIL);
+
+		long start = System.nanoTime();
+		List<List<Friend>> results = fanOut.query(FriendRepository::findAll);
+		long elapsed = Duration.ofNanos(System.nanoTime() - start).toMillis();
+
+		assertEquals(List.of(List.of(john), List.of(mary)), results);
+		assertTrue(elapsed < 600, "Elapsed " + elapsed + " ms");
+	}
+
+	/**
+	 * Tests that a repository that times out is skipped with the
+	 * {@link PartialResultsPolicy#SKIP} policy.
+	 */
+	@Test
+	void skipTimeoutTest() {
+		FriendRepository slow = repository(5000, List.of(john));
+		FriendRepository fast = repository(0, List.of(mary));
+		RepositoryFanOut fanOut = new RepositoryFanOut(List.of(slow, fast), executor, Duration.ofMillis(200),
+				PartialResultsPolicy.SKIP);
+
+		assertEquals(List.of(List.of(), List.of(mary)), fanOut.query(FriendRepository::findAll));
+	}
+
+	/**
+	 * Tests that a repository that times out or fails makes the query fail with
+	 * the {@link PartialResultsPolicy#FAIL} policy.
+	 */
+	@Test
+	void failTest() {
+		FriendRepository slow = repository(5000, List.of(john));
+		FriendRepository fast = repository(0, List.of(mary));
+		RepositoryFanOut fanOut = new RepositoryFanOut(List.of(fast, slow), executor, Duration.ofMillis(200),
+				PartialResultsPolicy.FAIL);
+		RuntimeException e = assertThrows(RuntimeException.class, () -> fanOut.query(FriendRepository::findAll));
+		assertTrue(e.getCause() instanceof TimeoutException);
+
+		FriendRepository broken = mock(FriendRepository.class);
+		when(broken.findAll()).thenThrow(new IllegalStateException("broken"));
+		RepositoryFanOut sequential = new RepositoryFanOut(List.of(fast, broken), null, Duration.ofMillis(200),
+				PartialResultsPolicy.FAIL);
+		e = assertThrows(RuntimeException.class, () -> sequential.query(FriendRepository::findAll));
+		assertTrue(e.getCause() instanceof IllegalStateException);
+	}
+
+	private static FriendRepository repository(long delay, List<Friend> friends) {
+		FriendRepository repository = mock(FriendRepository.class);
+		when(repository.findAll()).thenAnswer(i -> {
+			Thread.sleep(delay);
+			return friends;
+		});
+		return repository;
+	}
+}
@@ -1,18 +1,32 @@
 package com.emiliano.friendreminder.domain.services.impl;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.contains;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.time.LocalDate;
+import java.time.MonthDay;
+import java.time.Year;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
 
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Order;
@@ -20,10 +34,18 @@ import org.junit.jupiter.api.Test;
 
 import com.emiliano.friendreminder.domain.entities.Friend;
 import com.emiliano.friendreminder.domain.entities.FriendBuilder;
+import com.emiliano.friendreminder.domain.repositories.DeliveryLedger;
 import com.emiliano.friendreminder.domain.repositories.FriendRepository;
 import com.emiliano.friendreminder.domain.services.FriendService;
+import com.emiliano.friendreminder.domain.services.FriendServiceListener;
 import com.emiliano.friendreminder.domain.services.MessageService;
+import com.emiliano.friendreminder.domain.services.UndeliveredMessagesException;
+import com.emiliano.friendreminder.domain.services.UndeliveredMessagesException.Envelope;
+import com.emiliano.friendreminder.domain.services.templates.MessageTemplates;
+import com.emiliano.friendreminder.domain.valueobjects.Channel;
+import com.emiliano.friendreminder.domain.valueobjects.Delivery;
 import com.emiliano.friendreminder.domain.valueobjects.Email;
+import com.emiliano.friendreminder.domain.valueobjects.Mobile;
 
 /**
  * This class provides test cases for {@link FriendServiceImpl}.
@@ -76,6 +98,10 @@ class FriendServiceImplTest {
 		when(repository1.findAll()).thenReturn(friends1);
 		when(repository2.findAll()).thenReturn(friends2);
 
+		// Mock streamAll method with a new stream of each friend list on every call.
+		when(repository1.streamAll()).thenAnswer(i -> friends1.stream());
+		when(repository2.streamAll()).thenAnswer(i -> friends2.stream());
+
 		// Mock findByMonthOfBirth method for each friend who was born in this month.
 		int month = LocalDate.now().getMonthValue();
 		when(repository1.findByMonthOfBirth(month)).thenReturn(
@@ -83,6 +109,13 @@ class FriendServiceImplTest {
 		when(repository2.findByMonthOfBirth(month)).thenReturn(
 				friends2.stream().filter(f -> f.getDateOfBirth().getValue().getMonthValue() == month).toList());
 
+		// Mock findByCelebrationDay method for each friend who celebrates today.
+		LocalDate today = LocalDate.now();
+		when(repository1.findByCelebrationDay(MonthDay.from(today), Year.from(today))).thenReturn(friends1.stream()
+				.filter(f -> f.getDateOfBirth().getCelebrationDate(today.getYear()).equals(today)).toList());
+		when(repository2.findByCelebrationDay(MonthDay.from(today), Year.from(today))).thenReturn(friends2.stream()
+				.filter(f -> f.getDateOfBirth().getCelebrationDate(today.getYear()).equals(today)).toList());
+
 		// Add the created repositories to the list.
 		repositories = new ArrayList<>();
 		repositories.add(repository1);
@@ -108,6 +141,15 @@ class FriendServiceImplTest {
 		assertEquals(6, result.size());
 	}
 
+	/**
+	 * Tests that the merged friends of all repositories are counted by a key.
+	 */
+	@Test
+	void countFriendsTest() {
+		assertEquals(Map.of('J', 3L, 'M', 1L, 'G', 1L, 'R', 1L),
+				friendService.countFriends(f -> f.getFirstName().charAt(0)));
+	}
+
 	/**
 	 * Tests the functionality of the findTodayBirthdays method in FriendService.
 	 */
@@ -121,6 +163,44 @@ class FriendServiceImplTest {
 		assertEquals(3, result.size());
 	}
 
+	/**
+	 * Tests that the friends loaded and merged and the birthdays found are
+	 * reported to the listener.
+	 */
+	@Test
+	void listenerTest() {
+		FriendServiceListener listener = mock(FriendServiceListener.class);
+		FriendService service = new FriendServiceBuilder().setMessageService(mock(MessageService.class))
+				.setListener(listener).setRepositories(repositories.toArray(FriendRepository[]::new)).build();
+
+		service.findAllFriends();
+		verify(listener).friendsLoaded(8);
+		verify(listener).friendsDeduplicated(2);
+
+		service.findTodayBirthdays();
+		verify(listener).birthdaysFound(LocalDate.now(), 3);
+		verify(listener).friendsLoaded(4);
+		verify(listener).friendsDeduplicated(1);
+	}
+
+	/**
+	 * Tests that a run reports the friends it loaded and merged once, and the
+	 * birthdays it found.
+	 */
+	@Test
+	void sendBirthdayMessagesListenerTest() {
+		FriendServiceListener listener = mock(FriendServiceListener.class);
+		FriendService service = new FriendServiceBuilder().setMessageService(mock(MessageService.class))
+				.setListener(listener).setRepositories(repositories.toArray(FriendRepository[]::new)).build();
+
+		service.sendBirthdayMessages();
+		verify(listener, times(1)).birthdaysFound(LocalDate.now(), 3);
+		verify(listener, times(1)).friendsLoaded(anyLong());
+		verify(listener).friendsLoaded(8);
+		verify(listener, times(1)).friendsDeduplicated(anyLong());
+		verify(listener).friendsDeduplicated(2);
+	}
+
 	/**
 	 * Tests the functionality of the sendBirthdayMessages method in FriendService
 	 * and verifies that the messageService methods are called with correct
@@ -160,6 +240,317 @@ class FriendServiceImplTest {
 
 		// Check if the sendSMS was called correctly.
 		verify(messageService, times(18)).sendSMS(any(), anyString(), anyString());
+
+		// Check that the messages were flushed once.
+		verify(messageService, times(1)).flush();
+	}
+
+	/**
+	 * Tests that no reminder is sent in digest mode when there are no birthdays.
+	 */
+	@Test
+	void sendBirthdayDigestWithoutBirthdaysTest() {
+		MessageService digestMessageService = mock(MessageService.class);
+		digestService(digestMessageService, 0).sendBirthdayMessages();
+
+		verify(digestMessageService, never()).sendEmail(any(), anyString(), anyString());
+		verify(digestMessageService, never()).sendSMS(any(), anyString(), anyString());
+	}
+
+	/**
+	 * Tests that each friend receives one reminder in digest mode when there is a
+	 * single birthday, and the birthday friend receives none.
+	 */
+	@Test
+	void sendBirthdayDigestWithOneBirthdayTest() {
+		MessageService digestMessageService = mock(MessageService.class);
+		digestService(digestMessageService, 1).sendBirthdayMessages();
+
+		verify(digestMessageService, times(1)).sendEmail(eq(new Email("birthday0@test.com")),
+				contains("Happy birthday"), anyString());
+		verify(digestMessageService, never()).sendEmail(eq(new Email("birthday0@test.com")), contains("reminder"),
+				anyString());
+		verify(digestMessageService, times(1)).sendEmail(eq(new Email("friend0@test.com")), contains("reminder"),
+				contains("Birthday0 Friend"));
+		verify(digestMessageService, times(1)).sendEmail(eq(new Email("friend1@test.com")), contains("reminder"),
+				anyString());
+
+		// 1 birthday message and 2 reminders.
+		verify(digestMessageService, times(3)).sendSMS(any(), anyString(), anyString());
+	}
+
+	/**
+	 * Tests that each friend receives a single reminder listing all the birthdays
+	 * in digest mode when there are many birthdays.
+	 */
+	@Test
+	void sendBirthdayDigestWithManyBirthdaysTest() {
+		MessageService digestMessageService = mock(MessageService.class);
+		digestService(digestMessageService, 3).sendBirthdayMessages();
+
+		// The other friends are reminded of the 3 birthdays at once.
+		verify(digestMessageService, times(1)).sendEmail(eq(new Email("friend0@test.com")), contains("reminder"),
+				contains("Birthday2 Friend"));
+		verify(digestMessageService, times(1)).sendEmail(eq(new Email("friend1@test.com")), contains("reminder"),
+				contains("Birthday0 Friend"));
+
+		// Each birthday friend is reminded of the other 2 birthdays.
+		verify(digestMessageService, times(1)).sendEmail(eq(new Email("birthday0@test.com")), contains("reminder"),
+				contains("Birthday1 Friend"));
+		verify(digestMessageService, never()).sendEmail(eq(new Email("birthday0@test.com")), contains("reminder"),
+				contains("Birthday0 Friend"));
+
+		// 3 birthday messages and one reminder for each of the 5 friends.
+		verify(digestMessageService, times(8)).sendSMS(any(), anyString(), anyString());
+		verify(digestMessageService, times(8)).sendEmail(any(), anyString(), anyString());
+	}
+
+	/**
+	 * Tests that only the accepted friends receive messages, and that they are
+	 * reminded of the birthdays of the friends that are not accepted.
+	 */
+	@Test
+	void sendBirthdayMessagesToRecipientsTest() {
+		MessageService digestMessageService = mock(MessageService.class);
+		FriendService service = digestService(digestMessageService, 3);
+		List<Email> accepted = List.of(new Email("friend0@test.com"), new Email("birthday0@test.com"));
+
+		service.sendBirthdayMessages(LocalDate.now(), f -> accepted.contains(f.getEmail()));
+
+		verify(digestMessageService, times(1)).sendEmail(eq(new Email("birthday0@test.com")), contains("Happy"),
+				anyString());
+		verify(digestMessageService, times(1)).sendEmail(eq(new Email("friend0@test.com")), contains("reminder"),
+				contains("Birthday2 Friend"));
+		verify(digestMessageService, times(1)).sendEmail(eq(new Email("birthday0@test.com")), contains("reminder"),
+				contains("Birthday1 Friend"));
+		verify(digestMessageService, times(3)).sendEmail(any(), anyString(), anyString());
+		verify(digestMessageService, times(1)).flush();
+	}
+
+	/**
+	 * Tests that, without a ledger, each friend's reminders are sent as the friend
+	 * is read, instead of being kept until the end of the run.
+	 */
+	@Test
+	void sendBirthdayMessagesWithoutLedgerTest() {
+		LocalDate today = LocalDate.now();
+		Friend birthdayFriend = new FriendBuilder().setFirstName("Birthday").setLastName("Friend")
+				.setEmail("birthday@test.com").setDateOfBirth(today.minusYears(30)).setMobile("2000000000").build();
+		Friend first = new FriendBuilder().setFirstName("First").setLastName("Friend").setEmail("first@test.com")
+				.setDateOfBirth(today.minusYears(20).plusDays(1)).setMobile("1000000000").build();
+		Friend second = new FriendBuilder().setFirstName("Second").setLastName("Friend").setEmail("second@test.com")
+				.setDateOfBirth(today.minusYears(20).plusDays(2)).setMobile("1000000001").build();
+		List<String> sent = new ArrayList<>();
+		List<String> sentBeforeSecond = new ArrayList<>();
+		MessageService recordingMessageService = new MessageService() {
+			@Override
+			public void sendSMS(Mobile mobile, String subject, String body) {
+				sent.add(mobile.getValue());
+			}
+
+			@Override
+			public void sendEmail(Email email, String subject, String body) {
+				sent.add(email.getValue());
+			}
+		};
+		FriendRepository repository = mock(FriendRepository.class);
+		when(repository.streamAll()).thenAnswer(i -> Stream.of(first, second, birthdayFriend)
+				.peek(f -> {
+					if (f == second) {
+						sentBeforeSecond.addAll(sent);
+					}
+				}));
+		when(repository.findByCelebrationDay(MonthDay.from(today), Year.from(today)))
+				.thenReturn(List.of(birthdayFriend));
+
+		new FriendServiceBuilder().setMessageService(recordingMessageService).setRepositories(repository).build()
+				.sendBirthdayMessages();
+
+		assertEquals(List.of("birthday@test.com", "2000000000", "first@test.com", "1000000000"), sentBeforeSecond);
+		assertEquals(6, sent.size());
+	}
+
+	/**
+	 * Tests that the birthday friends of a past date receive a belated birthday
+	 * message, and that no reminders are sent to the other friends.
+	 */
+	@Test
+	void sendBelatedBirthdayMessagesTest() {
+		LocalDate yesterday = LocalDate.now().minusDays(1);
+		Friend birthdayFriend = new FriendBuilder().setFirstName("Birthday").setLastName("Friend")
+				.setEmail("birthday@test.com").setDateOfBirth(yesterday.minusYears(30)).setMobile("2000000000").build();
+		FriendRepository repository = mock(FriendRepository.class);
+		when(repository.findByCelebrationDay(MonthDay.from(yesterday), Year.from(yesterday)))
+				.thenReturn(List.of(birthdayFriend));
+		MessageService belatedMessageService = mock(MessageService.class);
+
+		new FriendServiceBuilder().setMessageService(belatedMessageService).setRepositories(repository).build()
+				.sendBelatedBirthdayMessages(yesterday, f -> true);
+
+		verify(belatedMessageService, times(1)).sendEmail(new Email("birthday@test.com"), "Happy belated birthday!",
+				"Happy belated birthday, dear Birthday!");
+		verify(belatedMessageService, times(1)).sendSMS(new Mobile("2000000000"), "Happy belated birthday!",
+				"Happy belated birthday, dear Birthday!");
+		verify(repository, never()).streamAll();
+		verify(belatedMessageService, times(1)).flush();
+	}
+
+	/**
+	 * Tests that the deliveries found in the ledger are not sent again, that the
+	 * other deliveries are recorded after each batch is flushed, and that a run
+	 * restarted after all the deliveries were recorded sends nothing.
+	 */
+	@Test
+	@SuppressWarnings("unchecked")
+	void sendBirthdayMessagesWithLedgerTest() {
+		LocalDate today = LocalDate.now();
+		Set<Delivery> recorded = new HashSet<>();
+		recorded.add(new Delivery("friend0@test.com", "birthday0@test.com", today, Channel.EMAIL));
+		recorded.add(new Delivery("2000000000", "birthday0@test.com", today, Channel.SMS));
+		DeliveryLedger ledger = mock(DeliveryLedger.class);
+		when(ledger.findDelivered(anyCollection())).thenAnswer(i -> {
+			Set<Delivery> delivered = new HashSet<>(i.getArgument(0, List.class));
+			delivered.retainAll(recorded);
+			return delivered;
+		});
+		doAnswer(i -> recorded.addAll(i.getArgument(0))).when(ledger).record(anyCollection());
+
+		MessageService ledgerMessageService = mock(MessageService.class);
+		FriendService service = digestService(ledgerMessageService, 3, ledger, 3);
+		service.sendBirthdayMessages();
+
+		// friend0 is only reminded of the birthdays not in the ledger.
+		verify(ledgerMessageService, times(1)).sendEmail(eq(new Email("friend0@test.com")), contains("reminder"),
+				contains("Birthday1 Friend"));
+		verify(ledgerMessageService, never()).sendEmail(eq(new Email("friend0@test.com")), contains("reminder"),
+				contains("Birthday0 Friend"));
+		verify(ledgerMessageService, never()).sendSMS(eq(new Mobile("2000000000")), contains("Happy"), anyString());
+		verify(ledgerMessageService, times(8)).sendEmail(any(), anyString(), anyString());
+		verify(ledgerMessageService, times(7)).sendSMS(any(), anyString(), anyString());
+
+		// 8 messages in batches of 3, each flushed before it is recorded.
+		verify(ledgerMessageService, times(3)).flush();
+		verify(ledger, times(3)).record(anyCollection());
+		// 3 birthday messages, 2 reminders of 3 birthdays and 3 reminders of 2
+		// birthdays, through 2 channels.
+		assertEquals(2 * (3 + 2 * 3 + 3 * 2), recorded.size());
+
+		MessageService restartedMessageService = mock(MessageService.class);
+		digestService(restartedMessageService, 3, ledger, 3).sendBirthdayMessages();
+		verify(restartedMessageService, never()).sendEmail(any(), anyString(), anyString());
+		verify(restartedMessageService, never()).sendSMS(any(), anyString(), anyString());
+	}
+
+	/**
+	 * Tests that, when some messages of a batch could not be delivered, the
+	 * deliveries of the others are recorded before the failure is thrown.
+	 */
+	@Test
+	@SuppressWarnings("unchecked")
+	void sendBirthdayMessagesWithUndeliveredTest() {
+		LocalDate today = LocalDate.now();
+		Set<Delivery> recorded = new HashSet<>();
+		DeliveryLedger ledger = mock(DeliveryLedger.class);
+		when(ledger.findDelivered(anyCollection())).thenReturn(Set.of());
+		doAnswer(i -> recorded.addAll(i.getArgument(0))).when(ledger).record(anyCollection());
+
+		List<Envelope> failed = new ArrayList<>();
+		MessageService failingMessageService = new MessageService() {
+			@Override
+			public void sendSMS(Mobile mobile, String subject, String body) {
+			}
+
+			@Override
+			public void sendEmail(Email email, String subject, String body) {
+				if (email.getValue().equals("friend0@test.com")) {
+					failed.add(new Envelope(Channel.EMAIL, email.getValue(), subject, body));
+				}
+			}
+
+			@Override
+			public void flush() {
+				throw new UndeliveredMessagesException(failed, new IllegalStateException("Gateway unavailable"));
+			}
+		};
+		FriendService service = digestService(failingMessageService, 2, ledger, 100);
+		assertThrows(UndeliveredMessagesException.class, service::sendBirthdayMessages);
+
+		// Only the digest emailed to friend0 is missing from the ledger.
+		assertEquals(2 * (2 + 2 * 2 + 2 * 1) - 2, recorded.size());
+		assertFalse(recorded.contains(new Delivery("friend0@test.com", "birthday0@test.com", today, Channel.EMAIL)));
+		assertFalse(recorded.contains(new Delivery("friend0@test.com", "birthday1@test.com", today, Channel.EMAIL)));
+		assertTrue(recorded.contains(new Delivery("1000000000", "birthday1@test.com", today, Channel.SMS)));
+	}
+
+	/**
+	 * Tests that the messages are rendered with the templates of the locale of
+	 * each recipient, and with the default templates for the other locales.
+	 */
+	@Test
+	void sendBirthdayMessagesInLocaleTest() {
+		MessageTemplates templates = MessageTemplates.defaults().withBundle(new Locale("pt"),
+				Map.of("reminder.subject", "Lembrete de aniversário", "reminder.sms",
+						"Hoje é o aniversário de {friend.firstName}!"));
+		MessageService localeMessageService = mock(MessageService.class);
+		digestBuilder(localeMessageService, 1).setTemplates(templates)
+				.setLocaleResolver(f -> f.getEmail().getValue().equals("friend0@test.com") ? new Locale("pt", "BR")
+						: Locale.ENGLISH)
+				.build().sendBirthdayMessages();
+
+		verify(localeMessageService, times(1)).sendSMS(eq(new Mobile("1000000000")), eq("Lembrete de aniversário"),
+				eq("Hoje é o aniversário de Birthday0!"));
+		// The email template is missing from the bundle, so the default one is used.
+		verify(localeMessageService, times(1)).sendEmail(eq(new Email("friend0@test.com")),
+				eq("Lembrete de aniversário"), contains("Don't forget"));
+		verify(localeMessageService, times(1)).sendSMS(eq(new Mobile("1000000001")), eq("Birthday reminder"),
+				contains("Birthday0 Friend's birthday"));
+	}
+
+	/**
+	 * Creates a friend service in digest mode with a repository of 2 friends and
+	 * the given number of friends with birthdays today.
+	 */
+	private static FriendService digestService(MessageService digestMessageService, int birthdays) {
+		return digestService(digestMessageService, birthdays, null, 1);
+	}
+
+	/**
+	 * Creates a friend service in digest mode with a repository of 2 friends and
+	 * the given number of friends with birthdays today, recording the deliveries
+	 * in a ledger.
+	 */
+	private static FriendService digestService(MessageService digestMessageService, int birthdays,
+			DeliveryLedger ledger, int ledgerBatchSize) {
+		return digestBuilder(digestMessageService, birthdays).setDeliveryLedger(ledger)
+				.setLedgerBatchSize(ledgerBatchSize).build();
+	}
+
+	/**
+	 * Creates the builder of a friend service in digest mode with a repository of
+	 * 2 friends and the given number of friends with birthdays today.
+	 */
+	private static FriendServiceBuilder digestBuilder(MessageService digestMessageService, int birthdays) {
+		LocalDate today = LocalDate.now();
+		List<Friend> friends = new ArrayList<>();
+		for (int i = 0; i < 2; i++) {
+			friends.add(new FriendBuilder().setFirstName("Friend" + i).setLastName("Friend")
+					.setEmail("friend" + i + "@test.com").setDateOfBirth(today.minusYears(20).plusDays(i + 1))
+					.setMobile("100000000" + i).build());
+		}
+		List<Friend> birthdayFriends = new ArrayList<>();
+		for (int i = 0; i < birthdays; i++) {
+			birthdayFriends.add(new FriendBuilder().setFirstName("Birthday" + i).setLastName("Friend")
+					.setEmail("birthday" + i + "@test.com").setDateOfBirth(today.minusYears(30 + i))
+					.setMobile("200000000" + i).build());
+		}
+		friends.addAll(birthdayFriends);
+
+		FriendRepository repository = mock(FriendRepository.class);
+		when(repository.streamAll()).thenAnswer(i -> friends.stream());
+		when(repository.findByCelebrationDay(MonthDay.from(today), Year.from(today))).thenReturn(birthdayFriends);
+
+		return new FriendServiceBuilder().setMessageService(digestMessageService).setDigest(true)
+				.setRepositories(repository);
 	}
 
-}
+}
\ No newline at end of file
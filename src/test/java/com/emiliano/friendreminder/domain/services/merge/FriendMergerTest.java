@@ -0,0 +1,95 @@
+package com.emiliano.friendreminder.domain.services.merge;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import com.emiliano.friendreminder.domain.entities.Friend;
+import com.emiliano.friendreminder.domain.entities.FriendBuilder;
+
+/**
+ * This class provides test cases for {@link FriendMerger}.
+ *
+ * @author Emiliano Pessoa
+ */
+class FriendMergerTest {
+
+	private static Friend john;
+	private static Friend johnCopy;
+	private static Friend johnNewMobile;
+	private static Friend johnNewEmail;
+
+	/**
+	 * Sets up the test environment by creating sample data.
+	 */
+	@BeforeAll
+	static void setUp() {
+		john = new FriendBuilder().setFirstName("Jhon").setLastName("Doe").setEmail("john.doe@test.com")
+				.setDateOfBirth(LocalDate.of(1985, 1, 1)).setMobile("1234567890").build();
+		johnCopy = new FriendBuilder().setFirstName("Jhon").setLastName("Doe").setEmail("john.doe@test.com")
+				.setDateOfBirth(LocalDate.of(1985, 1, 1)).setMobile("1234567890").build();
+		johnNewMobile = new FriendBuilder().setFirstName("Jhon").setLastName("Doe").setEmail("john.doe@test.com")
+				.setDateOfBirth(LocalDate.of(1985, 1, 1)).setMobile("0987654321").build();
+		johnNewEmail = new FriendBuilder().setFirstName("Jhon").setLastName("Doe").setEmail("jhon@test.com")
+				.setDateOfBirth(LocalDate.of(1985, 1, 1)).setMobile("1234567890").build();
+	}
+
+	/**
+	 * Tests that the exact policy only merges equal friends.
+	 */
+	@Test
+	void exactPolicyTest() {
+		FriendMerger merger = new FriendMerger(MergePolicy.EXACT);
+
+		assertTrue(merger.add(john));
+		assertFalse(merger.add(johnCopy));
+		assertTrue(merger.add(johnNewMobile));
+		assertTrue(merger.add(johnNewEmail));
+		assertEquals(1, merger.getDuplicates());
+	}
+
+	/**
+	 * Tests that the same email policy merges friends sharing an email address.
+	 */
+	@Test
+	void sameEmailPolicyTest() {
+		FriendMerger merger = new FriendMerger(MergePolicy.SAME_EMAIL);
+
+		assertTrue(merger.add(john));
+		assertFalse(merger.add(johnNewMobile));
+		assertTrue(merger.add(johnNewEmail));
+		assertEquals(1, merger.getDuplicates());
+	}
+
+	/**
+	 * Tests that the same mobile policy merges friends sharing a mobile number.
+	 */
+	@Test
+	void sameMobilePolicyTest() {
+		FriendMerger merger = new FriendMerger(MergePolicy.SAME_MOBILE);
+
+		assertTrue(merger.add(john));
+		assertTrue(merger.add(johnNewMobile));
+		assertFalse(merger.add(johnNewEmail));
+		assertEquals(1, merger.getDuplicates());
+	}
+
+	/**
+	 * Tests that the same email or mobile policy merges friends sharing any of
+	 * both.
+	 */
+	@Test
+	void sameEmailOrMobilePolicyTest() {
+		FriendMerger merger = new FriendMerger(MergePolicy.SAME_EMAIL_OR_MOBILE);
+
+		assertTrue(merger.add(john));
+		assertFalse(merger.add(johnNewMobile));
+		assertFalse(merger.add(johnNewEmail));
+		assertEquals(2, merger.getDuplicates());
+	}
+}
@@ -0,0 +1,95 @@
+package com.emiliano.friendreminder.domain.services.templates;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.emiliano.friendreminder.domain.entities.Friend;
+import com.emiliano.friendreminder.domain.entities.FriendBuilder;
+
+/**
+ * This class provides test cases for {@link MessageTemplate}.
+ *
+ * @author Emiliano Pessoa
+ */
+class MessageTemplateTest {
+
+	private static final Friend RECIPIENT = friend("John", "Doe");
+	private static final List<Friend> FRIENDS = List.of(friend("Mary", "Jane"), friend("Grace", "Kelly"));
+
+	/**
+	 * Tests the placeholders of the recipient, of the first friend and of the
+	 * number of friends.
+	 */
+	@Test
+	void renderTest() {
+		MessageTemplate template = MessageTemplate
+				.compile("Dear {recipient.firstName} {recipient.lastName}, {friend.firstName} {friend.lastName} "
+						+ "and {count} others.");
+
+		assertEquals("Dear John Doe, Mary Jane and 2 others.", template.render(new StringBuilder(), RECIPIENT, FRIENDS));
+		assertEquals("Dear John Doe,   and 0 others.", template.render(new StringBuilder(), RECIPIENT, List.of()));
+	}
+
+	/**
+	 * Tests that a section is repeated for each friend, with the separator between
+	 * the repetitions.
+	 */
+	@Test
+	void sectionTest() {
+		StringBuilder buffer = new StringBuilder("previous text");
+
+		assertEquals("Birthdays: Mary Jane, Grace Kelly.", MessageTemplate
+				.compile("Birthdays: {#friends|, }{friend.firstName} {friend.lastName}{/friends}.")
+				.render(buffer, RECIPIENT, FRIENDS));
+		assertEquals("- Mary\n- Grace\n",
+				MessageTemplate.compile("{#friends}- {friend.firstName}\n{/friends}").render(buffer, RECIPIENT, FRIENDS));
+		assertEquals("None", MessageTemplate.compile("{#friends}{friend.firstName}{/friends}None").render(buffer,
+				RECIPIENT, List.of()));
+	}
+
+	/**
+	 * Tests the escaped braces, and that a template without placeholders is
+	 * rendered as its text.
+	 */
+	@Test
+	void literalTest() {
+		MessageTemplate constant = MessageTemplate.compile("Happy birthday! {{}}");
+		String rendered = constant.render(new StringBuilder(), RECIPIENT, FRIENDS);
+
+		assertEquals("Happy birthday! {}", rendered);
+		assertSame(rendered, constant.render(new StringBuilder(), RECIPIENT, List.of()));
+		assertEquals("{John}", MessageTemplate.compile("{{{recipient.firstName}}}").render(new StringBuilder(),
+				RECIPIENT, FRIENDS));
+		assertEquals("", MessageTemplate.compile("").render(new StringBuilder(), RECIPIENT, FRIENDS));
+	}
+
+	/**
+	 * Tests that invalid templates are rejected with the position of the error.
+	 */
+	@Test
+	void compileErrorTest() {
+		IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+				() -> MessageTemplate.compile("Dear {recipient.nickname}"));
+		assertTrue(e.getMessage().contains("'recipient.nickname' at position 5"), e.getMessage());
+
+		assertThrows(IllegalArgumentException.class, () -> MessageTemplate.compile("Dear {recipient.firstName"));
+		assertThrows(IllegalArgumentException.class, () -> MessageTemplate.compile("Dear }"));
+		assertThrows(IllegalArgumentException.class, () -> MessageTemplate.compile("{#friends}{friend.firstName}"));
+		assertThrows(IllegalArgumentException.class, () -> MessageTemplate.compile("{friend.firstName}{/friends}"));
+		assertThrows(IllegalArgumentException.class, () -> MessageTemplate.compile("{#others}{/friends}"));
+	}
+
+	private static Friend friend(String firstName, String lastName) {
+		return new FriendBuilder().setFirstName(firstName).setLastName(lastName)
+				.setEmail(firstName.toLowerCase() + "@test.com").setDateOfBirth(LocalDate.of(1990, 1, 1))
+				.setMobile("1234567890").build();
+	}
+
+}
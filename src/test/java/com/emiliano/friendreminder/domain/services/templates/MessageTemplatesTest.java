@@ -0,0 +1,78 @@
+package com.emiliano.friendreminder.domain.services.templates;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.emiliano.friendreminder.domain.entities.Friend;
+import com.emiliano.friendreminder.domain.entities.FriendBuilder;
+import com.emiliano.friendreminder.domain.valueobjects.Channel;
+
+/**
+ * This class provides test cases for {@link MessageTemplates}.
+ *
+ * @author Emiliano Pessoa
+ */
+class MessageTemplatesTest {
+
+	private static final Friend RECIPIENT = new FriendBuilder().setFirstName("John").setLastName("Doe")
+			.setEmail("john.doe@test.com").setDateOfBirth(LocalDate.of(1985, 1, 1)).setMobile("1234567890").build();
+
+	/**
+	 * Tests the default templates.
+	 */
+	@Test
+	void defaultsTest() {
+		MessageTemplates templates = MessageTemplates.defaults();
+
+		assertEquals("Happy birthday!", render(templates.getSubject(MessageKind.BIRTHDAY, Locale.ROOT)));
+		assertEquals("Birthday reminder", render(templates.getSubject(MessageKind.DIGEST, Locale.GERMAN)));
+		assertEquals("Happy birthday, dear John!",
+				render(templates.getBody(MessageKind.BIRTHDAY, Channel.EMAIL, Locale.ENGLISH)));
+	}
+
+	/**
+	 * Tests that the missing templates of a locale are taken from the bundle of
+	 * the language, and then from the default bundle.
+	 */
+	@Test
+	void fallbackTest() {
+		MessageTemplates templates = MessageTemplates.defaults()
+				.withBundle(new Locale("pt"),
+						Map.of("birthday.subject", "Feliz aniversário!", "birthday.sms",
+								"Feliz aniversário, {recipient.firstName}!"))
+				.withBundle(new Locale("pt", "BR"), Map.of("birthday.sms", "Parabéns, {recipient.firstName}!"));
+		Locale brazil = new Locale("pt", "BR");
+
+		assertEquals("Parabéns, John!", render(templates.getBody(MessageKind.BIRTHDAY, Channel.SMS, brazil)));
+		assertEquals("Feliz aniversário!", render(templates.getSubject(MessageKind.BIRTHDAY, brazil)));
+		assertEquals("Happy birthday, dear John!",
+				render(templates.getBody(MessageKind.BIRTHDAY, Channel.EMAIL, brazil)));
+		assertEquals("Feliz aniversário, John!",
+				render(templates.getBody(MessageKind.BIRTHDAY, Channel.SMS, new Locale("pt", "PT"))));
+	}
+
+	/**
+	 * Tests that bundles with unknown keys or invalid templates are rejected.
+	 */
+	@Test
+	void withBundleErrorTest() {
+		MessageTemplates templates = MessageTemplates.defaults();
+
+		assertThrows(IllegalArgumentException.class,
+				() -> templates.withBundle(Locale.FRENCH, Map.of("birthday.fax", "Bon anniversaire !")));
+		assertThrows(IllegalArgumentException.class,
+				() -> templates.withBundle(Locale.FRENCH, Map.of("birthday.sms", "Bon anniversaire {name} !")));
+	}
+
+	private static String render(MessageTemplate template) {
+		return template.render(new StringBuilder(), RECIPIENT, List.of());
+	}
+
+}
@@ -2,8 +2,10 @@ package com.emiliano.friendreminder.domain.valueobjects;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.time.LocalDate;
+import java.time.Period;
 
 import org.junit.jupiter.api.Test;
 
@@ -50,4 +52,29 @@ class DateOfBirthTest {
 		DateOfBirth birthday = new DateOfBirth("1985/03/10", "yyyy/MM/dd");
 		assertEquals(new DateOfBirth("1985/03/10", "yyyy/MM/dd"), birthday);
 	}
-}
+
+	/**
+	 * Tests the validation of a date of birth against a reference date, and that
+	 * it agrees with the age calculated by {@link Period}.
+	 */
+	@Test
+	void isValidDateOnReferenceDateTest() {
+		LocalDate reference = LocalDate.of(2023, 3, 1);
+
+		// Test the limits of the age on the reference date.
+		assertEquals(LocalDate.of(1872, 3, 2), new DateOfBirth(LocalDate.of(1872, 3, 2), reference).getValue());
+		assertThrows(IllegalArgumentException.class, () -> new DateOfBirth(LocalDate.of(1872, 3, 1), reference));
+		assertThrows(IllegalArgumentException.class, () -> new DateOfBirth(LocalDate.of(2023, 3, 2), reference));
+		assertThrows(IllegalArgumentException.class, () -> new DateOfBirth("1872/03/01", "yyyy/MM/dd", reference));
+
+		// Test that the age in complete years matches Period, including February 29th.
+		LocalDate start = LocalDate.of(1870, 1, 1);
+		for (LocalDate dateOfBirth = start; dateOfBirth.isBefore(reference); dateOfBirth = dateOfBirth.plusDays(1)) {
+			for (LocalDate on : new LocalDate[] { reference, LocalDate.of(2024, 2, 28), LocalDate.of(2024, 2, 29) }) {
+				boolean expected = Period.between(dateOfBirth, on).getYears() <= 150;
+				assertEquals(expected, DateOfBirth.isValidDate(dateOfBirth, on), dateOfBirth + " on " + on);
+			}
+		}
+		assertTrue(DateOfBirth.isValidDate(LocalDate.of(1872, 2, 29), LocalDate.of(2022, 2, 28)));
+	}
+}
\ No newline at end of file
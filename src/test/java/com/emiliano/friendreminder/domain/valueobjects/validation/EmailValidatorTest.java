@@ -0,0 +1,62 @@
+package com.emiliano.friendreminder.domain.valueobjects.validation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * This class provides test cases for {@link EmailValidator}.
+ * 
+ * @author Emiliano Pessoa
+ */
+class EmailValidatorTest {
+
+	/**
+	 * The regular expression previously used to validate the email addresses.
+	 */
+	private static final Pattern REGEX = Pattern.compile("^[\\w-_.+]*[\\w-_.]@([\\w]+\\.)+[\\w]+[\\w]$");
+
+	private static final String ALPHABET = "aZ9_-.+@@..é ,";
+
+	/**
+	 * Tests some valid and invalid email addresses.
+	 */
+	@Test
+	void isValidTest() {
+		assertTrue(EmailValidator.isValid("jhonny_bravo@hotmail.com"));
+		assertTrue(EmailValidator.isValid("+john.doe-1@mail.foo.co"));
+		assertFalse(EmailValidator.isValid(null));
+		assertFalse(EmailValidator.isValid(""));
+		assertFalse(EmailValidator.isValid("john+@foo.com"));
+		assertFalse(EmailValidator.isValid("john@foo..com"));
+		assertFalse(EmailValidator.isValid("john@foo.c"));
+		assertFalse(EmailValidator.isValid("john@foo.com\n"));
+		assertFalse(EmailValidator.isValid("joão@foo.com"));
+	}
+
+	/**
+	 * Tests that the validator accepts the same addresses as the regular
+	 * expression, for random strings made of the characters that matter to it.
+	 */
+	@Test
+	void differentialTest() {
+		Random random = new Random(42);
+		for (int i = 0; i < 200_000; i++) {
+			String email = randomString(random, ALPHABET, random.nextInt(12));
+			assertEquals(REGEX.matcher(email).matches(), EmailValidator.isValid(email), email);
+		}
+	}
+
+	private static String randomString(Random random, String alphabet, int length) {
+		StringBuilder builder = new StringBuilder(length);
+		for (int i = 0; i < length; i++) {
+			builder.append(alphabet.charAt(random.nextInt(alphabet.length())));
+		}
+		return builder.toString();
+	}
+}
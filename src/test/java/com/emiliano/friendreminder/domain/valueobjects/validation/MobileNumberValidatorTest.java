@@ -0,0 +1,96 @@
+package com.emiliano.friendreminder.domain.valueobjects.validation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * This class provides test cases for {@link MobileNumberValidator} and
+ * {@link MobileNumberRules}.
+ * 
+ * @author Emiliano Pessoa
+ */
+class MobileNumberValidatorTest {
+
+	/**
+	 * The regular expression previously used to validate the mobile numbers.
+	 */
+	private static final Pattern REGEX = Pattern
+			.compile("^(?:\\+\\d{1,3}|0\\d{1,3}|00\\d{1,2})?(?:\\s?\\(\\d+\\))?(?:[-\\/\\s.]|\\d)+$");
+
+	private static final String ALPHABET = "0012+()  -/.\t\u000Ba";
+
+	private static final MobileNumberValidator VALIDATOR = new MobileNumberValidator(MobileNumberRules.NONE);
+
+	/**
+	 * Tests the examples of valid numbers and some invalid ones.
+	 */
+	@Test
+	void isValidTest() {
+		for (String number : new String[] { "+1 (123) 456-7890", "+44 20 1234 5678", "0034 912345678",
+				"091 123 45 67", "+55 11 98765-4321", "+61 2 9876 5432", "+971 50 123 4567", "+852 6123 4567" }) {
+			assertTrue(VALIDATOR.isValid(number), number);
+		}
+		assertFalse(VALIDATOR.isValid(null));
+		assertFalse(VALIDATOR.isValid(""));
+		assertFalse(VALIDATOR.isValid("123d"));
+		assertFalse(VALIDATOR.isValid("+1"));
+		assertFalse(VALIDATOR.isValid("+1234 (11) 5678"));
+		assertFalse(VALIDATOR.isValid("(11) (22) 5678"));
+	}
+
+	/**
+	 * Tests that the validator accepts the same numbers as the regular expression,
+	 * for random strings made of the characters that matter to it.
+	 */
+	@Test
+	void differentialTest() {
+		Random random = new Random(42);
+		for (int i = 0; i < 200_000; i++) {
+			String number = randomString(random, random.nextInt(12));
+			assertEquals(REGEX.matcher(number).matches(), VALIDATOR.isValid(number), number);
+		}
+	}
+
+	/**
+	 * Tests that the rule of a country is applied to the numbers in international
+	 * format of the country only.
+	 */
+	@Test
+	void countryRuleTest() {
+		MobileNumberValidator validator = new MobileNumberValidator(new MobileNumberRules(
+				List.of(new MobileNumberRule("55", 10, 11), new MobileNumberRule("351", 9, 9))));
+		assertTrue(validator.isValid("+55 11 98765-4321"));
+		assertTrue(validator.isValid("0055 (11) 98765-4321"));
+		assertFalse(validator.isValid("+55 11 98765-43210"));
+		assertFalse(validator.isValid("+55 11 9876"));
+		assertTrue(validator.isValid("+351 912 345 678"));
+		assertFalse(validator.isValid("+351 912 345 67"));
+		// Other countries and national numbers are not affected.
+		assertTrue(validator.isValid("+54 11 9876"));
+		assertTrue(validator.isValid("+34 11 9876"));
+		assertTrue(validator.isValid("11 9876"));
+		assertFalse(validator.isValid("+55 11 98765-432a"));
+
+		assertThrows(IllegalArgumentException.class, () -> new MobileNumberRule("1234", 1, 2));
+		assertThrows(IllegalArgumentException.class, () -> new MobileNumberRule("055", 1, 2));
+		assertThrows(IllegalArgumentException.class, () -> new MobileNumberRule("55", 3, 2));
+		assertThrows(IllegalArgumentException.class, () -> new MobileNumberRules(
+				List.of(new MobileNumberRule("55", 10, 11), new MobileNumberRule("55", 9, 9))));
+	}
+
+	private static String randomString(Random random, int length) {
+		StringBuilder builder = new StringBuilder(length);
+		for (int i = 0; i < length; i++) {
+			builder.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+		}
+		return builder.toString();
+	}
+}
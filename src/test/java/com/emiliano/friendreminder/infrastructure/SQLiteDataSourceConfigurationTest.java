@@ -0,0 +1,75 @@
+package com.emiliano.friendreminder.infrastructure;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * This class provides test cases for {@link SQLiteDataSourceConfiguration}.
+ *
+ * @author Emiliano Pessoa
+ */
+@SpringBootTest
+class SQLiteDataSourceConfigurationTest {
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	/**
+	 * Tests that the connections are opened in WAL mode.
+	 */
+	@Test
+	void journalModeTest() {
+		assertEquals("wal", jdbcTemplate.queryForObject("PRAGMA journal_mode", String.class));
+	}
+
+	/**
+	 * Tests that a read-only transaction is not blocked by an open write
+	 * transaction, and reads the last committed data.
+	 */
+	@Test
+	void readDuringWriteTest() throws Exception {
+		String count = "SELECT COUNT(*) FROM friend_entity";
+		long before = jdbcTemplate.queryForObject(count, Long.class);
+		CountDownLatch written = new CountDownLatch(1);
+		CountDownLatch read = new CountDownLatch(1);
+
+		CompletableFuture<Void> writer = CompletableFuture.runAsync(() -> {
+			new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+				jdbcTemplate.update("INSERT INTO friend_entity (first_name, last_name, email) VALUES (?, ?, ?)",
+						"Writer", "Test", "writer@test.com");
+				written.countDown();
+				try {
+					read.await(10, TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				status.setRollbackOnly();
+			});
+		});
+
+		written.await(10, TimeUnit.SECONDS);
+		TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+		readOnly.setReadOnly(true);
+		long duringWrite = CompletableFuture.supplyAsync(() -> readOnly.execute(
+				status -> jdbcTemplate.queryForObject(count, Long.class))).get(5, TimeUnit.SECONDS);
+		read.countDown();
+		writer.get(10, TimeUnit.SECONDS);
+
+		assertEquals(before, duringWrite);
+		assertEquals(before, jdbcTemplate.queryForObject(count, Long.class));
+	}
+
+}
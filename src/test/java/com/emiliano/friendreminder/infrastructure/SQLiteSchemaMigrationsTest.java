@@ -0,0 +1,109 @@
+package com.emiliano.friendreminder.infrastructure;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.sqlite.SQLiteDataSource;
+
+/**
+ * This class provides test cases for {@link SQLiteSchemaMigrations}.
+ *
+ * @author Emiliano Pessoa
+ */
+class SQLiteSchemaMigrationsTest {
+
+	@TempDir
+	Path directory;
+
+	/**
+	 * Tests that a database of the first schema is upgraded: the month and day of
+	 * birth are backfilled, the duplicated emails are merged into the last one, the
+	 * emails are unique and the changes to the friends are versioned.
+	 */
+	@Test
+	void upgradeTest() throws SQLException {
+		SQLiteDataSource dataSource = dataSource();
+		try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+			statement.execute("CREATE TABLE friend_entity (id integer, date_of_birth DATE, email varchar(255),"
+					+ " first_name varchar(255), last_name varchar(255), mobile varchar(255), primary key (id))");
+			insert(connection, 1, "Carlos", LocalDate.of(1980, 5, 15), "carlos.silva@test.com");
+			insert(connection, 2, "Ana", LocalDate.of(1990, 9, 30), "ana.santos@test.com");
+			insert(connection, 3, "Carlos Alberto", LocalDate.of(1980, 5, 16), "carlos.silva@test.com");
+		}
+
+		SQLiteSchemaMigrations migrations = new SQLiteSchemaMigrations(dataSource);
+		assertEquals(0, migrations.migrate());
+
+		try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+			List<String> friends = new ArrayList<>();
+			try (ResultSet rs = statement.executeQuery(
+					"SELECT id, first_name, birth_month, birth_day FROM friend_entity ORDER BY id")) {
+				while (rs.next()) {
+					friends.add(rs.getLong(1) + " " + rs.getString(2) + " " + rs.getInt(3) + "/" + rs.getInt(4));
+				}
+			}
+			assertEquals(List.of("2 Ana 9/30", "3 Carlos Alberto 5/16"), friends);
+			assertThrows(SQLException.class, () -> insert(connection, 4, "Ana", LocalDate.of(1990, 9, 30),
+					"ana.santos@test.com"));
+			try (ResultSet rs = statement.executeQuery("SELECT COUNT(*) FROM delivery")) {
+				assertEquals(0, rs.getInt(1));
+			}
+
+			// Every change to the friends increases their version.
+			statement.execute("UPDATE friend_entity SET first_name = 'Ana Maria' WHERE id = 2");
+			statement.execute("DELETE FROM friend_entity WHERE id = 3");
+			try (ResultSet rs = statement
+					.executeQuery("SELECT version FROM data_version WHERE name = 'friend_entity'")) {
+				assertEquals(2, rs.getLong(1));
+			}
+		}
+
+		// The migrations already run are not run again.
+		assertEquals(migrations.getLatestVersion(), migrations.migrate());
+	}
+
+	/**
+	 * Tests that a database of a newer schema than the migrations is rejected.
+	 */
+	@Test
+	void newerVersionTest() throws SQLException {
+		SQLiteDataSource dataSource = dataSource();
+		SQLiteSchemaMigrations migrations = new SQLiteSchemaMigrations(dataSource);
+		try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+			statement.execute("PRAGMA user_version = " + (migrations.getLatestVersion() + 1));
+		}
+		assertThrows(IllegalStateException.class, migrations::migrate);
+	}
+
+	private SQLiteDataSource dataSource() {
+		SQLiteDataSource dataSource = new SQLiteDataSource();
+		dataSource.setUrl("jdbc:sqlite:" + directory.resolve("friends.db"));
+		return dataSource;
+	}
+
+	private static void insert(Connection connection, long id, String firstName, LocalDate dateOfBirth,
+			String email) throws SQLException {
+		try (PreparedStatement insert = connection.prepareStatement(
+				"INSERT INTO friend_entity (id, first_name, date_of_birth, email) VALUES (?, ?, ?, ?)")) {
+			insert.setLong(1, id);
+			insert.setString(2, firstName);
+			insert.setDate(3, Date.valueOf(dateOfBirth));
+			insert.setString(4, email);
+			insert.executeUpdate();
+		}
+	}
+
+}
@@ -0,0 +1,152 @@
+package com.emiliano.friendreminder.infrastructure.csv;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.emiliano.friendreminder.infrastructure.csv.CsvFileCache.Snapshot;
+
+/**
+ * This class provides test cases for {@link CsvFileCache}.
+ *
+ * @author Emiliano Pessoa
+ */
+class CsvFileCacheTest {
+
+	private Path file;
+	private CsvFileCache<String> cache;
+
+	/**
+	 * Creates a CSV file and a cache that maps each row to its name column.
+	 */
+	@BeforeEach
+	void setUp() throws IOException {
+		file = Files.createTempFile("friends", ".csv");
+		file.toFile().deleteOnExit();
+		write("id,name\n1,John\n2,Mary\n");
+		cache = new CsvFileCache<>(new MappedCsvReader(file), headers -> {
+			int nameIndex = headers.indexOf("name");
+			return cursor -> cursor.getString(nameIndex);
+		});
+	}
+
+	/**
+	 * Stops watching the CSV file.
+	 */
+	@AfterEach
+	void tearDown() throws IOException {
+		cache.close();
+	}
+
+	/**
+	 * Tests that an unchanged file is not read again.
+	 */
+	@Test
+	void unchangedFileTest() throws IOException {
+		Snapshot<String> snapshot = cache.get();
+		assertEquals(List.of("John", "Mary"), snapshot.rows());
+		assertSame(snapshot, cache.get());
+
+		// Only the modified time changes.
+		Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() + 60_000));
+		cache.invalidate();
+		assertSame(snapshot, cache.get());
+	}
+
+	/**
+	 * Tests that only the rows appended to the file are read.
+	 */
+	@Test
+	void appendTest() throws IOException {
+		Snapshot<String> snapshot = cache.get();
+
+		append("3,Mike\n4,Ana");
+		cache.invalidate();
+		Snapshot<String> appended = cache.get();
+		assertEquals(snapshot.generation(), appended.generation());
+		assertEquals(List.of("John", "Mary", "Mike", "Ana"), appended.rows());
+		assertSame(snapshot.rows().get(0), appended.rows().get(0));
+
+		// The last row was not terminated, so it is read again.
+		append("lia\n5,Pedro\n");
+		cache.invalidate();
+		Snapshot<String> continued = cache.get();
+		assertNotEquals(appended.generation(), continued.generation());
+		assertEquals(List.of("John", "Mary", "Mike", "Analia", "Pedro"), continued.rows());
+	}
+
+	/**
+	 * Tests that a rewritten file is read again.
+	 */
+	@Test
+	void rewriteTest() throws IOException {
+		Snapshot<String> snapshot = cache.get();
+
+		write("id,name\n1,Joe\n2,Mary\n3,Mike\n");
+		cache.invalidate();
+		Snapshot<String> rewritten = cache.get();
+		assertNotEquals(snapshot.generation(), rewritten.generation());
+		assertEquals(List.of("Joe", "Mary", "Mike"), rewritten.rows());
+	}
+
+	/**
+	 * Tests that the watch service invalidates the cache when the file changes.
+	 */
+	@Test
+	void watchTest() throws IOException, InterruptedException {
+		cache.get();
+		append("3,Mike\n");
+
+		long deadline = System.currentTimeMillis() + 10_000;
+		while (cache.get().rows().size() < 3 && System.currentTimeMillis() < deadline) {
+			Thread.sleep(50);
+		}
+		assertEquals(List.of("John", "Mary", "Mike"), cache.get().rows());
+	}
+
+	/**
+	 * Tests that a file that fails to be read is read again on the next call,
+	 * instead of returning the rows read before.
+	 */
+	@Test
+	void failedReadTest() throws IOException {
+		try (CsvFileCache<String> validating = new CsvFileCache<>(new MappedCsvReader(file), headers -> cursor -> {
+			String name = cursor.getString(1);
+			if (name.isEmpty()) {
+				throw new IllegalArgumentException("Missing name");
+			}
+			return name;
+		})) {
+			assertEquals(List.of("John", "Mary"), validating.get().rows());
+
+			append("3,\n");
+			validating.invalidate();
+			assertThrows(IllegalArgumentException.class, validating::get);
+			assertThrows(IllegalArgumentException.class, validating::get);
+
+			write("id,name\n1,John\n2,Mary\n3,Mike\n");
+			assertEquals(List.of("John", "Mary", "Mike"), validating.get().rows());
+		}
+	}
+
+	private void write(String content) throws IOException {
+		Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private void append(String content) throws IOException {
+		Files.write(file, content.getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+	}
+}
@@ -0,0 +1,129 @@
+package com.emiliano.friendreminder.infrastructure.csv;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * This class provides test cases for {@link MappedCsvReader} and
+ * {@link CsvCursor}.
+ *
+ * @author Emiliano Pessoa
+ */
+class MappedCsvReaderTest {
+
+	private static final String CSV = "last_name,first_name,date_of_birth,email,mobile\r\n"
+			+ "Doe,John,1982/04/09,john.doe@foobar.com,+5511987590224\r\n"
+			+ "\"Ann, Jr.\",\"Mary \"\"May\"\"\",1975/09/11,mary.ann@foobar.com,\"+1 415\n555 2671\"\n"
+			+ "\n"
+			+ "Tire,Mike,\"1986/05/06\",mike.tire@foobar.com,\n"
+			+ "Ção,José,2000/02/29,jose@foobar.com,\"\"";
+
+	/**
+	 * Tests the parsing of plain, quoted and escaped fields.
+	 */
+	@Test
+	void readTest() throws IOException {
+		List<List<String>> rows = readAll(createFile(CSV), MappedCsvReader.DEFAULT_WINDOW_SIZE);
+
+		assertEquals(5, rows.size());
+		assertEquals(List.of("last_name", "first_name", "date_of_birth", "email", "mobile"), rows.get(0));
+		assertEquals(List.of("Doe", "John", "1982/04/09", "john.doe@foobar.com", "+5511987590224"), rows.get(1));
+		assertEquals(List.of("Ann, Jr.", "Mary \"May\"", "1975/09/11", "mary.ann@foobar.com", "+1 415\n555 2671"),
+				rows.get(2));
+		assertEquals(List.of("Tire", "Mike", "1986/05/06", "mike.tire@foobar.com", ""), rows.get(3));
+		assertEquals(List.of("Ção", "José", "2000/02/29", "jose@foobar.com", ""), rows.get(4));
+	}
+
+	/**
+	 * Tests that rows crossing the boundaries of the mapped windows are parsed as
+	 * if the whole file was mapped at once.
+	 */
+	@Test
+	void readWithSmallWindowTest() throws IOException {
+		Path file = createFile(CSV);
+		List<List<String>> expected = readAll(file, MappedCsvReader.DEFAULT_WINDOW_SIZE);
+		for (int windowSize = 80; windowSize < 120; windowSize++) {
+			assertEquals(expected, readAll(file, windowSize));
+		}
+		assertThrows(IllegalArgumentException.class, () -> readAll(file, 16));
+	}
+
+	/**
+	 * Tests the parsing of yyyy/MM/dd dates.
+	 */
+	@Test
+	void getDateTest() throws IOException {
+		try (CsvCursor cursor = new MappedCsvReader(createFile("1982/04/09,\"2000/02/29\",1982/02/30,82/4/9"))
+				.open()) {
+			assertTrue(cursor.next());
+			assertEquals(LocalDate.of(1982, 4, 9), cursor.getDate(0));
+			assertEquals(LocalDate.of(2000, 2, 29), cursor.getDate(1));
+			assertThrows(DateTimeParseException.class, () -> cursor.getDate(2));
+			assertThrows(DateTimeParseException.class, () -> cursor.getDate(3));
+			assertNull(cursor.getDate(4));
+			assertFalse(cursor.next());
+		}
+	}
+
+	/**
+	 * Tests the detection of malformed files.
+	 */
+	@Test
+	void malformedTest() throws IOException {
+		assertThrows(IllegalArgumentException.class, () -> readAll(createFile("a,\"b\nc"), 1024));
+		assertThrows(IllegalArgumentException.class, () -> readAll(createFile("a,\"b\"c\n"), 1024));
+	}
+
+	/**
+	 * Tests that the cursor reports the offsets of the rows.
+	 */
+	@Test
+	void offsetsTest() throws IOException {
+		Path file = createFile("a,b\n\nc,d\r\ne,f");
+		try (CsvCursor cursor = new MappedCsvReader(file).open(5, -1)) {
+			assertTrue(cursor.next());
+			assertEquals(5, cursor.getRowOffset());
+			assertEquals(10, cursor.getRowEndOffset());
+			assertEquals("c", cursor.getString(0));
+			assertTrue(cursor.next());
+			assertEquals("f", cursor.getString(1));
+			assertEquals(13, cursor.getRowEndOffset());
+			assertFalse(cursor.next());
+		}
+	}
+
+	private static Path createFile(String content) throws IOException {
+		Path file = Files.createTempFile("friends", ".csv");
+		file.toFile().deleteOnExit();
+		Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+		return file;
+	}
+
+	private static List<List<String>> readAll(Path file, long windowSize) throws IOException {
+		List<List<String>> rows = new ArrayList<>();
+		try (CsvCursor cursor = new MappedCsvReader(file, windowSize).open()) {
+			while (cursor.next()) {
+				List<String> row = new ArrayList<>();
+				for (int i = 0; i < cursor.getFieldCount(); i++) {
+					row.add(cursor.getString(i));
+				}
+				rows.add(row);
+			}
+		}
+		return rows;
+	}
+}
@@ -0,0 +1,76 @@
+package com.emiliano.friendreminder.infrastructure.csv;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.emiliano.friendreminder.infrastructure.csv.CsvFileCache.RowMapper;
+
+/**
+ * This class provides test cases for {@link ParallelCsvParser}.
+ *
+ * @author Emiliano Pessoa
+ */
+class ParallelCsvParserTest {
+
+	private static final RowMapper<String> MAPPER = cursor -> cursor.getString(0) + "|" + cursor.getString(1);
+
+	/**
+	 * Tests that parsing in parallel chunks returns the same rows, in the same
+	 * order, as parsing sequentially, including quoted fields with line breaks.
+	 */
+	@Test
+	void parseTest() throws IOException {
+		StringBuilder content = new StringBuilder();
+		List<String> expected = new ArrayList<>();
+		for (int i = 0; i < 2000; i++) {
+			if (i % 7 == 0) {
+				content.append(i).append(",\"line\nbreak, \"\"").append(i).append("\"\"\"\n");
+				expected.add(i + "|line\nbreak, \"" + i + "\"");
+			} else {
+				content.append(i).append(",name").append(i).append("\r\n");
+				expected.add(i + "|name" + i);
+			}
+		}
+		Path file = createFile(content.toString());
+		MappedCsvReader reader = new MappedCsvReader(file);
+
+		try (ParallelCsvParser parser = new ParallelCsvParser(4, 64)) {
+			ParallelCsvParser.Result<String> result = parser.parse(reader, MAPPER, 0, Files.size(file));
+			assertEquals(expected, result.rows());
+			assertTrue(result.lastRowTerminated());
+		}
+	}
+
+	/**
+	 * Tests that a region smaller than the minimum chunk size is parsed as a
+	 * single chunk.
+	 */
+	@Test
+	void parseSmallRegionTest() throws IOException {
+		Path file = createFile("a,b\nc,d");
+		try (ParallelCsvParser parser = new ParallelCsvParser(4)) {
+			ParallelCsvParser.Result<String> result = parser.parse(new MappedCsvReader(file), MAPPER, 0,
+					Files.size(file));
+			assertEquals(List.of("a|b", "c|d"), result.rows());
+			assertEquals(4, result.lastRowOffset());
+			assertFalse(result.lastRowTerminated());
+		}
+	}
+
+	private static Path createFile(String content) throws IOException {
+		Path file = Files.createTempFile("friends", ".csv");
+		file.toFile().deleteOnExit();
+		Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+		return file;
+	}
+}
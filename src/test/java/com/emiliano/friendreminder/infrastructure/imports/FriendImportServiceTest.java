@@ -0,0 +1,124 @@
+package com.emiliano.friendreminder.infrastructure.imports;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.emiliano.friendreminder.domain.valueobjects.validation.MobileNumberRule;
+import com.emiliano.friendreminder.domain.valueobjects.validation.MobileNumberRules;
+import com.emiliano.friendreminder.domain.valueobjects.validation.MobileNumberValidator;
+import com.emiliano.friendreminder.infrastructure.entities.FriendEntity;
+import com.emiliano.friendreminder.infrastructure.repositories.SQLiteFriendEntityRepository;
+
+/**
+ * This class provides test cases for {@link FriendImportService}.
+ *
+ * The imports run inside a transaction that is rolled back at the end of each
+ * test, so the sample data of the other tests is not changed.
+ *
+ * @author Emiliano Pessoa
+ */
+@SpringBootTest
+class FriendImportServiceTest {
+
+	private static final int ROWS = 2500;
+
+	@Autowired
+	private FriendImportService importService;
+
+	@Autowired
+	private SQLiteFriendEntityRepository repository;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	/**
+	 * Tests that importing friends inserts the new emails and updates the existing
+	 * ones, over more than one batch.
+	 */
+	@Test
+	void importFriendsTest() {
+		new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+			long before = repository.count();
+
+			assertEquals(ROWS, importService.importFriends(IntStream.range(0, ROWS).mapToObj(i -> friend(i, "First"))));
+			assertEquals(before + ROWS, repository.count());
+
+			// Import the last half again with other names, and some new friends.
+			assertEquals(ROWS, importService
+					.importFriends(IntStream.range(ROWS / 2, ROWS + ROWS / 2).mapToObj(i -> friend(i, "Updated"))));
+			assertEquals(before + ROWS + ROWS / 2, repository.count());
+
+			FriendEntity updated = repository.findAll().stream()
+					.filter(f -> f.getEmail().equals("import" + (ROWS - 1) + "@test.com")).findFirst().orElseThrow();
+			assertEquals("Updated" + (ROWS - 1), updated.getFirstName());
+			assertEquals(LocalDate.of(1980, 1, 1).plusDays(ROWS - 1), updated.getDateOfBirth());
+			assertEquals(updated.getDateOfBirth().getMonthValue(), updated.getBirthMonth());
+
+			assertEquals(0, importService.importFriends(Stream.empty()));
+			status.setRollbackOnly();
+		});
+	}
+
+	/**
+	 * Tests that importing friends changes the version of the friends, unless none
+	 * of them changed.
+	 */
+	@Test
+	void importFriendsVersionTest() {
+		new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+			long before = getVersion();
+			importService.importFriends(IntStream.range(0, 10).mapToObj(i -> friend(i, "First")));
+			long imported = getVersion();
+			assertEquals(before + 10, imported);
+
+			importService.importFriends(IntStream.range(0, 10).mapToObj(i -> friend(i, "First")));
+			assertEquals(imported, getVersion());
+
+			importService.importFriends(Stream.of(friend(0, "Updated")));
+			assertEquals(imported + 1, getVersion());
+			status.setRollbackOnly();
+		});
+	}
+
+	/**
+	 * Tests that a friend whose mobile number breaks the rule of its country fails
+	 * the import, and that the friends of the batches already executed are rolled
+	 * back.
+	 */
+	@Test
+	void importFriendsMobileRuleTest() {
+		FriendImportService service = new FriendImportService(jdbcTemplate, transactionManager,
+				new MobileNumberValidator(new MobileNumberRules(List.of(new MobileNumberRule("55", 10, 11)))), 1);
+		long before = repository.count();
+
+		// The national number of the second friend has only 4 digits.
+		assertThrows(IllegalArgumentException.class,
+				() -> service.importFriends(Stream.of(friend(1234567, "First"), friend(5, "First"))));
+		assertEquals(before, repository.count());
+	}
+
+	private long getVersion() {
+		return jdbcTemplate.queryForObject("SELECT version FROM data_version WHERE name = 'friend_entity'",
+				Long.class);
+	}
+
+	private static FriendEntity friend(int i, String firstName) {
+		return new FriendEntity(firstName + i, "Last" + i, LocalDate.of(1980, 1, 1).plusDays(i),
+				"import" + i + "@test.com", "+55 11 9" + i);
+	}
+}
@@ -0,0 +1,86 @@
+package com.emiliano.friendreminder.infrastructure.indexes;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDate;
+import java.time.MonthDay;
+import java.time.Year;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.emiliano.friendreminder.domain.entities.Friend;
+import com.emiliano.friendreminder.domain.entities.FriendBuilder;
+
+/**
+ * This class provides test cases for {@link BirthdayCalendarIndex}.
+ *
+ * @author Emiliano Pessoa
+ */
+class BirthdayCalendarIndexTest {
+
+	private BirthdayCalendarIndex<Integer> index;
+	private Friend leapling;
+	private Friend february28;
+	private Friend march1;
+
+	/**
+	 * Sets up the test environment by creating an index with sample data.
+	 */
+	@BeforeEach
+	void setUp() {
+		leapling = new FriendBuilder().setFirstName("Jhon").setLastName("Doe").setEmail("john.doe@test.com")
+				.setDateOfBirth(LocalDate.of(1988, 2, 29)).setMobile("1234567890").build();
+		february28 = new FriendBuilder().setFirstName("Mary").setLastName("Jane").setEmail("mary.jane@test.com")
+				.setDateOfBirth(LocalDate.of(1990, 2, 28)).setMobile("1111111111").build();
+		march1 = new FriendBuilder().setFirstName("Grace").setLastName("Kelly").setEmail("grace.kelly@test.com")
+				.setDateOfBirth(LocalDate.of(1999, 3, 1)).setMobile("4444444444").build();
+
+		index = new BirthdayCalendarIndex<>();
+		index.put(1, leapling);
+		index.put(2, february28);
+		index.put(3, march1);
+	}
+
+	/**
+	 * Tests the lookup of birthdays around February 29th in leap years.
+	 */
+	@Test
+	void findInLeapYearTest() {
+		Year year = Year.of(2020);
+		assertEquals(List.of(february28), index.find(MonthDay.of(2, 28), year));
+		assertEquals(List.of(leapling), index.find(MonthDay.of(2, 29), year));
+		assertEquals(List.of(march1), index.find(MonthDay.of(3, 1), year));
+	}
+
+	/**
+	 * Tests that friends born on February 29th celebrate on February 28th in
+	 * non-leap years.
+	 */
+	@Test
+	void findInNonLeapYearTest() {
+		Year year = Year.of(2021);
+		assertEquals(List.of(february28, leapling), index.find(MonthDay.of(2, 28), year));
+		assertEquals(List.of(), index.find(MonthDay.of(2, 29), year));
+		assertEquals(List.of(march1), index.find(MonthDay.of(3, 1), year));
+	}
+
+	/**
+	 * Tests the incremental update of the index.
+	 */
+	@Test
+	void incrementalUpdateTest() {
+		// Replace the friend with key 3 by a friend born on February 28th.
+		Friend updated = new FriendBuilder().setFirstName("Grace").setLastName("Kelly")
+				.setEmail("grace.kelly@test.com").setDateOfBirth(LocalDate.of(1999, 2, 28)).setMobile("4444444444")
+				.build();
+		index.put(3, updated);
+		assertEquals(List.of(), index.find(MonthDay.of(3, 1), Year.of(2020)));
+		assertEquals(List.of(february28, updated), index.find(MonthDay.of(2, 28), Year.of(2020)));
+
+		index.remove(2);
+		assertEquals(List.of(updated), index.find(MonthDay.of(2, 28), Year.of(2020)));
+		assertEquals(2, index.size());
+	}
+}
@@ -0,0 +1,177 @@
+package com.emiliano.friendreminder.infrastructure.logging;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.emiliano.friendreminder.domain.valueobjects.Channel;
+
+/**
+ * This class provides test cases for {@link DeliveryLogSink}.
+ *
+ * @author Emiliano Pessoa
+ */
+class DeliveryLogSinkTest {
+
+	/**
+	 * Tests that the records are appended to the file as JSON lines.
+	 */
+	@Test
+	void writeTest(@TempDir Path directory) throws IOException {
+		Path file = directory.resolve("logs/deliveries.log");
+		DeliveryLogSink sink = new DeliveryLogSink(DeliveryLogTarget.file(file), 16, 4, 1, 1);
+		for (int i = 0; i < 10; i++) {
+			sink.record(Channel.EMAIL, "friend" + i + "@test.com", "Birthday reminder", "Dear Friend" + i);
+		}
+		sink.record(Channel.SMS, "+5511987654321", "", "Say \"hi\"\n\tto John\\Doe\u0001");
+		sink.flush();
+		sink.close();
+
+		List<String> lines = Files.readAllLines(file);
+		assertEquals(11, lines.size());
+		assertEquals(11, sink.getWritten());
+		assertTrue(lines.get(0).matches("\\{\"time\":\"[0-9T:.\\-]+Z\",\"channel\":\"email\",\"to\":"
+				+ "\"friend0@test.com\",\"subject\":\"Birthday reminder\",\"body\":\"Dear Friend0\"\\}"), lines.get(0));
+		assertTrue(lines.get(10).endsWith(",\"channel\":\"sms\",\"to\":\"+5511987654321\",\"subject\":\"\","
+				+ "\"body\":\"Say \\\"hi\\\"\\n\\tto John\\\\Doe\\u0001\"}"), lines.get(10));
+	}
+
+	/**
+	 * Tests that an idle writer parks without a timeout, and is woken up by the
+	 * next record.
+	 */
+	@Test
+	void idleTest() throws InterruptedException {
+		// Other tests may have left the writers of their sinks running.
+		Set<Thread> writers = findWriters();
+		CollectingTarget target = new CollectingTarget();
+		DeliveryLogSink sink = new DeliveryLogSink(target, 16, 4, 1, 1);
+		sink.record(Channel.SMS, "+5511987654321", "", "0");
+		sink.flush();
+
+		Set<Thread> started = findWriters();
+		started.removeAll(writers);
+		assertEquals(1, started.size());
+		Thread writer = started.iterator().next();
+		long deadline = System.currentTimeMillis() + 5000;
+		while (writer.getState() != Thread.State.WAITING && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+		assertEquals(Thread.State.WAITING, writer.getState());
+
+		sink.record(Channel.SMS, "+5511987654321", "", "1");
+		sink.flush();
+		assertEquals(2, sink.getWritten());
+		sink.close();
+		assertFalse(writer.isAlive());
+		assertEquals("0,1", String.join(",", target.bodies));
+	}
+
+	/**
+	 * Tests that the records are dropped without blocking when the buffer is full.
+	 */
+	@Test
+	void dropTest() throws InterruptedException {
+		BlockedTarget target = new BlockedTarget();
+		DeliveryLogSink sink = new DeliveryLogSink(target, 4, 16, 1, 1);
+		assertTrue(sink.record(Channel.SMS, "+5511987654321", "", "0"));
+		assertTrue(target.writing.await(5, TimeUnit.SECONDS));
+
+		for (int i = 1; i <= 4; i++) {
+			assertTrue(sink.record(Channel.SMS, "+5511987654321", "", String.valueOf(i)));
+		}
+		assertFalse(sink.record(Channel.SMS, "+5511987654321", "", "5"));
+		assertEquals(1, sink.getDropped());
+
+		target.release.countDown();
+		sink.close();
+		assertEquals(5, sink.getWritten());
+		assertEquals(5, target.lines());
+	}
+
+	/**
+	 * Tests that only some of the records are kept when the buffer is filled above
+	 * the sampling threshold.
+	 */
+	@Test
+	void sampleTest() throws InterruptedException {
+		BlockedTarget target = new BlockedTarget();
+		DeliveryLogSink sink = new DeliveryLogSink(target, 8, 16, 0.5, 2);
+		sink.record(Channel.EMAIL, "john.doe@test.com", "Happy birthday!", "0");
+		assertTrue(target.writing.await(5, TimeUnit.SECONDS));
+
+		for (int i = 1; i <= 20; i++) {
+			sink.record(Channel.EMAIL, "john.doe@test.com", "Happy birthday!", String.valueOf(i));
+		}
+		// 4 records below the threshold, then 1 of every 2 until the buffer is full.
+		assertEquals(8, sink.getSampled());
+		assertEquals(4, sink.getDropped());
+
+		target.release.countDown();
+		sink.close();
+		assertEquals(9, sink.getWritten());
+	}
+
+	private static Set<Thread> findWriters() {
+		return Thread.getAllStackTraces().keySet().stream()
+				.filter(t -> t.getName().equals("delivery-log-writer") && t.isAlive()).collect(Collectors.toSet());
+	}
+
+	/**
+	 * A target that keeps the bodies of the records written.
+	 */
+	private static class CollectingTarget implements DeliveryLogTarget {
+
+		private final List<String> bodies = new ArrayList<>();
+
+		@Override
+		public void write(CharSequence batch) {
+			for (String line : batch.toString().split("\n")) {
+				bodies.add(line.replaceAll(".*\"body\":\"(.*)\"}", "$1"));
+			}
+		}
+	}
+
+	/**
+	 * A target whose first write blocks until it is released.
+	 */
+	private static class BlockedTarget implements DeliveryLogTarget {
+
+		private final CountDownLatch writing = new CountDownLatch(1);
+		private final CountDownLatch release = new CountDownLatch(1);
+		private final List<String> batches = new ArrayList<>();
+
+		@Override
+		public void write(CharSequence batch) throws IOException {
+			writing.countDown();
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				throw new IOException(e);
+			}
+			synchronized (batches) {
+				batches.add(batch.toString());
+			}
+		}
+
+		int lines() {
+			synchronized (batches) {
+				return batches.stream().mapToInt(b -> b.split("\n").length).sum();
+			}
+		}
+	}
+
+}
@@ -0,0 +1,67 @@
+package com.emiliano.friendreminder.infrastructure.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.time.MonthDay;
+import java.time.Year;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+
+import com.emiliano.friendreminder.domain.entities.Friend;
+import com.emiliano.friendreminder.domain.entities.FriendBuilder;
+import com.emiliano.friendreminder.domain.repositories.FriendRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * This class provides test cases for {@link MeteredFriendRepository}.
+ *
+ * @author Emiliano Pessoa
+ */
+class MeteredFriendRepositoryTest {
+
+	private static final Friend FRIEND = new FriendBuilder().setFirstName("John").setLastName("Doe")
+			.setEmail("john.doe@test.com").setDateOfBirth(LocalDate.of(1985, 1, 1)).setMobile("1234567890").build();
+
+	/**
+	 * Tests that the calls are timed per method, that the failures are tagged
+	 * with the exception, and that the streams are timed when they are closed.
+	 */
+	@Test
+	void timeTest() {
+		MeterRegistry registry = new SimpleMeterRegistry();
+		FriendRepository delegate = mock(FriendRepository.class);
+		when(delegate.findAll()).thenReturn(List.of(FRIEND));
+		when(delegate.streamAll()).thenAnswer(i -> Stream.of(FRIEND));
+		when(delegate.findByMonthOfBirth(1)).thenThrow(new IllegalStateException("unavailable"));
+		FriendRepository repository = new MeteredFriendRepository(delegate, "test", registry);
+
+		assertEquals(List.of(FRIEND), repository.findAll());
+		assertEquals(List.of(FRIEND), repository.findAll());
+		assertThrows(IllegalStateException.class, () -> repository.findByMonthOfBirth(1));
+		repository.findByCelebrationDay(MonthDay.of(1, 1), Year.of(2023));
+
+		Stream<Friend> friends = repository.streamAll();
+		assertEquals(0, registry.find("friend.repository.calls").tag("method", "streamAll").timers().size());
+		assertEquals(1, friends.count());
+		friends.close();
+
+		assertEquals(2, timerCount(registry, "findAll", "none"));
+		assertEquals(1, timerCount(registry, "findByMonthOfBirth", "IllegalStateException"));
+		assertEquals(1, timerCount(registry, "findByCelebrationDay", "none"));
+		assertEquals(1, timerCount(registry, "streamAll", "none"));
+	}
+
+	private static long timerCount(MeterRegistry registry, String method, String exception) {
+		return registry.get("friend.repository.calls").tags("repository", "test", "method", method, "exception",
+				exception).timer().count();
+	}
+
+}
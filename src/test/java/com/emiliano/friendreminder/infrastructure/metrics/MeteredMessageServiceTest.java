@@ -0,0 +1,80 @@
+package com.emiliano.friendreminder.infrastructure.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.emiliano.friendreminder.domain.services.MessageService;
+import com.emiliano.friendreminder.domain.services.UndeliveredMessagesException;
+import com.emiliano.friendreminder.domain.services.UndeliveredMessagesException.Envelope;
+import com.emiliano.friendreminder.domain.valueobjects.Channel;
+import com.emiliano.friendreminder.domain.valueobjects.Email;
+import com.emiliano.friendreminder.domain.valueobjects.Mobile;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * This class provides test cases for {@link MeteredMessageService}.
+ *
+ * @author Emiliano Pessoa
+ */
+class MeteredMessageServiceTest {
+
+	/**
+	 * Tests that the messages sent and failed are timed and counted per channel,
+	 * and that the failures are still thrown to the caller.
+	 */
+	@Test
+	void sendTest() {
+		MeterRegistry registry = new SimpleMeterRegistry();
+		MessageService delegate = mock(MessageService.class);
+		doThrow(new IllegalStateException("gateway down")).when(delegate).sendSMS(any(), anyString(), anyString());
+		MessageService service = new MeteredMessageService(delegate, registry);
+
+		service.sendEmail(new Email("john.doe@test.com"), "subject", "body");
+		service.sendEmail(new Email("mary.jane@test.com"), "subject", "body");
+		assertThrows(IllegalStateException.class, () -> service.sendSMS(new Mobile("1234567890"), "subject", "body"));
+		service.flush();
+
+		assertEquals(2, registry.get("friend.messages").tags("channel", "email", "result", "sent").counter().count());
+		assertEquals(0, registry.get("friend.messages").tags("channel", "email", "result", "failed").counter().count());
+		assertEquals(0, registry.get("friend.messages").tags("channel", "sms", "result", "sent").counter().count());
+		assertEquals(1, registry.get("friend.messages").tags("channel", "sms", "result", "failed").counter().count());
+		assertEquals(2, registry.get("friend.message.send").tag("channel", "email").timer().count());
+		assertEquals(1, registry.get("friend.message.send").tag("channel", "sms").timer().count());
+		verify(delegate).flush();
+	}
+
+	/**
+	 * Tests that a batch is timed once, and that only the messages the delegate
+	 * could not send are counted as failed.
+	 */
+	@Test
+	void sendBatchTest() {
+		MeterRegistry registry = new SimpleMeterRegistry();
+		MessageService delegate = mock(MessageService.class);
+		Envelope rejected = new Envelope(Channel.EMAIL, "mary.jane@test.com", "subject", "body");
+		List<Envelope> batch = List.of(new Envelope(Channel.EMAIL, "john.doe@test.com", "subject", "body"), rejected,
+				new Envelope(Channel.EMAIL, "jane.doe@test.com", "subject", "body"));
+		doThrow(new UndeliveredMessagesException(List.of(rejected), new IllegalStateException("quota")))
+				.when(delegate).sendBatch(batch);
+		MessageService service = new MeteredMessageService(delegate, registry);
+
+		assertThrows(UndeliveredMessagesException.class, () -> service.sendBatch(batch));
+
+		assertEquals(2, registry.get("friend.messages").tags("channel", "email", "result", "sent").counter().count());
+		assertEquals(1, registry.get("friend.messages").tags("channel", "email", "result", "failed").counter().count());
+		assertEquals(1, registry.get("friend.message.send").tag("channel", "email").timer().count());
+		assertEquals(0, registry.get("friend.message.send").tag("channel", "sms").timer().count());
+	}
+
+}
@@ -0,0 +1,49 @@
+package com.emiliano.friendreminder.infrastructure.repositories;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * A Hibernate {@link StatementInspector} that records the SQL generated by the
+ * session factory of the tests, so the tests can check the statements the
+ * repositories actually run.
+ *
+ * @author Emiliano Pessoa
+ */
+public class CapturingStatementInspector implements StatementInspector {
+
+	private static final long serialVersionUID = 1L;
+
+	private static final List<String> statements = new ArrayList<>();
+
+	@Override
+	public String inspect(String sql) {
+		synchronized (statements) {
+			statements.add(sql);
+		}
+		return sql;
+	}
+
+	/**
+	 * Clears the recorded statements.
+	 */
+	static void clear() {
+		synchronized (statements) {
+			statements.clear();
+		}
+	}
+
+	/**
+	 * Returns the statements recorded since the last {@link #clear()}.
+	 *
+	 * @return The SQL of the statements, in the order they were prepared.
+	 */
+	static List<String> getStatements() {
+		synchronized (statements) {
+			return List.copyOf(statements);
+		}
+	}
+
+}
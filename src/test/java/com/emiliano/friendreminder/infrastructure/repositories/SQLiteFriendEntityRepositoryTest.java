@@ -0,0 +1,223 @@
+package com.emiliano.friendreminder.infrastructure.repositories;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.emiliano.friendreminder.infrastructure.entities.FriendEntity;
+import com.emiliano.friendreminder.infrastructure.entities.FriendRow;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * This class provides test cases for {@link SQLiteFriendEntityRepository}.
+ *
+ * The test data is inserted inside a transaction that is rolled back at the end
+ * of each test, so the sample data of the other tests is not changed. The SQL
+ * generated by Hibernate is recorded by a {@link CapturingStatementInspector}.
+ *
+ * @author Emiliano Pessoa
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+		+ "com.emiliano.friendreminder.infrastructure.repositories.CapturingStatementInspector")
+class SQLiteFriendEntityRepositoryTest {
+
+	private static final int ROWS = 10_000;
+	private static final LocalDate FIRST_DATE_OF_BIRTH = LocalDate.of(1980, 1, 1);
+
+	@Autowired
+	private SQLiteFriendEntityRepository repository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	/**
+	 * Tests that the search by month and day of birth over 10K rows returns only
+	 * the matching rows, and that SQLite resolves the queries Hibernate generates
+	 * for the searches by month and day of birth with the birth month and day
+	 * index.
+	 */
+	@Test
+	void findByBirthMonthAndBirthDayInTest() {
+		new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+			long before = repository.findByBirthMonthAndBirthDayIn(3, List.of(15)).size();
+			insertFriends(ROWS);
+
+			// Check the query plans of the statements generated for the searches.
+			CapturingStatementInspector.clear();
+			repository.findByBirthMonth(3);
+			repository.findByBirthMonthAndBirthDayIn(3, List.of(15, 16));
+			repository.findRowsByBirthMonth(3);
+			repository.findRowsByBirthMonthAndBirthDayIn(3, List.of(15, 16));
+			List<String> statements = CapturingStatementInspector.getStatements();
+			assertEquals(4, statements.size(), statements.toString());
+			for (String sql : statements) {
+				Object[] parameters = List.of(3, 15, 16).subList(0, (int) sql.chars().filter(c -> c == '?').count())
+						.toArray();
+				List<String> plan = jdbcTemplate.query("EXPLAIN QUERY PLAN " + sql,
+						(rs, rowNum) -> rs.getString("detail"), parameters);
+				assertTrue(plan.stream().anyMatch(p -> p.contains("USING INDEX idx_friend_entity_birth_month_day")),
+						sql + ": " + plan);
+			}
+
+			// Check that only the matching rows are returned.
+			long expected = FIRST_DATE_OF_BIRTH.datesUntil(FIRST_DATE_OF_BIRTH.plusDays(ROWS))
+					.filter(d -> d.getMonthValue() == 3 && d.getDayOfMonth() == 15).count();
+			List<FriendEntity> friends = repository.findByBirthMonthAndBirthDayIn(3, List.of(15));
+			assertEquals(before + expected, friends.size());
+
+			status.setRollbackOnly();
+		});
+	}
+
+	/**
+	 * Tests that the pages of the keyset pagination cover all the rows in ID order,
+	 * with detached entities.
+	 */
+	@Test
+	void findPageAfterTest() {
+		new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+			insertFriends(2500);
+			long count = repository.count();
+
+			long lastId = 0;
+			long read = 0;
+			List<FriendEntity> page;
+			do {
+				page = repository.findPageAfter(lastId, 1000);
+				for (FriendEntity friend : page) {
+					assertTrue(friend.getId() > lastId);
+					assertFalse(entityManager.contains(friend));
+					lastId = friend.getId();
+				}
+				read += page.size();
+			} while (page.size() == 1000);
+			assertEquals(count, read);
+
+			try (Stream<FriendEntity> friends = repository.streamAll()) {
+				assertEquals(count, friends.count());
+			}
+
+			status.setRollbackOnly();
+		});
+	}
+
+	/**
+	 * Tests that the pages of {@link FriendRow} have the same data as the pages of
+	 * entities.
+	 */
+	@Test
+	void findRowPageAfterTest() {
+		new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+			insertFriends(2500);
+
+			List<FriendEntity> entities = repository.findPageAfter(100, 1000);
+			List<FriendRow> rows = repository.findRowPageAfter(100, 1000);
+			assertEquals(entities.size(), rows.size());
+			for (int i = 0; i < rows.size(); i++) {
+				FriendEntity entity = entities.get(i);
+				assertEquals(new FriendRow(entity.getId(), entity.getFirstName(), entity.getLastName(),
+						entity.getDateOfBirth(), entity.getEmail(), entity.getMobile()), rows.get(i));
+			}
+
+			try (Stream<FriendRow> all = repository.streamAllRows()) {
+				assertEquals(repository.count(), all.count());
+			}
+			assertEquals(repository.findByBirthMonth(3).size(), repository.findRowsByBirthMonth(3).size());
+
+			status.setRollbackOnly();
+		});
+	}
+
+	/**
+	 * Tests that the queries by month and day of birth do not wait for the writer
+	 * connection held by another transaction, and that the writes still use it.
+	 */
+	@Test
+	void readWhileWritingTest() throws InterruptedException {
+		CountDownLatch held = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		Thread writer = new Thread(() -> new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+			jdbcTemplate.update("DELETE FROM friend_entity WHERE id = -1");
+			held.countDown();
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			status.setRollbackOnly();
+		}));
+		writer.start();
+		try {
+			assertTrue(held.await(10, TimeUnit.SECONDS));
+			assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+				repository.findByBirthMonth(1);
+				repository.findByBirthMonthAndBirthDayIn(1, List.of(1));
+				repository.findRowsByBirthMonth(1);
+				repository.findRowsByBirthMonthAndBirthDayIn(1, List.of(1));
+			});
+		} finally {
+			release.countDown();
+			writer.join();
+		}
+
+		FriendEntity friend = repository.save(new FriendEntity("Write", "Test", FIRST_DATE_OF_BIRTH,
+				"write.test@test.com", "+55 11 9"));
+		assertTrue(repository.findById(friend.getId()).isPresent());
+		repository.delete(friend);
+		assertFalse(repository.findById(friend.getId()).isPresent());
+	}
+
+	/**
+	 * Inserts one friend for each day starting from {@link #FIRST_DATE_OF_BIRTH}.
+	 */
+	private void insertFriends(int rows) {
+		jdbcTemplate.batchUpdate(
+				"INSERT INTO friend_entity (first_name, last_name, date_of_birth, birth_month, birth_day, email, mobile)"
+						+ " VALUES (?, ?, ?, ?, ?, ?, ?)",
+				new BatchPreparedStatementSetter() {
+
+					@Override
+					public void setValues(PreparedStatement ps, int i) throws SQLException {
+						LocalDate dateOfBirth = FIRST_DATE_OF_BIRTH.plusDays(i);
+						ps.setString(1, "First" + i);
+						ps.setString(2, "Last" + i);
+						ps.setDate(3, Date.valueOf(dateOfBirth));
+						ps.setInt(4, dateOfBirth.getMonthValue());
+						ps.setInt(5, dateOfBirth.getDayOfMonth());
+						ps.setString(6, "friend" + i + "@test.com");
+						ps.setString(7, "+55 11 9" + i);
+					}
+
+					@Override
+					public int getBatchSize() {
+						return rows;
+					}
+				});
+	}
+}
@@ -4,6 +4,7 @@
 package com.emiliano.friendreminder.infrastructure.repositories.impl;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
@@ -39,4 +40,11 @@ public class FlatFileFriendRepositoryImplTest {
 		Assertions.assertNotNull(friends);
 		Assertions.assertEquals(3, friends.size());
 	}
+
+	@Test
+	void testStreamAll() {
+		try (Stream<Friend> friends = repository.streamAll()) {
+			Assertions.assertEquals(repository.findAll(), friends.toList());
+		}
+	}
 }
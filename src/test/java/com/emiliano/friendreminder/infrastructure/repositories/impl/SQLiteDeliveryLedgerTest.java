@@ -0,0 +1,72 @@
+package com.emiliano.friendreminder.infrastructure.repositories.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.emiliano.friendreminder.domain.valueobjects.Channel;
+import com.emiliano.friendreminder.domain.valueobjects.Delivery;
+
+/**
+ * This class provides test cases for {@link SQLiteDeliveryLedger}.
+ *
+ * The deliveries are recorded inside a transaction that is rolled back at the
+ * end of each test.
+ *
+ * @author Emiliano Pessoa
+ */
+@SpringBootTest
+class SQLiteDeliveryLedgerTest {
+
+	private static final int RECIPIENTS = 600;
+
+	@Autowired
+	private SQLiteDeliveryLedger ledger;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	/**
+	 * Tests that only the recorded deliveries are found, by recipient, birthday
+	 * friend, date and channel, over more than one query of recipients.
+	 */
+	@Test
+	void findDeliveredTest() {
+		LocalDate date = LocalDate.of(2023, 3, 1);
+		List<Delivery> deliveries = IntStream.range(0, RECIPIENTS)
+				.mapToObj(i -> new Delivery("friend" + i + "@test.com", "birthday@test.com", date, Channel.EMAIL))
+				.toList();
+
+		TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+		transaction.executeWithoutResult(status -> {
+			assertTrue(ledger.findDelivered(deliveries).isEmpty());
+
+			List<Delivery> recorded = deliveries.subList(0, RECIPIENTS - 1);
+			ledger.record(recorded);
+			// Recording a delivery again is ignored.
+			ledger.record(recorded.subList(0, 10));
+
+			Delivery last = deliveries.get(RECIPIENTS - 1);
+			Delivery first = deliveries.get(0);
+			Set<Delivery> delivered = ledger.findDelivered(List.of(first, last,
+					new Delivery(first.recipient(), first.birthdayFriend(), date.plusDays(1), Channel.EMAIL),
+					new Delivery(first.recipient(), first.birthdayFriend(), date, Channel.SMS),
+					new Delivery(first.recipient(), "other@test.com", date, Channel.EMAIL)));
+			assertEquals(Set.of(first), delivered);
+
+			assertEquals(RECIPIENTS - 1, ledger.findDelivered(deliveries).size());
+			status.setRollbackOnly();
+		});
+	}
+
+}
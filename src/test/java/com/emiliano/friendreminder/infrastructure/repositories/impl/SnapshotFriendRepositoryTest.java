@@ -0,0 +1,129 @@
+package com.emiliano.friendreminder.infrastructure.repositories.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDate;
+import java.time.MonthDay;
+import java.time.Year;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.emiliano.friendreminder.domain.entities.Friend;
+import com.emiliano.friendreminder.domain.entities.FriendBuilder;
+import com.emiliano.friendreminder.domain.repositories.FriendRepository;
+import com.emiliano.friendreminder.domain.services.merge.MergePolicy;
+
+/**
+ * This class provides test cases for {@link SnapshotFriendRepository}.
+ *
+ * @author Emiliano Pessoa
+ */
+class SnapshotFriendRepositoryTest {
+
+	private Path snapshotFile;
+	private Path sourceFile;
+	private AtomicLong sourceVersion;
+	private FriendRepository source1;
+	private FriendRepository source2;
+	private List<Friend> friends1;
+	private Friend today;
+
+	/**
+	 * Creates two mock source repositories with a shared friend.
+	 */
+	@BeforeEach
+	void setUp() throws IOException {
+		Path directory = Files.createTempDirectory("snapshot");
+		snapshotFile = directory.resolve("friends.snapshot");
+		sourceFile = Files.createFile(directory.resolve("friends.csv"));
+		Files.setLastModifiedTime(sourceFile, FileTime.fromMillis(System.currentTimeMillis() - 60_000));
+		snapshotFile.toFile().deleteOnExit();
+		sourceFile.toFile().deleteOnExit();
+		directory.toFile().deleteOnExit();
+		sourceVersion = new AtomicLong();
+
+		Friend shared = new FriendBuilder().setFirstName("Mary").setLastName("Jane").setEmail("mary.jane@test.com")
+				.setDateOfBirth(LocalDate.of(1990, 10, 10)).setMobile("1111111111").build();
+		today = new FriendBuilder().setFirstName("Jhonny").setLastName("Mac").setEmail("jhonny.mac@test.com")
+				.setDateOfBirth(LocalDate.now().minusYears(25)).setMobile("2222222222").build();
+		friends1 = new ArrayList<>(List.of(shared, today));
+		List<Friend> friends2 = List.of(shared);
+
+		source1 = mock(FriendRepository.class);
+		source2 = mock(FriendRepository.class);
+		when(source1.streamAll()).thenAnswer(i -> friends1.stream());
+		when(source2.streamAll()).thenAnswer(i -> friends2.stream());
+	}
+
+	/**
+	 * Tests that the merged friends of the sources are written to the snapshot,
+	 * and that a new repository reads them from the snapshot only.
+	 */
+	@Test
+	void snapshotTest() {
+		SnapshotFriendRepository repository = newRepository();
+		assertEquals(2, repository.findAll().size());
+		assertTrue(Files.exists(snapshotFile));
+		verify(source1, times(1)).streamAll();
+
+		// A new repository, as after a restart, does not read the sources.
+		FriendRepository source3 = mock(FriendRepository.class);
+		SnapshotFriendRepository restarted = new SnapshotFriendRepository(snapshotFile, List.of(sourceFile),
+				sourceVersion::get, MergePolicy.EXACT, source3);
+		LocalDate now = LocalDate.now();
+		assertTrue(restarted.findByCelebrationDay(MonthDay.from(now), Year.from(now)).contains(today));
+		assertEquals(repository.findAll(), restarted.findAll());
+		verify(source3, never()).streamAll();
+	}
+
+	/**
+	 * Tests that the sources are read again when a source file is newer than the
+	 * snapshot, the version of the sources changed, or the snapshot is corrupted.
+	 */
+	@Test
+	void reloadTest() throws IOException {
+		SnapshotFriendRepository repository = newRepository();
+		assertEquals(2, repository.findAll().size());
+
+		friends1.add(new FriendBuilder().setFirstName("Grace").setLastName("Kelly").setEmail("grace.kelly@test.com")
+				.setDateOfBirth(LocalDate.of(1999, 5, 5)).setMobile("4444444444").build());
+		Files.setLastModifiedTime(sourceFile, FileTime.fromMillis(System.currentTimeMillis() + 60_000));
+		assertEquals(3, repository.findAll().size());
+		verify(source1, times(2)).streamAll();
+
+		// Another change, seen through the version of the sources only.
+		Files.setLastModifiedTime(sourceFile, FileTime.fromMillis(System.currentTimeMillis() - 60_000));
+		friends1.remove(today);
+		sourceVersion.incrementAndGet();
+		assertEquals(2, repository.findAll().size());
+		verify(source1, times(3)).streamAll();
+		assertEquals(2, newRepository().findAll().size());
+		verify(source1, times(3)).streamAll();
+		sourceVersion.incrementAndGet();
+		assertEquals(2, newRepository().findAll().size());
+		verify(source1, times(4)).streamAll();
+
+		Files.write(snapshotFile, new byte[] { 1, 2, 3 });
+		assertEquals(2, newRepository().findAll().size());
+		verify(source1, times(5)).streamAll();
+	}
+
+	private SnapshotFriendRepository newRepository() {
+		return new SnapshotFriendRepository(snapshotFile, List.of(sourceFile), sourceVersion::get, MergePolicy.EXACT,
+				source1, source2);
+	}
+}
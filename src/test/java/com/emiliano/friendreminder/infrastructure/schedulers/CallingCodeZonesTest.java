@@ -0,0 +1,39 @@
+package com.emiliano.friendreminder.infrastructure.schedulers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.ZoneId;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * This class provides test cases for {@link CallingCodeZones}.
+ *
+ * @author Emiliano Pessoa
+ */
+class CallingCodeZonesTest {
+
+	private static final ZoneId UTC = ZoneId.of("UTC");
+
+	/**
+	 * Tests the zones of numbers with and without a known calling code.
+	 */
+	@Test
+	void zoneOfTest() {
+		CallingCodeZones zones = CallingCodeZones.withDefaults(Map.of("44", ZoneId.of("Europe/Dublin")), UTC);
+
+		assertEquals(ZoneId.of("America/Sao_Paulo"), zones.zoneOf("+55 11 987654321"));
+		assertEquals(ZoneId.of("America/Sao_Paulo"), zones.zoneOf("005511987654321"));
+		assertEquals(ZoneId.of("Europe/Lisbon"), zones.zoneOf("+351912345678"));
+		assertEquals(ZoneId.of("America/New_York"), zones.zoneOf("+1 212 5550100"));
+		assertEquals(ZoneId.of("Europe/Dublin"), zones.zoneOf("+44 7700 900123"));
+		assertEquals(UTC, zones.zoneOf("+999 123456"));
+		assertEquals(UTC, zones.zoneOf("11987654321"));
+
+		assertTrue(zones.getZones().contains(UTC));
+		assertTrue(zones.getZones().contains(ZoneId.of("Europe/Dublin")));
+	}
+
+}
@@ -0,0 +1,150 @@
+package com.emiliano.friendreminder.infrastructure.schedulers;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.scheduling.TaskScheduler;
+
+import com.emiliano.friendreminder.domain.services.FriendService;
+import com.emiliano.friendreminder.infrastructure.entities.SchedulerRunEntity;
+import com.emiliano.friendreminder.infrastructure.repositories.SchedulerRunRepository;
+
+import io.micrometer.observation.ObservationRegistry;
+
+/**
+ * This class provides test cases for {@link FriendScheduler}.
+ *
+ * The send time is midnight, so the current day is always due.
+ *
+ * @author Emiliano Pessoa
+ */
+class FriendSchedulerTest {
+
+	private static final ZoneId ZONE = ZoneId.of("America/Sao_Paulo");
+
+	private FriendService friendService;
+	private SchedulerRunRepository runRepository;
+	private FriendScheduler scheduler;
+	private LocalDate today;
+	private AtomicLong dataVersion;
+
+	/**
+	 * Sets up the scheduler with mock services.
+	 */
+	@BeforeEach
+	void setUp() {
+		friendService = mock(FriendService.class);
+		runRepository = mock(SchedulerRunRepository.class);
+		dataVersion = new AtomicLong();
+		scheduler = new FriendScheduler(friendService, runRepository, mock(TaskScheduler.class),
+				CallingCodeZones.withDefaults(Map.of(), ZoneId.of("UTC")), ObservationRegistry.NOOP, dataVersion::get,
+				"00:00", 3);
+		when(friendService.<ZoneId>countFriends(any())).thenReturn(Map.of(ZONE, 1L));
+		today = ZonedDateTime.now(ZONE).toLocalDate();
+	}
+
+	/**
+	 * Tests that the missed days are checked in order, up to the maximum number of
+	 * days, and that the days already past only get belated messages.
+	 */
+	@Test
+	void catchUpTest() {
+		when(runRepository.findById(ZONE.getId()))
+				.thenReturn(Optional.of(new SchedulerRunEntity(ZONE.getId(), today.minusDays(10))));
+
+		scheduler.checkBirthdays(ZONE);
+
+		InOrder order = inOrder(friendService);
+		order.verify(friendService).sendBelatedBirthdayMessages(eq(today.minusDays(2)), any());
+		order.verify(friendService).sendBelatedBirthdayMessages(eq(today.minusDays(1)), any());
+		order.verify(friendService).sendBirthdayMessages(eq(today), any());
+		verify(friendService, times(2)).sendBelatedBirthdayMessages(any(), any());
+		verify(friendService, times(1)).sendBirthdayMessages(any(), any());
+		verify(runRepository).save(argThat(r -> r.getLastDate().equals(today)));
+	}
+
+	/**
+	 * Tests that a zone already checked today is not checked again, and that a
+	 * failed day is not recorded.
+	 */
+	@Test
+	void checkedAndFailedTest() {
+		when(runRepository.findById(ZONE.getId()))
+				.thenReturn(Optional.of(new SchedulerRunEntity(ZONE.getId(), today)));
+		scheduler.checkBirthdays(ZONE);
+		verify(friendService, never()).sendBirthdayMessages(any(), any());
+
+		when(runRepository.findById(ZONE.getId())).thenReturn(Optional.empty());
+		doThrow(new IllegalStateException("1 messages could not be sent")).when(friendService)
+				.sendBirthdayMessages(eq(today), any());
+		scheduler.checkBirthdays(ZONE);
+		verify(friendService, times(1)).sendBirthdayMessages(eq(today), any());
+		verify(runRepository, never()).save(any());
+	}
+
+	/**
+	 * Tests that the zones without friends are recorded as checked without
+	 * sending their messages, and that the friends are counted once per day,
+	 * unless they change.
+	 */
+	@Test
+	void emptyZoneTest() {
+		ZoneId empty = ZoneId.of("Asia/Tokyo");
+		LocalDate emptyToday = ZonedDateTime.now(empty).toLocalDate();
+		when(runRepository.findById(any())).thenReturn(Optional.empty());
+
+		scheduler.checkBirthdays(empty);
+		verify(friendService, never()).sendBirthdayMessages(any(), any());
+		verify(runRepository).save(argThat(r -> r.getZone().equals(empty.getId())
+				&& r.getLastDate().equals(emptyToday)));
+
+		scheduler.checkBirthdays(ZONE);
+		verify(friendService, times(1)).sendBirthdayMessages(eq(today), any());
+		verify(friendService, times(1)).countFriends(any());
+
+		// A friend imported in the empty zone is counted by its next check.
+		ZoneId imported = ZoneId.of("Europe/Lisbon");
+		when(friendService.<ZoneId>countFriends(any())).thenReturn(Map.of(ZONE, 1L, imported, 1L));
+		dataVersion.incrementAndGet();
+		scheduler.checkBirthdays(imported);
+		verify(friendService, times(2)).countFriends(any());
+		verify(friendService, times(2)).sendBirthdayMessages(any(), any());
+	}
+
+	/**
+	 * Tests that a zone that was never checked starts from its current day, so a
+	 * first check before the send time sends nothing.
+	 */
+	@Test
+	void firstCheckTest() {
+		FriendScheduler lateScheduler = new FriendScheduler(friendService, runRepository, mock(TaskScheduler.class),
+				CallingCodeZones.withDefaults(Map.of(), ZoneId.of("UTC")), ObservationRegistry.NOOP, dataVersion::get,
+				"23:59:59.999999999", 3);
+		when(runRepository.findById(ZONE.getId())).thenReturn(Optional.empty());
+
+		lateScheduler.checkBirthdays(ZONE);
+
+		verify(friendService, never()).sendBirthdayMessages(any(), any());
+		verify(friendService, never()).sendBelatedBirthdayMessages(any(), any());
+		verify(runRepository, never()).save(any());
+	}
+
+}
@@ -0,0 +1,250 @@
+package com.emiliano.friendreminder.infrastructure.services.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import com.emiliano.friendreminder.domain.services.MessageService;
+import com.emiliano.friendreminder.domain.services.UndeliveredMessagesException;
+import com.emiliano.friendreminder.domain.services.UndeliveredMessagesException.Envelope;
+import com.emiliano.friendreminder.domain.valueobjects.Channel;
+import com.emiliano.friendreminder.domain.valueobjects.Email;
+import com.emiliano.friendreminder.domain.valueobjects.Mobile;
+
+/**
+ * This class provides test cases for {@link AsyncMessageService}.
+ *
+ * @author Emiliano Pessoa
+ */
+class AsyncMessageServiceTest {
+
+	private static final Email EMAIL = new Email("john.doe@test.com");
+	private static final Mobile MOBILE = new Mobile("1234567890");
+
+	/**
+	 * Tests that flush waits until every message of both channels was sent, and
+	 * then flushes the delegate once.
+	 */
+	@Test
+	void flushTest() {
+		CountingMessageService delegate = new CountingMessageService() {
+			@Override
+			public void flush() {
+				// The delegate is only flushed after the messages were sent to it.
+				assertEquals(100, emails.get());
+				assertEquals(100, sms.get());
+				super.flush();
+			}
+		};
+		try (AsyncMessageService service = new AsyncMessageService(delegate, 10, 2, 4)) {
+			for (int i = 0; i < 100; i++) {
+				service.sendEmail(EMAIL, "subject", "body");
+				service.sendSMS(MOBILE, "subject", "body");
+			}
+			service.flush();
+			assertEquals(0, service.getPending());
+			assertEquals(1, delegate.flushes.get());
+		}
+	}
+
+	/**
+	 * Tests that the caller is blocked while the queue of a channel is full, and
+	 * that the other channel is not affected.
+	 */
+	@Test
+	void backpressureTest() throws InterruptedException {
+		CountDownLatch release = new CountDownLatch(1);
+		CountingMessageService delegate = new CountingMessageService() {
+			@Override
+			public void sendEmail(Email email, String subject, String body) {
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				super.sendEmail(email, subject, body);
+			}
+		};
+		try (AsyncMessageService service = new AsyncMessageService(delegate, 1, 1, 1)) {
+			CountDownLatch queued = new CountDownLatch(1);
+			Thread producer = new Thread(() -> {
+				// One message is being sent, one is queued and the last one must wait.
+				for (int i = 0; i < 3; i++) {
+					service.sendEmail(EMAIL, "subject", "body");
+				}
+				queued.countDown();
+			});
+			producer.start();
+			assertFalse(queued.await(200, TimeUnit.MILLISECONDS));
+
+			// The SMS channel is not blocked by the email channel.
+			service.sendSMS(MOBILE, "subject", "body");
+			long deadline = System.currentTimeMillis() + 5000;
+			while (delegate.sms.get() == 0 && System.currentTimeMillis() < deadline) {
+				Thread.sleep(10);
+			}
+			assertEquals(1, delegate.sms.get());
+
+			release.countDown();
+			assertTrue(queued.await(5, TimeUnit.SECONDS));
+			service.flush();
+			assertEquals(3, delegate.emails.get());
+		}
+	}
+
+	/**
+	 * Tests that flush reports the messages that could not be sent.
+	 */
+	@Test
+	void failureTest() {
+		CountingMessageService delegate = new CountingMessageService() {
+			@Override
+			public void sendSMS(Mobile mobile, String subject, String body) {
+				throw new IllegalStateException("Gateway unavailable");
+			}
+		};
+		try (AsyncMessageService service = new AsyncMessageService(delegate, 10, 1, 10)) {
+			service.sendSMS(MOBILE, "subject", "body");
+			service.sendEmail(EMAIL, "subject", "body");
+			UndeliveredMessagesException exception = assertThrows(UndeliveredMessagesException.class,
+					service::flush);
+			assertEquals("Gateway unavailable", exception.getCause().getMessage());
+			assertEquals(List.of(new Envelope(Channel.SMS, MOBILE.getValue(), "subject", "body")),
+					exception.getMessages());
+			assertEquals(1, delegate.emails.get());
+
+			// The failures are reported only once.
+			service.flush();
+		}
+	}
+
+	/**
+	 * Tests that flush also reports the messages the delegate could not send when
+	 * it was flushed.
+	 */
+	@Test
+	void delegateFailureTest() {
+		Envelope delayed = new Envelope(Channel.EMAIL, EMAIL.getValue(), "subject", "delayed");
+		CountingMessageService delegate = new CountingMessageService() {
+			@Override
+			public void sendSMS(Mobile mobile, String subject, String body) {
+				throw new IllegalStateException("Gateway unavailable");
+			}
+
+			@Override
+			public void flush() {
+				super.flush();
+				if (flushes.get() == 1) {
+					throw new UndeliveredMessagesException(List.of(delayed), new IllegalStateException("Quota"));
+				}
+			}
+		};
+		try (AsyncMessageService service = new AsyncMessageService(delegate, 10, 1, 10)) {
+			service.sendSMS(MOBILE, "subject", "body");
+			UndeliveredMessagesException exception = assertThrows(UndeliveredMessagesException.class,
+					service::flush);
+			assertEquals("Gateway unavailable", exception.getCause().getMessage());
+			assertEquals(List.of(new Envelope(Channel.SMS, MOBILE.getValue(), "subject", "body"), delayed),
+					exception.getMessages());
+
+			// The failures are reported only once.
+			service.flush();
+		}
+	}
+
+	/**
+	 * Tests that the workers send the queued messages of a channel in batches of
+	 * at most the batch size, with a single call each.
+	 */
+	@Test
+	void batchTest() throws InterruptedException {
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		List<Integer> batches = Collections.synchronizedList(new ArrayList<>());
+		CountingMessageService delegate = new CountingMessageService() {
+			@Override
+			public void sendBatch(List<Envelope> messages) {
+				started.countDown();
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				batches.add(messages.size());
+				emails.addAndGet(messages.size());
+			}
+		};
+		try (AsyncMessageService service = new AsyncMessageService(delegate, 10, 1, 4)) {
+			// The first message is taken alone, and the others queue up behind it.
+			service.sendEmail(EMAIL, "subject", "body");
+			assertTrue(started.await(5, TimeUnit.SECONDS));
+			for (int i = 1; i < 10; i++) {
+				service.sendEmail(EMAIL, "subject", "body" + i);
+			}
+			release.countDown();
+			service.flush();
+			assertEquals(10, delegate.emails.get());
+			assertEquals(List.of(1, 4, 4, 1), batches);
+		}
+	}
+
+	/**
+	 * Tests that only the messages of a batch listed by the delegate as undelivered
+	 * are reported by flush.
+	 */
+	@Test
+	void batchFailureTest() {
+		Envelope rejected = new Envelope(Channel.EMAIL, EMAIL.getValue(), "subject", "rejected");
+		CountingMessageService delegate = new CountingMessageService() {
+			@Override
+			public void sendBatch(List<Envelope> messages) {
+				emails.addAndGet(messages.size());
+				if (messages.contains(rejected)) {
+					throw new UndeliveredMessagesException(List.of(rejected), new IllegalStateException("Quota"));
+				}
+			}
+		};
+		try (AsyncMessageService service = new AsyncMessageService(delegate, 10, 1, 10)) {
+			service.sendEmail(EMAIL, "subject", "body");
+			service.sendEmail(EMAIL, "subject", "rejected");
+			service.sendEmail(EMAIL, "subject", "body");
+			UndeliveredMessagesException exception = assertThrows(UndeliveredMessagesException.class,
+					service::flush);
+			assertEquals("Quota", exception.getCause().getMessage());
+			assertEquals(List.of(rejected), exception.getMessages());
+			assertEquals(3, delegate.emails.get());
+		}
+	}
+
+	private static class CountingMessageService implements MessageService {
+
+		final AtomicInteger sms = new AtomicInteger();
+		final AtomicInteger emails = new AtomicInteger();
+		final AtomicInteger flushes = new AtomicInteger();
+
+		@Override
+		public void sendSMS(Mobile mobile, String subject, String body) {
+			sms.incrementAndGet();
+		}
+
+		@Override
+		public void sendEmail(Email email, String subject, String body) {
+			emails.incrementAndGet();
+		}
+
+		@Override
+		public void flush() {
+			flushes.incrementAndGet();
+		}
+	}
+}
@@ -0,0 +1,83 @@
+package com.emiliano.friendreminder.infrastructure.store;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.LocalDate;
+import java.time.MonthDay;
+import java.time.Year;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+
+import com.emiliano.friendreminder.domain.entities.Friend;
+import com.emiliano.friendreminder.domain.entities.FriendBuilder;
+
+/**
+ * This class provides test cases for {@link CompactFriendStore}.
+ *
+ * @author Emiliano Pessoa
+ */
+class CompactFriendStoreTest {
+
+	private static final LocalDate REFERENCE_DATE = LocalDate.of(2023, 1, 1);
+
+	/**
+	 * Tests that the friends read from the store are equal to the friends added.
+	 */
+	@Test
+	void getTest() {
+		List<Friend> friends = IntStream.range(0, 1000).mapToObj(CompactFriendStoreTest::friend).toList();
+		CompactFriendStore store = CompactFriendStore.of(friends.stream());
+
+		assertEquals(1000, store.size());
+		assertEquals(friends.get(7), store.get(7));
+		assertEquals(friends.get(7).getDateOfBirth().getValue(), store.getDateOfBirth(7));
+		try (Stream<Friend> stream = store.stream()) {
+			assertEquals(friends, stream.toList());
+		}
+		assertThrows(IndexOutOfBoundsException.class, () -> store.get(1000));
+
+		Friend accented = new FriendBuilder().setFirstName("José").setLastName("Ção").setEmail("jose@test.com")
+				.setDateOfBirth(LocalDate.of(1980, 1, 1)).setMobile("1234567890").build();
+		assertEquals(accented, store.get(store.add(accented)));
+	}
+
+	/**
+	 * Tests the lookups of the calendar index, including friends born on February
+	 * 29th and friends added after a lookup.
+	 */
+	@Test
+	void findTest() {
+		CompactFriendStore store = new CompactFriendStore();
+		Friend leapling = friend(LocalDate.of(1988, 2, 29), 1);
+		Friend february28 = friend(LocalDate.of(1990, 2, 28), 2);
+		Friend march1 = friend(LocalDate.of(1999, 3, 1), 3);
+		store.add(march1);
+		store.add(leapling);
+		store.add(february28);
+
+		assertEquals(List.of(february28), store.findByCelebrationDay(MonthDay.of(2, 28), Year.of(2020)));
+		assertEquals(List.of(leapling), store.findByCelebrationDay(MonthDay.of(2, 29), Year.of(2020)));
+		assertEquals(List.of(february28, leapling), store.findByCelebrationDay(MonthDay.of(2, 28), Year.of(2023)));
+		assertEquals(List.of(), store.findByCelebrationDay(MonthDay.of(2, 29), Year.of(2023)));
+		assertEquals(List.of(february28, leapling), store.findByMonthOfBirth(2));
+
+		Friend december31 = friend(LocalDate.of(1970, 12, 31), 4);
+		store.add(december31);
+		assertEquals(List.of(december31), store.findByMonthOfBirth(12));
+		assertEquals(List.of(march1), store.findByCelebrationDay(MonthDay.of(3, 1), Year.of(2023)));
+	}
+
+	private static Friend friend(int i) {
+		return friend(REFERENCE_DATE.minusDays(7000 + i % 20000), i);
+	}
+
+	private static Friend friend(LocalDate dateOfBirth, int i) {
+		return new FriendBuilder().setFirstName("First" + i).setLastName("Last" + i)
+				.setEmail("friend" + i + "@test.com").setDateOfBirth(dateOfBirth).setReferenceDate(REFERENCE_DATE)
+				.setMobile(String.valueOf(5511900000000L + i)).build();
+	}
+}
@@ -0,0 +1,91 @@
+package com.emiliano.friendreminder.infrastructure.store;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.MonthDay;
+import java.time.Year;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.emiliano.friendreminder.domain.entities.Friend;
+import com.emiliano.friendreminder.domain.entities.FriendBuilder;
+
+/**
+ * This class provides test cases for {@link FriendSnapshot}.
+ *
+ * @author Emiliano Pessoa
+ */
+class FriendSnapshotTest {
+
+	private Path file;
+	private List<Friend> friends;
+
+	/**
+	 * Creates a snapshot file with sample data.
+	 */
+	@BeforeEach
+	void setUp() throws IOException {
+		friends = List.of(
+				new FriendBuilder().setFirstName("Jhon").setLastName("Doe").setEmail("john.doe@test.com")
+						.setDateOfBirth(LocalDate.of(1988, 2, 29)).setMobile("1234567890").build(),
+				new FriendBuilder().setFirstName("José").setLastName("Ção").setEmail("jose@test.com")
+						.setDateOfBirth(LocalDate.of(1990, 2, 28)).setMobile("+55 11 98765-4321").build(),
+				new FriendBuilder().setFirstName("Grace").setLastName("Kelly").setEmail("grace.kelly@test.com")
+						.setDateOfBirth(LocalDate.of(1999, 3, 1)).setMobile("4444444444").build());
+		file = Files.createTempDirectory("snapshot").resolve("friends.snapshot");
+		file.toFile().deleteOnExit();
+		FriendSnapshot.write(file, CompactFriendStore.of(friends.stream()), 1234, 42);
+	}
+
+	/**
+	 * Tests that a snapshot returns the friends that were written.
+	 */
+	@Test
+	void readTest() throws IOException {
+		FriendSnapshot snapshot = FriendSnapshot.open(file);
+		assertEquals(1234, snapshot.getCreatedAt());
+		assertEquals(42, snapshot.getSourceVersion());
+		assertEquals(3, snapshot.size());
+		try (Stream<Friend> stream = snapshot.stream()) {
+			assertEquals(friends, stream.toList());
+		}
+		assertEquals(List.of(friends.get(1), friends.get(0)),
+				snapshot.findByCelebrationDay(MonthDay.of(2, 28), Year.of(2023)));
+		assertEquals(List.of(friends.get(0)), snapshot.findByCelebrationDay(MonthDay.of(2, 29), Year.of(2024)));
+		assertEquals(List.of(friends.get(2)), snapshot.findByMonthOfBirth(3));
+		assertEquals(List.of(), snapshot.findByMonthOfBirth(4));
+	}
+
+	/**
+	 * Tests that corrupted files and files of other versions are rejected.
+	 */
+	@Test
+	void invalidTest() throws IOException {
+		// Change the last byte of the arena.
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			channel.write(ByteBuffer.wrap(new byte[] { 'x' }), channel.size() - 1);
+		}
+		assertThrows(IOException.class, () -> FriendSnapshot.open(file));
+
+		// Change the version.
+		FriendSnapshot.write(file, CompactFriendStore.of(friends.stream()), 1234, 42);
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			channel.write(ByteBuffer.allocate(4).putInt(0, FriendSnapshot.VERSION + 1), 4);
+		}
+		assertThrows(IOException.class, () -> FriendSnapshot.open(file));
+
+		Files.write(file, new byte[] { 1, 2, 3 });
+		assertThrows(IOException.class, () -> FriendSnapshot.open(file));
+	}
+}
@@ -0,0 +1,41 @@
+package com.emiliano.friendreminder.infrastructure.templates;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDate;
+import java.util.Locale;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.emiliano.friendreminder.domain.entities.Friend;
+import com.emiliano.friendreminder.domain.entities.FriendBuilder;
+
+/**
+ * This class provides test cases for {@link CallingCodeLocales}.
+ *
+ * @author Emiliano Pessoa
+ */
+class CallingCodeLocalesTest {
+
+	/**
+	 * Tests the locales of friends with and without a known calling code.
+	 */
+	@Test
+	void localeOfTest() {
+		CallingCodeLocales locales = CallingCodeLocales.withDefaults(Map.of("1", Locale.CANADA_FRENCH), Locale.ROOT);
+
+		assertEquals(Locale.forLanguageTag("pt-BR"), locales.localeOf(friend("+55 11 987654321")));
+		assertEquals(Locale.forLanguageTag("pt-PT"), locales.localeOf(friend("00351912345678")));
+		assertEquals(Locale.forLanguageTag("es-AR"), locales.localeOf(friend("+54 9 11 12345678")));
+		assertEquals(Locale.CANADA_FRENCH, locales.localeOf(friend("+1 514 5550100")));
+		assertEquals(Locale.ROOT, locales.localeOf(friend("+999 123456")));
+		assertEquals(Locale.ROOT, locales.localeOf(friend("11987654321")));
+	}
+
+	private static Friend friend(String mobile) {
+		return new FriendBuilder().setFirstName("John").setLastName("Doe").setEmail("john.doe@test.com")
+				.setDateOfBirth(LocalDate.of(1985, 1, 1)).setMobile(mobile).build();
+	}
+
+}
@@ -0,0 +1,61 @@
+package com.emiliano.friendreminder.infrastructure.templates;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Locale;
+
+import org.junit.jupiter.api.Test;
+
+import com.emiliano.friendreminder.domain.entities.Friend;
+import com.emiliano.friendreminder.domain.entities.FriendBuilder;
+import com.emiliano.friendreminder.domain.services.templates.MessageKind;
+import com.emiliano.friendreminder.domain.services.templates.MessageTemplates;
+import com.emiliano.friendreminder.domain.valueobjects.Channel;
+
+/**
+ * This class provides test cases for {@link MessageTemplateBundles}.
+ *
+ * @author Emiliano Pessoa
+ */
+class MessageTemplateBundlesTest {
+
+	/**
+	 * Tests that the bundles shipped with the application are loaded and rendered
+	 * in UTF-8.
+	 */
+	@Test
+	void loadTest() {
+		MessageTemplates templates = MessageTemplateBundles.load("templates/messages",
+				List.of(new Locale("pt"), new Locale("es")));
+		Friend recipient = new FriendBuilder().setFirstName("João").setLastName("Silva")
+				.setEmail("joao.silva@test.com").setDateOfBirth(LocalDate.of(1985, 1, 1)).setMobile("+5511987654321")
+				.build();
+		Friend friend = new FriendBuilder().setFirstName("María").setLastName("García")
+				.setEmail("maria.garcia@test.com").setDateOfBirth(LocalDate.of(1990, 1, 1)).setMobile("+34612345678")
+				.build();
+		StringBuilder buffer = new StringBuilder();
+
+		assertEquals("Feliz aniversário, João!", templates.getBody(MessageKind.BIRTHDAY, Channel.SMS,
+				new Locale("pt", "BR")).render(buffer, recipient, List.of()));
+		assertEquals("Olá João,\nHoje é o aniversário de María García. Não se esqueça de mandar uma mensagem!",
+				templates.getBody(MessageKind.REMINDER, Channel.EMAIL, new Locale("pt"))
+						.render(buffer, recipient, List.of(friend)));
+		assertEquals("¡Feliz cumpleaños!",
+				templates.getSubject(MessageKind.BIRTHDAY, new Locale("es", "MX")).render(buffer, recipient, List.of()));
+		assertEquals("Happy birthday!",
+				templates.getSubject(MessageKind.BIRTHDAY, Locale.FRENCH).render(buffer, recipient, List.of()));
+	}
+
+	/**
+	 * Tests that a missing bundle is rejected.
+	 */
+	@Test
+	void missingBundleTest() {
+		assertThrows(IllegalArgumentException.class,
+				() -> MessageTemplateBundles.load("templates/messages", List.of(Locale.JAPANESE)));
+	}
+
+}
@@ -0,0 +1,104 @@
+package com.emiliano.friendreminder.infrastructure.throttling;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+
+import com.emiliano.friendreminder.domain.services.MessageService;
+import com.emiliano.friendreminder.domain.valueobjects.Email;
+import com.emiliano.friendreminder.domain.valueobjects.Mobile;
+
+/**
+ * A local fake of an SMS and email gateway with a per-second quota, running on
+ * a virtual clock that only moves when a caller sleeps, so tests of the
+ * throttling are fast and deterministic. The threads waiting on a condition do
+ * not move the clock: they wait until the clock was moved by another thread.
+ *
+ * Like a real gateway, it rejects the messages of a channel that exceed its
+ * quota in the last second. The accepted messages are recorded with the time they were sent.
+ *
+ * @author Emiliano Pessoa
+ */
+class FakeGateway implements MessageService, Ticker {
+
+	private static final long SECOND = 1_000_000_000L;
+
+	/**
+	 * A message accepted by the gateway.
+	 *
+	 * @param time        The virtual time the message was sent, in nanoseconds.
+	 * @param destination The mobile number or email address of the message.
+	 */
+	record Sent(long time, String destination) {
+	}
+
+	private final int quotaPerSecond;
+	private final List<Sent> sent = new ArrayList<>();
+	private final Deque<Long> lastSecondSms = new ArrayDeque<>();
+	private final Deque<Long> lastSecondEmails = new ArrayDeque<>();
+	private long now = 0;
+	private int rejected = 0;
+
+	/**
+	 * Creates a new gateway.
+	 *
+	 * @param quotaPerSecond The number of messages of each channel accepted in any
+	 *                       second.
+	 */
+	FakeGateway(int quotaPerSecond) {
+		this.quotaPerSecond = quotaPerSecond;
+	}
+
+	@Override
+	public void sendSMS(Mobile mobile, String subject, String body) {
+		accept(lastSecondSms, mobile.getValue());
+	}
+
+	@Override
+	public void sendEmail(Email email, String subject, String body) {
+		accept(lastSecondEmails, email.getValue());
+	}
+
+	@Override
+	public synchronized long nanoTime() {
+		return now;
+	}
+
+	@Override
+	public synchronized void sleep(long nanos) {
+		now += nanos;
+	}
+
+	/**
+	 * Waits for a millisecond of real time at most, since the time a thread waits
+	 * on a condition passes when the test moves the clock.
+	 */
+	@Override
+	public void await(Condition condition, long nanos) throws InterruptedException {
+		condition.await(1, TimeUnit.MILLISECONDS);
+	}
+
+	synchronized List<Sent> getSent() {
+		return List.copyOf(sent);
+	}
+
+	synchronized int getRejected() {
+		return rejected;
+	}
+
+	private synchronized void accept(Deque<Long> lastSecond, String destination) {
+		while (!lastSecond.isEmpty() && lastSecond.peekFirst() <= now - SECOND) {
+			lastSecond.removeFirst();
+		}
+		if (lastSecond.size() >= quotaPerSecond) {
+			rejected++;
+			throw new IllegalStateException("Quota exceeded for " + destination);
+		}
+		lastSecond.addLast(now);
+		sent.add(new Sent(now, destination));
+	}
+
+}
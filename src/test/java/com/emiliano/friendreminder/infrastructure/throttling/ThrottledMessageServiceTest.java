@@ -0,0 +1,226 @@
+package com.emiliano.friendreminder.infrastructure.throttling;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.emiliano.friendreminder.domain.services.UndeliveredMessagesException;
+import com.emiliano.friendreminder.domain.services.UndeliveredMessagesException.Envelope;
+import com.emiliano.friendreminder.domain.valueobjects.Channel;
+import com.emiliano.friendreminder.domain.valueobjects.Email;
+import com.emiliano.friendreminder.domain.valueobjects.Mobile;
+
+/**
+ * This class provides test cases for {@link ThrottledMessageService}, sending
+ * the messages to a {@link FakeGateway}.
+ *
+ * The delayed messages are sent by the workers of the service once the test
+ * moves the clock of the gateway past their time.
+ *
+ * @author Emiliano Pessoa
+ */
+class ThrottledMessageServiceTest {
+
+	private static final long MILLISECOND = 1_000_000L;
+
+	/**
+	 * Tests that a burst sent without throttling is rejected by the gateway.
+	 */
+	@Test
+	void unthrottledTest() {
+		FakeGateway gateway = new FakeGateway(10);
+		try (ThrottledMessageService service = new ThrottledMessageService(gateway, RateLimit.UNLIMITED,
+				RateLimit.UNLIMITED, Map.of(), Map.of(), 10, gateway)) {
+
+			for (int i = 0; i < 10; i++) {
+				service.sendSMS(new Mobile("+5511987654321"), "", "Hi");
+			}
+			assertThrows(IllegalStateException.class,
+					() -> service.sendSMS(new Mobile("+5511987654321"), "", "Hi"));
+			assertEquals(0, gateway.nanoTime());
+		}
+	}
+
+	/**
+	 * Tests that the messages of a channel are paced at its rate, so the gateway
+	 * accepts all of them.
+	 */
+	@Test
+	void channelTest() {
+		FakeGateway gateway = new FakeGateway(10);
+		try (ThrottledMessageService service = new ThrottledMessageService(gateway, new RateLimit(10, 1),
+				RateLimit.UNLIMITED, Map.of(), Map.of(), 10, gateway)) {
+
+			for (int i = 0; i < 50; i++) {
+				service.sendSMS(new Mobile("+5511987654321"), "", "Hi");
+			}
+
+			List<FakeGateway.Sent> sent = gateway.getSent();
+			assertEquals(50, sent.size());
+			assertEquals(0, gateway.getRejected());
+			for (int i = 1; i < sent.size(); i++) {
+				assertEquals(100 * MILLISECOND, sent.get(i).time() - sent.get(i - 1).time());
+			}
+
+			// The email channel is not throttled.
+			long now = gateway.nanoTime();
+			service.sendEmail(new Email("john.doe@test.com"), "Hi", "Hi");
+			assertEquals(now, gateway.nanoTime());
+		}
+	}
+
+	/**
+	 * Tests that the messages to a domain or a calling code with a limit are
+	 * delayed to that limit without holding up the caller, so the other
+	 * destinations are only paced by their channel, and that the workers send the
+	 * delayed messages when they are due.
+	 */
+	@Test
+	void destinationTest() throws InterruptedException {
+		FakeGateway gateway = new FakeGateway(1000);
+		try (ThrottledMessageService service = new ThrottledMessageService(gateway, RateLimit.UNLIMITED,
+				new RateLimit(100, 1), Map.of("55", new RateLimit(2, 1)), Map.of("Slow.com", new RateLimit(5, 1)),
+				10, gateway)) {
+
+			for (int i = 0; i < 4; i++) {
+				service.sendEmail(new Email("friend" + i + "@slow.com"), "Hi", "Hi");
+				service.sendEmail(new Email("friend" + i + "@fast.com"), "Hi", "Hi");
+			}
+			// Only the first message to the slow domain was sent.
+			assertEquals(List.of("friend0@slow.com", "friend0@fast.com", "friend1@fast.com", "friend2@fast.com",
+					"friend3@fast.com"), gateway.getSent().stream().map(FakeGateway.Sent::destination).toList());
+			assertEquals(40 * MILLISECOND, gateway.nanoTime());
+			assertEquals(3, service.getDelayed());
+
+			for (int i = 1; i < 4; i++) {
+				gateway.sleep(200 * i * MILLISECOND - gateway.nanoTime());
+				awaitSent(gateway, 5 + i);
+			}
+			service.flush();
+			List<FakeGateway.Sent> sent = gateway.getSent();
+			assertEquals(List.of(0L, 10L, 20L, 30L, 40L, 200L, 400L, 600L),
+					sent.stream().map(s -> s.time() / MILLISECOND).toList());
+			assertEquals("friend3@slow.com", sent.get(7).destination());
+			assertEquals(0, service.getDelayed());
+
+			long start = gateway.nanoTime();
+			service.sendSMS(new Mobile("+55 11 987654321"), "", "Hi");
+			service.sendSMS(new Mobile("005511987654322"), "", "Hi");
+			service.sendSMS(new Mobile("+351 912345678"), "", "Hi");
+			assertEquals(start, gateway.nanoTime());
+			assertEquals(new FakeGateway.Sent(start, "+351 912345678"), gateway.getSent().get(9));
+
+			gateway.sleep(500 * MILLISECOND);
+			service.flush();
+			assertEquals(new FakeGateway.Sent(start + 500 * MILLISECOND, "005511987654322"),
+					gateway.getSent().get(10));
+		}
+	}
+
+	/**
+	 * Tests that the messages of a batch whose destination has a token are sent
+	 * together, paced by their channel, and that the others are delayed.
+	 */
+	@Test
+	void batchTest() {
+		FakeGateway gateway = new FakeGateway(1000);
+		try (ThrottledMessageService service = new ThrottledMessageService(gateway, RateLimit.UNLIMITED,
+				new RateLimit(100, 1), Map.of(), Map.of("slow.com", new RateLimit(5, 1)), 10, gateway)) {
+
+			service.sendBatch(List.of(new Envelope(Channel.EMAIL, "friend0@slow.com", "Hi", "Hi"),
+					new Envelope(Channel.EMAIL, "friend1@slow.com", "Hi", "Hi"),
+					new Envelope(Channel.EMAIL, "friend0@fast.com", "Hi", "Hi")));
+			// The batch waits for the tokens of the channel of its two messages.
+			assertEquals(List.of(new FakeGateway.Sent(10 * MILLISECOND, "friend0@slow.com"),
+					new FakeGateway.Sent(10 * MILLISECOND, "friend0@fast.com")), gateway.getSent());
+
+			gateway.sleep(190 * MILLISECOND);
+			service.flush();
+			assertEquals(new FakeGateway.Sent(200 * MILLISECOND, "friend1@slow.com"), gateway.getSent().get(2));
+		}
+	}
+
+	/**
+	 * Tests that the caller is blocked while the delay queue of a channel is full,
+	 * until the worker sends a delayed message, and that closing the service
+	 * discards the delayed messages.
+	 */
+	@Test
+	void delayCapacityTest() throws InterruptedException {
+		FakeGateway gateway = new FakeGateway(1000);
+		ThrottledMessageService service = new ThrottledMessageService(gateway, RateLimit.UNLIMITED,
+				RateLimit.UNLIMITED, Map.of(), Map.of("slow.com", new RateLimit(5, 1)), 2, gateway);
+		try {
+			CountDownLatch delayed = new CountDownLatch(1);
+			Thread producer = new Thread(() -> {
+				// One message is sent, two are delayed and the last one must wait.
+				for (int i = 0; i < 4; i++) {
+					service.sendEmail(new Email("friend" + i + "@slow.com"), "Hi", "Hi");
+				}
+				delayed.countDown();
+			});
+			producer.start();
+			assertFalse(delayed.await(200, TimeUnit.MILLISECONDS));
+			assertEquals(2, service.getDelayed());
+
+			// The email channel is not blocked for the other destinations.
+			service.sendEmail(new Email("friend0@fast.com"), "Hi", "Hi");
+
+			gateway.sleep(200 * MILLISECOND);
+			assertTrue(delayed.await(5, TimeUnit.SECONDS));
+			assertEquals(List.of("friend0@slow.com", "friend0@fast.com", "friend1@slow.com"),
+					gateway.getSent().stream().map(FakeGateway.Sent::destination).toList());
+			assertEquals(2, service.getDelayed());
+		} finally {
+			service.close();
+		}
+		assertEquals(0, service.getDelayed());
+		service.flush();
+		assertEquals(3, gateway.getSent().size());
+	}
+
+	/**
+	 * Tests that a delayed message rejected by the gateway is reported by flush,
+	 * and not by the call that sent it.
+	 */
+	@Test
+	void delayedFailureTest() {
+		FakeGateway gateway = new FakeGateway(1);
+		try (ThrottledMessageService service = new ThrottledMessageService(gateway, RateLimit.UNLIMITED,
+				RateLimit.UNLIMITED, Map.of(), Map.of("slow.com", new RateLimit(2, 1)), 10, gateway)) {
+
+			service.sendEmail(new Email("friend0@slow.com"), "Hi", "Hi");
+			service.sendEmail(new Email("friend1@slow.com"), "Hi", "Hello");
+			// The delayed message is rejected, since the quota of that second was used.
+			gateway.sleep(600 * MILLISECOND);
+
+			UndeliveredMessagesException exception = assertThrows(UndeliveredMessagesException.class,
+					service::flush);
+			assertEquals(List.of(new Envelope(Channel.EMAIL, "friend1@slow.com", "Hi", "Hello")),
+					exception.getMessages());
+			assertEquals(1, gateway.getRejected());
+
+			// The failures are reported only once.
+			service.flush();
+		}
+	}
+
+	/**
+	 * Waits until the gateway received some messages, in real time.
+	 */
+	private static void awaitSent(FakeGateway gateway, int count) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 5000;
+		while (gateway.getSent().size() + gateway.getRejected() < count && System.currentTimeMillis() < deadline) {
+			Thread.sleep(1);
+		}
+	}
+
+}
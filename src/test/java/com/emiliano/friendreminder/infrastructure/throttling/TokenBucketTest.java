@@ -0,0 +1,51 @@
+package com.emiliano.friendreminder.infrastructure.throttling;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * This class provides test cases for {@link TokenBucket}.
+ *
+ * @author Emiliano Pessoa
+ */
+class TokenBucketTest {
+
+	private static final long MILLISECOND = 1_000_000L;
+
+	/**
+	 * Tests that a full bucket lets a burst through, and then spaces the tokens
+	 * evenly at the rate.
+	 */
+	@Test
+	void reserveTest() {
+		TokenBucket bucket = new TokenBucket(new RateLimit(10, 3));
+		long now = 5_000 * MILLISECOND;
+
+		assertEquals(0, bucket.reserve(now));
+		assertEquals(0, bucket.reserve(now));
+		assertEquals(0, bucket.reserve(now));
+		assertEquals(100 * MILLISECOND, bucket.reserve(now));
+		assertEquals(200 * MILLISECOND, bucket.reserve(now));
+
+		// The tokens earned while idle are available again, up to the burst.
+		now += 10_000 * MILLISECOND;
+		assertEquals(0, bucket.reserve(now));
+		assertEquals(0, bucket.reserve(now));
+		assertEquals(0, bucket.reserve(now));
+		assertEquals(100 * MILLISECOND, bucket.reserve(now));
+		assertEquals(50 * MILLISECOND, bucket.reserve(now + 150 * MILLISECOND));
+	}
+
+	/**
+	 * Tests that a bucket needs a limited rate.
+	 */
+	@Test
+	void unlimitedTest() {
+		assertThrows(IllegalArgumentException.class, () -> new TokenBucket(RateLimit.UNLIMITED));
+		assertThrows(IllegalArgumentException.class, () -> new RateLimit(-1, 1));
+		assertThrows(IllegalArgumentException.class, () -> new RateLimit(1, 0));
+	}
+
+}